@@ -2,7 +2,6 @@ package net.sf.openrocket.aerodynamics;
 
 import static net.sf.openrocket.util.MathUtil.pow2;
 
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -11,8 +10,6 @@ import java.util.Map;
 import net.sf.openrocket.aerodynamics.barrowman.FinSetCalc;
 import net.sf.openrocket.aerodynamics.barrowman.RocketComponentCalc;
 import net.sf.openrocket.rocketcomponent.Configuration;
-import net.sf.openrocket.rocketcomponent.ExternalComponent;
-import net.sf.openrocket.rocketcomponent.ExternalComponent.Finish;
 import net.sf.openrocket.rocketcomponent.FinSet;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
 import net.sf.openrocket.rocketcomponent.SymmetricComponent;
@@ -38,6 +35,10 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	private double cacheDiameter = -1;
 	private double cacheLength = -1;
 	
+	private BarrowmanDragModel dragModel = null;
+	private Configuration dragModelConfiguration = null;
+	private int dragModelModID = -1;
+	
 	
 	
 	public BarrowmanCalculator() {
@@ -294,207 +295,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 */
 	private double calculateFrictionDrag(Configuration configuration, FlightConditions conditions,
 			Map<RocketComponent, AerodynamicForces> map, WarningSet set) {
-		double c1 = 1.0, c2 = 1.0;
-		
-		double mach = conditions.getMach();
-		double Re;
-		double Cf;
-		
-		checkCalcMap(configuration);
-		
-		Re = conditions.getVelocity() * configuration.getLength() /
-				conditions.getAtmosphericConditions().getKinematicViscosity();
-		
-		// Calculate the skin friction coefficient (assume non-roughness limited)
-		if (configuration.getRocket().isPerfectFinish()) {
-			
-			// Assume partial laminar layer.  Roughness-limitation is checked later.
-			if (Re < 1e4) {
-				// Too low, constant
-				Cf = 1.33e-2;
-			} else if (Re < 5.39e5) {
-				// Fully laminar
-				Cf = 1.328 / MathUtil.safeSqrt(Re);
-			} else {
-				// Transitional
-				Cf = 1.0 / pow2(1.50 * Math.log(Re) - 5.6) - 1700 / Re;
-			}
-			
-			// Compressibility correction
-			
-			if (mach < 1.1) {
-				// Below Re=1e6 no correction
-				if (Re > 1e6) {
-					if (Re < 3e6) {
-						c1 = 1 - 0.1 * pow2(mach) * (Re - 1e6) / 2e6; // transition to turbulent
-					} else {
-						c1 = 1 - 0.1 * pow2(mach);
-					}
-				}
-			}
-			if (mach > 0.9) {
-				if (Re > 1e6) {
-					if (Re < 3e6) {
-						c2 = 1 + (1.0 / Math.pow(1 + 0.045 * pow2(mach), 0.25) - 1) * (Re - 1e6) / 2e6;
-					} else {
-						c2 = 1.0 / Math.pow(1 + 0.045 * pow2(mach), 0.25);
-					}
-				}
-			}
-			
-			// Applying continuously around Mach 1
-			if (mach < 0.9) {
-				Cf *= c1;
-			} else if (mach < 1.1) {
-				Cf *= (c2 * (mach - 0.9) / 0.2 + c1 * (1.1 - mach) / 0.2);
-			} else {
-				Cf *= c2;
-			}
-			
-			
-		} else {
-			
-			// Assume fully turbulent.  Roughness-limitation is checked later.
-			if (Re < 1e4) {
-				// Too low, constant
-				Cf = 1.48e-2;
-			} else {
-				// Turbulent
-				Cf = 1.0 / pow2(1.50 * Math.log(Re) - 5.6);
-			}
-			
-			// Compressibility correction
-			
-			if (mach < 1.1) {
-				c1 = 1 - 0.1 * pow2(mach);
-			}
-			if (mach > 0.9) {
-				c2 = 1 / Math.pow(1 + 0.15 * pow2(mach), 0.58);
-			}
-			// Applying continuously around Mach 1
-			if (mach < 0.9) {
-				Cf *= c1;
-			} else if (mach < 1.1) {
-				Cf *= c2 * (mach - 0.9) / 0.2 + c1 * (1.1 - mach) / 0.2;
-			} else {
-				Cf *= c2;
-			}
-			
-		}
-		
-		// Roughness-limited value correction term
-		double roughnessCorrection;
-		if (mach < 0.9) {
-			roughnessCorrection = 1 - 0.1 * pow2(mach);
-		} else if (mach > 1.1) {
-			roughnessCorrection = 1 / (1 + 0.18 * pow2(mach));
-		} else {
-			c1 = 1 - 0.1 * pow2(0.9);
-			c2 = 1.0 / (1 + 0.18 * pow2(1.1));
-			roughnessCorrection = c2 * (mach - 0.9) / 0.2 + c1 * (1.1 - mach) / 0.2;
-		}
-		
-		
-		
-		/*
-		 * Calculate the friction drag coefficient.
-		 * 
-		 * The body wetted area is summed up and finally corrected with the rocket
-		 * fineness ratio (calculated in the same iteration).  The fins are corrected
-		 * for thickness as we go on.
-		 */
-		
-		double finFriction = 0;
-		double bodyFriction = 0;
-		double maxR = 0, len = 0;
-		
-		double[] roughnessLimited = new double[Finish.values().length];
-		Arrays.fill(roughnessLimited, Double.NaN);
-		
-		for (RocketComponent c : configuration) {
-			
-			// Consider only SymmetricComponents and FinSets:
-			if (!(c instanceof SymmetricComponent) &&
-					!(c instanceof FinSet))
-				continue;
-			
-			// Calculate the roughness-limited friction coefficient
-			Finish finish = ((ExternalComponent) c).getFinish();
-			if (Double.isNaN(roughnessLimited[finish.ordinal()])) {
-				roughnessLimited[finish.ordinal()] = 0.032 * Math.pow(finish.getRoughnessSize() / configuration.getLength(), 0.2) *
-						roughnessCorrection;
-			}
-			
-			/*
-			 * Actual Cf is maximum of Cf and the roughness-limited value.
-			 * For perfect finish require additionally that Re > 1e6
-			 */
-			double componentCf;
-			if (configuration.getRocket().isPerfectFinish()) {
-				
-				// For perfect finish require Re > 1e6
-				if ((Re > 1.0e6) && (roughnessLimited[finish.ordinal()] > Cf)) {
-					componentCf = roughnessLimited[finish.ordinal()];
-				} else {
-					componentCf = Cf;
-				}
-				
-			} else {
-				
-				// For fully turbulent use simple max
-				componentCf = Math.max(Cf, roughnessLimited[finish.ordinal()]);
-				
-			}
-			
-			
-			
-			// Calculate the friction drag:
-			if (c instanceof SymmetricComponent) {
-				
-				SymmetricComponent s = (SymmetricComponent) c;
-				
-				bodyFriction += componentCf * s.getComponentWetArea();
-				
-				if (map != null) {
-					// Corrected later
-					map.get(c).setFrictionCD(componentCf * s.getComponentWetArea()
-							/ conditions.getRefArea());
-				}
-				
-				double r = Math.max(s.getForeRadius(), s.getAftRadius());
-				if (r > maxR)
-					maxR = r;
-				len += c.getLength();
-				
-			} else if (c instanceof FinSet) {
-				
-				FinSet f = (FinSet) c;
-				double mac = ((FinSetCalc) calcMap.get(c)).getMACLength();
-				double cd = componentCf * (1 + 2 * f.getThickness() / mac) *
-						2 * f.getFinCount() * f.getFinArea();
-				finFriction += cd;
-				
-				if (map != null) {
-					map.get(c).setFrictionCD(cd / conditions.getRefArea());
-				}
-				
-			}
-			
-		}
-		// fB may be POSITIVE_INFINITY, but that's ok for us
-		double fB = (len + 0.0001) / maxR;
-		double correction = (1 + 1.0 / (2 * fB));
-		
-		// Correct body data in map
-		if (map != null) {
-			for (RocketComponent c : map.keySet()) {
-				if (c instanceof SymmetricComponent) {
-					map.get(c).setFrictionCD(map.get(c).getFrictionCD() * correction);
-				}
-			}
-		}
-		
-		return (finFriction + correction * bodyFriction) / conditions.getRefArea();
+		return getDragModel(configuration).calculateFrictionCD(conditions, map);
 	}
 	
 	/**
@@ -506,6 +307,23 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 			buildCalcMap(configuration);
 	}
 	
+	/**
+	 * Return the drag model of the configuration, building it if the configuration
+	 * has changed since the previous call.
+	 * 
+	 * @param configuration the rocket configuration
+	 */
+	private BarrowmanDragModel getDragModel(Configuration configuration) {
+		checkCalcMap(configuration);
+		if (dragModel == null || dragModelConfiguration != configuration ||
+				dragModelModID != configuration.getModID()) {
+			dragModel = new BarrowmanDragModel(configuration, calcMap);
+			dragModelConfiguration = configuration;
+			dragModelModID = configuration.getModID();
+		}
+		return dragModel;
+	}
+	
 	//TODO: LOW: clarify what map is doing here, or use it
 	/**
 	 * Calculation of drag coefficient due to pressure
@@ -520,19 +338,15 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 			Map<RocketComponent, AerodynamicForces> map, WarningSet warnings) {
 		
 		double stagnation, base, total;
-		double radius = 0;
 		
-		checkCalcMap(configuration);
+		BarrowmanDragModel model = getDragModel(configuration);
 		
 		stagnation = calculateStagnationCD(conditions.getMach());
 		base = calculateBaseCD(conditions.getMach());
 		
+		// Pressure fore drag
 		total = 0;
-		for (RocketComponent c : configuration) {
-			if (!c.isAerodynamic())
-				continue;
-			
-			// Pressure fore drag
+		for (RocketComponent c : model.getAerodynamicComponents()) {
 			double cd = calcMap.get(c).calculatePressureDragForce(conditions, stagnation, base,
 					warnings);
 			total += cd;
@@ -540,25 +354,11 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 			if (map != null) {
 				map.get(c).setPressureCD(cd);
 			}
-			
-			
-			// Stagnation drag
-			if (c instanceof SymmetricComponent) {
-				SymmetricComponent s = (SymmetricComponent) c;
-				
-				if (radius < s.getForeRadius()) {
-					double area = Math.PI * (pow2(s.getForeRadius()) - pow2(radius));
-					cd = stagnation * area / conditions.getRefArea();
-					total += cd;
-					if (map != null) {
-						map.get(c).setPressureCD(map.get(c).getPressureCD() + cd);
-					}
-				}
-				
-				radius = s.getAftRadius();
-			}
 		}
 		
+		// Stagnation drag
+		total += model.calculateStagnationCD(conditions, stagnation, map);
+		
 		return total;
 	}
 	
@@ -574,45 +374,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 */
 	private double calculateBaseDrag(Configuration configuration, FlightConditions conditions,
 			Map<RocketComponent, AerodynamicForces> map, WarningSet warnings) {
-		
-		double base, total;
-		double radius = 0;
-		RocketComponent prevComponent = null;
-		
-		checkCalcMap(configuration);
-		
-		base = calculateBaseCD(conditions.getMach());
-		total = 0;
-		
-		for (RocketComponent c : configuration) {
-			if (!(c instanceof SymmetricComponent))
-				continue;
-			
-			SymmetricComponent s = (SymmetricComponent) c;
-			
-			if (radius > s.getForeRadius()) {
-				double area = Math.PI * (pow2(radius) - pow2(s.getForeRadius()));
-				double cd = base * area / conditions.getRefArea();
-				total += cd;
-				if (map != null) {
-					map.get(prevComponent).setBaseCD(cd);
-				}
-			}
-			
-			radius = s.getAftRadius();
-			prevComponent = c;
-		}
-		
-		if (radius > 0) {
-			double area = Math.PI * pow2(radius);
-			double cd = base * area / conditions.getRefArea();
-			total += cd;
-			if (map != null) {
-				map.get(prevComponent).setBaseCD(cd);
-			}
-		}
-		
-		return total;
+		return getDragModel(configuration).calculateBaseCD(conditions, calculateBaseCD(conditions.getMach()), map);
 	}
 	
 	
@@ -768,6 +530,8 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 		calcMap = null;
 		cacheDiameter = -1;
 		cacheLength = -1;
+		dragModel = null;
+		dragModelConfiguration = null;
 	}
 	
 	/**
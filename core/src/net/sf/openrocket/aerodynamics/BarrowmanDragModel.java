@@ -0,0 +1,340 @@
+package net.sf.openrocket.aerodynamics;
+
+import static net.sf.openrocket.util.MathUtil.pow2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.openrocket.aerodynamics.barrowman.FinSetCalc;
+import net.sf.openrocket.aerodynamics.barrowman.RocketComponentCalc;
+import net.sf.openrocket.rocketcomponent.Configuration;
+import net.sf.openrocket.rocketcomponent.ExternalComponent;
+import net.sf.openrocket.rocketcomponent.ExternalComponent.Finish;
+import net.sf.openrocket.rocketcomponent.FinSet;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.rocketcomponent.SymmetricComponent;
+import net.sf.openrocket.util.MathUtil;
+
+/**
+ * The geometry dependent part of the Barrowman friction, pressure and base drag of
+ * a rocket configuration.  The wetted areas per surface finish, the fineness ratio
+ * correction and the stagnation and base areas are summed up once when the model is
+ * created, so that only the Reynolds number and Mach number dependent terms are
+ * evaluated for each flight condition.
+ * <p>
+ * The model is immutable and may be shared between threads.  It does not follow
+ * changes to the rocket, a new model must be created when the configuration changes.
+ */
+final class BarrowmanDragModel {
+
+	private static final int FINISHES = Finish.values().length;
+
+	private final double length;
+	private final boolean perfectFinish;
+
+	/** The roughness-limited friction coefficient per finish without the Mach correction, NaN if unused. */
+	private final double[] roughnessLimited = new double[FINISHES];
+	/** Wetted area of the body components per finish. */
+	private final double[] bodyArea = new double[FINISHES];
+	/** Thickness corrected wetted area of the fins per finish. */
+	private final double[] finArea = new double[FINISHES];
+	/** Fineness ratio correction of the body friction. */
+	private final double correction;
+
+	/** The components having friction drag, their finish ordinals and corrected friction areas. */
+	private final RocketComponent[] frictionComponents;
+	private final int[] frictionFinish;
+	private final double[] frictionArea;
+
+	/** The aerodynamic components, their stagnation areas and base areas. */
+	private final RocketComponent[] aerodynamicComponents;
+	private final double[] stagnationArea;
+	private final double[] baseArea;
+	private final double totalStagnationArea;
+	private final double totalBaseArea;
+
+
+	/**
+	 * Build the drag model of a configuration.
+	 *
+	 * @param configuration	the rocket configuration.
+	 * @param calcMap		the component calculators, used for the fin mean aerodynamic chords.
+	 */
+	BarrowmanDragModel(Configuration configuration, Map<RocketComponent, RocketComponentCalc> calcMap) {
+		length = configuration.getLength();
+		perfectFinish = configuration.getRocket().isPerfectFinish();
+		Arrays.fill(roughnessLimited, Double.NaN);
+
+		List<RocketComponent> friction = new ArrayList<RocketComponent>();
+		List<RocketComponent> aerodynamic = new ArrayList<RocketComponent>();
+		for (RocketComponent c : configuration) {
+			if (c.isAerodynamic()) {
+				aerodynamic.add(c);
+			}
+			if (c instanceof SymmetricComponent || c instanceof FinSet) {
+				friction.add(c);
+			}
+		}
+
+		// Friction areas, the body areas are corrected with the fineness ratio afterwards
+		frictionComponents = friction.toArray(new RocketComponent[friction.size()]);
+		frictionFinish = new int[frictionComponents.length];
+		frictionArea = new double[frictionComponents.length];
+
+		double maxR = 0, len = 0;
+		for (int i = 0; i < frictionComponents.length; i++) {
+			RocketComponent c = frictionComponents[i];
+			Finish finish = ((ExternalComponent) c).getFinish();
+			int n = finish.ordinal();
+			frictionFinish[i] = n;
+			if (Double.isNaN(roughnessLimited[n])) {
+				roughnessLimited[n] = 0.032 * Math.pow(finish.getRoughnessSize() / length, 0.2);
+			}
+
+			if (c instanceof SymmetricComponent) {
+				SymmetricComponent s = (SymmetricComponent) c;
+				frictionArea[i] = s.getComponentWetArea();
+				bodyArea[n] += frictionArea[i];
+
+				double r = Math.max(s.getForeRadius(), s.getAftRadius());
+				if (r > maxR)
+					maxR = r;
+				len += c.getLength();
+			} else {
+				FinSet f = (FinSet) c;
+				double mac = ((FinSetCalc) calcMap.get(c)).getMACLength();
+				frictionArea[i] = (1 + 2 * f.getThickness() / mac) * 2 * f.getFinCount() * f.getFinArea();
+				finArea[n] += frictionArea[i];
+			}
+		}
+
+		// fB may be POSITIVE_INFINITY, but that's ok for us
+		double fB = (len + 0.0001) / maxR;
+		correction = (1 + 1.0 / (2 * fB));
+		for (int i = 0; i < frictionComponents.length; i++) {
+			if (frictionComponents[i] instanceof SymmetricComponent) {
+				frictionArea[i] *= correction;
+			}
+		}
+
+		// Stagnation areas at forward facing steps and base areas at aft facing steps
+		aerodynamicComponents = aerodynamic.toArray(new RocketComponent[aerodynamic.size()]);
+		stagnationArea = new double[aerodynamicComponents.length];
+		baseArea = new double[aerodynamicComponents.length];
+
+		double stagnation = 0, base = 0;
+		double radius = 0;
+		int previous = -1;
+		for (int i = 0; i < aerodynamicComponents.length; i++) {
+			if (!(aerodynamicComponents[i] instanceof SymmetricComponent))
+				continue;
+			SymmetricComponent s = (SymmetricComponent) aerodynamicComponents[i];
+
+			if (radius < s.getForeRadius()) {
+				stagnationArea[i] = Math.PI * (pow2(s.getForeRadius()) - pow2(radius));
+				stagnation += stagnationArea[i];
+			} else if (radius > s.getForeRadius()) {
+				baseArea[previous] = Math.PI * (pow2(radius) - pow2(s.getForeRadius()));
+				base += baseArea[previous];
+			}
+
+			radius = s.getAftRadius();
+			previous = i;
+		}
+		if (radius > 0) {
+			baseArea[previous] = Math.PI * pow2(radius);
+			base += baseArea[previous];
+		}
+		totalStagnationArea = stagnation;
+		totalBaseArea = base;
+	}
+
+
+	/**
+	 * Return the aerodynamic components of the configuration in iteration order.
+	 * The returned array must not be modified.
+	 */
+	RocketComponent[] getAerodynamicComponents() {
+		return aerodynamicComponents;
+	}
+
+
+	/**
+	 * Calculate the friction drag coefficient.
+	 *
+	 * @param conditions	the flight conditions.
+	 * @param map			if not <code>null</code>, the component friction drag coefficients are stored in it.
+	 * @return				the friction drag coefficient of the configuration.
+	 */
+	double calculateFrictionCD(FlightConditions conditions, Map<RocketComponent, AerodynamicForces> map) {
+		double mach = conditions.getMach();
+		double Re = conditions.getVelocity() * length /
+				conditions.getAtmosphericConditions().getKinematicViscosity();
+		double Cf = calculateSkinFriction(Re, mach);
+
+		// Roughness-limited value correction term
+		double roughnessCorrection;
+		if (mach < 0.9) {
+			roughnessCorrection = 1 - 0.1 * pow2(mach);
+		} else if (mach > 1.1) {
+			roughnessCorrection = 1 / (1 + 0.18 * pow2(mach));
+		} else {
+			double c1 = 1 - 0.1 * pow2(0.9);
+			double c2 = 1.0 / (1 + 0.18 * pow2(1.1));
+			roughnessCorrection = c2 * (mach - 0.9) / 0.2 + c1 * (1.1 - mach) / 0.2;
+		}
+
+		/*
+		 * Actual Cf is maximum of Cf and the roughness-limited value.
+		 * For perfect finish require additionally that Re > 1e6
+		 */
+		double[] componentCf = (map != null) ? new double[FINISHES] : null;
+		double total = 0;
+		for (int n = 0; n < FINISHES; n++) {
+			if (Double.isNaN(roughnessLimited[n]))
+				continue;
+
+			double limited = roughnessLimited[n] * roughnessCorrection;
+			double cf;
+			if (perfectFinish) {
+				cf = (Re > 1.0e6 && limited > Cf) ? limited : Cf;
+			} else {
+				cf = Math.max(Cf, limited);
+			}
+			total += cf * (finArea[n] + correction * bodyArea[n]);
+			if (componentCf != null) {
+				componentCf[n] = cf;
+			}
+		}
+
+		if (map != null) {
+			for (int i = 0; i < frictionComponents.length; i++) {
+				map.get(frictionComponents[i]).setFrictionCD(componentCf[frictionFinish[i]] * frictionArea[i] /
+						conditions.getRefArea());
+			}
+		}
+
+		return total / conditions.getRefArea();
+	}
+
+
+	/**
+	 * Calculate the skin friction coefficient, not limited by the surface roughness.
+	 * A partially laminar layer is assumed for a perfect finish, otherwise a fully
+	 * turbulent layer.
+	 */
+	private double calculateSkinFriction(double Re, double mach) {
+		double c1 = 1.0, c2 = 1.0;
+		double Cf;
+
+		if (perfectFinish) {
+
+			if (Re < 1e4) {
+				// Too low, constant
+				Cf = 1.33e-2;
+			} else if (Re < 5.39e5) {
+				// Fully laminar
+				Cf = 1.328 / MathUtil.safeSqrt(Re);
+			} else {
+				// Transitional
+				Cf = 1.0 / pow2(1.50 * Math.log(Re) - 5.6) - 1700 / Re;
+			}
+
+			// Compressibility correction
+
+			if (mach < 1.1) {
+				// Below Re=1e6 no correction
+				if (Re > 1e6) {
+					if (Re < 3e6) {
+						c1 = 1 - 0.1 * pow2(mach) * (Re - 1e6) / 2e6; // transition to turbulent
+					} else {
+						c1 = 1 - 0.1 * pow2(mach);
+					}
+				}
+			}
+			if (mach > 0.9) {
+				if (Re > 1e6) {
+					if (Re < 3e6) {
+						c2 = 1 + (1.0 / Math.pow(1 + 0.045 * pow2(mach), 0.25) - 1) * (Re - 1e6) / 2e6;
+					} else {
+						c2 = 1.0 / Math.pow(1 + 0.045 * pow2(mach), 0.25);
+					}
+				}
+			}
+
+		} else {
+
+			if (Re < 1e4) {
+				// Too low, constant
+				Cf = 1.48e-2;
+			} else {
+				// Turbulent
+				Cf = 1.0 / pow2(1.50 * Math.log(Re) - 5.6);
+			}
+
+			// Compressibility correction
+
+			if (mach < 1.1) {
+				c1 = 1 - 0.1 * pow2(mach);
+			}
+			if (mach > 0.9) {
+				c2 = 1 / Math.pow(1 + 0.15 * pow2(mach), 0.58);
+			}
+
+		}
+
+		// Applying continuously around Mach 1
+		if (mach < 0.9) {
+			Cf *= c1;
+		} else if (mach < 1.1) {
+			Cf *= (c2 * (mach - 0.9) / 0.2 + c1 * (1.1 - mach) / 0.2);
+		} else {
+			Cf *= c2;
+		}
+		return Cf;
+	}
+
+
+	/**
+	 * Calculate the stagnation drag coefficient at the forward facing steps of the body.
+	 *
+	 * @param conditions	the flight conditions.
+	 * @param stagnation	the stagnation pressure coefficient at the current Mach number.
+	 * @param map			if not <code>null</code>, the stagnation drag is added to the component pressure drag.
+	 * @return				the stagnation drag coefficient of the configuration.
+	 */
+	double calculateStagnationCD(FlightConditions conditions, double stagnation,
+			Map<RocketComponent, AerodynamicForces> map) {
+		if (map != null) {
+			for (int i = 0; i < aerodynamicComponents.length; i++) {
+				if (stagnationArea[i] > 0) {
+					AerodynamicForces f = map.get(aerodynamicComponents[i]);
+					f.setPressureCD(f.getPressureCD() + stagnation * stagnationArea[i] / conditions.getRefArea());
+				}
+			}
+		}
+		return stagnation * totalStagnationArea / conditions.getRefArea();
+	}
+
+
+	/**
+	 * Calculate the base drag coefficient at the aft facing steps and the aft end of the body.
+	 *
+	 * @param conditions	the flight conditions.
+	 * @param base			the base drag coefficient at the current Mach number.
+	 * @param map			if not <code>null</code>, the component base drag coefficients are stored in it.
+	 * @return				the base drag coefficient of the configuration.
+	 */
+	double calculateBaseCD(FlightConditions conditions, double base, Map<RocketComponent, AerodynamicForces> map) {
+		if (map != null) {
+			for (int i = 0; i < aerodynamicComponents.length; i++) {
+				if (baseArea[i] > 0) {
+					map.get(aerodynamicComponents[i]).setBaseCD(base * baseArea[i] / conditions.getRefArea());
+				}
+			}
+		}
+		return base * totalBaseArea / conditions.getRefArea();
+	}
+}
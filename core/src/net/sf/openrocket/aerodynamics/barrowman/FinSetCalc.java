@@ -48,6 +48,17 @@ public class FinSetCalc extends RocketComponentCalc {
 	protected double[] chordTrail = new double[DIVISIONS];
 	protected double[] chordLength = new double[DIVISIONS];
 	
+	/*
+	 * Spanwise strip tables for the roll damping, computed once per fin geometry.
+	 * The chord moments are sums of chordLength[i] * (r+y_i)^n for n=2..4 at the
+	 * strip positions y_i = i*span/(DIVISIONS-1).  The stall tables use the strip
+	 * positions of the high roll rate computation, distance r + i*span/DIVISIONS.
+	 */
+	private final double[] chordMoments = new double[3];
+	private final double[] stallDistance = new double[DIVISIONS];
+	private final double[] stallMoment2 = new double[DIVISIONS + 1]; // sum over i < k
+	private final double[] stallMoment1 = new double[DIVISIONS + 1]; // sum over i >= k
+	
 	protected final WarningSet geometryWarnings = new WarningSet();
 	
 	private double[] poly = new double[6];
@@ -78,6 +89,7 @@ public class FinSetCalc extends RocketComponentCalc {
 		crossSection = component.getCrossSection();
 		
 		calculateFinGeometry(component);
+		calculateStripTables();
 		calculatePoly();
 		calculateInterferenceFinCount(component);
 	}
@@ -439,7 +451,7 @@ public class FinSetCalc extends RocketComponentCalc {
 	private static final double CNA_SUPERSONIC = 1.5;
 	private static final double CNA_SUPERSONIC_B = pow(pow2(CNA_SUPERSONIC) - 1, 1.5);
 	private static final double GAMMA = 1.4;
-	private static final LinearInterpolator K1, K2, K3;
+	static final LinearInterpolator K1, K2, K3;
 	private static final PolyInterpolator cnaInterpolator = new PolyInterpolator(
 			new double[] { CNA_SUBSONIC, CNA_SUPERSONIC },
 			new double[] { CNA_SUBSONIC, CNA_SUPERSONIC },
@@ -506,76 +518,115 @@ public class FinSetCalc extends RocketComponentCalc {
 		return cnaInterpolator.interpolate(mach, subV, superV, subD, superD, 0);
 	}
 	
-	private double calculateDampingMoment(FlightConditions conditions) {
+	/**
+	 * Pre-calculates the spanwise chord moments used in the roll damping computation,
+	 * so that the per-evaluation computation requires no loops over the strips.
+	 */
+	private void calculateStripTables() {
+		Arrays.fill(chordMoments, 0);
+		for (int i = 0; i < DIVISIONS; i++) {
+			double dist = bodyRadius + i * span / (DIVISIONS - 1);
+			double m = chordLength[i] * dist * dist;
+			chordMoments[0] += m;
+			m *= dist;
+			chordMoments[1] += m;
+			m *= dist;
+			chordMoments[2] += m;
+		}
+		
+		stallMoment2[0] = 0;
+		stallMoment1[DIVISIONS] = 0;
+		for (int i = 0; i < DIVISIONS; i++) {
+			double dist = bodyRadius + span * i / DIVISIONS;
+			stallDistance[i] = dist;
+			stallMoment2[i + 1] = stallMoment2[i] + chordLength[i] * dist * dist;
+		}
+		for (int i = DIVISIONS - 1; i >= 0; i--) {
+			stallMoment1[i] = stallMoment1[i + 1] + chordLength[i] * stallDistance[i];
+		}
+	}
+	
+	double calculateDampingMoment(FlightConditions conditions) {
 		double rollRate = conditions.getRollRate();
 		
 		if (Math.abs(rollRate) < 0.1)
 			return 0;
 		
 		double mach = conditions.getMach();
+		double velocity = conditions.getVelocity();
+		double refArea = conditions.getRefArea();
+		double refLength = conditions.getRefLength();
+		
+		if (mach <= CNA_SUBSONIC || mach >= CNA_SUPERSONIC || isStalled(rollRate, velocity)) {
+			return calculateDampingMoment(rollRate, mach, conditions.getBeta(), velocity, refArea, refLength);
+		}
+		
+		// Transonic, do linear interpolation
+		double machSpeed = conditions.getAtmosphericConditions().getMachSpeed();
+		double subMach = CNA_SUBSONIC - 0.01;
+		double superMach = CNA_SUPERSONIC + 0.01;
+		double subsonic = calculateDampingMoment(rollRate, subMach, MathUtil.safeSqrt(1 - subMach * subMach),
+				subMach * machSpeed, refArea, refLength);
+		double supersonic = calculateDampingMoment(rollRate, superMach, MathUtil.safeSqrt(superMach * superMach - 1),
+				superMach * machSpeed, refArea, refLength);
+		
+		return subsonic * (CNA_SUPERSONIC - mach) / (CNA_SUPERSONIC - CNA_SUBSONIC) +
+				supersonic * (mach - CNA_SUBSONIC) / (CNA_SUPERSONIC - CNA_SUBSONIC);
+	}
+	
+	private boolean isStalled(double rollRate, double velocity) {
+		return Math.abs(rollRate) * (bodyRadius + span) / velocity > 15 * Math.PI / 180;
+	}
+	
+	/**
+	 * Calculate the roll damping moment in the subsonic or supersonic region, or
+	 * when the fin tips are stalled.
+	 */
+	private double calculateDampingMoment(double rollRate, double mach, double beta, double velocity,
+			double refArea, double refLength) {
 		double absRate = Math.abs(rollRate);
 		
 		/*
 		 * At low speeds and relatively large roll rates (i.e. near apogee) the
 		 * fin tips rotate well above stall angle.  In this case sum the chords
-		 * separately.
+		 * separately:  the strips inside the stall distance contribute linearly
+		 * to the angle of attack, the ones outside it at the stall angle.
 		 */
-		if (absRate * (bodyRadius + span) / conditions.getVelocity() > 15 * Math.PI / 180) {
-			double sum = 0;
-			for (int i = 0; i < DIVISIONS; i++) {
-				double dist = bodyRadius + span * i / DIVISIONS;
-				double aoa = Math.min(absRate * dist / conditions.getVelocity(), 15 * Math.PI / 180);
-				sum += chordLength[i] * dist * aoa;
+		if (isStalled(rollRate, velocity)) {
+			final double maxAoa = 15 * Math.PI / 180;
+			
+			// Find the first strip at or above the stall angle, the distances are increasing
+			int low = 0;
+			int high = DIVISIONS;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (absRate * stallDistance[mid] / velocity < maxAoa) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
 			}
-			sum = sum * (span / DIVISIONS) * 2 * Math.PI / conditions.getBeta() /
-					(conditions.getRefArea() * conditions.getRefLength());
 			
-			//			System.out.println("SPECIAL: " + 
-			//					(MathUtil.sign(rollRate) *component.getFinCount() * sum));
+			double sum = absRate / velocity * stallMoment2[low] + maxAoa * stallMoment1[low];
+			sum = sum * (span / DIVISIONS) * 2 * Math.PI / beta / (refArea * refLength);
+			
 			return MathUtil.sign(rollRate) * finCount * sum;
 		}
 		
 		if (mach <= CNA_SUBSONIC) {
-			//			System.out.println("BASIC:   "+
-			//					(component.getFinCount() * 2*Math.PI * rollRate * rollSum / 
-			//			(conditions.getRefArea() * conditions.getRefLength() * 
-			//					conditions.getVelocity() * conditions.getBeta())));
-			
 			return finCount * 2 * Math.PI * rollRate * rollSum /
-					(conditions.getRefArea() * conditions.getRefLength() *
-							conditions.getVelocity() * conditions.getBeta());
-		}
-		if (mach >= CNA_SUPERSONIC) {
-			
-			double vel = conditions.getVelocity();
-			double k1 = K1.getValue(mach);
-			double k2 = K2.getValue(mach);
-			double k3 = K3.getValue(mach);
-			
-			double sum = 0;
-			
-			for (int i = 0; i < DIVISIONS; i++) {
-				double y = i * span / (DIVISIONS - 1);
-				double angle = rollRate * (bodyRadius + y) / vel;
-				
-				sum += (k1 * angle + k2 * angle * angle + k3 * angle * angle * angle)
-						* chordLength[i] * (bodyRadius + y);
-			}
-			
-			return finCount * sum * span / (DIVISIONS - 1) /
-					(conditions.getRefArea() * conditions.getRefLength());
+					(refArea * refLength * velocity * beta);
 		}
 		
-		// Transonic, do linear interpolation
+		// Supersonic, the local angle at each strip is rollRate * (r+y) / velocity
+		double w = rollRate / velocity;
+		double k1 = K1.getValue(mach);
+		double k2 = K2.getValue(mach);
+		double k3 = K3.getValue(mach);
 		
-		FlightConditions cond = conditions.clone();
-		cond.setMach(CNA_SUBSONIC - 0.01);
-		double subsonic = calculateDampingMoment(cond);
-		cond.setMach(CNA_SUPERSONIC + 0.01);
-		double supersonic = calculateDampingMoment(cond);
+		double sum = w * (k1 * chordMoments[0] + w * (k2 * chordMoments[1] + w * k3 * chordMoments[2]));
 		
-		return subsonic * (CNA_SUPERSONIC - mach) / (CNA_SUPERSONIC - CNA_SUBSONIC) +
-				supersonic * (mach - CNA_SUBSONIC) / (CNA_SUPERSONIC - CNA_SUBSONIC);
+		return finCount * sum * span / (DIVISIONS - 1) / (refArea * refLength);
 	}
 	
 	/**
@@ -3,6 +3,7 @@ package net.sf.openrocket.database;
 import java.util.List;
 
 import net.sf.openrocket.preset.ComponentPreset;
+import net.sf.openrocket.preset.TypedKey;
 
 public interface ComponentPresetDao {
 
@@ -26,6 +27,20 @@ public interface ComponentPresetDao {
 	
 	public List<ComponentPreset> listForTypes( List<ComponentPreset.Type> types );
 
+	/**
+	 * Return the component presets of the given type whose value of a numeric property
+	 * is within the given range, for example the body tubes with a specific outer diameter.
+	 * The presets are returned in increasing order of the property value.  Presets that
+	 * do not define the property are not returned.
+	 * 
+	 * @param type	the preset type.
+	 * @param key	the numeric property, for example OUTER_DIAMETER or LENGTH.
+	 * @param min	the minimum value (inclusive).
+	 * @param max	the maximum value (inclusive).
+	 * @return		the matching presets, sorted by the value of the property.
+	 */
+	public List<ComponentPreset> listForType( ComponentPreset.Type type, TypedKey<Double> key, double min, double max );
+
 	public void setFavorite( ComponentPreset preset, ComponentPreset.Type type, boolean favorite );
 	
 	public List<ComponentPreset> find( String manufacturer, String partNo );
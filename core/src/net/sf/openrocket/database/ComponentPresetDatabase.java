@@ -2,23 +2,36 @@ package net.sf.openrocket.database;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.sf.openrocket.preset.ComponentPreset;
+import net.sf.openrocket.preset.TypedKey;
 import net.sf.openrocket.startup.Application;
 
+/**
+ * The database of component presets.
+ * <p>
+ * Queries by type, manufacturer and part number, and numeric ranges are answered
+ * from indexes that are built on the first query after the database has been modified.
+ */
 public class ComponentPresetDatabase extends Database<ComponentPreset> implements ComponentPresetDao {
 
 	private static final Logger logger = LoggerFactory.getLogger(ComponentPresetDatabase.class);
-	
+
+	private Index index = null;
+
 	public ComponentPresetDatabase() {
 		super();
 	}
-	
+
 	@Override
 	public List<ComponentPreset> listAll() {
 		return list;
@@ -27,6 +40,7 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 	@Override
 	public void insert( ComponentPreset preset ) {
 		list.add(preset);
+		invalidateIndex();
 	}
 
 	@Override
@@ -35,22 +49,14 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 			return Collections.<ComponentPreset>emptyList();
 		}
 
-		List<ComponentPreset> result = new ArrayList<ComponentPreset>(list.size()/6);
-
-		for( ComponentPreset preset : list ) {
-			if ( preset.get(ComponentPreset.TYPE).equals(type) ) {
-				result.add(preset);
-			}
-		}
-		return result;
-
+		return new ArrayList<ComponentPreset>(getIndex().forType(type));
 	}
 
 	/**
 	 * Return a list of component presets based on the type.
 	 * All components returned will be of Type type.
-	 * 
-	 * @param type  
+	 *
+	 * @param type
 	 * @param favorite if true, only return the favorites.  otherwise return all matching.
 	 * @return
 	 */
@@ -59,13 +65,16 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 		if ( !favorite ) {
 			return listForType(type);
 		}
+		if ( type == null ) {
+			return Collections.<ComponentPreset>emptyList();
+		}
 
-		List<ComponentPreset> result = new ArrayList<ComponentPreset>(list.size()/6);
+		List<ComponentPreset> result = new ArrayList<ComponentPreset>();
 
 		Set<String> favorites = Application.getPreferences().getComponentFavorites(type);
 
-		for( ComponentPreset preset : list ) {
-			if ( preset.get(ComponentPreset.TYPE).equals(type) && favorites.contains(preset.preferenceKey())) {
+		for( ComponentPreset preset : getIndex().forType(type) ) {
+			if ( favorites.contains(preset.preferenceKey()) ) {
 				result.add(preset);
 			}
 		}
@@ -82,35 +91,43 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 			return listForType(type[0]);
 		}
 
-		List<ComponentPreset> result = new ArrayList<ComponentPreset>(list.size()/6);
-
-		for( ComponentPreset preset : list ) {
-			ComponentPreset.Type presetType = preset.get(ComponentPreset.TYPE);
-			typeLoop: for( int i=0; i<type.length; i++ ) {
-				if ( presetType.equals(type[i]) ) {
-					result.add(preset);
-					break typeLoop; // from inner loop.
-				}
+		// Use the database order, as if the full list had been filtered
+		Index idx = getIndex();
+		List<ComponentPreset> result = new ArrayList<ComponentPreset>();
+		boolean[] selected = new boolean[list.size()];
+		for( ComponentPreset.Type t : type ) {
+			for( int i : idx.positionsForType(t) ) {
+				selected[i] = true;
+			}
+		}
+		for( int i = 0; i < selected.length; i++ ) {
+			if ( selected[i] ) {
+				result.add(list.get(i));
 			}
-
 		}
 		return result;
 	}
 
 	@Override
 	public List<ComponentPreset> listForTypes( List<ComponentPreset.Type> types ) {
-		return listForTypes( (ComponentPreset.Type[]) types.toArray() );
+		return listForTypes( types.toArray(new ComponentPreset.Type[0]) );
+	}
+
+	@Override
+	public List<ComponentPreset> listForType( ComponentPreset.Type type, TypedKey<Double> key, double min, double max ) {
+		if ( type == null ) {
+			return Collections.<ComponentPreset>emptyList();
+		}
+		return getIndex().forRange(type, key, min, max);
 	}
 
 	@Override
 	public List<ComponentPreset> find(String manufacturer, String partNo) {
-		List<ComponentPreset> presets = new ArrayList<ComponentPreset>();
-		for( ComponentPreset preset : list ) {
-			if ( preset.getManufacturer().getSimpleName().equals(manufacturer) && preset.getPartNo().equals(partNo) ) {
-				presets.add(preset);
-			}
+		List<ComponentPreset> presets = getIndex().forPart(manufacturer, partNo);
+		if ( presets == null ) {
+			return new ArrayList<ComponentPreset>();
 		}
-		return presets;
+		return new ArrayList<ComponentPreset>(presets);
 	}
 
 	@Override
@@ -119,4 +136,178 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 		this.fireAddEvent(preset);
 	}
 
+	@Override
+	protected void fireAddEvent(ComponentPreset element) {
+		invalidateIndex();
+		super.fireAddEvent(element);
+	}
+
+	@Override
+	protected void fireRemoveEvent(ComponentPreset element) {
+		invalidateIndex();
+		super.fireRemoveEvent(element);
+	}
+
+	private synchronized void invalidateIndex() {
+		index = null;
+	}
+
+	private synchronized Index getIndex() {
+		if ( index == null ) {
+			long t0 = System.nanoTime();
+			index = new Index(list);
+			logger.debug("Indexed " + list.size() + " component presets in " + (System.nanoTime() - t0) / 1000 + " us");
+		}
+		return index;
+	}
+
+
+	/**
+	 * An immutable index over the database list.  The range indexes are
+	 * created lazily, since most keys are never queried.
+	 */
+	private static class Index {
+		private final Map<ComponentPreset.Type, List<ComponentPreset>> byType =
+				new EnumMap<ComponentPreset.Type, List<ComponentPreset>>(ComponentPreset.Type.class);
+		private final Map<ComponentPreset.Type, int[]> positions =
+				new EnumMap<ComponentPreset.Type, int[]>(ComponentPreset.Type.class);
+		private final Map<String, List<ComponentPreset>> byPart = new HashMap<String, List<ComponentPreset>>();
+		private final Map<RangeKey, RangeIndex> ranges = new HashMap<RangeKey, RangeIndex>();
+
+		Index(List<ComponentPreset> list) {
+			Map<ComponentPreset.Type, List<Integer>> pos = new EnumMap<ComponentPreset.Type, List<Integer>>(ComponentPreset.Type.class);
+			for ( ComponentPreset.Type t : ComponentPreset.Type.values() ) {
+				byType.put(t, new ArrayList<ComponentPreset>());
+				pos.put(t, new ArrayList<Integer>());
+			}
+
+			for ( int i = 0; i < list.size(); i++ ) {
+				ComponentPreset preset = list.get(i);
+				ComponentPreset.Type t = preset.getType();
+				byType.get(t).add(preset);
+				pos.get(t).add(i);
+
+				String key = partKey(preset.getManufacturer().getSimpleName(), preset.getPartNo());
+				List<ComponentPreset> parts = byPart.get(key);
+				if ( parts == null ) {
+					parts = new ArrayList<ComponentPreset>(1);
+					byPart.put(key, parts);
+				}
+				parts.add(preset);
+			}
+
+			for ( ComponentPreset.Type t : ComponentPreset.Type.values() ) {
+				List<Integer> p = pos.get(t);
+				int[] array = new int[p.size()];
+				for ( int i = 0; i < array.length; i++ ) {
+					array[i] = p.get(i);
+				}
+				positions.put(t, array);
+			}
+		}
+
+		List<ComponentPreset> forType(ComponentPreset.Type type) {
+			return byType.get(type);
+		}
+
+		int[] positionsForType(ComponentPreset.Type type) {
+			return positions.get(type);
+		}
+
+		List<ComponentPreset> forPart(String manufacturer, String partNo) {
+			return byPart.get(partKey(manufacturer, partNo));
+		}
+
+		List<ComponentPreset> forRange(ComponentPreset.Type type, TypedKey<Double> key, double min, double max) {
+			RangeIndex range;
+			synchronized (ranges) {
+				RangeKey rk = new RangeKey(type, key);
+				range = ranges.get(rk);
+				if ( range == null ) {
+					range = new RangeIndex(byType.get(type), key);
+					ranges.put(rk, range);
+				}
+			}
+			return range.find(min, max);
+		}
+
+		private static String partKey(String manufacturer, String partNo) {
+			return manufacturer + "|" + partNo;
+		}
+	}
+
+	private static class RangeKey {
+		private final ComponentPreset.Type type;
+		private final TypedKey<Double> key;
+
+		RangeKey(ComponentPreset.Type type, TypedKey<Double> key) {
+			this.type = type;
+			this.key = key;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if ( !(obj instanceof RangeKey) ) {
+				return false;
+			}
+			RangeKey other = (RangeKey) obj;
+			return type == other.type && key.equals(other.key);
+		}
+
+		@Override
+		public int hashCode() {
+			return type.hashCode() * 31 + key.hashCode();
+		}
+	}
+
+	/**
+	 * The presets of one type that define a specific numeric property, sorted by
+	 * the value of the property.
+	 */
+	private static class RangeIndex {
+		private final double[] values;
+		private final ComponentPreset[] presets;
+
+		RangeIndex(List<ComponentPreset> typeList, final TypedKey<Double> key) {
+			List<ComponentPreset> sorted = new ArrayList<ComponentPreset>();
+			for ( ComponentPreset preset : typeList ) {
+				if ( preset.has(key) ) {
+					sorted.add(preset);
+				}
+			}
+			Collections.sort(sorted, new Comparator<ComponentPreset>() {
+				@Override
+				public int compare(ComponentPreset o1, ComponentPreset o2) {
+					return Double.compare(o1.get(key), o2.get(key));
+				}
+			});
+
+			presets = sorted.toArray(new ComponentPreset[0]);
+			values = new double[presets.length];
+			for ( int i = 0; i < values.length; i++ ) {
+				values[i] = presets[i].get(key);
+			}
+		}
+
+		List<ComponentPreset> find(double min, double max) {
+			// First index with value >= min
+			int low = 0;
+			int high = values.length;
+			while ( low < high ) {
+				int mid = (low + high) >>> 1;
+				if ( values[mid] < min ) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+
+			List<ComponentPreset> result = new ArrayList<ComponentPreset>();
+			for ( int i = low; i < values.length && values[i] <= max; i++ ) {
+				result.add(presets[i]);
+			}
+			return result;
+		}
+	}
+
 }
@@ -0,0 +1,457 @@
+package net.sf.openrocket.database.motor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import net.sf.openrocket.motor.ThrustCurveMotor;
+import net.sf.openrocket.util.BugException;
+import net.sf.openrocket.util.MathUtil;
+import net.sf.openrocket.utils.MotorCorrelation;
+
+/**
+ * An index of thrust curve fingerprints for finding motors with similar thrust
+ * profiles.
+ * <p>
+ * The fingerprint of a motor is a fixed-length vector consisting of the thrust
+ * curve resampled at {@link #SAMPLES} points over the burn and normalized to unit
+ * length, followed by the logarithms of the total impulse, average thrust and
+ * burn time.  The Euclidean distance of two fingerprints is small when the motors
+ * are similar according to {@link MotorCorrelation#similarity(net.sf.openrocket.motor.Motor, net.sf.openrocket.motor.Motor)},
+ * which remains the reference measure:  the nearest neighbours by fingerprint are
+ * used as candidates, and the results are checked and ordered by the reference
+ * similarity.
+ * <p>
+ * The fingerprints are stored in a single array and searched linearly, which for
+ * the size of the motor database is faster than any tree structure over vectors of
+ * this dimension.  The index is immutable and thread-safe.
+ */
+public class ThrustCurveIndex {
+
+	/** Number of thrust samples in a fingerprint. */
+	public static final int SAMPLES = 32;
+
+	/** Length of a fingerprint vector. */
+	public static final int LENGTH = SAMPLES + 3;
+
+	// Weights of the scalar components, burn time weighs double as in MotorCorrelation
+	private static final double IMPULSE_WEIGHT = 1.0;
+	private static final double THRUST_WEIGHT = 1.0;
+	private static final double BURN_TIME_WEIGHT = 2.0;
+
+	// Minimum number of fingerprint candidates checked with the reference similarity
+	private static final int MIN_CANDIDATES = 32;
+
+
+	private final ThrustCurveMotor[] motors;
+	private final double[] fingerprints;
+
+
+	/**
+	 * Create an index of the specified motors, computing the fingerprints using as
+	 * many threads as there are processors available.
+	 *
+	 * @param motors	the motors to index.
+	 */
+	public ThrustCurveIndex(List<ThrustCurveMotor> motors) {
+		this(motors, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create an index of the specified motors.
+	 *
+	 * @param motors		the motors to index.
+	 * @param threadCount	the number of threads used for computing the fingerprints.
+	 */
+	public ThrustCurveIndex(List<ThrustCurveMotor> motors, int threadCount) {
+		this.motors = motors.toArray(new ThrustCurveMotor[0]);
+		this.fingerprints = new double[this.motors.length * LENGTH];
+
+		final int chunk = 256;
+		if (this.motors.length <= chunk || threadCount <= 1) {
+			computeFingerprints(0, this.motors.length);
+			return;
+		}
+
+		ExecutorService executor = createExecutor(threadCount);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int start = 0; start < this.motors.length; start += chunk) {
+				final int from = start;
+				final int to = Math.min(start + chunk, this.motors.length);
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						computeFingerprints(from, to);
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> f : futures) {
+				waitFor(f);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+
+	/**
+	 * Return the number of motors in the index.
+	 */
+	public int size() {
+		return motors.length;
+	}
+
+
+	/**
+	 * Compute the fingerprint of a motor.
+	 *
+	 * @param motor		the motor.
+	 * @return			the fingerprint, an array of length {@link #LENGTH}.
+	 */
+	public static double[] fingerprint(ThrustCurveMotor motor) {
+		double[] result = new double[LENGTH];
+		fingerprint(motor, result, 0);
+		return result;
+	}
+
+	private static void fingerprint(ThrustCurveMotor motor, double[] dest, int offset) {
+		double[] time = motor.getTimePoints();
+		double[] thrust = motor.getThrustPoints();
+		double end = time[time.length - 1];
+
+		// Sample the thrust curve at the midpoints of equal intervals over the burn
+		double norm = 0;
+		int segment = 0;
+		for (int i = 0; i < SAMPLES; i++) {
+			double t = (i + 0.5) / SAMPLES * end;
+			while (segment < time.length - 2 && time[segment + 1] <= t) {
+				segment++;
+			}
+			double value;
+			double dt = time[segment + 1] - time[segment];
+			if (dt <= 0) {
+				value = thrust[segment + 1];
+			} else {
+				double a = MathUtil.clamp((t - time[segment]) / dt, 0, 1);
+				value = thrust[segment] + (thrust[segment + 1] - thrust[segment]) * a;
+			}
+			dest[offset + i] = value;
+			norm += value * value;
+		}
+		if (norm > 0) {
+			norm = Math.sqrt(norm);
+			for (int i = 0; i < SAMPLES; i++) {
+				dest[offset + i] /= norm;
+			}
+		}
+
+		dest[offset + SAMPLES] = IMPULSE_WEIGHT * log(motor.getTotalImpulseEstimate());
+		dest[offset + SAMPLES + 1] = THRUST_WEIGHT * log(motor.getAverageThrustEstimate());
+		dest[offset + SAMPLES + 2] = BURN_TIME_WEIGHT * log(motor.getBurnTimeEstimate());
+	}
+
+	private static double log(double value) {
+		return Math.log(Math.max(value, 1e-6));
+	}
+
+	private void computeFingerprints(int from, int to) {
+		for (int i = from; i < to; i++) {
+			fingerprint(motors[i], fingerprints, i * LENGTH);
+		}
+	}
+
+
+	/**
+	 * Return the motors whose fingerprints are nearest to the fingerprint of the
+	 * given motor.  The motor itself is excluded from the result if it is in the index.
+	 *
+	 * @param motor		the motor to search for.
+	 * @param k			the maximum number of motors to return.
+	 * @return			the nearest motors, nearest first.
+	 */
+	public List<ThrustCurveMotor> findNearest(ThrustCurveMotor motor, int k) {
+		int[] nearest = nearest(fingerprint(motor), motor, k);
+		List<ThrustCurveMotor> result = new ArrayList<ThrustCurveMotor>(nearest.length);
+		for (int i : nearest) {
+			result.add(motors[i]);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Return the motors with a thrust profile similar to the given motor.  The
+	 * candidates are found by fingerprint and ordered by the reference similarity
+	 * {@link MotorCorrelation#similarity(net.sf.openrocket.motor.Motor, net.sf.openrocket.motor.Motor)}.
+	 * The motor itself is excluded from the result if it is in the index.
+	 *
+	 * @param motor			the motor to search for.
+	 * @param count			the maximum number of motors to return.
+	 * @param minSimilarity	the minimum similarity of the returned motors.
+	 * @return				the similar motors, most similar first.
+	 */
+	public List<ThrustCurveMotor> findSimilar(ThrustCurveMotor motor, int count, double minSimilarity) {
+		int[] candidates = nearest(fingerprint(motor), motor, Math.max(4 * count, MIN_CANDIDATES));
+
+		// Order the matching candidates by decreasing similarity
+		ThrustCurveMotor[] found = new ThrustCurveMotor[candidates.length];
+		double[] similarity = new double[candidates.length];
+		int n = 0;
+		for (int i : candidates) {
+			double s = similarity(motor, motors[i], minSimilarity);
+			if (s < minSimilarity) {
+				continue;
+			}
+			int pos = n++;
+			while (pos > 0 && similarity[pos - 1] < s) {
+				similarity[pos] = similarity[pos - 1];
+				found[pos] = found[pos - 1];
+				pos--;
+			}
+			similarity[pos] = s;
+			found[pos] = motors[i];
+		}
+		return new ArrayList<ThrustCurveMotor>(Arrays.asList(found).subList(0, Math.min(n, count)));
+	}
+
+
+	/**
+	 * Return groups of motors with nearly identical thrust curves, e.g. the same motor
+	 * loaded from different sources.  Two motors belong to the same group if their
+	 * reference similarity is at least <code>minSimilarity</code>, and groups are
+	 * joined transitively.
+	 * <p>
+	 * The result is exact.  Since the similarity is limited by the total impulse ratio,
+	 * only motors whose impulse fingerprint components are close need to be compared,
+	 * which are found by sorting the fingerprints by impulse.
+	 *
+	 * @param minSimilarity	the minimum similarity of duplicates, e.g. 0.95.
+	 * @param threadCount	the number of threads to use.
+	 * @return				the groups of two or more motors, in index order.
+	 */
+	public List<List<ThrustCurveMotor>> findDuplicates(final double minSimilarity, int threadCount) {
+		final int n = motors.length;
+
+		// Sort the motors by the impulse component of the fingerprint
+		Integer[] sorted = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			sorted[i] = i;
+		}
+		Arrays.sort(sorted, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(impulse(a), impulse(b));
+			}
+		});
+		final int[] order = new int[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = sorted[i];
+		}
+
+		// Largest impulse component difference allowing the similarity, with some slack for rounding
+		final double maxGap = (minSimilarity > 0) ? -Math.log(minSimilarity) * IMPULSE_WEIGHT + 1e-9 : Double.POSITIVE_INFINITY;
+
+		// Find the similar pairs concurrently, join them in order
+		final int[] parent = new int[n];
+		for (int i = 0; i < n; i++) {
+			parent[i] = i;
+		}
+		ExecutorService executor = createExecutor(threadCount);
+		try {
+			final int chunk = 64;
+			List<Future<int[]>> futures = new ArrayList<Future<int[]>>();
+			for (int start = 0; start < n; start += chunk) {
+				final int from = start;
+				final int to = Math.min(start + chunk, n);
+				futures.add(executor.submit(new Callable<int[]>() {
+					@Override
+					public int[] call() {
+						int[] pairs = new int[16];
+						int count = 0;
+						for (int p = from; p < to; p++) {
+							int i = order[p];
+							for (int q = p + 1; q < n && impulse(order[q]) - impulse(i) <= maxGap; q++) {
+								int j = order[q];
+								if (similarity(motors[i], motors[j], minSimilarity) >= minSimilarity) {
+									if (count + 2 > pairs.length) {
+										pairs = Arrays.copyOf(pairs, pairs.length * 2);
+									}
+									pairs[count++] = i;
+									pairs[count++] = j;
+								}
+							}
+						}
+						return Arrays.copyOf(pairs, count);
+					}
+				}));
+			}
+			for (Future<int[]> f : futures) {
+				int[] pairs = waitFor(f);
+				for (int k = 0; k < pairs.length; k += 2) {
+					union(parent, pairs[k], pairs[k + 1]);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		List<List<ThrustCurveMotor>> groups = new ArrayList<List<ThrustCurveMotor>>();
+		List<ThrustCurveMotor>[] byRoot = newListArray(n);
+		for (int i = 0; i < n; i++) {
+			int root = find(parent, i);
+			if (byRoot[root] == null) {
+				byRoot[root] = new ArrayList<ThrustCurveMotor>();
+				groups.add(byRoot[root]);
+			}
+			byRoot[root].add(motors[i]);
+		}
+		for (int i = groups.size() - 1; i >= 0; i--) {
+			if (groups.get(i).size() < 2) {
+				groups.remove(i);
+			}
+		}
+		return groups;
+	}
+
+	private double impulse(int index) {
+		return fingerprints[index * LENGTH + SAMPLES];
+	}
+
+
+	/**
+	 * Return the reference similarity of two motors, or a value below the threshold
+	 * if the similarity is known to be below it.  The average thrust, burn time and
+	 * total impulse terms of {@link MotorCorrelation#similarity(net.sf.openrocket.motor.Motor, net.sf.openrocket.motor.Motor)}
+	 * are checked first, and the expensive cross-correlation is computed only if
+	 * they do not already exclude the motor.
+	 *
+	 * @param motor1		the first motor.
+	 * @param motor2		the second motor.
+	 * @param threshold		the similarity of interest.
+	 * @return				the similarity, exact if it is at least <code>threshold</code>.
+	 */
+	public static double similarity(ThrustCurveMotor motor1, ThrustCurveMotor motor2, double threshold) {
+		double d = diff(motor1.getAverageThrustEstimate(), motor2.getAverageThrustEstimate());
+		d = Math.min(d, 2 * diff(motor1.getBurnTimeEstimate(), motor2.getBurnTimeEstimate()));
+		d = Math.min(d, diff(motor1.getTotalImpulseEstimate(), motor2.getTotalImpulseEstimate()));
+		if (d < threshold) {
+			return d;
+		}
+		return MotorCorrelation.similarity(motor1, motor2);
+	}
+
+	private static double diff(double a, double b) {
+		double min = Math.min(a, b);
+		double max = Math.max(a, b);
+
+		if (MathUtil.equals(max, 0))
+			return 1.0;
+		return min / max;
+	}
+
+
+	/**
+	 * Return the indices of the k nearest fingerprints, nearest first, excluding
+	 * the given motor.
+	 */
+	private int[] nearest(double[] fp, ThrustCurveMotor exclude, int k) {
+		k = Math.min(k, motors.length);
+		if (k <= 0) {
+			return new int[0];
+		}
+		int[] index = new int[k];
+		double[] dist = new double[k];
+		int count = 0;
+
+		for (int i = 0; i < motors.length; i++) {
+			if (motors[i] == exclude) {
+				continue;
+			}
+
+			double d = 0;
+			int offset = i * LENGTH;
+			double limit = (count == k) ? dist[k - 1] : Double.POSITIVE_INFINITY;
+			for (int j = 0; j < LENGTH && d < limit; j++) {
+				double x = fp[j] - fingerprints[offset + j];
+				d += x * x;
+			}
+			if (count == k && d >= limit) {
+				continue;
+			}
+
+			// Insert into the sorted candidate list
+			int pos = (count < k) ? count++ : k - 1;
+			while (pos > 0 && dist[pos - 1] > d) {
+				dist[pos] = dist[pos - 1];
+				index[pos] = index[pos - 1];
+				pos--;
+			}
+			dist[pos] = d;
+			index[pos] = i;
+		}
+		return Arrays.copyOf(index, count);
+	}
+
+
+	private static int find(int[] parent, int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	private static void union(int[] parent, int a, int b) {
+		a = find(parent, a);
+		b = find(parent, b);
+		if (a < b) {
+			parent[b] = a;
+		} else if (b < a) {
+			parent[a] = b;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<ThrustCurveMotor>[] newListArray(int n) {
+		return new List[n];
+	}
+
+
+	private static ExecutorService createExecutor(int threadCount) {
+		return Executors.newFixedThreadPool(Math.max(threadCount, 1), new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "ThrustCurveIndex");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	private static <T> T waitFor(Future<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BugException("Interrupted while indexing thrust curves", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new BugException("Unexpected exception while indexing thrust curves", cause);
+		}
+	}
+}
@@ -2,8 +2,13 @@ package net.sf.openrocket.database.motor;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import net.sf.openrocket.motor.Manufacturer;
 import net.sf.openrocket.motor.Motor;
 import net.sf.openrocket.motor.ThrustCurveMotor;
 
@@ -15,8 +20,22 @@ import net.sf.openrocket.motor.ThrustCurveMotor;
  */
 public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 	
+	/** Minimum thrust curve similarity of motors considered duplicates. */
+	public static final double DUPLICATE_SIMILARITY = 0.95;
+	
 	private final List<ThrustCurveMotorSet> motorSets = new ArrayList<ThrustCurveMotorSet>();
 	
+	/*
+	 * Index of the motor sets by manufacturer and simplified designation.  A motor
+	 * can only match a set with the same manufacturer and simplified designation,
+	 * so only the sets of one bucket need to be checked when adding a motor.
+	 */
+	private final Map<Manufacturer, Map<String, List<ThrustCurveMotorSet>>> index =
+			new HashMap<Manufacturer, Map<String, List<ThrustCurveMotorSet>>>();
+	
+	private ThrustCurveIndex thrustCurveIndex = null;
+	private Set<ThrustCurveMotorSet> duplicateMotorSets = null;
+	
 	
 	@Override
 	public List<ThrustCurveMotor> findMotors(Motor.Type type, String manufacturer, String designation,
@@ -54,6 +73,78 @@ public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 	}
 	
 	
+	/**
+	 * Return the thrust curve index of all motors in the database for finding motors
+	 * with similar thrust profiles.  The index is built when first requested after
+	 * the database has changed.
+	 */
+	public synchronized ThrustCurveIndex getThrustCurveIndex() {
+		if (thrustCurveIndex == null) {
+			List<ThrustCurveMotor> motors = new ArrayList<ThrustCurveMotor>();
+			for (ThrustCurveMotorSet set : motorSets) {
+				motors.addAll(set.getMotors());
+			}
+			thrustCurveIndex = new ThrustCurveIndex(motors);
+		}
+		return thrustCurveIndex;
+	}
+	
+	
+	/**
+	 * Return the motor sets that duplicate other motor sets.  A motor set is a duplicate
+	 * if each of its motors has a nearly identical thrust curve in an earlier motor set
+	 * of the same diameter, e.g. the same motor sold under a different designation.
+	 * Hiding the duplicates leaves at least one motor set of each thrust curve visible.
+	 * The result is computed when first requested after the database has changed.
+	 * 
+	 * @return	an unmodifiable set of the duplicate motor sets.
+	 * @see ThrustCurveIndex#findDuplicates(double, int)
+	 */
+	public synchronized Set<ThrustCurveMotorSet> getDuplicateMotorSets() {
+		if (duplicateMotorSets == null) {
+			Map<ThrustCurveMotor, ThrustCurveMotorSet> setOf = new IdentityHashMap<ThrustCurveMotor, ThrustCurveMotorSet>();
+			Map<ThrustCurveMotorSet, Integer> order = new IdentityHashMap<ThrustCurveMotorSet, Integer>();
+			for (int i = 0; i < motorSets.size(); i++) {
+				ThrustCurveMotorSet set = motorSets.get(i);
+				order.put(set, i);
+				for (ThrustCurveMotor m : set.getMotors()) {
+					setOf.put(m, set);
+				}
+			}
+			
+			// Find the motors having a duplicate in an earlier set of the same diameter
+			Map<ThrustCurveMotor, Boolean> covered = new IdentityHashMap<ThrustCurveMotor, Boolean>();
+			List<List<ThrustCurveMotor>> groups = getThrustCurveIndex().findDuplicates(DUPLICATE_SIMILARITY,
+					Runtime.getRuntime().availableProcessors());
+			for (List<ThrustCurveMotor> group : groups) {
+				for (ThrustCurveMotor motor : group) {
+					ThrustCurveMotorSet set = setOf.get(motor);
+					for (ThrustCurveMotor other : group) {
+						ThrustCurveMotorSet otherSet = setOf.get(other);
+						if (order.get(otherSet) < order.get(set) &&
+								Math.abs(otherSet.getDiameter() - set.getDiameter()) < 0.0005) {
+							covered.put(motor, Boolean.TRUE);
+							break;
+						}
+					}
+				}
+			}
+			
+			Set<ThrustCurveMotorSet> duplicates = Collections.newSetFromMap(new IdentityHashMap<ThrustCurveMotorSet, Boolean>());
+			setLoop: for (ThrustCurveMotorSet set : motorSets) {
+				for (ThrustCurveMotor m : set.getMotors()) {
+					if (!covered.containsKey(m)) {
+						continue setLoop;
+					}
+				}
+				duplicates.add(set);
+			}
+			duplicateMotorSets = Collections.unmodifiableSet(duplicates);
+		}
+		return duplicateMotorSets;
+	}
+	
+	
 	/**
 	 * Add a motor to the database.  If a matching ThrustCurveMototSet is found, 
 	 * the motor is added to that set, otherwise a new set is created and added to the
@@ -62,9 +153,12 @@ public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 	 * @param motor		the motor to add
 	 */
 	public void addMotor(ThrustCurveMotor motor) {
+		List<ThrustCurveMotorSet> bucket = getBucket(motor);
+		clearThrustCurveIndex();
+		
 		// Iterate from last to first, as this is most likely to hit early when loading files
-		for (int i = motorSets.size() - 1; i >= 0; i--) {
-			ThrustCurveMotorSet set = motorSets.get(i);
+		for (int i = bucket.size() - 1; i >= 0; i--) {
+			ThrustCurveMotorSet set = bucket.get(i);
 			if (set.matches(motor)) {
 				set.addMotor(motor);
 				return;
@@ -74,6 +168,41 @@ public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 		ThrustCurveMotorSet newSet = new ThrustCurveMotorSet();
 		newSet.addMotor(motor);
 		motorSets.add(newSet);
+		bucket.add(newSet);
+	}
+	
+	
+	private synchronized void clearThrustCurveIndex() {
+		thrustCurveIndex = null;
+		duplicateMotorSets = null;
+	}
+	
+	private List<ThrustCurveMotorSet> getBucket(ThrustCurveMotor motor) {
+		Map<String, List<ThrustCurveMotorSet>> designations = index.get(motor.getManufacturer());
+		if (designations == null) {
+			designations = new HashMap<String, List<ThrustCurveMotorSet>>();
+			index.put(motor.getManufacturer(), designations);
+		}
+		
+		String key = caseFold(ThrustCurveMotorSet.simplifyDesignation(motor.getDesignation()));
+		List<ThrustCurveMotorSet> bucket = designations.get(key);
+		if (bucket == null) {
+			bucket = new ArrayList<ThrustCurveMotorSet>(1);
+			designations.put(key, bucket);
+		}
+		return bucket;
+	}
+	
+	/**
+	 * Fold the case of a string so that two strings are equal after folding exactly
+	 * when they are equal according to {@link String#equalsIgnoreCase(String)}.
+	 */
+	private static String caseFold(String str) {
+		char[] chars = str.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+		}
+		return new String(chars);
 	}
 	
 }
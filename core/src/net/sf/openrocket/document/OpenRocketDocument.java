@@ -21,6 +21,7 @@ import net.sf.openrocket.rocketcomponent.ComponentChangeListener;
 import net.sf.openrocket.rocketcomponent.Configuration;
 import net.sf.openrocket.rocketcomponent.Rocket;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.rocketcomponent.RocketSnapshot;
 import net.sf.openrocket.simulation.FlightDataType;
 import net.sf.openrocket.simulation.customexpression.CustomExpression;
 import net.sf.openrocket.simulation.extension.SimulationExtension;
@@ -46,14 +47,14 @@ public class OpenRocketDocument implements ComponentChangeListener {
 	private static final Logger log = LoggerFactory.getLogger(OpenRocketDocument.class);
 	
 	/**
-	 * The minimum number of undo levels that are stored.
+	 * The default estimated memory limit of the undo history in bytes.  When the
+	 * history exceeds this limit, the oldest undo levels are purged.
 	 */
-	public static final int UNDO_LEVELS = 50;
+	public static final long UNDO_MEMORY_LIMIT = 8 * 1024 * 1024;
 	/**
-	 * The margin of the undo levels.  After the number of undo levels exceeds 
-	 * UNDO_LEVELS by this amount the undo is purged to that length.
+	 * The minimum number of undo levels that are kept regardless of the memory limit.
 	 */
-	public static final int UNDO_MARGIN = 10;
+	public static final int UNDO_MIN_LEVELS = 5;
 	
 	public static final String SIMULATION_NAME_PREFIX = "Simulation ";
 	
@@ -72,9 +73,10 @@ public class OpenRocketDocument implements ComponentChangeListener {
 	
 	/** 
 	 * The undo history of the rocket.   Whenever a new undo position is created while the
-	 * rocket is in "dirty" state, the rocket is copied here.
+	 * rocket is in "dirty" state, a snapshot of the rocket is stored here.  Successive
+	 * snapshots share the states of unchanged components.
 	 */
-	private LinkedList<Rocket> undoHistory = new LinkedList<Rocket>();
+	private LinkedList<RocketSnapshot> undoHistory = new LinkedList<RocketSnapshot>();
 	private LinkedList<String> undoDescription = new LinkedList<String>();
 	
 	/**
@@ -84,6 +86,9 @@ public class OpenRocketDocument implements ComponentChangeListener {
 	 */
 	private int undoPosition = -1; // Illegal position, init in constructor
 	
+	/** The estimated memory limit of the undo history in bytes. */
+	private long undoMemoryLimit = UNDO_MEMORY_LIMIT;
+	
 	/**
 	 * The description of the next action that modifies this rocket.
 	 */
@@ -356,23 +361,81 @@ public class OpenRocketDocument implements ComponentChangeListener {
 		
 		
 		// Add the current state to the undo history
-		undoHistory.add(rocket.copyWithOriginalID());
-		undoDescription.add(null);
+		addSnapshot();
 		nextDescription = description;
 		undoPosition++;
 		
 		
 		// Maintain maximum undo size
-		if (undoHistory.size() > UNDO_LEVELS + UNDO_MARGIN && undoPosition > UNDO_MARGIN) {
-			for (int i = 0; i < UNDO_MARGIN; i++) {
-				undoHistory.removeFirst();
-				undoDescription.removeFirst();
-				undoPosition--;
-			}
+		purgeUndoHistory();
+	}
+	
+	
+	/**
+	 * Add a snapshot of the current rocket state to the end of the undo history.
+	 */
+	private void addSnapshot() {
+		RocketSnapshot previous = undoHistory.isEmpty() ? null : undoHistory.getLast();
+		undoHistory.add(RocketSnapshot.create(rocket, previous));
+		undoDescription.add(null);
+	}
+	
+	
+	/**
+	 * Remove the oldest undo levels until the estimated memory used by the undo
+	 * history is within the limit.  At least {@link #UNDO_MIN_LEVELS} levels before
+	 * the current position are always kept.
+	 */
+	private void purgeUndoHistory() {
+		if (undoPosition <= UNDO_MIN_LEVELS) {
+			return;
+		}
+		long size = RocketSnapshot.estimateSize(undoHistory);
+		if (size <= undoMemoryLimit) {
+			return;
+		}
+		
+		log.info("Undo history size estimate " + size + " bytes exceeds limit " + undoMemoryLimit +
+				", purging old undo levels of " + this);
+		while (size > undoMemoryLimit && undoPosition > UNDO_MIN_LEVELS) {
+			undoHistory.removeFirst();
+			undoDescription.removeFirst();
+			undoPosition--;
+			size = RocketSnapshot.estimateSize(undoHistory);
 		}
 	}
 	
 	
+	/**
+	 * Return the estimated memory limit of the undo history.
+	 * 
+	 * @return	the memory limit in bytes.
+	 */
+	public long getUndoMemoryLimit() {
+		return undoMemoryLimit;
+	}
+	
+	
+	/**
+	 * Set the estimated memory limit of the undo history.  The oldest undo levels are
+	 * purged once the estimated size of the history exceeds the limit.
+	 * 
+	 * @param limit		the memory limit in bytes.
+	 */
+	public void setUndoMemoryLimit(long limit) {
+		this.undoMemoryLimit = limit;
+		purgeUndoHistory();
+	}
+	
+	
+	/**
+	 * Return the number of stored undo levels.
+	 */
+	public int getUndoHistorySize() {
+		return undoHistory.size();
+	}
+	
+	
 	/**
 	 * Start a time-limited undoable operation.  After the operation {@link #stopUndo()}
 	 * must be called, which will restore the previous undo description into effect.
@@ -415,8 +478,7 @@ public class OpenRocketDocument implements ComponentChangeListener {
 		undoHistory.clear();
 		undoDescription.clear();
 		
-		undoHistory.add(rocket.copyWithOriginalID());
-		undoDescription.add(null);
+		addSnapshot();
 		undoPosition = 0;
 		
 		fireUndoRedoChangeEvent();
@@ -518,14 +580,11 @@ public class OpenRocketDocument implements ComponentChangeListener {
 				logUndoError("undo position inconsistency");
 			}
 			// Modifications have been made, save the state and restore previous state
-			undoHistory.add(rocket.copyWithOriginalID());
-			undoDescription.add(null);
+			addSnapshot();
 		}
 		
 		rocket.checkComponentStructure();
-		undoHistory.get(undoPosition).checkComponentStructure();
-		undoHistory.get(undoPosition).copyWithOriginalID().checkComponentStructure();
-		rocket.loadFrom(undoHistory.get(undoPosition).copyWithOriginalID());
+		rocket.loadFrom(undoHistory.get(undoPosition).restore());
 		rocket.checkComponentStructure();
 	}
 	
@@ -547,7 +606,7 @@ public class OpenRocketDocument implements ComponentChangeListener {
 		
 		undoPosition++;
 		
-		rocket.loadFrom(undoHistory.get(undoPosition).copyWithOriginalID());
+		rocket.loadFrom(undoHistory.get(undoPosition).restore());
 	}
 	
 	
@@ -1,5 +1,7 @@
 package net.sf.openrocket.document;
 
+import java.util.zip.Deflater;
+
 import net.sf.openrocket.util.BugException;
 
 public class StorageOptions implements Cloneable {
@@ -15,6 +17,10 @@ public class StorageOptions implements Cloneable {
 	private FileType fileType = FileType.OPENROCKET;
 	
 	private double simulationTimeSkip = SIMULATION_DATA_NONE;
+	
+	private double simulationTolerance = 0;
+	
+	private int compressionLevel = Deflater.BEST_COMPRESSION;
 
 	private boolean explicitlySet = false;
 	
@@ -34,6 +40,48 @@ public class StorageOptions implements Cloneable {
 		this.simulationTimeSkip = simulationTimeSkip;
 	}
 	
+	/**
+	 * Return the relative error tolerance of the stored simulation data, or zero
+	 * if the data is stored using the time skip.
+	 */
+	public double getSimulationTolerance() {
+		return simulationTolerance;
+	}
+	
+	/**
+	 * Set the relative error tolerance of the stored simulation data.  When positive,
+	 * the stored points are selected so that the data interpolated between them is
+	 * within this fraction of the value range of each type, instead of using the time skip.
+	 * The data is stored only if the time skip is not {@link #SIMULATION_DATA_NONE}.
+	 * 
+	 * @param simulationTolerance	the relative error tolerance, zero to use the time skip.
+	 * @see net.sf.openrocket.simulation.FlightDataDecimator#simplify
+	 */
+	public void setSimulationTolerance(double simulationTolerance) {
+		this.simulationTolerance = Math.max(simulationTolerance, 0);
+	}
+	
+	/**
+	 * Return the ZIP compression level used for OpenRocket files.
+	 */
+	public int getCompressionLevel() {
+		return compressionLevel;
+	}
+	
+	/**
+	 * Set the ZIP compression level used for OpenRocket files.  Lower levels save
+	 * large documents considerably faster at the cost of a slightly larger file.
+	 * 
+	 * @param compressionLevel	the compression level, 0-9 or {@link Deflater#DEFAULT_COMPRESSION}.
+	 */
+	public void setCompressionLevel(int compressionLevel) {
+		if ((compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION) &&
+				compressionLevel != Deflater.DEFAULT_COMPRESSION) {
+			throw new IllegalArgumentException("Invalid compression level " + compressionLevel);
+		}
+		this.compressionLevel = compressionLevel;
+	}
+	
 	public boolean isExplicitlySet() {
 		return explicitlySet;
 	}
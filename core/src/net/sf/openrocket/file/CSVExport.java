@@ -1,24 +1,48 @@
 package net.sf.openrocket.file;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import net.sf.openrocket.aerodynamics.Warning;
 import net.sf.openrocket.aerodynamics.WarningSet;
 import net.sf.openrocket.document.Simulation;
 import net.sf.openrocket.simulation.FlightData;
 import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataDecimator;
 import net.sf.openrocket.simulation.FlightDataType;
 import net.sf.openrocket.simulation.FlightEvent;
 import net.sf.openrocket.unit.Unit;
+import net.sf.openrocket.util.BugException;
+import net.sf.openrocket.util.NumberCodec;
 import net.sf.openrocket.util.TextUtil;
 
 public class CSVExport {
 	
+	/** Size of the character buffer used when writing. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
 	/**
 	 * Exports the specified flight data branch into a CSV file.
 	 * 
@@ -38,6 +62,34 @@ public class CSVExport {
 			FlightDataBranch branch, FlightDataType[] fields, Unit[] units,
 			String fieldSeparator, String commentStarter, boolean simulationComments,
 			boolean fieldComments, boolean eventComments) throws IOException {
+		exportCSV(stream, simulation, branch, fields, units, fieldSeparator, commentStarter,
+				simulationComments, fieldComments, eventComments, 0);
+	}
+	
+	/**
+	 * Exports the specified flight data branch into a CSV file, omitting data points
+	 * that can be reproduced by linear interpolation within the given tolerance.
+	 * The points surrounding the flight events are always exported.
+	 * 
+	 * @param stream				the stream to write to.
+	 * @param simulation			the simulation being exported.
+	 * @param branch				the branch to export.
+	 * @param fields				the fields to export (in appropriate order).
+	 * @param units					the units of the fields.
+	 * @param fieldSeparator		the field separator string.
+	 * @param commentStarter		the comment starting character(s).
+	 * @param simulationComments	whether to output general simulation comments.
+	 * @param fieldComments			whether to output field comments.
+	 * @param eventComments			whether to output comments for the flight events.
+	 * @param tolerance				the maximum interpolation error relative to the range of
+	 * 								each field, zero to export all data points.
+	 * @throws IOException 			if an I/O exception occurs.
+	 * @see FlightDataDecimator#simplify(FlightDataBranch, FlightDataType[], double)
+	 */
+	public static void exportCSV(OutputStream stream, Simulation simulation,
+			FlightDataBranch branch, FlightDataType[] fields, Unit[] units,
+			String fieldSeparator, String commentStarter, boolean simulationComments,
+			boolean fieldComments, boolean eventComments, double tolerance) throws IOException {
 		
 		if (fields.length != units.length) {
 			throw new IllegalArgumentException("fields and units lengths must be equal " +
@@ -45,14 +97,16 @@ public class CSVExport {
 		}
 		
 
+		int[] points = FlightDataDecimator.simplify(branch, fields, tolerance);
+		
 		PrintWriter writer = null;
 		try {
 			
-			writer = new PrintWriter(stream);
+			writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(stream), BUFFER_SIZE));
 			
 			// Write the initial comments
 			if (simulationComments) {
-				writeSimulationComments(writer, simulation, branch, fields, commentStarter);
+				writeSimulationComments(writer, simulation, branch, fields, points.length, commentStarter);
 			}
 			
 			if (simulationComments && fieldComments) {
@@ -70,10 +124,14 @@ public class CSVExport {
 				writer.println();
 			}
 			
-			writeData(writer, branch, fields, units, fieldSeparator,
+			writeData(writer, branch, points, fields, units, fieldSeparator,
 					eventComments, commentStarter);
 			
-
+			writer.flush();
+			if (writer.checkError()) {
+				throw new IOException("Error writing CSV data");
+			}
+			
 		} finally {
 			if (writer != null) {
 				try {
@@ -85,27 +143,187 @@ public class CSVExport {
 		}
 	}
 	
-	private static void writeData(PrintWriter writer, FlightDataBranch branch,
+	/**
+	 * Exports all branches of the specified simulations into a ZIP archive with one
+	 * CSV file per branch.  The files are formatted concurrently and written to the
+	 * archive in order.  Simulations without flight data are skipped.
+	 * 
+	 * @param stream				the stream to write the ZIP archive to.
+	 * @param simulations			the simulations to export.
+	 * @param threadCount			the number of files to format concurrently.
+	 * @throws IOException			if an I/O exception occurs.
+	 * @see #exportCSV(OutputStream, Simulation, FlightDataBranch, FlightDataType[], Unit[],
+	 * 		String, String, boolean, boolean, boolean, double)
+	 */
+	public static void exportZip(OutputStream stream, List<Simulation> simulations,
+			final FlightDataType[] fields, final Unit[] units, final String fieldSeparator,
+			final String commentStarter, final boolean simulationComments, final boolean fieldComments,
+			final boolean eventComments, final double tolerance, int threadCount) throws IOException {
+		
+		List<ExportItem> items = getExportItems(simulations);
+		ExecutorService executor = createExecutor(threadCount);
+		try {
+			ZipOutputStream zip = new ZipOutputStream(stream);
+			
+			// Keep a limited number of formatted files in memory
+			int window = 2 * threadCount;
+			List<Future<byte[]>> futures = new ArrayList<Future<byte[]>>();
+			for (int i = 0; i < items.size() + window; i++) {
+				if (i < items.size()) {
+					final ExportItem item = items.get(i);
+					futures.add(executor.submit(new Callable<byte[]>() {
+						@Override
+						public byte[] call() throws IOException {
+							ByteArrayOutputStream out = new ByteArrayOutputStream();
+							exportCSV(out, item.simulation, item.branch, fields, units, fieldSeparator,
+									commentStarter, simulationComments, fieldComments, eventComments, tolerance);
+							return out.toByteArray();
+						}
+					}));
+				}
+				int n = i - window;
+				if (n >= 0 && n < items.size()) {
+					byte[] data = waitFor(futures.get(n));
+					futures.set(n, null);
+					zip.putNextEntry(new ZipEntry(items.get(n).fileName));
+					zip.write(data);
+					zip.closeEntry();
+				}
+			}
+			zip.finish();
+			zip.flush();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Exports all branches of the specified simulations into separate CSV files in a
+	 * directory.  The files are written concurrently.  Simulations without flight data
+	 * are skipped.
+	 * 
+	 * @param directory				the directory to write the files to.
+	 * @param simulations			the simulations to export.
+	 * @param threadCount			the number of files to write concurrently.
+	 * @return						the files written.
+	 * @throws IOException			if an I/O exception occurs.
+	 * @see #exportCSV(OutputStream, Simulation, FlightDataBranch, FlightDataType[], Unit[],
+	 * 		String, String, boolean, boolean, boolean, double)
+	 */
+	public static List<File> exportFiles(File directory, List<Simulation> simulations,
+			final FlightDataType[] fields, final Unit[] units, final String fieldSeparator,
+			final String commentStarter, final boolean simulationComments, final boolean fieldComments,
+			final boolean eventComments, final double tolerance, int threadCount) throws IOException {
+		
+		List<ExportItem> items = getExportItems(simulations);
+		List<File> files = new ArrayList<File>();
+		ExecutorService executor = createExecutor(threadCount);
+		try {
+			List<Future<byte[]>> futures = new ArrayList<Future<byte[]>>();
+			for (final ExportItem item : items) {
+				final File file = new File(directory, item.fileName);
+				files.add(file);
+				futures.add(executor.submit(new Callable<byte[]>() {
+					@Override
+					public byte[] call() throws IOException {
+						OutputStream out = new FileOutputStream(file);
+						try {
+							exportCSV(out, item.simulation, item.branch, fields, units, fieldSeparator,
+									commentStarter, simulationComments, fieldComments, eventComments, tolerance);
+						} finally {
+							out.close();
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<byte[]> f : futures) {
+				waitFor(f);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return files;
+	}
+	
+	
+	/**
+	 * Return the branches to export with unique file names.
+	 */
+	private static List<ExportItem> getExportItems(List<Simulation> simulations) {
+		List<ExportItem> items = new ArrayList<ExportItem>();
+		Set<String> names = new HashSet<String>();
+		for (Simulation simulation : simulations) {
+			FlightData data = simulation.getSimulatedData();
+			if (data == null) {
+				continue;
+			}
+			for (int i = 0; i < data.getBranchCount(); i++) {
+				FlightDataBranch branch = data.getBranch(i);
+				String base = fileName(simulation.getName());
+				if (i > 0) {
+					base += "-" + fileName(branch.getBranchName());
+				}
+				String name = base;
+				for (int n = 2; !names.add(name.toLowerCase(Locale.ENGLISH)); n++) {
+					name = base + "-" + n;
+				}
+				items.add(new ExportItem(simulation, branch, name + ".csv"));
+			}
+		}
+		return items;
+	}
+	
+	private static String fileName(String name) {
+		name = name.replaceAll("[^A-Za-z0-9._-]+", "_");
+		if (name.length() == 0) {
+			name = "_";
+		}
+		return name;
+	}
+	
+	private static ExecutorService createExecutor(int threadCount) {
+		return Executors.newFixedThreadPool(Math.max(threadCount, 1), new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "CSVExport");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+	
+	private static <T> T waitFor(Future<T> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("CSV export was interrupted");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new BugException("Unexpected exception during CSV export", cause);
+		}
+	}
+	
+	
+	private static void writeData(PrintWriter writer, FlightDataBranch branch, int[] points,
 			FlightDataType[] fields, Unit[] units, String fieldSeparator, boolean eventComments,
 			String commentStarter) {
 		
-		// Number of data points
-		int n = branch.getLength();
-		
 		// Flight events in occurrance order
 		List<FlightEvent> events = branch.getEvents();
 		Collections.sort(events);
 		int eventPosition = 0;
 		
-		// List of field values
-		List<List<Double>> fieldValues = new ArrayList<List<Double>>();
-		for (FlightDataType t : fields) {
-			fieldValues.add(branch.get(t));
-		}
-		
 		// Time variable
-		List<Double> time = branch.get(FlightDataType.TYPE_TIME);
-		if (eventComments && time == null) {
+		boolean hasTime = Arrays.asList(branch.getTypes()).contains(FlightDataType.TYPE_TIME);
+		if (eventComments && !hasTime) {
 			// If time information is not available, print events at beginning of file
 			for (FlightEvent e : events) {
 				printEvent(writer, e, commentStarter);
@@ -113,13 +331,17 @@ public class CSVExport {
 			eventPosition = events.size();
 		}
 		
-
-		// Loop over all data points
-		for (int pos = 0; pos < n; pos++) {
+		// The values are formatted into a reused line buffer
+		char[] separator = fieldSeparator.toCharArray();
+		char[] newline = System.getProperty("line.separator").toCharArray();
+		char[] line = new char[fields.length * (NumberCodec.MAX_CHARS + separator.length) + newline.length];
+		
+		// Loop over all selected data points
+		for (int pos : points) {
 			
 			// Check for events to store
-			if (eventComments && time != null) {
-				double t = time.get(pos);
+			if (eventComments && hasTime) {
+				double t = branch.getValue(FlightDataType.TYPE_TIME, pos);
 				
 				while ((eventPosition < events.size()) &&
 						(events.get(eventPosition).getTime() <= t)) {
@@ -129,19 +351,23 @@ public class CSVExport {
 			}
 			
 			// Store CSV line
+			int length = 0;
 			for (int i = 0; i < fields.length; i++) {
-				double value = fieldValues.get(i).get(pos);
-				writer.print(TextUtil.doubleToString(units[i].toUnit(value)));
+				double value = branch.getValue(fields[i], pos);
+				length = NumberCodec.formatCompact(units[i].toUnit(value), line, length);
 				if (i < fields.length - 1) {
-					writer.print(fieldSeparator);
+					System.arraycopy(separator, 0, line, length, separator.length);
+					length += separator.length;
 				}
 			}
-			writer.println();
+			System.arraycopy(newline, 0, line, length, newline.length);
+			length += newline.length;
+			writer.write(line, 0, length);
 			
 		}
 		
 		// Store any remaining events
-		if (eventComments && time != null) {
+		if (eventComments && hasTime) {
 			while (eventPosition < events.size()) {
 				printEvent(writer, events.get(eventPosition), commentStarter);
 				eventPosition++;
@@ -159,7 +385,7 @@ public class CSVExport {
 	
 	private static void writeSimulationComments(PrintWriter writer,
 			Simulation simulation, FlightDataBranch branch, FlightDataType[] fields,
-			String commentStarter) {
+			int pointCount, String commentStarter) {
 		
 		String line;
 		
@@ -192,7 +418,7 @@ public class CSVExport {
 		writer.println(commentStarter + " " + line);
 		
 
-		writer.println(commentStarter + " " + branch.getLength() + " data points written for "
+		writer.println(commentStarter + " " + pointCount + " data points written for "
 				+ fields.length + " variables.");
 		
 
@@ -210,4 +436,17 @@ public class CSVExport {
 		}
 	}
 	
+	
+	private static class ExportItem {
+		private final Simulation simulation;
+		private final FlightDataBranch branch;
+		private final String fileName;
+		
+		public ExportItem(Simulation simulation, FlightDataBranch branch, String fileName) {
+			this.simulation = simulation;
+			this.branch = branch;
+			this.fileName = fileName;
+		}
+	}
+	
 }
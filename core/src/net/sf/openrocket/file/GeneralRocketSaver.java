@@ -179,7 +179,7 @@ public class GeneralRocketSaver {
 		
 		// Open a zip stream to write to.
 		ZipOutputStream zos = new ZipOutputStream(output);
-		zos.setLevel(9);
+		zos.setLevel(options.getCompressionLevel());
 		// big try block to close the zos.
 		try {
 			
@@ -230,6 +230,7 @@ public class GeneralRocketSaver {
 		
 		private long estimatedSize;
 		private long bytesWritten = 0;
+		private int lastProgress = -1;
 		private SavingProgress progressCallback;
 		
 		ProgressOutputStream(OutputStream ostream, long estimatedSize, SavingProgress progressCallback) {
@@ -240,21 +241,15 @@ public class GeneralRocketSaver {
 		
 		@Override
 		public void write(int b) throws IOException {
-			super.write(b);
+			out.write(b);
 			bytesWritten++;
 			updateProgress();
 		}
 		
-		@Override
-		public void write(byte[] b) throws IOException {
-			super.write(b);
-			bytesWritten += b.length;
-			updateProgress();
-		}
-		
 		@Override
 		public void write(byte[] b, int off, int len) throws IOException {
-			super.write(b, off, len);
+			// FilterOutputStream would write and report the bytes one at a time
+			out.write(b, off, len);
 			bytesWritten += len;
 			updateProgress();
 		}
@@ -266,7 +261,10 @@ public class GeneralRocketSaver {
 					p = (int) Math.floor(bytesWritten * 100.0 / estimatedSize);
 					p = MathUtil.clamp(p, 0, 100);
 				}
-				progressCallback.setProgress(p);
+				if (p != lastProgress) {
+					lastProgress = p;
+					progressCallback.setProgress(p);
+				}
 			}
 		}
 		
@@ -117,18 +117,122 @@ public abstract class AbstractMotorLoader implements MotorLoader {
 	 * @return				the designation with a possible delay removed.
 	 */
 	protected static String removeDelay(String designation) {
-		if (designation.matches(".*-([0-9]+|[pP])$")) {
-			designation = designation.substring(0, designation.lastIndexOf('-'));
+		int dash = designation.lastIndexOf('-');
+		if (dash >= 0 && isDelay(designation, dash + 1, designation.length())) {
+			designation = designation.substring(0, dash);
 		}
 		return designation;
 	}
 	
+	/**
+	 * Return whether the given part of a string is a delay, either digits only or
+	 * the letter P.
+	 */
+	private static boolean isDelay(String str, int start, int end) {
+		if (end - start == 1 && (str.charAt(start) == 'p' || str.charAt(start) == 'P')) {
+			return true;
+		}
+		return isDigits(str, start, end);
+	}
+	
+	/**
+	 * Return whether the given part of a string is non-empty and consists of the
+	 * ASCII digits 0-9 only.
+	 */
+	protected static boolean isDigits(String str, int start, int end) {
+		if (start >= end) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			char c = str.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+	
 	
 	/**
 	 * Helper method to tokenize a string using whitespace as the delimiter.
 	 */
 	protected static String[] split(String str) {
-		return split(str, "\\s+");
+		int count = tokenize(str, null);
+		String[] pieces = new String[count];
+		tokenize(str, pieces);
+		return pieces;
+	}
+	
+	
+	/**
+	 * Tokenize a string using whitespace as the delimiter without regular expressions.
+	 * At most <code>tokens.length</code> tokens are stored in the array, but all
+	 * tokens are counted.
+	 * 
+	 * @param str		the string to tokenize.
+	 * @param tokens	the array to store the tokens in, or <code>null</code> to only count them.
+	 * @return			the number of tokens in the string.
+	 */
+	protected static int tokenize(String str, String[] tokens) {
+		final int length = str.length();
+		int count = 0;
+		int pos = 0;
+		while (true) {
+			while (pos < length && isWhitespace(str.charAt(pos))) {
+				pos++;
+			}
+			if (pos >= length) {
+				return count;
+			}
+			int start = pos;
+			while (pos < length && !isWhitespace(str.charAt(pos))) {
+				pos++;
+			}
+			if (tokens != null && count < tokens.length) {
+				tokens[count] = str.substring(start, pos);
+			}
+			count++;
+		}
+	}
+	
+	/**
+	 * Find the whitespace-delimited tokens of a string without creating substrings.
+	 * The start and end positions of token <code>i</code> are stored at indices
+	 * <code>2*i</code> and <code>2*i+1</code> of the bounds array.  At most
+	 * <code>bounds.length/2</code> tokens are stored, but all tokens are counted.
+	 * 
+	 * @param str		the string to tokenize.
+	 * @param bounds	the array to store the token positions in.
+	 * @return			the number of tokens in the string.
+	 */
+	protected static int findTokens(String str, int[] bounds) {
+		final int length = str.length();
+		int count = 0;
+		int pos = 0;
+		while (true) {
+			while (pos < length && isWhitespace(str.charAt(pos))) {
+				pos++;
+			}
+			if (pos >= length) {
+				return count;
+			}
+			int start = pos;
+			while (pos < length && !isWhitespace(str.charAt(pos))) {
+				pos++;
+			}
+			if (2 * count + 1 < bounds.length) {
+				bounds[2 * count] = start;
+				bounds[2 * count + 1] = pos;
+			}
+			count++;
+		}
+	}
+	
+	/**
+	 * Return whether a character is whitespace as defined by the regular expression <code>\s</code>.
+	 */
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
 	}
 	
 	
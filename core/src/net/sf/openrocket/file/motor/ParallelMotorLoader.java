@@ -0,0 +1,205 @@
+package net.sf.openrocket.file.motor;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import net.sf.openrocket.motor.Motor;
+import net.sf.openrocket.util.BugException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads thrust curve files and directories using a pool of worker threads with
+ * one parse task per file.  Directories are scanned recursively in the same order
+ * as {@link net.sf.openrocket.file.iterator.DirectoryIterator} would, and the motors
+ * are returned in that order regardless of which files are parsed first.  The
+ * caller can therefore add the motors to a database from a single thread and get
+ * the same result as with sequential loading.
+ * <p>
+ * Any errors while loading individual files are logged, but otherwise ignored.
+ */
+public class ParallelMotorLoader {
+
+	private static final Logger log = LoggerFactory.getLogger(ParallelMotorLoader.class);
+
+	private final FileFilter filter;
+	private final int threadCount;
+
+
+	/**
+	 * Create a loader using as many threads as there are processors available.
+	 *
+	 * @param filter	the filter for selecting the files within directories.
+	 */
+	public ParallelMotorLoader(FileFilter filter) {
+		this(filter, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create a loader.
+	 *
+	 * @param filter		the filter for selecting the files within directories.
+	 * @param threadCount	the number of files to parse concurrently.
+	 */
+	public ParallelMotorLoader(FileFilter filter, int threadCount) {
+		this.filter = filter;
+		this.threadCount = Math.max(threadCount, 1);
+	}
+
+
+	/**
+	 * Load the motors from the specified files and directories.  Files given directly
+	 * are loaded even if they are not accepted by the filter.
+	 *
+	 * @param targets	the files and directories to load.
+	 * @return			the motors loaded, in the order of the files.
+	 */
+	public List<Motor> load(List<File> targets) {
+		List<File> files = new ArrayList<File>();
+		for (File target : targets) {
+			if (target.isFile()) {
+				files.add(target);
+			} else if (target.isDirectory()) {
+				listFiles(target, files);
+			} else {
+				log.warn("Motor file " + target + " is neither file nor directory");
+			}
+		}
+
+		List<Motor> motors = new ArrayList<Motor>();
+		if (files.isEmpty()) {
+			return motors;
+		}
+
+		ExecutorService executor = createExecutor(Math.min(threadCount, files.size()));
+		try {
+			// Keep a limited number of parsed files in memory
+			int window = 4 * threadCount;
+			List<Future<List<Motor>>> futures = new ArrayList<Future<List<Motor>>>();
+			for (int i = 0; i < files.size() + window; i++) {
+				if (i < files.size()) {
+					final File file = files.get(i);
+					futures.add(executor.submit(new Callable<List<Motor>>() {
+						@Override
+						public List<Motor> call() {
+							return loadFile(file);
+						}
+					}));
+				}
+				int n = i - window;
+				if (n >= 0 && n < files.size()) {
+					List<Motor> list = waitFor(futures.get(n));
+					if (list == null) {
+						log.warn("Motor loading interrupted after " + n + " of " + files.size() + " files");
+						break;
+					}
+					motors.addAll(list);
+					futures.set(n, null);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		log.debug("Loaded " + motors.size() + " motors from " + files.size() + " files");
+		return motors;
+	}
+
+
+	/**
+	 * Add the files within a directory recursively to the list, skipping hidden files.
+	 */
+	private void listFiles(File directory, List<File> files) {
+		File[] list = directory.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(File file) {
+				if (file.getName().startsWith(".")) {
+					return false;
+				}
+				return file.isDirectory() || filter.accept(file);
+			}
+		});
+		if (list == null) {
+			log.warn("Unable to read directory " + directory);
+			return;
+		}
+
+		for (File file : list) {
+			if (file.isDirectory()) {
+				listFiles(file, files);
+			} else {
+				files.add(file);
+			}
+		}
+	}
+
+
+	private static List<Motor> loadFile(File file) {
+		InputStream is = null;
+		try {
+			log.debug("Loading motors from file " + file);
+			is = new BufferedInputStream(new FileInputStream(file));
+			return new GeneralMotorLoader().load(is, file.getName());
+		} catch (IOException e) {
+			log.warn("IOException while loading file " + file + ": " + e, e);
+			return Collections.emptyList();
+		} finally {
+			if (is != null) {
+				try {
+					is.close();
+				} catch (IOException e) {
+					log.error("Could not close file " + file, e);
+				}
+			}
+		}
+	}
+
+
+	private static ExecutorService createExecutor(int threadCount) {
+		return Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "ParallelMotorLoader");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	/**
+	 * Wait for a parse task to complete.
+	 * 
+	 * @return	the motors, or <code>null</code> if the current thread was interrupted.
+	 */
+	private static List<Motor> waitFor(Future<List<Motor>> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new BugException("Unexpected exception while loading motors", cause);
+		}
+	}
+}
@@ -5,7 +5,7 @@ import java.io.IOException;
 import java.io.Reader;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 
 import net.sf.openrocket.motor.Manufacturer;
@@ -14,6 +14,7 @@ import net.sf.openrocket.motor.MotorDigest;
 import net.sf.openrocket.motor.MotorDigest.DataType;
 import net.sf.openrocket.motor.ThrustCurveMotor;
 import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.NumberCodec;
 
 public class RASPMotorLoader extends AbstractMotorLoader {
 	
@@ -48,79 +49,92 @@ public class RASPMotorLoader extends AbstractMotorLoader {
 		
 		String manufacturer = "";
 		String designation = "";
-		String comment = "";
+		StringBuilder comment = new StringBuilder();
 		
 		double length = 0;
 		double diameter = 0;
-		ArrayList<Double> delays = null;
+		double[] delays = new double[8];
+		int delayCount;
 		
-		List<Double> time = new ArrayList<Double>();
-		List<Double> thrust = new ArrayList<Double>();
+		ThrustCurveBuffer data = new ThrustCurveBuffer(2);
 		
 		double propW = 0;
 		double totalW = 0;
 		
 		try {
 			String line;
-			String[] pieces, buf;
+			String[] pieces = new String[7];
+			int[] bounds = new int[4];
 			
 			line = in.readLine();
 			main: while (line != null) { // Until EOF
 			
 				manufacturer = "";
 				designation = "";
-				comment = "";
+				comment.setLength(0);
 				length = 0;
 				diameter = 0;
-				delays = new ArrayList<Double>();
+				delayCount = 0;
 				propW = 0;
 				totalW = 0;
-				time.clear();
-				thrust.clear();
+				data.clear();
 				
 				// Read comment
 				while (line.length() == 0 || line.charAt(0) == ';') {
 					if (line.length() > 0) {
-						comment += line.substring(1).trim() + "\n";
+						comment.append(line.substring(1).trim()).append('\n');
 					}
 					line = in.readLine();
 					if (line == null)
 						break main;
 				}
-				comment = comment.trim();
 				
 				// Parse header line, example:
 				// F32 24 124 5-10-15-P .0377 .0695 RV
 				// desig diam len delays prop.w tot.w manufacturer
-				pieces = split(line);
-				if (pieces.length != 7) {
+				if (tokenize(line, pieces) != 7) {
 					throw new IOException("Illegal file format.");
 				}
 				
 				designation = pieces[0];
-				diameter = Double.parseDouble(pieces[1]) / 1000.0;
-				length = Double.parseDouble(pieces[2]) / 1000.0;
+				diameter = NumberCodec.parseDouble(pieces[1]) / 1000.0;
+				length = NumberCodec.parseDouble(pieces[2]) / 1000.0;
 				
 				if (pieces[3].equalsIgnoreCase("None")) {
 					
 				} else {
-					buf = split(pieces[3], "[-,]+");
-					for (int i = 0; i < buf.length; i++) {
-						if (buf[i].equalsIgnoreCase("P") ||
-								buf[i].equalsIgnoreCase("plugged")) {
-							delays.add(Motor.PLUGGED);
-						} else if (buf[i].matches("[0-9]+")) {
-							// Many RASP files have "100" as an only delay
-							double d = Double.parseDouble(buf[i]);
-							if (d < 99)
-								delays.add(d);
+					// Delays are separated by dashes and commas
+					String str = pieces[3];
+					int pos = 0;
+					while (pos < str.length()) {
+						int end = pos;
+						while (end < str.length() && str.charAt(end) != '-' && str.charAt(end) != ',') {
+							end++;
 						}
+						if (end > pos) {
+							double d = Double.NaN;
+							String delay = str.substring(pos, end);
+							if (delay.equalsIgnoreCase("P") || delay.equalsIgnoreCase("plugged")) {
+								d = Motor.PLUGGED;
+							} else if (isDigits(delay, 0, delay.length())) {
+								// Many RASP files have "100" as an only delay
+								d = NumberCodec.parseDouble(delay);
+								if (d >= 99)
+									d = Double.NaN;
+							}
+							if (!Double.isNaN(d)) {
+								if (delayCount == delays.length) {
+									delays = Arrays.copyOf(delays, delayCount * 2);
+								}
+								delays[delayCount++] = d;
+							}
+						}
+						pos = end + 1;
 					}
-					Collections.sort(delays);
 				}
 				
-				propW = Double.parseDouble(pieces[4]);
-				totalW = Double.parseDouble(pieces[5]);
+				propW = NumberCodec.parseDouble(pieces[4]);
+				totalW = NumberCodec.parseDouble(pieces[5]);
 				manufacturer = pieces[6];
 				
 				if (propW > totalW) {
@@ -131,13 +145,13 @@ public class RASPMotorLoader extends AbstractMotorLoader {
 				// Read the data
 				for (line = in.readLine(); (line != null) && (line.length() == 0 || line.charAt(0) != ';'); line = in.readLine()) {
 					
-					buf = split(line);
-					if (buf.length == 0) {
+					int count = findTokens(line, bounds);
+					if (count == 0) {
 						continue;
-					} else if (buf.length == 2) {
+					} else if (count == 2) {
 						
-						time.add(Double.parseDouble(buf[0]));
-						thrust.add(Double.parseDouble(buf[1]));
+						data.add(NumberCodec.parseDouble(line, bounds[0], bounds[1]),
+								NumberCodec.parseDouble(line, bounds[2], bounds[3]));
 						
 					} else {
 						throw new IOException("Illegal file format.");
@@ -145,15 +159,13 @@ public class RASPMotorLoader extends AbstractMotorLoader {
 				}
 				
 				// Comment of EOF encountered, marks the start of the next motor
-				if (time.size() < 2) {
+				if (data.size() < 2) {
 					throw new IOException("Illegal file format, too short thrust-curve.");
 				}
-				double[] delayArray = new double[delays.size()];
-				for (int i = 0; i < delays.size(); i++) {
-					delayArray[i] = delays.get(i);
-				}
-				motors.add(createRASPMotor(manufacturer, designation, comment,
-						length, diameter, delayArray, propW, totalW, time, thrust));
+				double[] delayArray = Arrays.copyOf(delays, delayCount);
+				Arrays.sort(delayArray);
+				motors.add(createRASPMotor(manufacturer, designation, comment.toString().trim(),
+						length, diameter, delayArray, propW, totalW, data));
 			}
 			
 		} catch (NumberFormatException e) {
@@ -172,21 +184,19 @@ public class RASPMotorLoader extends AbstractMotorLoader {
 	 */
 	private static Motor createRASPMotor(String manufacturer, String designation,
 			String comment, double length, double diameter, double[] delays,
-			double propW, double totalW, List<Double> time, List<Double> thrust)
+			double propW, double totalW, ThrustCurveBuffer data)
 			throws IOException {
 		
 		// Add zero time/thrust if necessary
-		sortLists(time, thrust);
-		finalizeThrustCurve(time, thrust);
-		List<Double> mass = calculateMass(time, thrust, totalW, propW);
+		data.sort();
+		data.finalizeThrustCurve();
+		double[] mass = data.calculateMass(totalW, propW);
 		
-		double[] timeArray = new double[time.size()];
-		double[] thrustArray = new double[time.size()];
-		Coordinate[] cgArray = new Coordinate[time.size()];
-		for (int i = 0; i < time.size(); i++) {
-			timeArray[i] = time.get(i);
-			thrustArray[i] = thrust.get(i);
-			cgArray[i] = new Coordinate(length / 2, 0, 0, mass.get(i));
+		double[] timeArray = data.toArray(ThrustCurveBuffer.TIME);
+		double[] thrustArray = data.toArray(ThrustCurveBuffer.THRUST);
+		Coordinate[] cgArray = new Coordinate[timeArray.length];
+		for (int i = 0; i < timeArray.length; i++) {
+			cgArray[i] = new Coordinate(length / 2, 0, 0, mass[i]);
 		}
 		
 		designation = removeDelay(designation);
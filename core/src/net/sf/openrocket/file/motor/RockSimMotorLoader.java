@@ -4,14 +4,9 @@ import java.io.IOException;
 import java.io.Reader;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 
-import net.sf.openrocket.aerodynamics.WarningSet;
-import net.sf.openrocket.file.simplesax.AbstractElementHandler;
-import net.sf.openrocket.file.simplesax.ElementHandler;
-import net.sf.openrocket.file.simplesax.NullElementHandler;
-import net.sf.openrocket.file.simplesax.PlainTextHandler;
 import net.sf.openrocket.file.simplesax.SimpleSAX;
 import net.sf.openrocket.motor.Manufacturer;
 import net.sf.openrocket.motor.Motor;
@@ -19,11 +14,14 @@ import net.sf.openrocket.motor.MotorDigest;
 import net.sf.openrocket.motor.MotorDigest.DataType;
 import net.sf.openrocket.motor.ThrustCurveMotor;
 import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.NumberCodec;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 public class RockSimMotorLoader extends AbstractMotorLoader {
 	
@@ -63,10 +61,9 @@ public class RockSimMotorLoader extends AbstractMotorLoader {
 	public List<Motor> load(Reader reader, String filename) throws IOException {
 		InputSource source = new InputSource(reader);
 		RSEHandler handler = new RSEHandler();
-		WarningSet warnings = new WarningSet();
 		
 		try {
-			SimpleSAX.readXML(source, handler, warnings);
+			SimpleSAX.readXML(source, handler);
 			return handler.getMotors();
 		} catch (SAXException e) {
 			throw new IOException(e.getMessage(), e);
@@ -76,56 +73,131 @@ public class RockSimMotorLoader extends AbstractMotorLoader {
 	
 	
 	/**
-	 * Initial handler for the RockSim engine files.
+	 * SAX handler for the RockSim engine files.  The format is flat enough that a
+	 * single state machine reading the SAX attributes directly is sufficient, which
+	 * avoids creating handler objects and attribute maps for every data point.
+	 * <p>
+	 * Unknown elements and elements in other namespaces are ignored together with
+	 * their contents.
 	 */
-	private static class RSEHandler extends AbstractElementHandler {
+	private static class RSEHandler extends DefaultHandler {
+		
+		// Parsing states
+		private static final int ROOT = 0;
+		private static final int ENGINE = 1;
+		private static final int COMMENTS = 2;
+		private static final int DATA = 3;
+		private static final int ENG_DATA = 4;
+		
 		private final List<Motor> motors = new ArrayList<Motor>();
+		private final StringBuilder content = new StringBuilder();
 		
 		private RSEMotorHandler motorHandler;
+		private int state = ROOT;
+		
+		// Ignore all elements as long as ignore > 0
+		private int ignore = 0;
 		
 		public List<Motor> getMotors() {
 			return motors;
 		}
 		
 		@Override
-		public ElementHandler openElement(String element,
-				HashMap<String, String> attributes, WarningSet warnings) throws SAXException {
+		public void startElement(String uri, String localName, String name,
+				Attributes attributes) throws SAXException {
 			
-			if (element.equals("engine-database") ||
-					element.equals("engine-list")) {
-				// Ignore <engine-database> and <engine-list> elements
-				return this;
+			if (ignore > 0 || !uri.equals("")) {
+				ignore++;
+				return;
 			}
 			
-			if (element.equals("version")) {
-				// Ignore <version> elements completely
-				return null;
-			}
+			switch (state) {
+			case ROOT:
+				if (localName.equals("engine-database") ||
+						localName.equals("engine-list")) {
+					// Ignore <engine-database> and <engine-list> elements
+					return;
+				}
+				if (localName.equals("engine")) {
+					motorHandler = new RSEMotorHandler(attributes);
+					state = ENGINE;
+					return;
+				}
+				// Ignore <version> and unknown elements completely
+				break;
+			
+			case ENGINE:
+				if (localName.equals("comments")) {
+					content.setLength(0);
+					state = COMMENTS;
+					return;
+				}
+				if (localName.equals("data")) {
+					motorHandler.startData();
+					state = DATA;
+					return;
+				}
+				break;
 			
-			if (element.equals("engine")) {
-				motorHandler = new RSEMotorHandler(attributes);
-				return motorHandler;
+			case DATA:
+				if (localName.equals("eng-data")) {
+					motorHandler.addDataPoint(attributes);
+					state = ENG_DATA;
+					return;
+				}
+				break;
 			}
 			
-			return null;
+			ignore++;
 		}
 		
 		@Override
-		public void closeElement(String element, HashMap<String, String> attributes,
-				String content, WarningSet warnings) throws SAXException {
+		public void characters(char[] chars, int start, int length) {
+			if (ignore == 0 && state == COMMENTS) {
+				content.append(chars, start, length);
+			}
+		}
+		
+		@Override
+		public void endElement(String uri, String localName, String name) throws SAXException {
 			
-			if (element.equals("engine")) {
-				Motor motor = motorHandler.getMotor();
-				motors.add(motor);
+			if (ignore > 0) {
+				ignore--;
+				return;
+			}
+			
+			switch (state) {
+			case ENGINE:
+				motors.add(motorHandler.getMotor());
+				motorHandler = null;
+				state = ROOT;
+				break;
+			
+			case COMMENTS:
+				motorHandler.addComment(content.toString());
+				state = ENGINE;
+				break;
+			
+			case DATA:
+				motorHandler.endData();
+				state = ENGINE;
+				break;
+			
+			case ENG_DATA:
+				state = DATA;
+				break;
 			}
 		}
 	}
 	
 	
 	/**
-	 * Handler for a RockSim engine file <motor> element.
+	 * Collects the data of a RockSim engine file <engine> element.
 	 */
-	private static class RSEMotorHandler extends AbstractElementHandler {
+	private static class RSEMotorHandler {
+		
+		private static final int MASS = 2;
+		private static final int CG = 3;
 		
 		private final String manufacturer;
 		private final String designation;
@@ -140,90 +212,96 @@ public class RockSimMotorLoader extends AbstractMotorLoader {
 		
 		private String description = "";
 		
-		private List<Double> time;
-		private List<Double> force;
-		private List<Double> mass;
-		private List<Double> cg;
-		
-		private RSEMotorDataHandler dataHandler = null;
+		private ThrustCurveBuffer data = null;
+		private boolean dataComplete = false;
 		
 		
-		public RSEMotorHandler(HashMap<String, String> attributes) throws SAXException {
+		public RSEMotorHandler(Attributes attributes) throws SAXException {
 			String str;
 			
 			// Manufacturer
-			str = attributes.get("mfg");
+			str = getAttribute(attributes, "mfg");
 			if (str == null)
 				throw new SAXException("Manufacturer missing");
 			manufacturer = str;
 			
 			// Designation
-			str = attributes.get("code");
+			str = getAttribute(attributes, "code");
 			if (str == null)
 				throw new SAXException("Designation missing");
 			designation = removeDelay(str);
 			
 			// Delays
-			ArrayList<Double> delayList = new ArrayList<Double>();
-			str = attributes.get("delays");
+			str = getAttribute(attributes, "delays");
+			double[] delayList = new double[4];
+			int delayCount = 0;
 			if (str != null) {
-				String[] split = str.split(",");
-				for (String delay : split) {
+				int pos = 0;
+				while (pos <= str.length()) {
+					int end = str.indexOf(',', pos);
+					if (end < 0) {
+						end = str.length();
+					}
+					String delay = str.substring(pos, end);
+					pos = end + 1;
+					double d;
 					try {
 						
-						double d = Double.parseDouble(delay);
+						d = NumberCodec.parseDouble(delay);
 						if (d >= DELAY_LIMIT)
 							d = Motor.PLUGGED;
-						delayList.add(d);
 						
 					} catch (NumberFormatException e) {
 						if (str.equalsIgnoreCase("P") || str.equalsIgnoreCase("plugged")) {
-							delayList.add(Motor.PLUGGED);
+							d = Motor.PLUGGED;
+						} else {
+							continue;
 						}
 					}
+					if (delayCount == delayList.length) {
+						delayList = Arrays.copyOf(delayList, delayCount * 2);
+					}
+					delayList[delayCount++] = d;
 				}
 			}
-			delays = new double[delayList.size()];
-			for (int i = 0; i < delayList.size(); i++) {
-				delays[i] = delayList.get(i);
-			}
+			delays = Arrays.copyOf(delayList, delayCount);
 			
 			// Diameter
-			str = attributes.get("dia");
+			str = getAttribute(attributes, "dia");
 			if (str == null)
 				throw new SAXException("Diameter missing");
 			try {
-				diameter = Double.parseDouble(str) / 1000.0;
+				diameter = NumberCodec.parseDouble(str) / 1000.0;
 			} catch (NumberFormatException e) {
 				throw new SAXException("Invalid diameter " + str);
 			}
 			
 			// Length
-			str = attributes.get("len");
+			str = getAttribute(attributes, "len");
 			if (str == null)
 				throw new SAXException("Length missing");
 			try {
-				length = Double.parseDouble(str) / 1000.0;
+				length = NumberCodec.parseDouble(str) / 1000.0;
 			} catch (NumberFormatException e) {
 				throw new SAXException("Invalid length " + str);
 			}
 			
 			// Initial mass
-			str = attributes.get("initWt");
+			str = getAttribute(attributes, "initWt");
 			if (str == null)
 				throw new SAXException("Initial mass missing");
 			try {
-				initMass = Double.parseDouble(str) / 1000.0;
+				initMass = NumberCodec.parseDouble(str) / 1000.0;
 			} catch (NumberFormatException e) {
 				throw new SAXException("Invalid initial mass " + str);
 			}
 			
 			// Propellant mass
-			str = attributes.get("propWt");
+			str = getAttribute(attributes, "propWt");
 			if (str == null)
 				throw new SAXException("Propellant mass missing");
 			try {
-				propMass = Double.parseDouble(str) / 1000.0;
+				propMass = NumberCodec.parseDouble(str) / 1000.0;
 			} catch (NumberFormatException e) {
 				throw new SAXException("Invalid propellant mass " + str);
 			}
@@ -234,7 +312,7 @@ public class RockSimMotorLoader extends AbstractMotorLoader {
 			}
 			
 			// Motor type
-			str = attributes.get("Type");
+			str = getAttribute(attributes, "Type");
 			if ("single-use".equalsIgnoreCase(str)) {
 				type = Motor.Type.SINGLE;
 			} else if ("hybrid".equalsIgnoreCase(str)) {
@@ -246,7 +324,7 @@ public class RockSimMotorLoader extends AbstractMotorLoader {
 			}
 			
 			// Calculate mass
-			str = attributes.get("auto-calc-mass");
+			str = getAttribute(attributes, "auto-calc-mass");
 			if ("0".equals(str) || "false".equalsIgnoreCase(str)) {
 				calculateMass = false;
 			} else {
@@ -254,7 +332,7 @@ public class RockSimMotorLoader extends AbstractMotorLoader {
 			}
 			
 			// Calculate CG
-			str = attributes.get("auto-calc-cg");
+			str = getAttribute(attributes, "auto-calc-cg");
 			if ("0".equals(str) || "false".equalsIgnoreCase(str)) {
 				calculateCG = false;
 			} else {
@@ -262,92 +340,82 @@ public class RockSimMotorLoader extends AbstractMotorLoader {
 			}
 		}
 		
-		@Override
-		public ElementHandler openElement(String element,
-				HashMap<String, String> attributes, WarningSet warnings) throws SAXException {
-			
-			if (element.equals("comments")) {
-				return PlainTextHandler.INSTANCE;
+		
+		public void addComment(String content) {
+			if (description.length() > 0) {
+				description = description + "\n\n" + content.trim();
+			} else {
+				description = content.trim();
 			}
-			
-			if (element.equals("data")) {
-				if (dataHandler != null) {
-					throw new SAXException("Multiple data elements encountered in motor " +
-							"definition");
-				}
-				dataHandler = new RSEMotorDataHandler();
-				return dataHandler;
+		}
+		
+		
+		public void startData() throws SAXException {
+			if (data != null) {
+				throw new SAXException("Multiple data elements encountered in motor " +
+						"definition");
 			}
-			
-			warnings.add("Unknown element '" + element + "' encountered, ignoring.");
-			return null;
+			data = new ThrustCurveBuffer(4);
 		}
 		
-		@Override
-		public void closeElement(String element, HashMap<String, String> attributes,
-				String content, WarningSet warnings) {
+		public void addDataPoint(Attributes attributes) throws SAXException {
+			double t = parseDouble(getAttribute(attributes, "t"));
+			double f = parseDouble(getAttribute(attributes, "f"));
+			double m = parseDouble(getAttribute(attributes, "m")) / 1000.0;
+			double g = parseDouble(getAttribute(attributes, "cg")) / 1000.0;
 			
-			if (element.equals("comments")) {
-				if (description.length() > 0) {
-					description = description + "\n\n" + content.trim();
-				} else {
-					description = content.trim();
-				}
-				return;
+			if (Double.isNaN(t) || Double.isNaN(f)) {
+				throw new SAXException("Illegal motor data point encountered");
 			}
 			
-			if (element.equals("data")) {
-				time = dataHandler.getTime();
-				force = dataHandler.getForce();
-				mass = dataHandler.getMass();
-				cg = dataHandler.getCG();
-				
-				sortLists(time, force, mass, cg);
-				
-				for (double d : mass) {
-					if (Double.isNaN(d)) {
-						calculateMass = true;
-						break;
-					}
+			data.add(t, f, m, g);
+		}
+		
+		public void endData() {
+			dataComplete = true;
+			data.sort();
+			
+			for (int i = 0; i < data.size(); i++) {
+				if (Double.isNaN(data.get(MASS, i))) {
+					calculateMass = true;
 				}
-				for (double d : cg) {
-					if (Double.isNaN(d)) {
-						calculateCG = true;
-						break;
-					}
+				if (Double.isNaN(data.get(CG, i))) {
+					calculateCG = true;
 				}
-				return;
 			}
 		}
 		
+		
 		public Motor getMotor() throws SAXException {
-			if (time == null || time.size() == 0)
+			if (!dataComplete || data.size() == 0)
 				throw new SAXException("Illegal motor data");
 			
-			finalizeThrustCurve(time, force, mass, cg);
+			data.finalizeThrustCurve();
 			
-			final int n = time.size();
+			final int n = data.size();
 			
-			if (hasIllegalValue(mass))
+			if (data.hasIllegalValue(MASS))
 				calculateMass = true;
-			if (hasIllegalValue(cg))
+			if (data.hasIllegalValue(CG))
 				calculateCG = true;
 			
+			double[] mass;
 			if (calculateMass) {
-				mass = calculateMass(time, force, initMass, propMass);
+				mass = data.calculateMass(initMass, propMass);
+			} else {
+				mass = data.toArray(MASS);
 			}
 			
+			double[] cg = data.toArray(CG);
 			if (calculateCG) {
-				for (int i = 0; i < n; i++) {
-					cg.set(i, length / 2);
-				}
+				Arrays.fill(cg, length / 2);
 			}
 			
-			double[] timeArray = toArray(time);
-			double[] thrustArray = toArray(force);
+			double[] timeArray = data.toArray(ThrustCurveBuffer.TIME);
+			double[] thrustArray = data.toArray(ThrustCurveBuffer.THRUST);
 			Coordinate[] cgArray = new Coordinate[n];
 			for (int i = 0; i < n; i++) {
-				cgArray[i] = new Coordinate(cg.get(i), 0, 0, mass.get(i));
+				cgArray[i] = new Coordinate(cg[i], 0, 0, mass[i]);
 			}
 			
 			
@@ -355,12 +423,12 @@ public class RockSimMotorLoader extends AbstractMotorLoader {
 			MotorDigest motorDigest = new MotorDigest();
 			motorDigest.update(DataType.TIME_ARRAY, timeArray);
 			if (!calculateMass) {
-				motorDigest.update(DataType.MASS_PER_TIME, toArray(mass));
+				motorDigest.update(DataType.MASS_PER_TIME, mass);
 			} else {
 				motorDigest.update(DataType.MASS_SPECIFIC, initMass, initMass - propMass);
 			}
 			if (!calculateCG) {
-				motorDigest.update(DataType.CG_PER_TIME, toArray(cg));
+				motorDigest.update(DataType.CG_PER_TIME, cg);
 			}
 			motorDigest.update(DataType.FORCE_PER_TIME, thrustArray);
 			final String digest = motorDigest.getDigest();
@@ -386,74 +454,13 @@ public class RockSimMotorLoader extends AbstractMotorLoader {
 				throw new SAXException("Illegal motor data", e);
 			}
 		}
-	}
-	
-	
-	/**
-	 * Handler for the <data> element in a RockSim engine file motor definition.
-	 */
-	private static class RSEMotorDataHandler extends AbstractElementHandler {
-		
-		private final List<Double> time = new ArrayList<Double>();
-		private final List<Double> force = new ArrayList<Double>();
-		private final List<Double> mass = new ArrayList<Double>();
-		private final List<Double> cg = new ArrayList<Double>();
-		
-		
-		public List<Double> getTime() {
-			return time;
-		}
-		
-		public List<Double> getForce() {
-			return force;
-		}
-		
-		public List<Double> getMass() {
-			return mass;
-		}
-		
-		public List<Double> getCG() {
-			return cg;
-		}
-		
-		
-		@Override
-		public ElementHandler openElement(String element,
-				HashMap<String, String> attributes, WarningSet warnings) {
-			
-			if (element.equals("eng-data")) {
-				return NullElementHandler.INSTANCE;
-			}
-			
-			warnings.add("Unknown element '" + element + "' encountered, ignoring.");
-			return null;
-		}
-		
-		@Override
-		public void closeElement(String element, HashMap<String, String> attributes,
-				String content, WarningSet warnings) throws SAXException {
-			
-			double t = parseDouble(attributes.get("t"));
-			double f = parseDouble(attributes.get("f"));
-			double m = parseDouble(attributes.get("m")) / 1000.0;
-			double g = parseDouble(attributes.get("cg")) / 1000.0;
-			
-			if (Double.isNaN(t) || Double.isNaN(f)) {
-				throw new SAXException("Illegal motor data point encountered");
-			}
-			
-			time.add(t);
-			force.add(f);
-			mass.add(m);
-			cg.add(g);
-		}
 		
 		
-		private double parseDouble(String str) {
+		private static double parseDouble(String str) {
 			if (str == null)
 				return Double.NaN;
 			try {
-				return Double.parseDouble(str);
+				return NumberCodec.parseDouble(str);
 			} catch (NumberFormatException e) {
 				return Double.NaN;
 			}
@@ -461,22 +468,17 @@ public class RockSimMotorLoader extends AbstractMotorLoader {
 	}
 	
 	
-	
-	private static boolean hasIllegalValue(List<Double> list) {
-		for (Double d : list) {
-			if (d == null || d.isNaN() || d.isInfinite()) {
-				return true;
+	/**
+	 * Return the value of an attribute by its local name, the last one if the
+	 * attribute is present several times.
+	 */
+	private static String getAttribute(Attributes attributes, String name) {
+		String value = null;
+		for (int i = 0; i < attributes.getLength(); i++) {
+			if (name.equals(attributes.getLocalName(i))) {
+				value = attributes.getValue(i);
 			}
 		}
-		return false;
-	}
-	
-	private static double[] toArray(List<Double> list) {
-		final int n = list.size();
-		double[] array = new double[n];
-		for (int i = 0; i < n; i++) {
-			array[i] = list.get(i);
-		}
-		return array;
+		return value;
 	}
 }
@@ -0,0 +1,193 @@
+package net.sf.openrocket.file.motor;
+
+import java.util.Arrays;
+
+import net.sf.openrocket.util.MathUtil;
+
+/**
+ * A growable set of parallel double columns used by the motor loaders to collect
+ * thrust curve data points without boxing.  The first column is always the time
+ * and the second one the thrust; further columns (e.g. mass and CG) are loader
+ * specific.
+ * <p>
+ * The helper methods perform exactly the same arithmetic as the corresponding
+ * list-based methods in {@link AbstractMotorLoader}, so that the motor digests
+ * remain unchanged.
+ */
+class ThrustCurveBuffer {
+
+	static final int TIME = 0;
+	static final int THRUST = 1;
+
+	private final double[][] columns;
+	private int size = 0;
+
+
+	ThrustCurveBuffer(int columnCount) {
+		if (columnCount < 2) {
+			throw new IllegalArgumentException("At least time and thrust columns are required");
+		}
+		columns = new double[columnCount][16];
+	}
+
+
+	void clear() {
+		size = 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	double get(int column, int index) {
+		return columns[column][index];
+	}
+
+	void set(int column, int index, double value) {
+		columns[column][index] = value;
+	}
+
+
+	/**
+	 * Add a data point.  The remaining columns of the point are set to NaN.
+	 */
+	void add(double time, double thrust) {
+		int index = addPoint();
+		columns[TIME][index] = time;
+		columns[THRUST][index] = thrust;
+		for (int c = 2; c < columns.length; c++) {
+			columns[c][index] = Double.NaN;
+		}
+	}
+
+	/**
+	 * Add a data point with values for four columns.
+	 */
+	void add(double time, double thrust, double value2, double value3) {
+		int index = addPoint();
+		columns[TIME][index] = time;
+		columns[THRUST][index] = thrust;
+		columns[2][index] = value2;
+		columns[3][index] = value3;
+	}
+
+	private int addPoint() {
+		if (size == columns[0].length) {
+			for (int c = 0; c < columns.length; c++) {
+				columns[c] = Arrays.copyOf(columns[c], size * 2);
+			}
+		}
+		return size++;
+	}
+
+
+	/**
+	 * Return a copy of a column trimmed to the number of data points.
+	 */
+	double[] toArray(int column) {
+		return Arrays.copyOf(columns[column], size);
+	}
+
+	/**
+	 * Return whether a column contains NaN or infinite values.
+	 */
+	boolean hasIllegalValue(int column) {
+		double[] values = columns[column];
+		for (int i = 0; i < size; i++) {
+			if (Double.isNaN(values[i]) || Double.isInfinite(values[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Sort the data points by time.  The sort is stable, as is
+	 * {@link AbstractMotorLoader#sortLists(java.util.List, java.util.List...)}, so
+	 * points with equal times keep their order.
+	 */
+	void sort() {
+		double[] time = columns[TIME];
+		for (int i = 1; i < size; i++) {
+			int j = i;
+			while (j > 0 && time[j] < time[j - 1]) {
+				for (double[] column : columns) {
+					double tmp = column[j];
+					column[j] = column[j - 1];
+					column[j - 1] = tmp;
+				}
+				j--;
+			}
+		}
+	}
+
+
+	/**
+	 * Add zero thrust points to the start and end of the thrust curve if necessary.
+	 * The other columns are copied from the adjacent point.
+	 *
+	 * @see AbstractMotorLoader#finalizeThrustCurve(java.util.List, java.util.List, java.util.List...)
+	 */
+	void finalizeThrustCurve() {
+		if (size == 0)
+			return;
+
+		// Start
+		if (!MathUtil.equals(columns[TIME][0], 0) || !MathUtil.equals(columns[THRUST][0], 0)) {
+			addPoint();
+			for (int c = 0; c < columns.length; c++) {
+				System.arraycopy(columns[c], 0, columns[c], 1, size - 1);
+			}
+			columns[TIME][0] = 0.0;
+			columns[THRUST][0] = 0.0;
+		}
+
+		// End
+		int n = size - 1;
+		if (!MathUtil.equals(columns[THRUST][n], 0)) {
+			int index = addPoint();
+			for (int c = 0; c < columns.length; c++) {
+				columns[c][index] = columns[c][n];
+			}
+			columns[THRUST][index] = 0.0;
+		}
+	}
+
+
+	/**
+	 * Calculate the mass of the motor at the data points assuming a constant
+	 * exhaust velocity.
+	 *
+	 * @param total		total weight of the motor
+	 * @param prop		propellant amount consumed during burning
+	 * @return			the mass at the data points
+	 * @see AbstractMotorLoader#calculateMass(java.util.List, java.util.List, double, double)
+	 */
+	double[] calculateMass(double total, double prop) {
+		double[] time = columns[TIME];
+		double[] thrust = columns[THRUST];
+		double[] mass = new double[size];
+
+		// First calculate mass change between points, stored temporarily in the result
+		double totalMassChange = 0;
+		for (int i = 1; i < size; i++) {
+			double dm = 0.5 * (thrust[i - 1] + thrust[i]) * (time[i] - time[i - 1]);
+			mass[i] = dm;
+			totalMassChange += dm;
+		}
+
+		// Scale mass change and calculate mass
+		mass[0] = total;
+		double scale = prop / totalMassChange;
+		for (int i = 1; i < size; i++) {
+			total -= mass[i] * scale;
+			// to correct negative mass error condition: (caused by rounding errors in the above loop)
+			if (total < 0) {
+				total = 0;
+			}
+			mass[i] = total;
+		}
+		return mass;
+	}
+}
@@ -1,20 +1,26 @@
 package net.sf.openrocket.file.openrocket;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import net.sf.openrocket.aerodynamics.Warning;
 import net.sf.openrocket.document.OpenRocketDocument;
 import net.sf.openrocket.document.Simulation;
 import net.sf.openrocket.document.StorageOptions;
 import net.sf.openrocket.file.RocketSaver;
+import net.sf.openrocket.models.wind.MeasuredWindModel;
 import net.sf.openrocket.rocketcomponent.DeploymentConfiguration.DeployEvent;
 import net.sf.openrocket.rocketcomponent.FinSet;
 import net.sf.openrocket.rocketcomponent.FlightConfigurableComponent;
@@ -27,6 +33,7 @@ import net.sf.openrocket.rocketcomponent.TubeCoupler;
 import net.sf.openrocket.rocketcomponent.TubeFinSet;
 import net.sf.openrocket.simulation.FlightData;
 import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataDecimator;
 import net.sf.openrocket.simulation.FlightDataType;
 import net.sf.openrocket.simulation.FlightEvent;
 import net.sf.openrocket.simulation.SimulationOptions;
@@ -53,8 +60,6 @@ public class OpenRocketSaver extends RocketSaver {
 	public static final int FILE_VERSION_DIVISOR = 100;
 	
 	
-	private static final String OPENROCKET_CHARSET = "UTF-8";
-	
 	private static final String METHOD_PACKAGE = "net.sf.openrocket.file.openrocket.savers";
 	private static final String METHOD_SUFFIX = "Saver";
 	
@@ -66,15 +71,47 @@ public class OpenRocketSaver extends RocketSaver {
 	private static final int BYTES_PER_DATAPOINT_COMPRESSED = 100;
 	
 	
+	/** Size of the encoding buffer, which is written to the output stream when full. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	/** Executor shared by all savers for formatting flight data, created when first needed. */
+	private static ExecutorService formatExecutor = null;
+	
+	
+	private final int threadCount;
+	
 	private int indent;
-	private Writer dest;
+	private XMLBuffer dest;
+	private OutputStream output;
+	
+	
+	/**
+	 * Create a saver that formats the simulation data using one thread per processor.
+	 */
+	public OpenRocketSaver() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Create a saver that formats the simulation data using the given number of threads.
+	 * The flight data of different simulations is formatted concurrently, and written
+	 * to the file in the document order.  The threads are shared by all savers, so at
+	 * most one thread per processor is used regardless of the thread count.
+	 * 
+	 * @param threadCount	the number of threads used for formatting the flight data.
+	 */
+	public OpenRocketSaver(int threadCount) {
+		this.threadCount = Math.max(threadCount, 1);
+	}
+	
 	
 	@Override
 	public void save(OutputStream output, OpenRocketDocument document, StorageOptions options) throws IOException {
 		
 		log.info("Saving .ork file");
 		
-		dest = new BufferedWriter(new OutputStreamWriter(output, OPENROCKET_CHARSET));
+		this.output = output;
+		this.dest = new XMLBuffer(BUFFER_SIZE);
 		
 		// Select file version number
 		final int fileVersion = calculateNecessaryFileVersion(document, options);
@@ -99,15 +136,21 @@ public class OpenRocketSaver extends RocketSaver {
 		// Save custom expressions;
 		saveCustomDatatypes(document);
 		
-		// Save all simulations
+		// Save all simulations, the flight data is formatted ahead on the background threads
 		writeln("<simulations>");
 		indent++;
-		boolean first = true;
-		for (Simulation s : document.getSimulations()) {
-			if (!first)
-				writeln("");
-			first = false;
-			saveSimulation(s, options.getSimulationTimeSkip());
+		FlightDataFormatter formatter = new FlightDataFormatter(document, options.getSimulationTimeSkip(),
+				options.getSimulationTolerance(), indent + 2, threadCount);
+		try {
+			boolean first = true;
+			for (Simulation s : document.getSimulations()) {
+				if (!first)
+					writeln("");
+				first = false;
+				saveSimulation(s, formatter);
+			}
+		} finally {
+			formatter.close();
 		}
 		indent--;
 		writeln("</simulations>");
@@ -116,7 +159,9 @@ public class OpenRocketSaver extends RocketSaver {
 		writeln("</openrocket>");
 		
 		log.debug("Writing complete, flushing buffers");
-		dest.flush();
+		dest.writeTo(output);
+		dest.clear();
+		output.flush();
 	}
 	
 	/*
@@ -181,12 +226,13 @@ public class OpenRocketSaver extends RocketSaver {
 		// Size per flight data point
 		int pointCount = 0;
 		double timeSkip = options.getSimulationTimeSkip();
+		double tolerance = options.getSimulationTolerance();
 		if (timeSkip != StorageOptions.SIMULATION_DATA_NONE) {
 			for (Simulation s : doc.getSimulations()) {
 				FlightData data = s.getSimulatedData();
 				if (data != null) {
 					for (int i = 0; i < data.getBranchCount(); i++) {
-						pointCount += countFlightDataBranchPoints(data.getBranch(i), timeSkip);
+						pointCount += countFlightDataBranchPoints(data.getBranch(i), timeSkip, tolerance);
 					}
 				}
 			}
@@ -224,6 +270,7 @@ public class OpenRocketSaver extends RocketSaver {
 		 * 
 		 * File version 1.7 is required for:
 		 *  - simulation extensions
+		 *  - measured wind profiles
 		 *  - saving tube fins.
 		 * 
 		 * File version 1.6 is required for:
@@ -249,7 +296,7 @@ public class OpenRocketSaver extends RocketSaver {
 		// Version 1.7 // 
 		/////////////////
 		for (Simulation sim : document.getSimulations()) {
-			if (!sim.getSimulationExtensions().isEmpty()) {
+			if (!sim.getSimulationExtensions().isEmpty() || sim.getOptions().getWindProfile() != null) {
 				return FILE_VERSION_DIVISOR + 7;
 			}
 		}
@@ -439,7 +486,7 @@ public class OpenRocketSaver extends RocketSaver {
 	}
 	
 	
-	private void saveSimulation(Simulation simulation, double timeSkip) throws IOException {
+	private void saveSimulation(Simulation simulation, FlightDataFormatter formatter) throws IOException {
 		SimulationOptions cond = simulation.getOptions();
 		
 		writeln("<simulation status=\"" + enumToXMLName(simulation.getStatus()) + "\">");
@@ -460,6 +507,20 @@ public class OpenRocketSaver extends RocketSaver {
 		writeElement("launchroddirection", cond.getLaunchRodDirection() * 360.0 / (2.0 * Math.PI));
 		writeElement("windaverage", cond.getWindSpeedAverage());
 		writeElement("windturbulence", cond.getWindTurbulenceIntensity());
+		
+		MeasuredWindModel windProfile = cond.getWindProfile();
+		if (windProfile != null) {
+			writeln("<windprofile>");
+			indent++;
+			for (int i = 0; i < windProfile.getPointCount(); i++) {
+				writeln("<windpoint altitude=\"" + windProfile.getAltitude(i) +
+						"\" speed=\"" + windProfile.getSpeed(i) +
+						"\" direction=\"" + (windProfile.getDirection(i) * 180.0 / Math.PI) + "\"/>");
+			}
+			indent--;
+			writeln("</windprofile>");
+		}
+		
 		writeElement("launchaltitude", cond.getLaunchAltitude());
 		writeElement("launchlatitude", cond.getLaunchLatitude());
 		writeElement("launchlongitude", cond.getLaunchLongitude());
@@ -499,42 +560,29 @@ public class OpenRocketSaver extends RocketSaver {
 		
 		FlightData data = simulation.getSimulatedData();
 		if (data != null) {
-			String str = "<flightdata";
-			if (!Double.isNaN(data.getMaxAltitude()))
-				str += " maxaltitude=\"" + TextUtil.doubleToString(data.getMaxAltitude()) + "\"";
-			if (!Double.isNaN(data.getMaxVelocity()))
-				str += " maxvelocity=\"" + TextUtil.doubleToString(data.getMaxVelocity()) + "\"";
-			if (!Double.isNaN(data.getMaxAcceleration()))
-				str += " maxacceleration=\"" + TextUtil.doubleToString(data.getMaxAcceleration()) + "\"";
-			if (!Double.isNaN(data.getMaxMachNumber()))
-				str += " maxmach=\"" + TextUtil.doubleToString(data.getMaxMachNumber()) + "\"";
-			if (!Double.isNaN(data.getTimeToApogee()))
-				str += " timetoapogee=\"" + TextUtil.doubleToString(data.getTimeToApogee()) + "\"";
-			if (!Double.isNaN(data.getFlightTime()))
-				str += " flighttime=\"" + TextUtil.doubleToString(data.getFlightTime()) + "\"";
-			if (!Double.isNaN(data.getGroundHitVelocity()))
-				str += " groundhitvelocity=\"" + TextUtil.doubleToString(data.getGroundHitVelocity()) + "\"";
-			if (!Double.isNaN(data.getLaunchRodVelocity()))
-				str += " launchrodvelocity=\"" + TextUtil.doubleToString(data.getLaunchRodVelocity()) + "\"";
-			if (!Double.isNaN(data.getDeploymentVelocity()))
-				str += " deploymentvelocity=\"" + TextUtil.doubleToString(data.getDeploymentVelocity()) + "\"";
-			str += ">";
-			writeln(str);
+			dest.indent(indent).append("<flightdata");
+			appendAttribute("maxaltitude", data.getMaxAltitude());
+			appendAttribute("maxvelocity", data.getMaxVelocity());
+			appendAttribute("maxacceleration", data.getMaxAcceleration());
+			appendAttribute("maxmach", data.getMaxMachNumber());
+			appendAttribute("timetoapogee", data.getTimeToApogee());
+			appendAttribute("flighttime", data.getFlightTime());
+			appendAttribute("groundhitvelocity", data.getGroundHitVelocity());
+			appendAttribute("launchrodvelocity", data.getLaunchRodVelocity());
+			appendAttribute("deploymentvelocity", data.getDeploymentVelocity());
+			dest.append(">\n");
 			indent++;
 			
 			for (Warning w : data.getWarningSet()) {
 				writeElement("warning", TextUtil.escapeXML(w.toString()));
 			}
 			
-			// Check whether to store data
-			if (simulation.getStatus() == Simulation.Status.EXTERNAL) // Always store external data
-				timeSkip = 0;
-			
-			if (timeSkip != StorageOptions.SIMULATION_DATA_NONE) {
-				for (int i = 0; i < data.getBranchCount(); i++) {
-					FlightDataBranch branch = data.getBranch(i);
-					saveFlightDataBranch(branch, timeSkip);
-				}
+			// Append the branches formatted by the formatter, if the data is stored
+			XMLBuffer branches = formatter.take(simulation);
+			if (branches != null) {
+				dest.writeTo(output);
+				dest.clear();
+				branches.writeTo(output);
 			}
 			
 			indent--;
@@ -580,10 +628,8 @@ public class OpenRocketSaver extends RocketSaver {
 		}
 	}
 	
-	private void saveFlightDataBranch(FlightDataBranch branch, double timeSkip)
+	private void saveFlightDataBranch(FlightDataBranch branch, double timeSkip, double tolerance)
 			throws IOException {
-		double previousTime = -100000;
-		
 		if (branch == null)
 			return;
 		
@@ -593,13 +639,6 @@ public class OpenRocketSaver extends RocketSaver {
 		if (types.length == 0)
 			return;
 		
-		// Retrieve the data from the branch
-		List<List<Double>> data = new ArrayList<List<Double>>(types.length);
-		for (int i = 0; i < types.length; i++) {
-			data.add(branch.get(types[i]));
-		}
-		List<Double> timeData = branch.get(FlightDataType.TYPE_TIME);
-		
 		// Build the <databranch> tag
 		StringBuilder sb = new StringBuilder();
 		sb.append("<databranch name=\"");
@@ -640,95 +679,55 @@ public class OpenRocketSaver extends RocketSaver {
 		
 		// Write events
 		for (FlightEvent event : branch.getEvents()) {
-			writeln("<event time=\"" + TextUtil.doubleToString(event.getTime())
-					+ "\" type=\"" + enumToXMLName(event.getType()) + "\"/>");
-		}
-		
-		// Write the data
-		int length = branch.getLength();
-		if (length > 0) {
-			writeDataPointString(data, 0, sb);
-			previousTime = timeData.get(0);
+			dest.indent(indent).append("<event time=\"").append(event.getTime())
+					.append("\" type=\"").append(enumToXMLName(event.getType())).append("\"/>\n");
 		}
 		
-		for (int i = 1; i < length - 1; i++) {
-			if (timeData != null) {
-				if (Math.abs(timeData.get(i) - previousTime - timeSkip) < Math.abs(timeData.get(i + 1) - previousTime - timeSkip)) {
-					writeDataPointString(data, i, sb);
-					previousTime = timeData.get(i);
-				}
-			} else {
-				// If time data is not available, write all points
-				writeDataPointString(data, i, sb);
-			}
-		}
-		
-		if (length > 1) {
-			writeDataPointString(data, length - 1, sb);
+		// Write the data, always including the points surrounding the flight events
+		for (int index : selectFlightDataPoints(branch, timeSkip, tolerance)) {
+			writeDataPoint(branch, types, index);
 		}
 		
 		indent--;
 		writeln("</databranch>");
 	}
 	
-	/* TODO: LOW: This is largely duplicated from above! */
-	private int countFlightDataBranchPoints(FlightDataBranch branch, double timeSkip) {
-		int count = 0;
-		
-		double previousTime = -100000;
-		
-		if (branch == null)
+	private int countFlightDataBranchPoints(FlightDataBranch branch, double timeSkip, double tolerance) {
+		if (branch == null || branch.getTypes().length == 0)
 			return 0;
-		
-		// Retrieve the types from the branch
-		FlightDataType[] types = branch.getTypes();
-		
-		if (types.length == 0)
-			return 0;
-		
-		List<Double> timeData = branch.get(FlightDataType.TYPE_TIME);
-		if (timeData == null) {
-			// If time data not available, store all points
-			return branch.getLength();
-		}
-		
-		// Write the data
-		int length = branch.getLength();
-		if (length > 0) {
-			count++;
-			previousTime = timeData.get(0);
-		}
-		
-		for (int i = 1; i < length - 1; i++) {
-			if (Math.abs(timeData.get(i) - previousTime - timeSkip) < Math.abs(timeData.get(i + 1) - previousTime - timeSkip)) {
-				count++;
-				previousTime = timeData.get(i);
-			}
-		}
-		
-		if (length > 1) {
-			count++;
+		return selectFlightDataPoints(branch, timeSkip, tolerance).length;
+	}
+	
+	/**
+	 * Select the stored data points of a branch, either within the error tolerance
+	 * of all data types or, if the tolerance is zero, using the time skip.
+	 */
+	private static int[] selectFlightDataPoints(FlightDataBranch branch, double timeSkip, double tolerance) {
+		if (tolerance > 0) {
+			return FlightDataDecimator.simplify(branch, branch.getTypes(), tolerance);
 		}
-		
-		return count;
+		return FlightDataDecimator.timeSkip(branch, timeSkip);
 	}
 	
 	
 	
-	private void writeDataPointString(List<List<Double>> data, int index, StringBuilder sb)
-			throws IOException {
-		sb.setLength(0);
-		sb.append("<datapoint>");
-		for (int j = 0; j < data.size(); j++) {
+	private void writeDataPoint(FlightDataBranch branch, FlightDataType[] types, int index) {
+		dest.indent(indent).append("<datapoint>");
+		for (int j = 0; j < types.length; j++) {
 			if (j > 0)
-				sb.append(",");
-			sb.append(TextUtil.doubleToString(data.get(j).get(index)));
+				dest.append(',');
+			dest.append(branch.getValue(types[j], index));
 		}
-		sb.append("</datapoint>");
-		writeln(sb.toString());
+		dest.append("</datapoint>\n");
 	}
 	
 	
+	private void appendAttribute(String name, double value) {
+		if (!Double.isNaN(value)) {
+			dest.append(' ').append(name).append("=\"").append(value).append('"');
+		}
+	}
+	
 	
 	private void writeElement(String element, Object content) throws IOException {
 		if (content == null)
@@ -736,21 +735,33 @@ public class OpenRocketSaver extends RocketSaver {
 		writeln("<" + element + ">" + content + "</" + element + ">");
 	}
 	
+	private void writeElement(String element, double content) throws IOException {
+		dest.indent(indent).append('<').append(element).append('>').appendExact(content)
+				.append("</").append(element).append(">\n");
+		flushBuffer();
+	}
+	
 	
 	
 	private void writeln(String str) throws IOException {
-		if (str.length() == 0) {
-			dest.write("\n");
-			return;
+		if (str.length() > 0) {
+			dest.indent(indent).append(str);
 		}
-		String s = "";
-		for (int i = 0; i < indent; i++)
-			s = s + "  ";
-		s = s + str + "\n";
-		dest.write(s);
+		dest.append('\n');
+		flushBuffer();
 	}
 	
 	
+	/**
+	 * Write the buffer to the output stream if it is full.  The buffers of the
+	 * flight data formatted in the background have no output stream.
+	 */
+	private void flushBuffer() throws IOException {
+		if (output != null && dest.length() >= BUFFER_SIZE) {
+			dest.writeTo(output);
+			dest.clear();
+		}
+	}
 	
 	
 	/**
@@ -763,4 +774,150 @@ public class OpenRocketSaver extends RocketSaver {
 		return e.name().toLowerCase(Locale.ENGLISH).replace("_", "");
 	}
 	
+	
+	/**
+	 * Format the stored flight data branches of a simulation into a new buffer.
+	 */
+	private static XMLBuffer formatFlightData(FlightData data, double timeSkip, double tolerance, int indent)
+			throws IOException {
+		OpenRocketSaver saver = new OpenRocketSaver(1);
+		saver.dest = new XMLBuffer(BUFFER_SIZE);
+		saver.indent = indent;
+		for (int i = 0; i < data.getBranchCount(); i++) {
+			saver.saveFlightDataBranch(data.getBranch(i), timeSkip, tolerance);
+		}
+		return saver.dest;
+	}
+	
+	
+	/**
+	 * Return the executor used for formatting flight data in the background.
+	 */
+	private static synchronized ExecutorService getFormatExecutor() {
+		if (formatExecutor == null) {
+			formatExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread t = new Thread(r, "OpenRocketSaver");
+							t.setDaemon(true);
+							return t;
+						}
+					});
+		}
+		return formatExecutor;
+	}
+	
+	
+	/**
+	 * Formats the stored flight data of the simulations of a document on a pool of
+	 * threads, ahead of the simulations being written.  The formatted data is taken
+	 * in document order, and a bounded number of formatted simulations is kept in
+	 * memory at a time.  The document must not be modified while saving.
+	 */
+	private static class FlightDataFormatter {
+		
+		private final List<Simulation> simulations = new ArrayList<Simulation>();
+		private final List<FlightData> data = new ArrayList<FlightData>();
+		private final List<Double> timeSkips = new ArrayList<Double>();
+		private final List<Double> tolerances = new ArrayList<Double>();
+		private final int indent;
+		private final int maxQueued;
+		
+		private final ExecutorService executor;
+		private final LinkedList<Future<XMLBuffer>> futures = new LinkedList<Future<XMLBuffer>>();
+		private int submitted = 0;
+		private int taken = 0;
+		
+		public FlightDataFormatter(OpenRocketDocument document, double timeSkip, double tolerance,
+				int indent, int threadCount) {
+			this.indent = indent;
+			this.maxQueued = 2 * threadCount;
+			
+			// The simulation state is read on the calling thread
+			for (Simulation s : document.getSimulations()) {
+				FlightData d = s.getSimulatedData();
+				double skip = timeSkip;
+				double tol = tolerance;
+				if (s.getStatus() == Simulation.Status.EXTERNAL) { // Always store all external data
+					skip = 0;
+					tol = 0;
+				}
+				if (d != null && skip != StorageOptions.SIMULATION_DATA_NONE) {
+					simulations.add(s);
+					data.add(d);
+					timeSkips.add(skip);
+					tolerances.add(tol);
+				}
+			}
+			
+			if (threadCount > 1 && simulations.size() > 1) {
+				executor = getFormatExecutor();
+				submit();
+			} else {
+				executor = null;
+			}
+		}
+		
+		/**
+		 * Return the formatted flight data of a simulation, or <code>null</code> if
+		 * the data of the simulation is not stored.
+		 */
+		public XMLBuffer take(Simulation simulation) throws IOException {
+			if (taken == simulations.size() || simulations.get(taken) != simulation) {
+				return null;
+			}
+			int n = taken++;
+			if (executor == null) {
+				return formatFlightData(data.get(n), timeSkips.get(n), tolerances.get(n), indent);
+			}
+			submit();
+			return waitFor(futures.removeFirst());
+		}
+		
+		public void close() {
+			// The executor is shared, so only the remaining tasks of this save are cancelled
+			for (Future<XMLBuffer> future : futures) {
+				future.cancel(true);
+			}
+			futures.clear();
+		}
+		
+		private void submit() {
+			while (submitted < simulations.size() && submitted - taken < maxQueued) {
+				final FlightData d = data.get(submitted);
+				final double skip = timeSkips.get(submitted);
+				final double tol = tolerances.get(submitted);
+				futures.add(executor.submit(new Callable<XMLBuffer>() {
+					@Override
+					public XMLBuffer call() throws IOException {
+						return formatFlightData(d, skip, tol, indent);
+					}
+				}));
+				submitted++;
+			}
+		}
+		
+		private static XMLBuffer waitFor(Future<XMLBuffer> future) throws IOException {
+			try {
+				return future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Saving was interrupted");
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new BugException("Unexpected exception while saving", cause);
+			}
+		}
+	}
+	
 }
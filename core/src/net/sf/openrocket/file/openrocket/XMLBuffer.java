@@ -0,0 +1,148 @@
+package net.sf.openrocket.file.openrocket;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import net.sf.openrocket.util.NumberCodec;
+import net.sf.openrocket.util.TextUtil;
+
+/**
+ * A growable byte buffer that XML text is encoded into as UTF-8.  Numbers are formatted
+ * directly into the buffer, without creating intermediate strings.  The buffer can be
+ * written out and cleared repeatedly, so the same backing array is reused while saving.
+ * <p>
+ * Unpaired surrogate characters are encoded as '?', as done by the standard UTF-8 encoder.
+ */
+final class XMLBuffer {
+
+	private byte[] bytes;
+	private int length = 0;
+
+	private final char[] number = new char[NumberCodec.MAX_CHARS];
+
+
+	XMLBuffer(int capacity) {
+		bytes = new byte[Math.max(capacity, 16)];
+	}
+
+
+	/**
+	 * Return the number of bytes in the buffer.
+	 */
+	int length() {
+		return length;
+	}
+
+	/**
+	 * Remove all bytes from the buffer.  The allocated capacity is retained.
+	 */
+	void clear() {
+		length = 0;
+	}
+
+	/**
+	 * Write the contents of the buffer to a stream.  The buffer is not cleared.
+	 */
+	void writeTo(OutputStream out) throws IOException {
+		out.write(bytes, 0, length);
+	}
+
+
+	/**
+	 * Append the indentation of the given level, two spaces per level.
+	 */
+	XMLBuffer indent(int level) {
+		ensureCapacity(2 * level);
+		for (int i = 0; i < 2 * level; i++) {
+			bytes[length++] = ' ';
+		}
+		return this;
+	}
+
+	XMLBuffer append(char c) {
+		ensureCapacity(3);
+		if (c < 0x80) {
+			bytes[length++] = (byte) c;
+		} else if (c < 0x800) {
+			bytes[length++] = (byte) (0xC0 | (c >> 6));
+			bytes[length++] = (byte) (0x80 | (c & 0x3F));
+		} else if (Character.isSurrogate(c)) {
+			bytes[length++] = '?';
+		} else {
+			bytes[length++] = (byte) (0xE0 | (c >> 12));
+			bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+			bytes[length++] = (byte) (0x80 | (c & 0x3F));
+		}
+		return this;
+	}
+
+	XMLBuffer append(String str) {
+		int n = str.length();
+		ensureCapacity(n);
+		for (int i = 0; i < n; i++) {
+			char c = str.charAt(i);
+			if (c < 0x80) {
+				if (length == bytes.length) {
+					ensureCapacity(n - i);
+				}
+				bytes[length++] = (byte) c;
+			} else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(str.charAt(i + 1))) {
+				appendCodePoint(Character.toCodePoint(c, str.charAt(i + 1)));
+				i++;
+			} else {
+				append(c);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Append the representation of a double returned by {@link TextUtil#doubleToString(double)}.
+	 */
+	XMLBuffer append(double d) {
+		return appendNumber(NumberCodec.formatCompact(d, number, 0));
+	}
+	
+	/**
+	 * Append the shortest representation of a double that parses back to the same value,
+	 * as written by {@link NumberCodec#formatDouble(double, char[], int)}.
+	 */
+	XMLBuffer appendExact(double d) {
+		return appendNumber(NumberCodec.formatDouble(d, number, 0));
+	}
+
+	/**
+	 * Append the contents of another buffer.
+	 */
+	XMLBuffer append(XMLBuffer buffer) {
+		ensureCapacity(buffer.length);
+		System.arraycopy(buffer.bytes, 0, bytes, length, buffer.length);
+		length += buffer.length;
+		return this;
+	}
+
+
+	private XMLBuffer appendNumber(int n) {
+		ensureCapacity(n);
+		for (int i = 0; i < n; i++) {
+			bytes[length++] = (byte) number[i];
+		}
+		return this;
+	}
+	
+	private void appendCodePoint(int cp) {
+		ensureCapacity(4);
+		bytes[length++] = (byte) (0xF0 | (cp >> 18));
+		bytes[length++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+		bytes[length++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+		bytes[length++] = (byte) (0x80 | (cp & 0x3F));
+	}
+
+	private void ensureCapacity(int n) {
+		if (length + n > bytes.length) {
+			byte[] array = new byte[Math.max(2 * bytes.length, length + n)];
+			System.arraycopy(bytes, 0, array, 0, length);
+			bytes = array;
+		}
+	}
+}
@@ -44,6 +44,7 @@ import net.sf.openrocket.rocketcomponent.TubeFinSet;
 import net.sf.openrocket.util.BugException;
 import net.sf.openrocket.util.Color;
 import net.sf.openrocket.util.LineStyle;
+import net.sf.openrocket.util.NumberCodec;
 import net.sf.openrocket.util.Reflection;
 
 class DocumentConfig {
@@ -454,6 +455,37 @@ class DocumentConfig {
 			return Double.POSITIVE_INFINITY;
 		if (s.equalsIgnoreCase("-Inf"))
 			return Double.NEGATIVE_INFINITY;
-		return Double.parseDouble(s);
+		return NumberCodec.parseDouble(s);
+	}
+	
+	/**
+	 * Convert a range of characters to a double, accepting the same formatting as
+	 * {@link #stringToDouble(String)}.  This avoids creating a string for each
+	 * value when parsing large amounts of data.
+	 * 
+	 * @param chars	the characters to parse.
+	 * @param start	the start of the range, inclusive.
+	 * @param end	the end of the range, exclusive.
+	 * @return		the numerical value.
+	 * @throws NumberFormatException	the the characters cannot be parsed.
+	 */
+	public static double stringToDouble(char[] chars, int start, int end) throws NumberFormatException {
+		if (regionEquals(chars, start, end, "NaN"))
+			return Double.NaN;
+		if (regionEquals(chars, start, end, "Inf"))
+			return Double.POSITIVE_INFINITY;
+		if (regionEquals(chars, start, end, "-Inf"))
+			return Double.NEGATIVE_INFINITY;
+		return NumberCodec.parseDouble(chars, start, end);
+	}
+	
+	private static boolean regionEquals(char[] chars, int start, int end, String str) {
+		if (end - start != str.length())
+			return false;
+		for (int i = 0; i < str.length(); i++) {
+			if (Character.toLowerCase(chars[start + i]) != Character.toLowerCase(str.charAt(i)))
+				return false;
+		}
+		return true;
 	}
 }
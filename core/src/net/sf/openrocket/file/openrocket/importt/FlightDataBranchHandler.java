@@ -1,10 +1,12 @@
 package net.sf.openrocket.file.openrocket.importt;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 import net.sf.openrocket.aerodynamics.WarningSet;
 import net.sf.openrocket.file.DocumentLoadingContext;
 import net.sf.openrocket.file.simplesax.AbstractElementHandler;
+import net.sf.openrocket.file.simplesax.DirectElementHandler;
 import net.sf.openrocket.file.simplesax.ElementHandler;
 import net.sf.openrocket.file.simplesax.PlainTextHandler;
 import net.sf.openrocket.simulation.FlightDataBranch;
@@ -16,13 +18,18 @@ import net.sf.openrocket.unit.UnitGroup;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
 
-class FlightDataBranchHandler extends AbstractElementHandler {
+class FlightDataBranchHandler extends AbstractElementHandler implements DirectElementHandler {
 	@SuppressWarnings("unused")
 	private final DocumentLoadingContext context;
 	private final FlightDataType[] types;
 	private final FlightDataBranch branch;
 	
+	// Data points read but not yet added to the branch, one column per type
+	private final double[][] columns;
+	private int pointCount = 0;
+	
 	private static final Logger log = LoggerFactory.getLogger(FlightDataBranchHandler.class);
 	private final SingleSimulationHandler simHandler;
 	
@@ -40,6 +47,7 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 		
 		// TODO: LOW: May throw an IllegalArgumentException
 		branch = new FlightDataBranch(name, types);
+		columns = new double[types.length][64];
 	}
 	
 	/**
@@ -93,6 +101,10 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 	}
 	
 	public FlightDataBranch getBranch() {
+		if (pointCount > 0) {
+			branch.addPoints(types, columns, pointCount);
+			pointCount = 0;
+		}
 		branch.immute();
 		return branch;
 	}
@@ -101,8 +113,6 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 	public ElementHandler openElement(String element, HashMap<String, String> attributes,
 			WarningSet warnings) {
 		
-		if (element.equals("datapoint"))
-			return PlainTextHandler.INSTANCE;
 		if (element.equals("event"))
 			return PlainTextHandler.INSTANCE;
 		
@@ -136,36 +146,63 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 			return;
 		}
 		
-		if (!element.equals("datapoint")) {
-			warnings.add("Unknown element '" + element + "' encountered, ignoring.");
-			return;
-		}
-		
-		// element == "datapoint"
-		
+		warnings.add("Unknown element '" + element + "' encountered, ignoring.");
+	}
+	
+	
+	@Override
+	public boolean openDirectElement(String element, Attributes attributes, WarningSet warnings) {
+		return element.equals("datapoint");
+	}
+	
+	
+	/**
+	 * Parse a data point directly from the element content into the value columns.
+	 */
+	@Override
+	public void closeDirectElement(String element, char[] content, int start, int length,
+			WarningSet warnings) {
 		
-		// Check line format
-		String[] split = content.split(",");
-		if (split.length != types.length) {
+		// Check line format, empty trailing values are ignored as by String.split
+		int end = start + length;
+		while (end > start && content[end - 1] == ',') {
+			end--;
+		}
+		int count = 1;
+		if (end == start && length > 0) {
+			count = 0;
+		}
+		for (int i = start; i < end; i++) {
+			if (content[i] == ',') {
+				count++;
+			}
+		}
+		if (count != types.length) {
 			warnings.add("Data point did not contain correct amount of values, ignoring point.");
 			return;
 		}
 		
-		// Parse the doubles
-		double[] values = new double[split.length];
-		for (int i = 0; i < values.length; i++) {
+		if (pointCount == columns[0].length) {
+			for (int i = 0; i < columns.length; i++) {
+				columns[i] = Arrays.copyOf(columns[i], 2 * pointCount);
+			}
+		}
+		
+		// Parse the doubles, the point is added only if all values are valid
+		int pos = start;
+		for (int i = 0; i < types.length; i++) {
+			int comma = pos;
+			while (comma < end && content[comma] != ',') {
+				comma++;
+			}
 			try {
-				values[i] = DocumentConfig.stringToDouble(split[i]);
+				columns[i][pointCount] = DocumentConfig.stringToDouble(content, pos, comma);
 			} catch (NumberFormatException e) {
 				warnings.add("Data point format error, ignoring point.");
 				return;
 			}
+			pos = comma + 1;
 		}
-		
-		// Add point to branch
-		branch.addPoint();
-		for (int i = 0; i < types.length; i++) {
-			branch.setValue(types[i], values[i]);
-		}
+		pointCount++;
 	}
-}
\ No newline at end of file
+}
@@ -12,6 +12,7 @@ import net.sf.openrocket.file.simplesax.ElementHandler;
 import net.sf.openrocket.file.simplesax.PlainTextHandler;
 import net.sf.openrocket.simulation.FlightData;
 import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.util.NumberCodec;
 
 class FlightDataHandler extends AbstractElementHandler {
 	private final DocumentLoadingContext context;
@@ -52,7 +53,7 @@ class FlightDataHandler extends AbstractElementHandler {
 			if (attributes.get("optimumAltitude") != null) {
 				double optimumAltitude = Double.NaN;
 				try {
-					optimumAltitude = Double.parseDouble(attributes.get("optimumAltitude"));
+					optimumAltitude = NumberCodec.parseDouble(attributes.get("optimumAltitude"));
 				} catch (NumberFormatException ignore) {
 				}
 				dataHandler.setOptimumAltitude(optimumAltitude);
@@ -60,7 +61,7 @@ class FlightDataHandler extends AbstractElementHandler {
 			if (attributes.get("timeToOptimumAltitude") != null) {
 				double timeToOptimumAltitude = Double.NaN;
 				try {
-					timeToOptimumAltitude = Double.parseDouble(attributes.get("timeToOptimumAltitude"));
+					timeToOptimumAltitude = NumberCodec.parseDouble(attributes.get("timeToOptimumAltitude"));
 				} catch (NumberFormatException ignore) {
 				}
 				dataHandler.setTimeToOptimumAltitude(timeToOptimumAltitude);
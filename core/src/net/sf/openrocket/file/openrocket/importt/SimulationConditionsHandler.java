@@ -15,6 +15,7 @@ class SimulationConditionsHandler extends AbstractElementHandler {
 	private final DocumentLoadingContext context;
 	private SimulationOptions conditions;
 	private AtmosphereHandler atmosphereHandler;
+	private WindProfileHandler windProfileHandler;
 	
 	public SimulationConditionsHandler(Rocket rocket, DocumentLoadingContext context) {
 		this.context = context;
@@ -34,6 +35,10 @@ class SimulationConditionsHandler extends AbstractElementHandler {
 			atmosphereHandler = new AtmosphereHandler(attributes.get("model"), context);
 			return atmosphereHandler;
 		}
+		if (element.equals("windprofile")) {
+			windProfileHandler = new WindProfileHandler(context);
+			return windProfileHandler;
+		}
 		return PlainTextHandler.INSTANCE;
 	}
 	
@@ -84,6 +89,8 @@ class SimulationConditionsHandler extends AbstractElementHandler {
 			} else {
 				conditions.setWindTurbulenceIntensity(d);
 			}
+		} else if (element.equals("windprofile")) {
+			conditions.setWindProfile(windProfileHandler.getWindProfile(warnings));
 		} else if (element.equals("launchaltitude")) {
 			if (Double.isNaN(d)) {
 				warnings.add("Illegal launch altitude defined, ignoring.");
@@ -0,0 +1,89 @@
+package net.sf.openrocket.file.openrocket.importt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import net.sf.openrocket.aerodynamics.WarningSet;
+import net.sf.openrocket.file.DocumentLoadingContext;
+import net.sf.openrocket.file.simplesax.AbstractElementHandler;
+import net.sf.openrocket.file.simplesax.ElementHandler;
+import net.sf.openrocket.file.simplesax.PlainTextHandler;
+import net.sf.openrocket.models.wind.MeasuredWindModel;
+
+import org.xml.sax.SAXException;
+
+/**
+ * A handler that reads the <windpoint> specifications within the simulation
+ * conditions' <windprofile> element.
+ */
+class WindProfileHandler extends AbstractElementHandler {
+	@SuppressWarnings("unused")
+	private final DocumentLoadingContext context;
+	private final List<double[]> points = new ArrayList<double[]>();
+	
+	public WindProfileHandler(DocumentLoadingContext context) {
+		this.context = context;
+	}
+	
+	@Override
+	public ElementHandler openElement(String element, HashMap<String, String> attributes,
+			WarningSet warnings) {
+		return PlainTextHandler.INSTANCE;
+	}
+	
+	
+	@Override
+	public void closeElement(String element, HashMap<String, String> attributes,
+			String content, WarningSet warnings) throws SAXException {
+		
+		if (!element.equals("windpoint")) {
+			super.closeElement(element, attributes, content, warnings);
+			return;
+		}
+		
+		String altitude = attributes.remove("altitude");
+		String speed = attributes.remove("speed");
+		String direction = attributes.remove("direction");
+		if (altitude == null || speed == null || direction == null) {
+			warnings.add("Illegal wind profile point specification, ignoring.");
+			return;
+		}
+		try {
+			points.add(new double[] { Double.parseDouble(altitude), Double.parseDouble(speed),
+					Double.parseDouble(direction) * Math.PI / 180 });
+		} catch (NumberFormatException e) {
+			warnings.add("Illegal wind profile point specification, ignoring.");
+			return;
+		}
+		
+		super.closeElement(element, attributes, content, warnings);
+	}
+	
+	
+	/**
+	 * Return the wind profile defined by the read points.
+	 * 
+	 * @param warnings	the warning set to add warnings to.
+	 * @return			the wind profile, or <code>null</code> if it is illegal.
+	 */
+	public MeasuredWindModel getWindProfile(WarningSet warnings) {
+		int n = points.size();
+		double[] altitudes = new double[n];
+		double[] speeds = new double[n];
+		double[] directions = new double[n];
+		for (int i = 0; i < n; i++) {
+			double[] p = points.get(i);
+			altitudes[i] = p[0];
+			speeds[i] = p[1];
+			directions[i] = p[2];
+		}
+		try {
+			return new MeasuredWindModel(altitudes, speeds, directions);
+		} catch (IllegalArgumentException e) {
+			warnings.add("Illegal wind profile defined, ignoring.");
+			return null;
+		}
+	}
+	
+}
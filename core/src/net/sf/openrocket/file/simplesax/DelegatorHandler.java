@@ -1,5 +1,6 @@
 package net.sf.openrocket.file.simplesax;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 import net.sf.openrocket.aerodynamics.Warning;
@@ -25,6 +26,11 @@ class DelegatorHandler extends DefaultHandler {
 	// Ignore all elements as long as ignore > 0
 	private int ignore = 0;
 	
+	// The element currently handled by a DirectElementHandler, and its content
+	private String directElement = null;
+	private char[] directContent = new char[256];
+	private int directLength = 0;
+	
 	
 	public DelegatorHandler(ElementHandler initialHandler, WarningSet warnings) {
 		this.warnings = warnings;
@@ -53,12 +59,26 @@ class DelegatorHandler extends DefaultHandler {
 			return;
 		}
 		
+		// Elements directly handled may not contain other elements
+		if (directElement != null) {
+			warnings.add(Warning.fromString("Unknown element " + localName + ", ignoring."));
+			ignore++;
+			return;
+		}
+		
+		ElementHandler h = handlerStack.peek();
+		if (h instanceof DirectElementHandler &&
+				((DirectElementHandler) h).openDirectElement(localName, attributes, warnings)) {
+			directElement = localName;
+			directLength = 0;
+			return;
+		}
+		
 		// Add layer to data stacks
 		elementData.push(new StringBuilder());
 		elementAttributes.push(copyAttributes(attributes));
 		
 		// Call the handler
-		ElementHandler h = handlerStack.peek();
 		h = h.openElement(localName, elementAttributes.peek(), warnings);
 		if (h != null) {
 			handlerStack.push(h);
@@ -78,6 +98,15 @@ class DelegatorHandler extends DefaultHandler {
 		if (ignore > 0)
 			return;
 		
+		if (directElement != null) {
+			if (directLength + length > directContent.length) {
+				directContent = Arrays.copyOf(directContent, Math.max(2 * directContent.length, directLength + length));
+			}
+			System.arraycopy(chars, start, directContent, directLength, length);
+			directLength += length;
+			return;
+		}
+		
 		StringBuilder sb = elementData.peek();
 		sb.append(chars, start, length);
 	}
@@ -95,6 +124,13 @@ class DelegatorHandler extends DefaultHandler {
 			return;
 		}
 		
+		if (directElement != null) {
+			directElement = null;
+			DirectElementHandler h = (DirectElementHandler) handlerStack.peek();
+			h.closeDirectElement(localName, directContent, 0, directLength, warnings);
+			return;
+		}
+		
 		// Remove data from stack
 		String data = elementData.pop().toString(); // throws on error
 		HashMap<String, String> attr = elementAttributes.pop();
@@ -0,0 +1,50 @@
+package net.sf.openrocket.file.simplesax;
+
+import net.sf.openrocket.aerodynamics.WarningSet;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+
+/**
+ * An element handler that can receive contained text elements directly from the SAX
+ * parser.  For such elements no attribute map, content string or element handler is
+ * created, which is useful for elements that occur in large numbers, such as the
+ * points of stored flight data.
+ * <p>
+ * For every contained element {@link #openDirectElement(String, Attributes, WarningSet)}
+ * is called first.  If it returns <code>true</code>, the element is handled directly
+ * and {@link #closeDirectElement(String, char[], int, int, WarningSet)} is called when
+ * it is closed.  Any elements within it are ignored with a warning.  Otherwise the
+ * element is handled normally by {@link #openElement(String, java.util.HashMap, WarningSet)}.
+ */
+public interface DirectElementHandler extends ElementHandler {
+
+	/**
+	 * Called when an opening tag of a contained element is encountered, before
+	 * {@link #openElement(String, java.util.HashMap, WarningSet)}.  The attributes are
+	 * those of the SAX parser and are valid only during this call.
+	 *
+	 * @param element		the element name.
+	 * @param attributes	attributes of the element.
+	 * @param warnings		the warning set to store warnings in.
+	 * @return				<code>true</code> if the element is handled directly,
+	 * 						<code>false</code> to handle it with <code>openElement</code>.
+	 */
+	public boolean openDirectElement(String element, Attributes attributes, WarningSet warnings)
+			throws SAXException;
+
+	/**
+	 * Called when the closing tag of an element handled directly is encountered.  The
+	 * textual content of the element is given as a range of a character array, which
+	 * is valid only during this call.
+	 *
+	 * @param element		the element name.
+	 * @param content		the array containing the textual content of the element.
+	 * @param start			the start of the content in the array.
+	 * @param length		the length of the content.
+	 * @param warnings		the warning set to store warnings in.
+	 */
+	public void closeDirectElement(String element, char[] content, int start, int length,
+			WarningSet warnings) throws SAXException;
+
+}
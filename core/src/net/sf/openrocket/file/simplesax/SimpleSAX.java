@@ -9,6 +9,7 @@ import net.sf.openrocket.aerodynamics.WarningSet;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 import org.xml.sax.helpers.XMLReaderFactory;
 
 
@@ -54,6 +55,29 @@ public class SimpleSAX {
 		}
 	}
 
+	/**
+	 * Read an XML file using a plain SAX handler.  This bypasses the element handler
+	 * stack for formats where the per-element objects would dominate the parsing time,
+	 * while still reusing the cached XML readers.
+	 * 
+	 * @param source		the SAX input source.
+	 * @param handler		the SAX content and error handler.
+	 * @throws IOException	if an I/O exception occurs while reading.
+	 * @throws SAXException	if e.g. malformed XML is encountered.
+	 */
+	public static void readXML(InputSource source, DefaultHandler handler)
+			throws IOException, SAXException {
+
+		XMLReader reader = cache.createXMLReader();
+		reader.setContentHandler(handler);
+		reader.setErrorHandler(handler);
+		try {
+			reader.parse(source);
+		} finally {
+			cache.releaseXMLReader(reader);
+		}
+	}
+
 	private static class XMLReaderCache {
 
 		private final BlockingQueue<XMLReader> queue;
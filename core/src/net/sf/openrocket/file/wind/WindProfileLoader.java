@@ -0,0 +1,117 @@
+package net.sf.openrocket.file.wind;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import net.sf.openrocket.models.wind.MeasuredWindModel;
+
+/**
+ * A loader for measured wind profile files.  The file is a plain text file with
+ * one measurement per line, containing the altitude (m), the wind speed (m/s)
+ * and the wind direction (degrees) separated by whitespace or commas.  Empty lines
+ * and lines starting with <code>#</code> or <code>;</code> are ignored.
+ * <p>
+ * Example:
+ * <pre>
+ * # alt   speed  dir
+ * 0       3.0    90
+ * 500     5.5    100
+ * 2000    9.0    120
+ * </pre>
+ * The measurements may be given in any order.
+ */
+public class WindProfileLoader {
+	
+	public static final String CHARSET_NAME = "ISO-8859-1";
+	
+	public static final Charset CHARSET = Charset.forName(CHARSET_NAME);
+	
+	
+	/**
+	 * Load a wind profile from an input stream.
+	 * 
+	 * @param stream	the source of the profile.
+	 * @param filename	the file name, used in error messages, may be <code>null</code>.
+	 * @return			the wind model defined by the profile.
+	 * @throws IOException	if an I/O error occurs or if the file format is illegal.
+	 */
+	public MeasuredWindModel load(InputStream stream, String filename) throws IOException {
+		return load(new InputStreamReader(stream, CHARSET), filename);
+	}
+	
+	
+	/**
+	 * Load a wind profile from a <code>Reader</code>.
+	 * 
+	 * @param reader	the source of the profile.
+	 * @param filename	the file name, used in error messages, may be <code>null</code>.
+	 * @return			the wind model defined by the profile.
+	 * @throws IOException	if an I/O error occurs or if the file format is illegal.
+	 */
+	public MeasuredWindModel load(Reader reader, String filename) throws IOException {
+		BufferedReader in = new BufferedReader(reader);
+		List<double[]> points = new ArrayList<double[]>();
+		
+		String line;
+		int lineNumber = 0;
+		while ((line = in.readLine()) != null) {
+			lineNumber++;
+			line = line.trim();
+			if (line.length() == 0 || line.charAt(0) == '#' || line.charAt(0) == ';') {
+				continue;
+			}
+			
+			String[] pieces = line.split("[\\s,]+");
+			if (pieces.length != 3) {
+				throw new IOException("Illegal wind profile format in " + filename + " line " + lineNumber);
+			}
+			try {
+				double altitude = Double.parseDouble(pieces[0]);
+				double speed = Double.parseDouble(pieces[1]);
+				double direction = Math.toRadians(Double.parseDouble(pieces[2]));
+				if (speed < 0) {
+					throw new IOException("Negative wind speed in " + filename + " line " + lineNumber);
+				}
+				points.add(new double[] { altitude, speed, direction });
+			} catch (NumberFormatException e) {
+				throw new IOException("Illegal wind profile format in " + filename + " line " + lineNumber);
+			}
+		}
+		
+		if (points.isEmpty()) {
+			throw new IOException("Wind profile " + filename + " contains no data");
+		}
+		
+		Collections.sort(points, new Comparator<double[]>() {
+			@Override
+			public int compare(double[] o1, double[] o2) {
+				return Double.compare(o1[0], o2[0]);
+			}
+		});
+		
+		int n = points.size();
+		double[] altitudes = new double[n];
+		double[] speeds = new double[n];
+		double[] directions = new double[n];
+		for (int i = 0; i < n; i++) {
+			double[] p = points.get(i);
+			if (i > 0 && p[0] == altitudes[i - 1]) {
+				throw new IOException("Duplicate altitude " + p[0] + " in wind profile " + filename);
+			}
+			altitudes[i] = p[0];
+			speeds[i] = p[1];
+			directions[i] = p[2];
+		}
+		
+		return new MeasuredWindModel(altitudes, speeds, directions);
+	}
+	
+}
@@ -0,0 +1,545 @@
+package net.sf.openrocket.mesh;
+
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.Coaxial;
+import net.sf.openrocket.rocketcomponent.EllipticalFinSet;
+import net.sf.openrocket.rocketcomponent.FinSet;
+import net.sf.openrocket.rocketcomponent.LaunchLug;
+import net.sf.openrocket.rocketcomponent.MassObject;
+import net.sf.openrocket.rocketcomponent.RingComponent;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.rocketcomponent.Transition;
+import net.sf.openrocket.rocketcomponent.TubeFinSet;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.Transformation;
+
+/**
+ * Generates triangle meshes of rocket components.
+ * <p>
+ * The meshes are in the coordinate system of the component, with the x-axis along
+ * the rocket axis and the origin at the front of the component, i.e. at the position
+ * returned by <code>toAbsolute(Coordinate.NUL)</code>.  Multiple fins of a fin set
+ * are included in the same mesh.
+ * <p>
+ * The level of detail is the number of slices used around the circumference of
+ * bodies of revolution.
+ */
+public final class ComponentMeshGenerator {
+
+	/**
+	 * The surfaces of a component that are generated separately.
+	 */
+	public static enum Surface {
+		/** The outer surface of the component. */
+		OUTSIDE,
+		/** The inner surface of hollow components, facing towards the axis. */
+		INSIDE,
+		/** The end faces of hollow components, and transition shoulders. */
+		EDGES,
+		/**
+		 * The back sides of the end faces of transitions, for viewing hollow
+		 * components from within.  Not part of the closed surface of the component.
+		 */
+		EDGES_BACK;
+	}
+
+
+	private ComponentMeshGenerator() {
+		// Prevent instantiation
+	}
+
+
+	/**
+	 * Return whether meshes can be generated for the specified component.  Other
+	 * components produce empty meshes.
+	 */
+	public static boolean isSupported(RocketComponent c) {
+		return c instanceof BodyTube || c instanceof LaunchLug || c instanceof RingComponent ||
+				c instanceof Transition || c instanceof MassObject || c instanceof FinSet ||
+				c instanceof TubeFinSet;
+	}
+
+
+	/**
+	 * Generate the mesh of one surface of a component.
+	 *
+	 * @param c			the component.
+	 * @param surface	the surface to generate.
+	 * @param lod		the level of detail, the number of slices around the circumference.
+	 * @return			the mesh, empty if the component has no such surface.
+	 */
+	public static Mesh generate(RocketComponent c, Surface surface, int lod) {
+		if (lod < 3) {
+			throw new IllegalArgumentException("lod=" + lod);
+		}
+
+		MeshBuilder b = new MeshBuilder();
+		if (c instanceof BodyTube) {
+			BodyTube t = (BodyTube) c;
+			tube(b, surface, t.getOuterRadius(), t.getInnerRadius(), 0, t.getLength(), lod);
+		} else if (c instanceof LaunchLug) {
+			LaunchLug l = (LaunchLug) c;
+			tube(b, surface, l.getOuterRadius(), l.getInnerRadius(), 0, l.getLength(), lod);
+		} else if (c instanceof RingComponent) {
+			if (surface == Surface.OUTSIDE) {
+				RingComponent r = (RingComponent) c;
+				tube(b, Surface.OUTSIDE, r.getOuterRadius(), r.getInnerRadius(), 0, r.getLength(), lod);
+				tube(b, Surface.EDGES, r.getOuterRadius(), r.getInnerRadius(), 0, r.getLength(), lod);
+				tube(b, Surface.INSIDE, r.getOuterRadius(), r.getInnerRadius(), 0, r.getLength(), lod);
+			}
+		} else if (c instanceof Transition) {
+			transition(b, (Transition) c, surface, lod);
+		} else if (c instanceof MassObject) {
+			if (surface == Surface.OUTSIDE) {
+				massObject(b, (MassObject) c, Math.max(3, lod / 2));
+			}
+		} else if (c instanceof FinSet) {
+			if (surface == Surface.OUTSIDE) {
+				finSet(b, (FinSet) c);
+			}
+		} else if (c instanceof TubeFinSet) {
+			tubeFinSet(b, (TubeFinSet) c, surface, lod);
+		}
+		return b.build();
+	}
+
+
+	/**
+	 * Return the dimensions of a component that affect its mesh but may change
+	 * without a change of the component itself, such as automatic radii and the
+	 * radius of the body a fin set is attached to.
+	 */
+	static double[] getDerivedDimensions(RocketComponent c) {
+		if (c instanceof Transition) {
+			Transition t = (Transition) c;
+			return new double[] { t.getForeRadius(), t.getAftRadius(), t.getForeShoulderRadius(),
+					t.getAftShoulderRadius(), t.getThickness() };
+		} else if (c instanceof BodyTube) {
+			BodyTube t = (BodyTube) c;
+			return new double[] { t.getOuterRadius(), t.getInnerRadius() };
+		} else if (c instanceof Coaxial) {
+			Coaxial t = (Coaxial) c;
+			return new double[] { t.getOuterRadius(), t.getInnerRadius(), c.getLength() };
+		} else if (c instanceof MassObject) {
+			return new double[] { ((MassObject) c).getRadius(), c.getLength() };
+		} else if (c instanceof FinSet) {
+			return new double[] { ((FinSet) c).getBodyRadius() };
+		} else if (c instanceof TubeFinSet) {
+			TubeFinSet t = (TubeFinSet) c;
+			return new double[] { t.getOuterRadius(), t.getInnerRadius(), t.getBodyRadius() };
+		}
+		return new double[0];
+	}
+
+
+
+	/*
+	 * Bodies of revolution are generated as rings of vertices.  A vertex at angle a
+	 * and radius r is located at (x, r*cos(a), -r*sin(a)), matching the orientation
+	 * used by the GLU quadrics of the 3D view.
+	 */
+
+	/**
+	 * Add a surface of revolution.
+	 *
+	 * @param xs		the axial positions of the rings.
+	 * @param rs		the radii of the rings.
+	 * @param axial		the axial components of the ring normals.
+	 * @param radial	the radial components of the ring normals.
+	 * @param ts		the texture t-coordinates of the rings.
+	 * @param inward	whether the surface faces towards the axis.
+	 */
+	private static void revolve(MeshBuilder b, double[] xs, double[] rs, double[] axial, double[] radial,
+			double[] ts, int slices, boolean inward) {
+		double sign = inward ? -1 : 1;
+		int rowLength = slices + 1;
+		int first = b.getVertexCount();
+
+		for (int k = 0; k < xs.length; k++) {
+			for (int i = 0; i <= slices; i++) {
+				double a = (i == slices) ? 0 : 2 * Math.PI * i / slices;
+				double cos = Math.cos(a);
+				double sin = Math.sin(a);
+				b.vertex(xs[k], rs[k] * cos, -rs[k] * sin,
+						sign * axial[k], sign * radial[k] * cos, -sign * radial[k] * sin,
+						(double) i / slices, ts[k]);
+			}
+		}
+
+		for (int k = 0; k < xs.length - 1; k++) {
+			if (xs[k] == xs[k + 1] && rs[k] == rs[k + 1]) {
+				continue;
+			}
+			for (int i = 0; i < slices; i++) {
+				int a0 = first + k * rowLength + i;
+				int a1 = a0 + 1;
+				int b0 = a0 + rowLength;
+				int b1 = b0 + 1;
+				if (rs[k] > 0) {
+					if (inward) {
+						b.triangle(a0, a1, b0);
+					} else {
+						b.triangle(a0, b0, a1);
+					}
+				}
+				if (rs[k + 1] > 0) {
+					if (inward) {
+						b.triangle(a1, b1, b0);
+					} else {
+						b.triangle(a1, b0, b1);
+					}
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Add a cylinder from x0 to x1.
+	 */
+	private static void cylinder(MeshBuilder b, double r, double x0, double x1, int slices, boolean inward) {
+		if (r <= 0 || x1 <= x0) {
+			return;
+		}
+		revolve(b, new double[] { x0, x1 }, new double[] { r, r }, new double[] { 0, 0 },
+				new double[] { 1, 1 }, new double[] { 0, 1 }, slices, inward);
+	}
+
+
+	/**
+	 * Add a flat annulus perpendicular to the axis.
+	 *
+	 * @param positive	whether the annulus faces the positive x direction.
+	 */
+	private static void annulus(MeshBuilder b, double x, double innerRadius, double outerRadius, int slices,
+			boolean positive) {
+		innerRadius = Math.max(0, innerRadius);
+		if (outerRadius <= innerRadius) {
+			return;
+		}
+		double nx = positive ? 1 : -1;
+		int first = b.getVertexCount();
+
+		for (int i = 0; i <= slices; i++) {
+			double a = (i == slices) ? 0 : 2 * Math.PI * i / slices;
+			double cos = Math.cos(a);
+			double sin = Math.sin(a);
+			double ratio = innerRadius / outerRadius;
+			b.vertex(x, outerRadius * cos, -outerRadius * sin, nx, 0, 0, 0.5 + sin / 2, 0.5 + cos / 2);
+			b.vertex(x, innerRadius * cos, -innerRadius * sin, nx, 0, 0, 0.5 + ratio * sin / 2, 0.5 + ratio * cos / 2);
+		}
+
+		for (int i = 0; i < slices; i++) {
+			int o0 = first + 2 * i;
+			int i0 = o0 + 1;
+			int o1 = o0 + 2;
+			int i1 = o0 + 3;
+			if (positive) {
+				b.triangle(o0, i0, o1);
+				if (innerRadius > 0) {
+					b.triangle(o1, i0, i1);
+				}
+			} else {
+				b.triangle(o0, o1, i0);
+				if (innerRadius > 0) {
+					b.triangle(o1, i1, i0);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Add one surface of a hollow tube from x0 to x1.
+	 */
+	private static void tube(MeshBuilder b, Surface surface, double outerRadius, double innerRadius,
+			double x0, double x1, int slices) {
+		switch (surface) {
+		case OUTSIDE:
+			cylinder(b, outerRadius, x0, x1, slices, false);
+			break;
+		case INSIDE:
+			cylinder(b, innerRadius, x0, x1, slices, true);
+			break;
+		case EDGES:
+			annulus(b, x0, innerRadius, outerRadius, slices, false);
+			annulus(b, x1, innerRadius, outerRadius, slices, true);
+			break;
+		default:
+			break;
+		}
+	}
+
+
+	private static void transition(MeshBuilder b, Transition t, Surface surface, int slices) {
+		double length = t.getLength();
+
+		switch (surface) {
+		case OUTSIDE:
+			transitionBody(b, t, slices, 0, false);
+			return;
+		case INSIDE:
+			transitionBody(b, t, slices, -t.getThickness(), true);
+			break;
+		default:
+			break;
+		}
+
+		boolean edges = (surface == Surface.EDGES);
+		boolean back = (surface == Surface.EDGES_BACK);
+
+		// Aft edge and shoulder
+		if (edges || back) {
+			annulus(b, length, t.getAftRadius() - t.getThickness(), t.getAftRadius(), slices, edges);
+		}
+		if (t.getAftShoulderLength() > 0) {
+			double end = length + t.getAftShoulderLength();
+			double iR = (t.isFilled() || t.isAftShoulderCapped()) ? 0 :
+					t.getAftShoulderRadius() - t.getAftShoulderThickness();
+			if (edges) {
+				tube(b, Surface.OUTSIDE, t.getAftShoulderRadius(), iR, length, end, slices);
+				tube(b, Surface.EDGES, t.getAftShoulderRadius(), iR, length, end, slices);
+			} else if (!back) {
+				tube(b, Surface.INSIDE, t.getAftShoulderRadius(), iR, length, end, slices);
+			}
+			if (edges || back) {
+				annulus(b, length, t.getAftShoulderRadius(), t.getAftRadius(), slices, edges);
+			}
+		}
+
+		// Fore edge and shoulder
+		if (edges || back) {
+			annulus(b, 0, t.getForeRadius() - t.getThickness(), t.getForeRadius(), slices, back);
+		}
+		if (t.getForeShoulderLength() > 0) {
+			double start = -t.getForeShoulderLength();
+			double iR = (t.isFilled() || t.isForeShoulderCapped()) ? 0 :
+					t.getForeShoulderRadius() - t.getForeShoulderThickness();
+			if (edges) {
+				tube(b, Surface.OUTSIDE, t.getForeShoulderRadius(), iR, start, 0, slices);
+				tube(b, Surface.EDGES, t.getForeShoulderRadius(), iR, start, 0, slices);
+			} else if (!back) {
+				tube(b, Surface.INSIDE, t.getForeShoulderRadius(), iR, start, 0, slices);
+			}
+			if (edges || back) {
+				annulus(b, 0, t.getForeShoulderRadius(), t.getForeRadius(), slices, back);
+			}
+		}
+	}
+
+
+	/**
+	 * Add the body of a transition.  The profile is sampled more densely near the
+	 * front, where nose cone shapes have the largest curvature.
+	 */
+	private static void transitionBody(MeshBuilder b, Transition t, int slices, double offsetRadius,
+			boolean inward) {
+		double length = t.getLength();
+		if (length <= 0) {
+			return;
+		}
+
+		int stacks = (t.getType() == Transition.Shape.CONICAL) ? 4 : Math.max(1, slices / 2);
+		double dzBase = length / stacks;
+
+		int n = 1;
+		for (double z = 0; z < length; n++) {
+			z = Math.min(z + (z / length < 0.025 ? dzBase / 8 : dzBase), length);
+		}
+
+		double[] xs = new double[n];
+		double[] rs = new double[n];
+		double[] ts = new double[n];
+		double z = 0;
+		for (int k = 0; k < n; k++) {
+			xs[k] = z;
+			rs[k] = Math.max(0, t.getRadius(z) + offsetRadius);
+			ts[k] = z / length;
+			z = Math.min(z + (z / length < 0.025 ? dzBase / 8 : dzBase), length);
+		}
+
+		// Each ring uses the slope of the section before it, the tip depends on the shape
+		double[] axial = new double[n];
+		double[] radial = new double[n];
+		for (int k = 0; k < n; k++) {
+			radial[k] = 1;
+			if (k > 0) {
+				axial[k] = (rs[k - 1] - rs[k]) / (xs[k] - xs[k - 1]);
+			}
+		}
+		if (rs[0] == 0 && n > 1) {
+			switch (t.getType()) {
+			case CONICAL:
+			case OGIVE:
+			case PARABOLIC:
+				axial[0] = (rs[0] - rs[1]) / (xs[1] - xs[0]);
+				break;
+			default:
+				axial[0] = -1;
+				radial[0] = 0;
+				break;
+			}
+		}
+
+		revolve(b, xs, rs, axial, radial, ts, slices, inward);
+	}
+
+
+	private static void massObject(MeshBuilder b, MassObject o, int slices) {
+		int stacks = slices;
+		double length = o.getLength();
+		if (length <= 0) {
+			return;
+		}
+
+		double[] xs = new double[stacks + 1];
+		double[] rs = new double[stacks + 1];
+		double[] ts = new double[stacks + 1];
+		for (int j = 0; j <= stacks; j++) {
+			xs[j] = length * j / stacks;
+			rs[j] = (j == stacks) ? 0 : getMassObjectRadius(o, xs[j]);
+			ts[j] = (double) j / stacks;
+		}
+
+		double[] axial = new double[stacks + 1];
+		double[] radial = new double[stacks + 1];
+		for (int j = 0; j <= stacks; j++) {
+			if (j == 0 && rs[j] == 0) {
+				axial[j] = -1;
+			} else if (j == stacks && rs[j] == 0) {
+				axial[j] = 1;
+			} else {
+				int prev = Math.max(0, j - 1);
+				int next = Math.min(stacks, j + 1);
+				axial[j] = -(rs[next] - rs[prev]) / (xs[next] - xs[prev]);
+				radial[j] = 1;
+			}
+		}
+
+		revolve(b, xs, rs, axial, radial, ts, slices, false);
+	}
+
+	/**
+	 * Return the radius of a mass object, which is drawn as a cylinder with rounded ends.
+	 */
+	private static double getMassObjectRadius(MassObject o, double z) {
+		double arc = Math.min(o.getLength(), 2 * o.getRadius()) * 0.35;
+		double r = o.getRadius();
+		if (z == 0 || z == o.getLength())
+			return 0;
+		if (z < arc) {
+			double zz = z - arc;
+			return (r - arc) + Math.sqrt(arc * arc - zz * zz);
+		}
+		if (z > o.getLength() - arc) {
+			double zz = (z - o.getLength() + arc);
+			return (r - arc) + Math.sqrt(arc * arc - zz * zz);
+		}
+		return o.getRadius();
+	}
+
+
+	private static void finSet(MeshBuilder b, FinSet fs) {
+		Coordinate[] points = fs.getFinPointsWithTab();
+		if (points.length < 3) {
+			return;
+		}
+
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		for (Coordinate c : points) {
+			minX = Math.min(c.x, minX);
+			minY = Math.min(c.y, minY);
+			maxX = Math.max(c.x, maxX);
+			maxY = Math.max(c.y, maxY);
+		}
+		double scaleX = (maxX > minX) ? 1 / (maxX - minX) : 0;
+		double scaleY = (maxY > minY) ? 1 / (maxY - minY) : 0;
+
+		double[] xs = new double[points.length];
+		double[] ys = new double[points.length];
+		for (int i = 0; i < points.length; i++) {
+			xs[i] = points[i].x;
+			ys[i] = points[i].y;
+		}
+		int[] triangles = Triangulator.triangulate(xs, ys);
+		boolean ccw = Triangulator.signedArea(xs, ys) > 0;
+
+		double r = fs.getBodyRadius();
+		double h = fs.getThickness() / 2;
+		double halfLength = fs.getLength() / 2;
+		boolean smooth = fs instanceof EllipticalFinSet;
+		int n = points.length;
+
+		for (int fin = 0; fin < fs.getFinCount(); fin++) {
+			Transformation transformation = Transformation.rotate_x(fs.getBaseRotation() + fin * 2 * Math.PI / fs.getFinCount())
+					.applyTransformation(new Transformation(halfLength, 0, 0))
+					.applyTransformation(Transformation.rotate_y(fs.getCantAngle()))
+					.applyTransformation(new Transformation(-halfLength, 0, 0));
+			b.setTransformation(transformation);
+
+			// Both sides of the fin
+			for (int side = -1; side <= 1; side += 2) {
+				int first = b.getVertexCount();
+				for (Coordinate c : points) {
+					b.vertex(c.x, c.y + r, c.z + side * h, 0, 0, side, (c.x - minX) * scaleX, (c.y - minY) * scaleY);
+				}
+				boolean flip = (side > 0) != ccw;
+				for (int i = 0; i < triangles.length; i += 3) {
+					if (flip) {
+						b.triangle(first + triangles[i], first + triangles[i + 2], first + triangles[i + 1]);
+					} else {
+						b.triangle(first + triangles[i], first + triangles[i + 1], first + triangles[i + 2]);
+					}
+				}
+			}
+
+			// Strip around the edge, with a sharp edge at every point unless the fin is smooth
+			double sign = ccw ? -1 : 1;
+			for (int i = 0; i < n; i++) {
+				Coordinate c0 = points[i];
+				Coordinate c1 = points[(i + 1) % n];
+				double nx0, ny0, nx1, ny1;
+				if (smooth) {
+					Coordinate prev = points[(i - 1 + n) % n];
+					Coordinate next = points[(i + 2) % n];
+					nx0 = sign * (prev.y - c1.y);
+					ny0 = sign * (c1.x - prev.x);
+					nx1 = sign * (c0.y - next.y);
+					ny1 = sign * (next.x - c0.x);
+				} else {
+					nx0 = nx1 = sign * (c0.y - c1.y);
+					ny0 = ny1 = sign * (c1.x - c0.x);
+				}
+				double s0 = (c0.x - minX) * scaleX;
+				double t0 = (c0.y - minY) * scaleY;
+				double s1 = (c1.x - minX) * scaleX;
+				double t1 = (c1.y - minY) * scaleY;
+				int p0 = b.vertex(c0.x, c0.y + r, c0.z - h, nx0, ny0, 0, s0, t0);
+				int p1 = b.vertex(c0.x, c0.y + r, c0.z + h, nx0, ny0, 0, s0, t0);
+				int p2 = b.vertex(c1.x, c1.y + r, c1.z + h, nx1, ny1, 0, s1, t1);
+				int p3 = b.vertex(c1.x, c1.y + r, c1.z - h, nx1, ny1, 0, s1, t1);
+				if (ccw) {
+					b.quad(p0, p3, p2, p1);
+				} else {
+					b.quad(p0, p1, p2, p3);
+				}
+			}
+		}
+		b.setTransformation(null);
+	}
+
+
+	private static void tubeFinSet(MeshBuilder b, TubeFinSet fs, Surface surface, int slices) {
+		double offset = fs.getOuterRadius() + fs.getBodyRadius();
+		for (int fin = 0; fin < fs.getFinCount(); fin++) {
+			b.setTransformation(Transformation.rotate_x(fs.getBaseRotation() + fin * 2 * Math.PI / fs.getFinCount())
+					.applyTransformation(new Transformation(0, offset, 0)));
+			tube(b, surface, fs.getOuterRadius(), fs.getInnerRadius(), 0, fs.getLength(), slices);
+		}
+		b.setTransformation(null);
+	}
+
+}
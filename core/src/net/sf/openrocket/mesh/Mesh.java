@@ -0,0 +1,88 @@
+package net.sf.openrocket.mesh;
+
+/**
+ * An immutable indexed triangle mesh.  Each vertex has a position, a unit normal
+ * and a texture coordinate, stored in flat arrays suitable for uploading as vertex
+ * buffers.  Triangles are wound counter-clockwise when viewed from the side the
+ * normals point to.
+ * <p>
+ * The arrays returned by the getters are the internal arrays of the mesh and
+ * must not be modified.
+ */
+public final class Mesh {
+
+	/** A mesh containing no triangles. */
+	public static final Mesh EMPTY = new Mesh(new float[0], new float[0], new float[0], new int[0]);
+
+	private final float[] positions;
+	private final float[] normals;
+	private final float[] texCoords;
+	private final int[] indices;
+
+
+	/**
+	 * Sole constructor.  The arrays are used directly and must not be modified afterwards.
+	 *
+	 * @param positions		the vertex positions, three values per vertex.
+	 * @param normals		the vertex normals, three values per vertex.
+	 * @param texCoords		the texture coordinates, two values per vertex.
+	 * @param indices		the vertex indices, three per triangle.
+	 */
+	Mesh(float[] positions, float[] normals, float[] texCoords, int[] indices) {
+		if (positions.length % 3 != 0 || normals.length != positions.length ||
+				texCoords.length != positions.length / 3 * 2 || indices.length % 3 != 0) {
+			throw new IllegalArgumentException("Inconsistent mesh array lengths");
+		}
+		this.positions = positions;
+		this.normals = normals;
+		this.texCoords = texCoords;
+		this.indices = indices;
+	}
+
+
+	public int getVertexCount() {
+		return positions.length / 3;
+	}
+
+	public int getTriangleCount() {
+		return indices.length / 3;
+	}
+
+	public boolean isEmpty() {
+		return indices.length == 0;
+	}
+
+	/**
+	 * Return the vertex positions as consecutive x, y, z triplets.
+	 */
+	public float[] getPositions() {
+		return positions;
+	}
+
+	/**
+	 * Return the vertex normals as consecutive x, y, z triplets.
+	 */
+	public float[] getNormals() {
+		return normals;
+	}
+
+	/**
+	 * Return the texture coordinates as consecutive s, t pairs.
+	 */
+	public float[] getTexCoords() {
+		return texCoords;
+	}
+
+	/**
+	 * Return the vertex indices of the triangles, three per triangle.
+	 */
+	public int[] getIndices() {
+		return indices;
+	}
+
+
+	@Override
+	public String toString() {
+		return "Mesh[vertices=" + getVertexCount() + ",triangles=" + getTriangleCount() + "]";
+	}
+}
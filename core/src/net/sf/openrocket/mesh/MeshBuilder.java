@@ -0,0 +1,118 @@
+package net.sf.openrocket.mesh;
+
+import java.util.Arrays;
+
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.Transformation;
+
+/**
+ * Incrementally builds a {@link Mesh}.  Vertices may optionally be transformed by
+ * a rigid transformation as they are added.
+ */
+final class MeshBuilder {
+
+	private float[] positions = new float[3 * 64];
+	private float[] normals = new float[3 * 64];
+	private float[] texCoords = new float[2 * 64];
+	private int vertexCount = 0;
+
+	private int[] indices = new int[3 * 64];
+	private int indexCount = 0;
+
+	private Transformation transformation = null;
+
+
+	/**
+	 * Set the rigid transformation applied to subsequently added vertices and normals.
+	 *
+	 * @param transformation	the transformation, or <code>null</code> for none.
+	 */
+	public void setTransformation(Transformation transformation) {
+		this.transformation = transformation;
+	}
+
+
+	/**
+	 * Add a vertex.  The normal is normalized to unit length if it is non-zero.
+	 *
+	 * @return	the index of the new vertex.
+	 */
+	public int vertex(double x, double y, double z, double nx, double ny, double nz, double s, double t) {
+		if (transformation != null) {
+			Coordinate p = transformation.transform(new Coordinate(x, y, z));
+			Coordinate n = transformation.linearTransform(new Coordinate(nx, ny, nz));
+			x = p.x;
+			y = p.y;
+			z = p.z;
+			nx = n.x;
+			ny = n.y;
+			nz = n.z;
+		}
+
+		double mag = Math.sqrt(nx * nx + ny * ny + nz * nz);
+		if (mag > 0.00001) {
+			nx /= mag;
+			ny /= mag;
+			nz /= mag;
+		}
+
+		if (3 * vertexCount + 3 > positions.length) {
+			int size = positions.length * 2;
+			positions = Arrays.copyOf(positions, size);
+			normals = Arrays.copyOf(normals, size);
+			texCoords = Arrays.copyOf(texCoords, size / 3 * 2);
+		}
+
+		int p = 3 * vertexCount;
+		positions[p] = (float) x;
+		positions[p + 1] = (float) y;
+		positions[p + 2] = (float) z;
+		normals[p] = (float) nx;
+		normals[p + 1] = (float) ny;
+		normals[p + 2] = (float) nz;
+		texCoords[2 * vertexCount] = (float) s;
+		texCoords[2 * vertexCount + 1] = (float) t;
+		return vertexCount++;
+	}
+
+
+	/**
+	 * Add a triangle.  The vertices are given in counter-clockwise order when viewed
+	 * from the front side.
+	 */
+	public void triangle(int a, int b, int c) {
+		if (indexCount + 3 > indices.length) {
+			indices = Arrays.copyOf(indices, indices.length * 2);
+		}
+		indices[indexCount++] = a;
+		indices[indexCount++] = b;
+		indices[indexCount++] = c;
+	}
+
+
+	/**
+	 * Add a quadrilateral as two triangles.  The vertices are given in counter-clockwise
+	 * order when viewed from the front side.
+	 */
+	public void quad(int a, int b, int c, int d) {
+		triangle(a, b, c);
+		triangle(a, c, d);
+	}
+
+
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+
+	/**
+	 * Return the mesh built so far.
+	 */
+	public Mesh build() {
+		if (indexCount == 0) {
+			return Mesh.EMPTY;
+		}
+		return new Mesh(Arrays.copyOf(positions, 3 * vertexCount), Arrays.copyOf(normals, 3 * vertexCount),
+				Arrays.copyOf(texCoords, 2 * vertexCount), Arrays.copyOf(indices, indexCount));
+	}
+}
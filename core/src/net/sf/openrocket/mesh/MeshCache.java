@@ -0,0 +1,104 @@
+package net.sf.openrocket.mesh;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import net.sf.openrocket.mesh.ComponentMeshGenerator.Surface;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+
+/**
+ * A cache of component meshes.  A mesh is reused as long as the component has not
+ * been modified, as determined by its modification ID, and the dimensions it derives
+ * from other components have not changed.  Meshes are cached separately for each
+ * surface and level of detail.
+ * <p>
+ * The cache holds its components weakly.  This class is thread-safe.
+ */
+public class MeshCache {
+
+	private final Map<RocketComponent, List<Entry>> cache = new WeakHashMap<RocketComponent, List<Entry>>();
+
+	private int hits = 0;
+	private int misses = 0;
+
+
+	/**
+	 * Return the mesh of a component surface, generating it if necessary.
+	 *
+	 * @see ComponentMeshGenerator#generate(RocketComponent, Surface, int)
+	 */
+	public Mesh getMesh(RocketComponent c, Surface surface, int lod) {
+		int modID = c.getStateModID();
+		double[] dimensions = ComponentMeshGenerator.getDerivedDimensions(c);
+
+		synchronized (this) {
+			List<Entry> entries = cache.get(c);
+			if (entries != null) {
+				for (Entry e : entries) {
+					if (e.surface == surface && e.lod == lod && e.modID == modID &&
+							Arrays.equals(e.dimensions, dimensions)) {
+						hits++;
+						return e.mesh;
+					}
+				}
+			}
+		}
+
+		Mesh mesh = ComponentMeshGenerator.generate(c, surface, lod);
+
+		synchronized (this) {
+			misses++;
+			List<Entry> entries = cache.get(c);
+			if (entries == null) {
+				entries = new ArrayList<Entry>(3);
+				cache.put(c, entries);
+			}
+			// Replace any outdated mesh of the same surface and detail
+			for (int i = entries.size() - 1; i >= 0; i--) {
+				Entry e = entries.get(i);
+				if (e.surface == surface && e.lod == lod) {
+					entries.remove(i);
+				}
+			}
+			entries.add(new Entry(surface, lod, modID, dimensions, mesh));
+		}
+		return mesh;
+	}
+
+
+	/**
+	 * Remove all meshes from the cache.
+	 */
+	public synchronized void clear() {
+		cache.clear();
+	}
+
+
+	public synchronized int getHitCount() {
+		return hits;
+	}
+
+	public synchronized int getMissCount() {
+		return misses;
+	}
+
+
+	private static class Entry {
+		private final Surface surface;
+		private final int lod;
+		private final int modID;
+		private final double[] dimensions;
+		private final Mesh mesh;
+
+		public Entry(Surface surface, int lod, int modID, double[] dimensions, Mesh mesh) {
+			this.surface = surface;
+			this.lod = lod;
+			this.modID = modID;
+			this.dimensions = dimensions;
+			this.mesh = mesh;
+		}
+	}
+}
@@ -0,0 +1,192 @@
+package net.sf.openrocket.mesh;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.openrocket.mesh.ComponentMeshGenerator.Surface;
+import net.sf.openrocket.rocketcomponent.Configuration;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.util.Coordinate;
+
+/**
+ * Exports the meshes of the active components of a rocket configuration as
+ * binary STL or Wavefront OBJ files.  All surfaces of all instances of each
+ * component are exported at their absolute positions.
+ */
+public class MeshExporter {
+
+	/** The surfaces forming the closed surface of a component. */
+	private static final Surface[] SURFACES = { Surface.OUTSIDE, Surface.INSIDE, Surface.EDGES };
+
+	private final MeshCache cache;
+	private final int lod;
+	private final double scale;
+
+
+	/**
+	 * Sole constructor.
+	 *
+	 * @param cache		the mesh cache to use.
+	 * @param lod		the level of detail of the meshes.
+	 * @param scale		the scale factor from SI units to the exported coordinates,
+	 * 					for example 1000 to export in millimeters.
+	 */
+	public MeshExporter(MeshCache cache, int lod, double scale) {
+		this.cache = cache;
+		this.lod = lod;
+		this.scale = scale;
+	}
+
+
+	/**
+	 * Export the configuration as a binary STL file.
+	 *
+	 * @param configuration		the configuration to export.
+	 * @param stream			the stream to write to.
+	 * @throws IOException		if an I/O error occurs.
+	 */
+	public void exportSTL(Configuration configuration, OutputStream stream) throws IOException {
+		List<Part> parts = getParts(configuration);
+		long triangles = 0;
+		for (Part p : parts) {
+			triangles += p.mesh.getTriangleCount();
+		}
+
+		OutputStream out = new BufferedOutputStream(stream);
+		ByteBuffer buffer = ByteBuffer.allocate(84).order(ByteOrder.LITTLE_ENDIAN);
+		byte[] header = ("OpenRocket " + configuration.getRocket().getName()).getBytes("US-ASCII");
+		buffer.put(header, 0, Math.min(header.length, 80));
+		buffer.position(80);
+		buffer.putInt((int) triangles);
+		out.write(buffer.array(), 0, 84);
+
+		buffer = ByteBuffer.allocate(50).order(ByteOrder.LITTLE_ENDIAN);
+		float[] v = new float[9];
+		for (Part p : parts) {
+			float[] positions = p.mesh.getPositions();
+			int[] indices = p.mesh.getIndices();
+			for (int i = 0; i < indices.length; i += 3) {
+				for (int j = 0; j < 3; j++) {
+					int index = 3 * indices[i + j];
+					v[3 * j] = (float) ((positions[index] + p.offset.x) * scale);
+					v[3 * j + 1] = (float) ((positions[index + 1] + p.offset.y) * scale);
+					v[3 * j + 2] = (float) ((positions[index + 2] + p.offset.z) * scale);
+				}
+
+				// Facet normal from the vertex order
+				double ax = v[3] - v[0], ay = v[4] - v[1], az = v[5] - v[2];
+				double bx = v[6] - v[0], by = v[7] - v[1], bz = v[8] - v[2];
+				double nx = ay * bz - az * by;
+				double ny = az * bx - ax * bz;
+				double nz = ax * by - ay * bx;
+				double mag = Math.sqrt(nx * nx + ny * ny + nz * nz);
+				if (mag > 0) {
+					nx /= mag;
+					ny /= mag;
+					nz /= mag;
+				}
+
+				buffer.clear();
+				buffer.putFloat((float) nx).putFloat((float) ny).putFloat((float) nz);
+				for (int j = 0; j < 9; j++) {
+					buffer.putFloat(v[j]);
+				}
+				buffer.putShort((short) 0);
+				out.write(buffer.array(), 0, 50);
+			}
+		}
+		out.flush();
+	}
+
+
+	/**
+	 * Export the configuration as a Wavefront OBJ file.  Each component is exported
+	 * as a separate object with texture coordinates and normals.
+	 *
+	 * @param configuration		the configuration to export.
+	 * @param stream			the stream to write to.
+	 * @throws IOException		if an I/O error occurs.
+	 */
+	public void exportOBJ(Configuration configuration, OutputStream stream) throws IOException {
+		Writer out = new OutputStreamWriter(new BufferedOutputStream(stream), "UTF-8");
+		out.write("# OpenRocket " + configuration.getRocket().getName() + "\n");
+
+		RocketComponent current = null;
+		int base = 1;
+		StringBuilder sb = new StringBuilder();
+		for (Part p : getParts(configuration)) {
+			if (p.component != current) {
+				current = p.component;
+				out.write("o " + current.getName().replaceAll("\\s+", "_") + "\n");
+			}
+
+			float[] positions = p.mesh.getPositions();
+			float[] normals = p.mesh.getNormals();
+			float[] texCoords = p.mesh.getTexCoords();
+			int vertices = p.mesh.getVertexCount();
+			for (int i = 0; i < vertices; i++) {
+				sb.setLength(0);
+				sb.append("v ").append((float) ((positions[3 * i] + p.offset.x) * scale));
+				sb.append(' ').append((float) ((positions[3 * i + 1] + p.offset.y) * scale));
+				sb.append(' ').append((float) ((positions[3 * i + 2] + p.offset.z) * scale));
+				sb.append("\nvt ").append(texCoords[2 * i]).append(' ').append(texCoords[2 * i + 1]);
+				sb.append("\nvn ").append(normals[3 * i]).append(' ').append(normals[3 * i + 1]);
+				sb.append(' ').append(normals[3 * i + 2]).append('\n');
+				out.write(sb.toString());
+			}
+
+			int[] indices = p.mesh.getIndices();
+			for (int i = 0; i < indices.length; i += 3) {
+				sb.setLength(0);
+				sb.append('f');
+				for (int j = 0; j < 3; j++) {
+					int index = base + indices[i + j];
+					sb.append(' ').append(index).append('/').append(index).append('/').append(index);
+				}
+				sb.append('\n');
+				out.write(sb.toString());
+			}
+			base += vertices;
+		}
+		out.flush();
+	}
+
+
+	private List<Part> getParts(Configuration configuration) {
+		List<Part> parts = new ArrayList<Part>();
+		for (RocketComponent c : configuration) {
+			if (!ComponentMeshGenerator.isSupported(c)) {
+				continue;
+			}
+			for (Coordinate offset : c.toAbsolute(Coordinate.NUL)) {
+				for (Surface surface : SURFACES) {
+					Mesh mesh = cache.getMesh(c, surface, lod);
+					if (!mesh.isEmpty()) {
+						parts.add(new Part(c, offset, mesh));
+					}
+				}
+			}
+		}
+		return parts;
+	}
+
+
+	private static class Part {
+		private final RocketComponent component;
+		private final Coordinate offset;
+		private final Mesh mesh;
+
+		public Part(RocketComponent component, Coordinate offset, Mesh mesh) {
+			this.component = component;
+			this.offset = offset;
+			this.mesh = mesh;
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package net.sf.openrocket.mesh;
+
+/**
+ * Triangulation of simple planar polygons by ear clipping.
+ */
+final class Triangulator {
+
+	private static final double EPSILON = 1e-12;
+
+	private Triangulator() {
+		// Prevent instantiation
+	}
+
+
+	/**
+	 * Return the signed area of a polygon, positive if the vertices are in
+	 * counter-clockwise order.
+	 */
+	static double signedArea(double[] xs, double[] ys) {
+		double area = 0;
+		int n = xs.length;
+		for (int i = 0; i < n; i++) {
+			int j = (i + 1) % n;
+			area += xs[i] * ys[j] - xs[j] * ys[i];
+		}
+		return area / 2;
+	}
+
+
+	/**
+	 * Triangulate a simple polygon.  The triangles have the same orientation as the
+	 * polygon.  Collinear and duplicate vertices are allowed.  If the polygon is not
+	 * simple, the remaining part is triangulated as a fan once no ear can be found.
+	 *
+	 * @param xs	the x coordinates of the vertices.
+	 * @param ys	the y coordinates of the vertices.
+	 * @return		the vertex indices of the triangles, three per triangle.
+	 */
+	static int[] triangulate(double[] xs, double[] ys) {
+		int n = xs.length;
+		if (n < 3) {
+			return new int[0];
+		}
+
+		double orientation = signedArea(xs, ys) >= 0 ? 1 : -1;
+		double scale = 0;
+		for (int i = 0; i < n; i++) {
+			scale = Math.max(scale, Math.max(Math.abs(xs[i]), Math.abs(ys[i])));
+		}
+		double epsilon = EPSILON * Math.max(scale * scale, Double.MIN_NORMAL);
+
+		int[] remaining = new int[n];
+		for (int i = 0; i < n; i++) {
+			remaining[i] = i;
+		}
+		int count = n;
+
+		int[] result = new int[3 * (n - 2)];
+		int size = 0;
+
+		int i = 0;
+		int sinceLastEar = 0;
+		while (count > 3) {
+			int prev = remaining[(i + count - 1) % count];
+			int cur = remaining[i];
+			int next = remaining[(i + 1) % count];
+
+			double cross = orientation * cross(xs, ys, prev, cur, next);
+			boolean clip;
+			boolean degenerate = Math.abs(cross) <= epsilon;
+			if (degenerate) {
+				clip = true;
+			} else if (cross < 0) {
+				clip = false;
+			} else {
+				clip = true;
+				for (int j = 0; j < count; j++) {
+					int v = remaining[j];
+					if (v != prev && v != cur && v != next && inside(xs, ys, orientation, prev, cur, next, v)) {
+						clip = false;
+						break;
+					}
+				}
+			}
+
+			if (clip) {
+				if (!degenerate) {
+					result[size++] = prev;
+					result[size++] = cur;
+					result[size++] = next;
+				}
+				System.arraycopy(remaining, i + 1, remaining, i, count - i - 1);
+				count--;
+				if (i >= count) {
+					i = 0;
+				}
+				sinceLastEar = 0;
+			} else {
+				i = (i + 1) % count;
+				sinceLastEar++;
+				if (sinceLastEar > count) {
+					// Not a simple polygon, fall back to a fan
+					for (int j = 1; j < count - 1; j++) {
+						result[size++] = remaining[0];
+						result[size++] = remaining[j];
+						result[size++] = remaining[j + 1];
+					}
+					count = 0;
+				}
+			}
+		}
+
+		if (count == 3 && Math.abs(cross(xs, ys, remaining[0], remaining[1], remaining[2])) > epsilon) {
+			result[size++] = remaining[0];
+			result[size++] = remaining[1];
+			result[size++] = remaining[2];
+		}
+
+		int[] trimmed = new int[size];
+		System.arraycopy(result, 0, trimmed, 0, size);
+		return trimmed;
+	}
+
+
+	private static double cross(double[] xs, double[] ys, int a, int b, int c) {
+		return (xs[b] - xs[a]) * (ys[c] - ys[a]) - (ys[b] - ys[a]) * (xs[c] - xs[a]);
+	}
+
+	/**
+	 * Return whether point p lies inside or on the boundary of triangle abc.
+	 */
+	private static boolean inside(double[] xs, double[] ys, double orientation, int a, int b, int c, int p) {
+		if (xs[p] == xs[a] && ys[p] == ys[a] || xs[p] == xs[b] && ys[p] == ys[b] || xs[p] == xs[c] && ys[p] == ys[c]) {
+			// Duplicate of a triangle vertex
+			return false;
+		}
+		return orientation * cross(xs, ys, a, b, p) >= 0 &&
+				orientation * cross(xs, ys, b, c, p) >= 0 &&
+				orientation * cross(xs, ys, c, a, p) >= 0;
+	}
+}
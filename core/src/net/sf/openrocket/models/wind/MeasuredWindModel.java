@@ -0,0 +1,207 @@
+package net.sf.openrocket.models.wind;
+
+import java.util.Arrays;
+
+import net.sf.openrocket.util.BugException;
+import net.sf.openrocket.util.Coordinate;
+
+/**
+ * A wind model based on a measured wind profile.  The profile defines the average
+ * wind speed and direction at a number of altitudes, and the wind velocity between
+ * them is linearly interpolated.  Below the lowest and above the highest altitude
+ * the closest measured value is used.
+ * <p>
+ * Turbulence may optionally be added on top of the measured profile.  The turbulence
+ * is read from a shared {@link WindField} and scaled by the local wind speed.
+ * <p>
+ * The wind directions use the same convention as {@link PinkNoiseWindModel}.
+ */
+public class MeasuredWindModel implements WindModel, Cloneable {
+
+	/** Random value with which to XOR the random seed value */
+	private static final int SEED_RANDOMIZATION = 0x35D0B64C;
+
+	private final double[] altitudes;
+	private final double[] speeds;
+	private final double[] directions;
+
+	private final double[] velocityX;
+	private final double[] velocityY;
+
+	private double turbulenceIntensity = 0;
+	private int turbulenceSeed = 0;
+	private WindField windField = null;
+
+
+	/**
+	 * Construct a measured wind model.
+	 *
+	 * @param altitudes		the measurement altitudes, in increasing order.
+	 * @param speeds		the average wind speed at each altitude.
+	 * @param directions	the wind direction at each altitude (radians).
+	 */
+	public MeasuredWindModel(double[] altitudes, double[] speeds, double[] directions) {
+		if (altitudes.length == 0 || altitudes.length != speeds.length || altitudes.length != directions.length) {
+			throw new IllegalArgumentException("Illegal wind profile: altitudes=" + altitudes.length +
+					" speeds=" + speeds.length + " directions=" + directions.length);
+		}
+		for (int i = 1; i < altitudes.length; i++) {
+			if (altitudes[i] <= altitudes[i - 1]) {
+				throw new IllegalArgumentException("Wind profile altitudes not in increasing order: " +
+						Arrays.toString(altitudes));
+			}
+		}
+
+		this.altitudes = altitudes.clone();
+		this.speeds = speeds.clone();
+		this.directions = directions.clone();
+
+		// Interpolate the velocity components to avoid wrap-around of the direction
+		this.velocityX = new double[altitudes.length];
+		this.velocityY = new double[altitudes.length];
+		for (int i = 0; i < altitudes.length; i++) {
+			velocityX[i] = speeds[i] * Math.sin(directions[i]);
+			velocityY[i] = speeds[i] * Math.cos(directions[i]);
+		}
+	}
+
+
+	/**
+	 * Return the turbulence intensity (standard deviation / average).
+	 *
+	 * @return  the turbulence intensity
+	 */
+	public double getTurbulenceIntensity() {
+		return turbulenceIntensity;
+	}
+
+
+	/**
+	 * Return the random seed of the turbulence.
+	 *
+	 * @return  the random seed
+	 */
+	public int getTurbulenceSeed() {
+		return turbulenceSeed;
+	}
+
+
+	/**
+	 * Set the turbulence added on top of the measured profile.  The turbulence
+	 * values are generated from a shared {@link WindField} with the specified seed.
+	 *
+	 * @param intensity		the turbulence intensity (standard deviation / average),
+	 * 						zero for no turbulence.
+	 * @param seed			the random seed of the turbulence.
+	 */
+	public void setTurbulence(double intensity, int seed) {
+		this.turbulenceIntensity = Math.max(intensity, 0);
+		this.turbulenceSeed = seed;
+		if (turbulenceIntensity > 0) {
+			this.windField = WindField.getInstance(seed ^ SEED_RANDOMIZATION);
+		} else {
+			this.windField = null;
+		}
+	}
+
+
+	/**
+	 * Return the number of altitude points in the profile.
+	 */
+	public int getPointCount() {
+		return altitudes.length;
+	}
+
+	public double getAltitude(int index) {
+		return altitudes[index];
+	}
+
+	public double getSpeed(int index) {
+		return speeds[index];
+	}
+
+	public double getDirection(int index) {
+		return directions[index];
+	}
+
+
+	@Override
+	public Coordinate getWindVelocity(double time, double altitude) {
+		if (time < 0) {
+			throw new IllegalArgumentException("Requesting wind speed at t=" + time);
+		}
+
+		double x, y;
+		int last = altitudes.length - 1;
+		if (altitude <= altitudes[0]) {
+			x = velocityX[0];
+			y = velocityY[0];
+		} else if (altitude >= altitudes[last]) {
+			x = velocityX[last];
+			y = velocityY[last];
+		} else {
+			int n = Arrays.binarySearch(altitudes, altitude);
+			if (n >= 0) {
+				x = velocityX[n];
+				y = velocityY[n];
+			} else {
+				n = -n - 2;
+				double a = (altitude - altitudes[n]) / (altitudes[n + 1] - altitudes[n]);
+				x = velocityX[n] * (1 - a) + velocityX[n + 1] * a;
+				y = velocityY[n] * (1 - a) + velocityY[n + 1] * a;
+			}
+		}
+
+		WindField field = windField;
+		if (field != null) {
+			double scale = 1 + field.getValue(time, altitude) * turbulenceIntensity;
+			x *= scale;
+			y *= scale;
+		}
+
+		return new Coordinate(x, y, 0);
+	}
+
+
+	@Override
+	public int getModID() {
+		return Arrays.hashCode(altitudes) + 31 * Arrays.hashCode(speeds) + 961 * Arrays.hashCode(directions) +
+				(int) (turbulenceIntensity * 1000) + 29791 * turbulenceSeed;
+	}
+
+
+	/**
+	 * Return a copy of this wind model.  The profile data is immutable and shared
+	 * with the copy, so the turbulence of the copy may be set independently.
+	 */
+	@Override
+	public MeasuredWindModel clone() {
+		try {
+			return (MeasuredWindModel) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new BugException("CloneNotSupportedException", e);
+		}
+	}
+
+
+	/**
+	 * Compares the profile data and turbulence settings of two wind models.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof MeasuredWindModel))
+			return false;
+		MeasuredWindModel other = (MeasuredWindModel) obj;
+		return Arrays.equals(altitudes, other.altitudes) && Arrays.equals(speeds, other.speeds) &&
+				Arrays.equals(directions, other.directions) &&
+				turbulenceIntensity == other.turbulenceIntensity && turbulenceSeed == other.turbulenceSeed;
+	}
+
+	@Override
+	public int hashCode() {
+		return getModID();
+	}
+
+}
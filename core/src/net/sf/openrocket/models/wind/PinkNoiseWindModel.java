@@ -1,15 +1,16 @@
 package net.sf.openrocket.models.wind;
 
-import java.util.Random;
-
 import net.sf.openrocket.util.Coordinate;
 import net.sf.openrocket.util.MathUtil;
-import net.sf.openrocket.util.PinkNoise;
 
 /**
  * A wind simulator that generates wind speed as pink noise from a specified average wind speed
  * and standard deviance.  Currently the wind is always directed in the direction of the negative
- * X-axis.  The simulated wind is unaffected by the altitude.
+ * X-axis.  By default the simulated wind is unaffected by the altitude, but the turbulence
+ * may optionally be defined on separate altitude layers.
+ * <p>
+ * The turbulence is sampled from a shared {@link WindField}, so the wind may be
+ * queried at arbitrary times, and models with the same seed share the generated values.
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
@@ -19,29 +20,14 @@ public class PinkNoiseWindModel implements WindModel {
 	private static final int SEED_RANDOMIZATION = 0x7343AA03;
 	
 	
-	
-	/** Pink noise alpha parameter. */
-	private static final double ALPHA = 5.0 / 3.0;
-	
-	/** Number of poles to use in the pink noise IIR filter. */
-	private static final int POLES = 2;
-	
-	/** The standard deviation of the generated pink noise with the specified number of poles. */
-	private static final double STDDEV = 2.252;
-	
-	/** Time difference between random samples. */
-	private static final double DELTA_T = 0.05;
-	
-	
 	private double average = 0;
 	private double direction = Math.PI / 2; // this is an East wind
 	private double standardDeviation = 0;
 	
 	private final int seed;
+	private final double[] layerAltitudes;
 	
-	private PinkNoise randomSource = null;
-	private double time1;
-	private double value1, value2;
+	private volatile WindField windField = null;
 	
 	
 	/**
@@ -49,7 +35,22 @@ public class PinkNoiseWindModel implements WindModel {
 	 * @param seed	the seed value.
 	 */
 	public PinkNoiseWindModel(int seed) {
+		this(seed, null);
+	}
+	
+	
+	/**
+	 * Construct a new wind simulation with a specific seed value and turbulence
+	 * generated independently at the specified altitude layers.  The turbulence
+	 * between the layers is linearly interpolated.
+	 * 
+	 * @param seed				the seed value.
+	 * @param layerAltitudes	the altitudes of the turbulence layers in increasing order,
+	 * 							or <code>null</code> for altitude-independent turbulence.
+	 */
+	public PinkNoiseWindModel(int seed, double[] layerAltitudes) {
 		this.seed = seed ^ SEED_RANDOMIZATION;
+		this.layerAltitudes = (layerAltitudes != null) ? layerAltitudes.clone() : null;
 	}
 	
 	
@@ -136,34 +137,29 @@ public class PinkNoiseWindModel implements WindModel {
 			throw new IllegalArgumentException("Requesting wind speed at t=" + time);
 		}
 		
-		if (randomSource == null) {
-			randomSource = new PinkNoise(ALPHA, POLES, new Random(seed));
-			time1 = 0;
-			value1 = randomSource.nextValue();
-			value2 = randomSource.nextValue();
-		}
-		
-		if (time < time1) {
-			reset();
-			return getWindVelocity(time, altitude);
-		}
-		
-		while (time1 + DELTA_T < time) {
-			value1 = value2;
-			value2 = randomSource.nextValue();
-			time1 += DELTA_T;
-		}
-		
-		double a = (time - time1) / DELTA_T;
-		
-		double speed = average + (value1 * (1 - a) + value2 * a) * standardDeviation / STDDEV;
+		double speed = average + getWindField().getValue(time, altitude) * standardDeviation;
 		return new Coordinate(speed * Math.sin(direction), speed * Math.cos(direction), 0);
 		
 	}
 	
 	
-	private void reset() {
-		randomSource = null;
+	/**
+	 * Return the turbulence field used by this model.  The field is shared with
+	 * other models using the same seed and altitude layers.
+	 * 
+	 * @return	the shared turbulence field.
+	 */
+	public WindField getWindField() {
+		WindField field = windField;
+		if (field == null) {
+			if (layerAltitudes == null) {
+				field = WindField.getInstance(seed);
+			} else {
+				field = WindField.getInstance(seed, layerAltitudes);
+			}
+			windField = field;
+		}
+		return field;
 	}
 	
 	
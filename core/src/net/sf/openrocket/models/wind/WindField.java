@@ -0,0 +1,244 @@
+package net.sf.openrocket.models.wind;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import net.sf.openrocket.util.PinkNoise;
+
+/**
+ * A shared turbulence field.  The field contains one or more layers of pink noise
+ * sampled at a fixed time interval, normalized to unit standard deviation.  Each
+ * layer is located at a specific altitude and the value between the layers is
+ * linearly interpolated.
+ * <p>
+ * The samples are generated in segments of {@link #SEGMENT_DURATION} seconds when
+ * they are first requested and kept for later use, so short simulations only
+ * generate the samples they need and the field is never repeated.  Generated values
+ * never change, so the same instance can be shared by any number of simulations
+ * and threads.  The most recently used instances are cached by seed and layer
+ * altitudes and shared through {@link #getInstance(int, double[])}.
+ */
+public final class WindField {
+
+	/** Pink noise alpha parameter. */
+	private static final double ALPHA = 5.0 / 3.0;
+
+	/** Number of poles to use in the pink noise IIR filter. */
+	private static final int POLES = 2;
+
+	/** The standard deviation of the generated pink noise with the specified number of poles. */
+	private static final double STDDEV = 2.252;
+
+	/** Time difference between random samples. */
+	public static final double DELTA_T = 0.05;
+
+	/** Length of each generated segment of samples in seconds. */
+	public static final double SEGMENT_DURATION = 60;
+
+	/** Number of samples in each segment. */
+	private static final int SEGMENT = (int) Math.round(SEGMENT_DURATION / DELTA_T);
+
+	/** Value XORed with the seed of each subsequent altitude layer. */
+	private static final int LAYER_SEED_RANDOMIZATION = 0x2E1B58C5;
+
+	private static final double[] SINGLE_LAYER = { 0 };
+
+	/** Maximum number of turbulence fields kept in the cache. */
+	private static final int CACHE_SIZE = 16;
+
+	/** Cache of the most recently used fields, in access order. */
+	private static final Map<Key, SoftReference<WindField>> cache =
+			new LinkedHashMap<Key, SoftReference<WindField>>(CACHE_SIZE, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Key, SoftReference<WindField>> eldest) {
+					return size() > CACHE_SIZE;
+				}
+			};
+
+
+	private final double[] layerAltitudes;
+
+	/** The noise generators of each layer, used only while holding the lock of this object. */
+	private final PinkNoise[] generators;
+
+	/** The generated samples, indexed by segment and layer.  Replaced when extended. */
+	private volatile float[][][] segments = new float[0][][];
+
+
+	/**
+	 * Return a turbulence field with a single layer, which is independent of altitude.
+	 *
+	 * @param seed	the random seed of the field.
+	 * @return		a shared turbulence field.
+	 */
+	public static WindField getInstance(int seed) {
+		return getInstance(seed, SINGLE_LAYER);
+	}
+
+
+	/**
+	 * Return a turbulence field with the specified altitude layers.  A previously
+	 * computed field with the same parameters is returned if one is available.
+	 *
+	 * @param seed				the random seed of the field.
+	 * @param layerAltitudes	the altitudes of the layers, in increasing order.
+	 * @return					a shared turbulence field.
+	 */
+	public static WindField getInstance(int seed, double[] layerAltitudes) {
+		Key key = new Key(seed, layerAltitudes);
+		synchronized (cache) {
+			SoftReference<WindField> ref = cache.get(key);
+			WindField field = (ref != null) ? ref.get() : null;
+			if (field == null) {
+				field = new WindField(seed, layerAltitudes);
+				cache.put(key, new SoftReference<WindField>(field));
+			}
+			return field;
+		}
+	}
+
+
+	/**
+	 * Create a new turbulence field.  Normally {@link #getInstance(int, double[])}
+	 * should be used instead in order to share the computed values.
+	 *
+	 * @param seed				the random seed of the field.
+	 * @param layerAltitudes	the altitudes of the layers, in increasing order.
+	 */
+	public WindField(int seed, double[] layerAltitudes) {
+		if (layerAltitudes.length == 0) {
+			throw new IllegalArgumentException("No altitude layers specified");
+		}
+		for (int i = 1; i < layerAltitudes.length; i++) {
+			if (layerAltitudes[i] <= layerAltitudes[i - 1]) {
+				throw new IllegalArgumentException("Layer altitudes not in increasing order: " +
+						Arrays.toString(layerAltitudes));
+			}
+		}
+
+		this.layerAltitudes = layerAltitudes.clone();
+		this.generators = new PinkNoise[layerAltitudes.length];
+
+		int layerSeed = seed;
+		for (int layer = 0; layer < layerAltitudes.length; layer++) {
+			generators[layer] = new PinkNoise(ALPHA, POLES, new Random(layerSeed));
+			layerSeed = layerSeed * 31 ^ LAYER_SEED_RANDOMIZATION;
+		}
+	}
+
+
+	/**
+	 * Return the normalized turbulence value at the specified time and altitude.
+	 * The values have an expected mean of zero and unit standard deviation.
+	 *
+	 * @param time		the time, must be non-negative.
+	 * @param altitude	the altitude.
+	 * @return			the turbulence value at the specified point.
+	 */
+	public double getValue(double time, double altitude) {
+		if (time < 0) {
+			throw new IllegalArgumentException("Requesting turbulence at t=" + time);
+		}
+
+		double pos = time / DELTA_T;
+		if (pos >= (double) Integer.MAX_VALUE - 1) {
+			throw new IllegalArgumentException("Requesting turbulence at t=" + time);
+		}
+		int n = (int) pos;
+		double a = pos - n;
+
+		// Both samples of the interval are located in these segments
+		float[][][] s = segments;
+		if (n + 1 >= s.length * SEGMENT) {
+			s = generate((n + 1) / SEGMENT);
+		}
+		float[][] s1 = s[n / SEGMENT];
+		float[][] s2 = s[(n + 1) / SEGMENT];
+		int i1 = n % SEGMENT;
+		int i2 = (n + 1) % SEGMENT;
+
+		if (layerAltitudes.length == 1 || altitude <= layerAltitudes[0]) {
+			return interpolate(s1[0], s2[0], i1, i2, a);
+		}
+		int last = layerAltitudes.length - 1;
+		if (altitude >= layerAltitudes[last]) {
+			return interpolate(s1[last], s2[last], i1, i2, a);
+		}
+
+		int layer = Arrays.binarySearch(layerAltitudes, altitude);
+		if (layer >= 0) {
+			return interpolate(s1[layer], s2[layer], i1, i2, a);
+		}
+		layer = -layer - 2;
+		double b = (altitude - layerAltitudes[layer]) / (layerAltitudes[layer + 1] - layerAltitudes[layer]);
+		return interpolate(s1[layer], s2[layer], i1, i2, a) * (1 - b) +
+				interpolate(s1[layer + 1], s2[layer + 1], i1, i2, a) * b;
+	}
+
+
+	/**
+	 * Return the number of altitude layers in this field.
+	 */
+	public int getLayerCount() {
+		return layerAltitudes.length;
+	}
+
+
+	/**
+	 * Generate the samples up to and including the specified segment, if not already
+	 * generated by another thread, and return the segments.
+	 */
+	private synchronized float[][][] generate(int segment) {
+		float[][][] s = segments;
+		if (segment < s.length) {
+			return s;
+		}
+
+		float[][][] extended = Arrays.copyOf(s, segment + 1);
+		for (int k = s.length; k <= segment; k++) {
+			extended[k] = new float[generators.length][];
+			for (int layer = 0; layer < generators.length; layer++) {
+				PinkNoise noise = generators[layer];
+				float[] values = new float[SEGMENT];
+				for (int i = 0; i < SEGMENT; i++) {
+					values[i] = (float) (noise.nextValue() / STDDEV);
+				}
+				extended[k][layer] = values;
+			}
+		}
+		segments = extended;
+		return extended;
+	}
+
+
+	private static double interpolate(float[] values1, float[] values2, int i1, int i2, double a) {
+		return values1[i1] * (1 - a) + values2[i2] * a;
+	}
+
+
+	private static final class Key {
+		private final int seed;
+		private final double[] layerAltitudes;
+
+		public Key(int seed, double[] layerAltitudes) {
+			this.seed = seed;
+			this.layerAltitudes = layerAltitudes.clone();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return this.seed == other.seed && Arrays.equals(this.layerAltitudes, other.layerAltitudes);
+		}
+
+		@Override
+		public int hashCode() {
+			return seed * 31 + Arrays.hashCode(layerAltitudes);
+		}
+	}
+}
@@ -14,20 +14,35 @@ import net.sf.openrocket.util.Monitorable;
 /**
  * A configuration of motor instances identified by a string id.  Each motor instance has
  * an individual position, ingition time etc.
+ * <p>
+ * Cloning is a constant-time operation.  The clone shares its data with the original
+ * configuration, and the data is copied only when either of them is modified.  Motor
+ * instances are cloned individually when they are first stepped.
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
 public final class MotorInstanceConfiguration implements Monitorable, Cloneable {
 	
-	private final List<MotorId> ids = new ArrayList<MotorId>();
-	private final List<MotorId> unmodifiableIds = Collections.unmodifiableList(ids);
-	private final List<MotorInstance> motors = new ArrayList<MotorInstance>();
-	private final List<Double> ejectionDelays = new ArrayList<Double>();
-	private final List<MotorMount> mounts = new ArrayList<MotorMount>();
-	private final List<IgnitionConfiguration.IgnitionEvent> ignitionEvents = new ArrayList<IgnitionConfiguration.IgnitionEvent>();
-	private final List<Double> ignitionDelays = new ArrayList<Double>();
-	private final List<Coordinate> positions = new ArrayList<Coordinate>();
-	private final List<Double> ignitionTimes = new ArrayList<Double>();
+	private List<MotorId> ids = new ArrayList<MotorId>();
+	private List<MotorId> unmodifiableIds = Collections.unmodifiableList(ids);
+	private List<MotorInstance> motors = new ArrayList<MotorInstance>();
+	private List<Double> ejectionDelays = new ArrayList<Double>();
+	private List<MotorMount> mounts = new ArrayList<MotorMount>();
+	private List<IgnitionConfiguration.IgnitionEvent> ignitionEvents = new ArrayList<IgnitionConfiguration.IgnitionEvent>();
+	private List<Double> ignitionDelays = new ArrayList<Double>();
+	private List<Coordinate> positions = new ArrayList<Coordinate>();
+	private List<Double> ignitionTimes = new ArrayList<Double>();
+	
+	/** Whether the motor definition lists are shared with a clone. */
+	private boolean definitionsShared = false;
+	/** Whether the position list is shared with a clone. */
+	private boolean positionsShared = false;
+	/** Whether the ignition time list is shared with a clone. */
+	private boolean ignitionTimesShared = false;
+	/** Whether the motor instance list is shared with a clone. */
+	private boolean motorsShared = false;
+	/** Which motor instances are owned by this configuration, null if all of them are. */
+	private boolean[] ownedMotors = null;
 	
 	
 	private int modID = 0;
@@ -51,6 +66,10 @@ public final class MotorInstanceConfiguration implements Monitorable, Cloneable
 			throw new IllegalArgumentException("MotorInstanceConfiguration already " +
 					"contains a motor with id " + id);
 		}
+		unshareDefinitions();
+		unsharePositions();
+		unshareIgnitionTimes();
+		unshareMotors();
 		this.ids.add(id);
 		this.motors.add(motor);
 		this.ejectionDelays.add(ejectionDelay);
@@ -86,7 +105,9 @@ public final class MotorInstanceConfiguration implements Monitorable, Cloneable
 	}
 	
 	public void setMotorPosition(MotorId id, Coordinate position) {
-		positions.set(indexOf(id), position);
+		int index = indexOf(id);
+		unsharePositions();
+		positions.set(index, position);
 		modID++;
 	}
 	
@@ -95,7 +116,9 @@ public final class MotorInstanceConfiguration implements Monitorable, Cloneable
 	}
 	
 	public void setMotorIgnitionTime(MotorId id, double time) {
-		this.ignitionTimes.set(indexOf(id), time);
+		int index = indexOf(id);
+		unshareIgnitionTimes();
+		this.ignitionTimes.set(index, time);
 		modID++;
 	}
 	
@@ -127,12 +150,63 @@ public final class MotorInstanceConfiguration implements Monitorable, Cloneable
 		for (int i = 0; i < motors.size(); i++) {
 			double t = time - ignitionTimes.get(i);
 			if (t >= 0) {
-				motors.get(i).step(t, acceleration, cond);
+				writableMotor(i).step(t, acceleration, cond);
 			}
 		}
 		modID++;
 	}
 	
+	
+	/**
+	 * Return the motor instance at the specified index for modification, cloning it
+	 * first if it is shared with another configuration.
+	 */
+	private MotorInstance writableMotor(int index) {
+		if (motorsShared) {
+			motors = new ArrayList<MotorInstance>(motors);
+			ownedMotors = new boolean[motors.size()];
+			motorsShared = false;
+		}
+		if (ownedMotors != null && !ownedMotors[index]) {
+			motors.set(index, motors.get(index).clone());
+			ownedMotors[index] = true;
+		}
+		return motors.get(index);
+	}
+	
+	private void unshareMotors() {
+		for (int i = 0; i < motors.size(); i++) {
+			writableMotor(i);
+		}
+		ownedMotors = null;
+	}
+	
+	private void unshareDefinitions() {
+		if (definitionsShared) {
+			ids = new ArrayList<MotorId>(ids);
+			unmodifiableIds = Collections.unmodifiableList(ids);
+			ejectionDelays = new ArrayList<Double>(ejectionDelays);
+			mounts = new ArrayList<MotorMount>(mounts);
+			ignitionEvents = new ArrayList<IgnitionConfiguration.IgnitionEvent>(ignitionEvents);
+			ignitionDelays = new ArrayList<Double>(ignitionDelays);
+			definitionsShared = false;
+		}
+	}
+	
+	private void unsharePositions() {
+		if (positionsShared) {
+			positions = new ArrayList<Coordinate>(positions);
+			positionsShared = false;
+		}
+	}
+	
+	private void unshareIgnitionTimes() {
+		if (ignitionTimesShared) {
+			ignitionTimes = new ArrayList<Double>(ignitionTimes);
+			ignitionTimesShared = false;
+		}
+	}
+	
 	@Override
 	public int getModID() {
 		int id = modID;
@@ -144,21 +218,25 @@ public final class MotorInstanceConfiguration implements Monitorable, Cloneable
 	
 	/**
 	 * Return a copy of this motor instance configuration with independent motor instances
-	 * from this instance.
+	 * from this instance.  The data is shared copy-on-write between the configurations,
+	 * so this method runs in constant time.
 	 */
 	@Override
 	public MotorInstanceConfiguration clone() {
 		MotorInstanceConfiguration clone = new MotorInstanceConfiguration();
-		clone.ids.addAll(this.ids);
-		clone.mounts.addAll(this.mounts);
-		clone.positions.addAll(this.positions);
-		clone.ejectionDelays.addAll(this.ejectionDelays);
-		clone.ignitionTimes.addAll(this.ignitionTimes);
-		clone.ignitionEvents.addAll(this.ignitionEvents);
-		clone.ignitionDelays.addAll(this.ignitionDelays);
-		for (MotorInstance motor : this.motors) {
-			clone.motors.add(motor.clone());
-		}
+		clone.ids = this.ids;
+		clone.unmodifiableIds = this.unmodifiableIds;
+		clone.mounts = this.mounts;
+		clone.positions = this.positions;
+		clone.ejectionDelays = this.ejectionDelays;
+		clone.ignitionTimes = this.ignitionTimes;
+		clone.ignitionEvents = this.ignitionEvents;
+		clone.ignitionDelays = this.ignitionDelays;
+		clone.motors = this.motors;
+		this.definitionsShared = clone.definitionsShared = true;
+		this.positionsShared = clone.positionsShared = true;
+		this.ignitionTimesShared = clone.ignitionTimesShared = true;
+		this.motorsShared = clone.motorsShared = true;
 		clone.modID = this.modID;
 		return clone;
 	}
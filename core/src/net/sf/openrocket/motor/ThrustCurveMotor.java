@@ -1,5 +1,7 @@
 package net.sf.openrocket.motor;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.text.Collator;
 import java.util.Arrays;
@@ -51,6 +53,15 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	private double averageThrust;
 	private double totalImpulse;
 	
+	/*
+	 * Tables precomputed from the thrust curve for fast stepping.  These are not
+	 * serialized, but recomputed when the motor is read.
+	 */
+	/** The total impulse from the start of the curve up to each time point. */
+	private transient double[] cumulativeImpulse;
+	/** The CG coordinates and mass at each time point. */
+	private transient double[] cgX, cgY, cgZ, cgWeight;
+	
 	/**
 	 * Deep copy constructor.
 	 * Constructs a new ThrustCurveMotor from an existing ThrustCurveMotor.
@@ -75,6 +86,8 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 		this.burnTime = m.burnTime;
 		this.averageThrust = m.averageThrust;
 		this.totalImpulse = m.totalImpulse;
+		
+		computeTables();
 	}
 	
 	/**
@@ -163,6 +176,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 		this.cg = cg.clone();
 		
 		computeStatistics();
+		computeTables();
 	}
 	
 	
@@ -294,6 +308,113 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	}
 	
 	
+	/**
+	 * Return the average thrust of the motor between the specified times.  The value
+	 * is computed from a precomputed impulse table in O(log n) time.
+	 * 
+	 * @param startTime		the start of the interval.
+	 * @param endTime		the end of the interval, must be larger than <code>startTime</code>.
+	 * @return				the average thrust over the interval.
+	 */
+	public double getAverageThrust(double startTime, double endTime) {
+		double i0 = getImpulse(startTime, findSegment(startTime, 0));
+		double i1 = getImpulse(endTime, findSegment(endTime, 0));
+		return Math.max((i1 - i0) / (endTime - startTime), 0);
+	}
+	
+	
+	/**
+	 * Return the index of the thrust curve segment containing the specified time,
+	 * i.e. the largest <code>pos</code> for which <code>time[pos] &lt;= t</code>.
+	 * Returns -1 if <code>t</code> is before the start of the curve and the index of
+	 * the last point if it is at or after the end.
+	 * 
+	 * @param t		the time.
+	 * @param hint	a segment index at or before the result, used as the starting point.
+	 */
+	private int findSegment(double t, int hint) {
+		int n = time.length;
+		if (t < time[0]) {
+			return -1;
+		}
+		if (t >= time[n - 1]) {
+			return n - 1;
+		}
+		
+		// Usually the time is within the hinted or the following segment
+		int low = Math.max(hint, 0);
+		if (time[low] <= t) {
+			if (t < time[low + 1]) {
+				return low;
+			}
+			if (low + 2 < n && t < time[low + 2]) {
+				return low + 1;
+			}
+		} else {
+			low = 0;
+		}
+		
+		// Binary search for the last time point <= t
+		int high = n - 1;
+		while (high - low > 1) {
+			int mid = (low + high) >>> 1;
+			if (time[mid] <= t) {
+				low = mid;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	private double getImpulse(double t, int pos) {
+		if (pos < 0) {
+			return 0;
+		}
+		if (pos >= time.length - 1) {
+			return cumulativeImpulse[time.length - 1];
+		}
+		double f = getThrust(t, pos);
+		return cumulativeImpulse[pos] + (thrust[pos] + f) / 2 * (t - time[pos]);
+	}
+	
+	private double getThrust(double t, int pos) {
+		if (pos < 0 || pos >= time.length - 1) {
+			return 0;
+		}
+		return thrust[pos] + (thrust[pos + 1] - thrust[pos]) * (t - time[pos]) / (time[pos + 1] - time[pos]);
+	}
+	
+	
+	/**
+	 * Compute the cumulative impulse and CG tables used when stepping motor instances.
+	 */
+	private void computeTables() {
+		int n = time.length;
+		cumulativeImpulse = new double[n];
+		cgX = new double[n];
+		cgY = new double[n];
+		cgZ = new double[n];
+		cgWeight = new double[n];
+		
+		for (int i = 0; i < n; i++) {
+			if (i > 0) {
+				cumulativeImpulse[i] = cumulativeImpulse[i - 1] +
+						(thrust[i - 1] + thrust[i]) / 2 * (time[i] - time[i - 1]);
+			}
+			cgX[i] = cg[i].x;
+			cgY[i] = cg[i].y;
+			cgZ[i] = cg[i].z;
+			cgWeight[i] = cg[i].weight;
+		}
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		computeTables();
+	}
+	
+	
 	/**
 	 * Compute the general statistics of this motor.
 	 */
@@ -417,6 +538,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	////////  Motor instance implementation  ////////
 	private class ThrustCurveMotorInstance implements MotorInstance {
 		
+		// Thrust curve segment of the current time point
 		private int position;
 		
 		// Previous time step value
@@ -424,13 +546,14 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 		
 		// Average thrust during previous step
 		private double stepThrust;
-		// Instantaneous thrust at current time point
-		private double instThrust;
+		// Cumulative impulse at current time point
+		private double instImpulse;
 		
-		// Average CG during previous step
+		// Average CG during previous step, created lazily from the components
 		private Coordinate stepCG;
+		private double stepX, stepY, stepZ, stepWeight;
 		// Instantaneous CG at current time point
-		private Coordinate instCG;
+		private double instX, instY, instZ, instWeight;
 		
 		private final double unitRotationalInertia;
 		private final double unitLongitudinalInertia;
@@ -442,10 +565,13 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 			log.debug("ThrustCurveMotor:  Creating motor instance of " + ThrustCurveMotor.this);
 			position = 0;
 			prevTime = 0;
-			instThrust = 0;
 			stepThrust = 0;
-			instCG = cg[0];
+			instImpulse = 0;
 			stepCG = cg[0];
+			instX = stepX = cgX[0];
+			instY = stepY = cgY[0];
+			instZ = stepZ = cgZ[0];
+			instWeight = stepWeight = cgWeight[0];
 			unitRotationalInertia = Inertia.filledCylinderRotational(getDiameter() / 2);
 			unitLongitudinalInertia = Inertia.filledCylinderLongitudinal(getDiameter() / 2, getLength());
 			parentMotor = ThrustCurveMotor.this;
@@ -463,17 +589,20 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 		
 		@Override
 		public Coordinate getCG() {
+			if (stepCG == null) {
+				stepCG = new Coordinate(stepX, stepY, stepZ, stepWeight);
+			}
 			return stepCG;
 		}
 		
 		@Override
 		public double getLongitudinalInertia() {
-			return unitLongitudinalInertia * stepCG.weight;
+			return unitLongitudinalInertia * stepWeight;
 		}
 		
 		@Override
 		public double getRotationalInertia() {
-			return unitRotationalInertia * stepCG.weight;
+			return unitRotationalInertia * stepWeight;
 		}
 		
 		@Override
@@ -500,63 +629,49 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 			
 			modID++;
 			
-			if (position >= time.length - 1) {
+			int last = time.length - 1;
+			if (position >= last) {
 				// Thrust has ended
 				prevTime = nextTime;
 				stepThrust = 0;
-				instThrust = 0;
-				stepCG = cg[cg.length - 1];
+				stepCG = cg[last];
+				stepX = cgX[last];
+				stepY = cgY[last];
+				stepZ = cgZ[last];
+				stepWeight = cgWeight[last];
 				return;
 			}
 			
-			
-			// Compute average & instantaneous thrust
-			if (nextTime < time[position + 1]) {
-				
-				// Time step between time points
-				double nextF = MathUtil.map(nextTime, time[position], time[position + 1],
-						thrust[position], thrust[position + 1]);
-				stepThrust = (instThrust + nextF) / 2;
-				instThrust = nextF;
-				
-			} else {
-				
-				// Portion of previous step
-				stepThrust = (instThrust + thrust[position + 1]) / 2 * (time[position + 1] - prevTime);
-				
-				// Whole steps
-				position++;
-				while ((position < time.length - 1) && (nextTime >= time[position + 1])) {
-					stepThrust += (thrust[position] + thrust[position + 1]) / 2 *
-							(time[position + 1] - time[position]);
-					position++;
-				}
-				
-				// End step
-				if (position < time.length - 1) {
-					instThrust = MathUtil.map(nextTime, time[position], time[position + 1],
-							thrust[position], thrust[position + 1]);
-					stepThrust += (thrust[position] + instThrust) / 2 *
-							(nextTime - time[position]);
-				} else {
-					// Thrust ended during this step
-					instThrust = 0;
-				}
-				
-				stepThrust /= (nextTime - prevTime);
-				
-			}
+			// Average thrust from the difference of the cumulative impulse
+			position = findSegment(nextTime, position);
+			double nextImpulse = getImpulse(nextTime, position);
+			// The impulse never decreases, clamp away rounding errors in zero-thrust segments
+			stepThrust = Math.max((nextImpulse - instImpulse) / (nextTime - prevTime), 0);
+			instImpulse = nextImpulse;
 			
 			// Compute average and instantaneous CG (simple average between points)
-			Coordinate nextCG;
-			if (position < time.length - 1) {
-				nextCG = MathUtil.map(nextTime, time[position], time[position + 1],
-						cg[position], cg[position + 1]);
+			double nextX, nextY, nextZ, nextWeight;
+			if (position < last) {
+				double a = (nextTime - time[position]) / (time[position + 1] - time[position]);
+				nextX = cgX[position] + (cgX[position + 1] - cgX[position]) * a;
+				nextY = cgY[position] + (cgY[position + 1] - cgY[position]) * a;
+				nextZ = cgZ[position] + (cgZ[position + 1] - cgZ[position]) * a;
+				nextWeight = cgWeight[position] + (cgWeight[position + 1] - cgWeight[position]) * a;
 			} else {
-				nextCG = cg[cg.length - 1];
+				nextX = cgX[last];
+				nextY = cgY[last];
+				nextZ = cgZ[last];
+				nextWeight = cgWeight[last];
 			}
-			stepCG = instCG.add(nextCG).multiply(0.5);
-			instCG = nextCG;
+			stepX = (instX + nextX) / 2;
+			stepY = (instY + nextY) / 2;
+			stepZ = (instZ + nextZ) / 2;
+			stepWeight = (instWeight + nextWeight) / 2;
+			stepCG = null;
+			instX = nextX;
+			instY = nextY;
+			instZ = nextZ;
+			instWeight = nextWeight;
 			
 			// Update time
 			prevTime = nextTime;
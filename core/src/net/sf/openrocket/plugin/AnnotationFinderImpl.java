@@ -1,90 +1,325 @@
 package net.sf.openrocket.plugin;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import net.sf.openrocket.arch.SystemInfo;
 import net.sf.openrocket.util.BugException;
 import net.sf.openrocket.util.JarUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import eu.infomas.annotation.AnnotationDetector;
 import eu.infomas.annotation.AnnotationDetector.TypeReporter;
 
 /**
  * An AnnotationFinder that uses annotation-detector library to scan
  * the class path.  Compatible with the JIJ loader.
+ * <p>
+ * The names of the annotated classes found in each JAR file are stored in an
+ * index file together with the size and modification time of the JAR.  On
+ * subsequent searches only JAR files that have changed since are scanned.
+ * Class directories (used during development) are always scanned.
  */
 public class AnnotationFinderImpl implements AnnotationFinder {
 	
+	private static final Logger log = LoggerFactory.getLogger(AnnotationFinderImpl.class);
+	
+	private static final String INDEX_FILE = "plugin-index.txt";
+	private static final String INDEX_HEADER = "# OpenRocket annotation index v1 ";
+	private static final String CHARSET = "UTF-8";
+	
+	private final File indexFile;
+	
+	/** Number of classpath entries scanned during the last search, for testing. */
+	int scannedEntries;
+	
+	
+	/**
+	 * Construct a finder that stores its index in the user application directory.
+	 */
+	public AnnotationFinderImpl() {
+		this(getDefaultIndexFile());
+	}
+	
+	/**
+	 * Construct a finder that stores its index in the specified file.
+	 *
+	 * @param indexFile		the index file, or <code>null</code> to always scan the full class path.
+	 */
+	public AnnotationFinderImpl(File indexFile) {
+		this.indexFile = indexFile;
+	}
+	
+	
 	@Override
 	public List<Class<?>> findAnnotatedTypes(Class<?> annotation) {
-		final List<Class<?>> classes = new ArrayList<Class<?>>();
+		return findAnnotatedTypes(annotation, getClassPath());
+	}
+	
+	
+	List<Class<?>> findAnnotatedTypes(Class<?> annotation, List<File> classPath) {
+		long t0 = System.nanoTime();
 		
-		TypeReporter reporter = new ListReporter(classes);
-		final AnnotationDetector cf = new AnnotationDetector(reporter);
-		try {
-			ClassLoader loader = this.getClass().getClassLoader();
-			if (loader instanceof URLClassLoader) {
-				
-				/*
-				 * In case of URLClassLoader (which may be our own instantiation)
-				 * use the URLs from there, as java.class.path may not be up-to-date.
-				 */
-				
-				URLClassLoader urlClassLoader = (URLClassLoader) loader;
-				URL[] urls = urlClassLoader.getURLs();
-				
-				List<File> files = new ArrayList<File>();
-				for (URL url : urls) {
-					if (url.getProtocol().equals("file")) {
-						files.add(JarUtil.urlToFile(url));
+		Map<String, IndexEntry> index = readIndex(annotation);
+		Map<String, IndexEntry> newIndex = new HashMap<String, IndexEntry>();
+		Set<String> names = new LinkedHashSet<String>();
+		boolean modified = false;
+		scannedEntries = 0;
+		
+		for (File file : classPath) {
+			if (file.isDirectory()) {
+				names.addAll(scan(annotation, file));
+				scannedEntries++;
+			} else if (file.isFile()) {
+				String path = file.getAbsolutePath();
+				IndexEntry entry = index.get(path);
+				if (entry == null || entry.length != file.length() || entry.lastModified != file.lastModified()) {
+					entry = new IndexEntry(file.length(), file.lastModified(), scan(annotation, file));
+					scannedEntries++;
+					modified = true;
+				}
+				newIndex.put(path, entry);
+				names.addAll(entry.classNames);
+			}
+		}
+		modified |= !index.keySet().equals(newIndex.keySet());
+		
+		if (modified) {
+			writeIndex(annotation, newIndex);
+		}
+		
+		List<Class<?>> classes = new ArrayList<Class<?>>();
+		ClassLoader loader = this.getClass().getClassLoader();
+		for (String name : names) {
+			try {
+				classes.add(loader.loadClass(name));
+			} catch (ClassNotFoundException e) {
+				// Ignore
+			}
+		}
+		
+		log.info("Found " + classes.size() + " classes annotated with @" + annotation.getSimpleName() + " in " +
+				classPath.size() + " class path entries (" + scannedEntries + " scanned) in " +
+				(System.nanoTime() - t0) / 1000000 + " ms");
+		return classes;
+	}
+	
+	
+	/**
+	 * Return the class path entries to search.
+	 */
+	private List<File> getClassPath() {
+		List<File> files = new ArrayList<File>();
+		ClassLoader loader = this.getClass().getClassLoader();
+		if (loader instanceof URLClassLoader) {
+			
+			/*
+			 * In case of URLClassLoader (which may be our own instantiation)
+			 * use the URLs from there, as java.class.path may not be up-to-date.
+			 */
+			
+			URLClassLoader urlClassLoader = (URLClassLoader) loader;
+			for (URL url : urlClassLoader.getURLs()) {
+				if (url.getProtocol().equals("file")) {
+					files.add(JarUtil.urlToFile(url));
+				}
+			}
+		} else {
+			
+			/*
+			 * If not using a URLClassLoader, use the system class path
+			 * as annotation-detector does by default.
+			 */
+			String classPath = System.getProperty("java.class.path");
+			if (classPath != null) {
+				for (String path : classPath.split(File.pathSeparator)) {
+					if (path.length() > 0) {
+						files.add(new File(path));
 					}
 				}
-				
-				cf.detect(files.toArray(new File[0]));
-			} else {
-				
-				/*
-				 * If not using a URLClassLoader, just do the default.
-				 */
-				cf.detect();
+			}
+		}
+		return files;
+	}
+	
+	
+	private List<String> scan(Class<?> annotation, File file) {
+		ListReporter reporter = new ListReporter(annotation);
+		try {
+			new AnnotationDetector(reporter).detect(file);
+		} catch (IOException e) {
+			throw new BugException("Unable to search class path entry " + file, e);
+		}
+		return reporter.names;
+	}
+	
+	
+	/*
+	 * The index file contains a header line naming the annotation, followed by one
+	 * line per JAR file:  path <TAB> length <TAB> last modified <TAB> class names
+	 * separated by commas.
+	 */
+	
+	private Map<String, IndexEntry> readIndex(Class<?> annotation) {
+		Map<String, IndexEntry> index = new HashMap<String, IndexEntry>();
+		if (indexFile == null || !indexFile.isFile()) {
+			return index;
+		}
+		
+		BufferedReader reader = null;
+		try {
+			reader = new BufferedReader(new InputStreamReader(new FileInputStream(indexFile), CHARSET));
+			if (!(INDEX_HEADER + annotation.getName()).equals(reader.readLine())) {
+				log.info("Annotation index " + indexFile + " is for a different annotation or version, ignoring");
+				return index;
 			}
 			
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split("\t", -1);
+				if (fields.length != 4) {
+					log.warn("Invalid line in annotation index " + indexFile + ": " + line);
+					continue;
+				}
+				List<String> classNames = new ArrayList<String>();
+				for (String name : fields[3].split(",")) {
+					if (name.length() > 0) {
+						classNames.add(name);
+					}
+				}
+				index.put(fields[0], new IndexEntry(Long.parseLong(fields[1]), Long.parseLong(fields[2]), classNames));
+			}
 		} catch (IOException e) {
-			throw new BugException("Unable to search class path", e);
+			log.warn("Unable to read annotation index " + indexFile, e);
+			index.clear();
+		} catch (NumberFormatException e) {
+			log.warn("Invalid annotation index " + indexFile, e);
+			index.clear();
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (IOException e) {
+					// Ignore
+				}
+			}
+		}
+		return index;
+	}
+	
+	private void writeIndex(Class<?> annotation, Map<String, IndexEntry> index) {
+		if (indexFile == null) {
+			return;
 		}
 		
-		return classes;
+		File dir = indexFile.getAbsoluteFile().getParentFile();
+		if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+			log.warn("Unable to create directory for annotation index " + indexFile);
+			return;
+		}
+		
+		// Write to a temporary file first so that a concurrent startup never sees a partial index
+		File tmp = new File(indexFile.getPath() + ".tmp");
+		Writer writer = null;
+		try {
+			writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), CHARSET));
+			writer.write(INDEX_HEADER + annotation.getName() + "\n");
+			for (Map.Entry<String, IndexEntry> e : index.entrySet()) {
+				IndexEntry entry = e.getValue();
+				StringBuilder sb = new StringBuilder();
+				sb.append(e.getKey()).append('\t').append(entry.length).append('\t').append(entry.lastModified).append('\t');
+				for (int i = 0; i < entry.classNames.size(); i++) {
+					if (i > 0) {
+						sb.append(',');
+					}
+					sb.append(entry.classNames.get(i));
+				}
+				writer.write(sb.append('\n').toString());
+			}
+			writer.close();
+			writer = null;
+			
+			if (!tmp.renameTo(indexFile)) {
+				indexFile.delete();
+				if (!tmp.renameTo(indexFile)) {
+					log.warn("Unable to replace annotation index " + indexFile);
+					tmp.delete();
+				}
+			}
+		} catch (IOException e) {
+			log.warn("Unable to write annotation index " + indexFile, e);
+			tmp.delete();
+		} finally {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException e) {
+					// Ignore
+				}
+			}
+		}
+	}
+	
+	private static File getDefaultIndexFile() {
+		try {
+			return new File(SystemInfo.getUserApplicationDirectory(), INDEX_FILE);
+		} catch (BugException e) {
+			log.warn("Unable to determine user application directory, annotation index disabled", e);
+			return null;
+		}
 	}
 	
 	
+	private static class IndexEntry {
+		private final long length;
+		private final long lastModified;
+		private final List<String> classNames;
+		
+		public IndexEntry(long length, long lastModified, List<String> classNames) {
+			this.length = length;
+			this.lastModified = lastModified;
+			this.classNames = Collections.unmodifiableList(classNames);
+		}
+	}
+	
 	private static class ListReporter implements TypeReporter {
-		private final List<Class<?>> classes;
-		private final Set<String> names = new HashSet<String>();
+		private final Class<? extends Annotation> annotation;
+		private final List<String> names = new ArrayList<String>();
 		
-		public ListReporter(List<Class<?>> classes) {
-			this.classes = classes;
+		@SuppressWarnings("unchecked")
+		public ListReporter(Class<?> annotation) {
+			this.annotation = (Class<? extends Annotation>) annotation;
 		}
 		
 		@SuppressWarnings("unchecked")
 		@Override
 		public Class<? extends Annotation>[] annotations() {
-			return new Class[] { Plugin.class };
+			return new Class[] { annotation };
 		}
 		
 		@Override
 		public void reportTypeAnnotation(Class<? extends Annotation> annotation, String className) {
-			if (names.add(className)) {
-				try {
-					classes.add(this.getClass().getClassLoader().loadClass(className));
-				} catch (ClassNotFoundException e) {
-					// Ignore
-				}
+			if (!names.contains(className)) {
+				names.add(className);
 			}
 		}
 	}
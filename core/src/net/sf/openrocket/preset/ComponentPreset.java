@@ -254,6 +254,13 @@ public class ComponentPreset implements Comparable<ComponentPreset>, Serializabl
 		return properties.containsKey(key);
 	}
 
+	/**
+	 * Package scope so the ComponentPresetSnapshot can access the properties.
+	 */
+	TypedPropertyMap getProperties() {
+		return properties;
+	}
+
 	/**
 	 * Package scope so the ComponentPresetFactory can call it.
 	 * @param other
@@ -0,0 +1,249 @@
+package net.sf.openrocket.preset;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import net.sf.openrocket.material.Material;
+import net.sf.openrocket.motor.Manufacturer;
+import net.sf.openrocket.rocketcomponent.ExternalComponent.Finish;
+import net.sf.openrocket.rocketcomponent.Transition.Shape;
+
+/**
+ * A compact, versioned binary format for storing component presets.  This is used
+ * for the preprocessed system preset database, which can be read considerably faster
+ * than the XML component files or Java serialization.
+ * <p>
+ * The format consists of a magic number, a format version, the number of presets and
+ * the properties of each preset as (name, type tag, value) triplets.  Strings that
+ * occur multiple times, such as manufacturer names, are written only once and later
+ * referenced by index.
+ */
+public final class ComponentPresetSnapshot {
+
+	/** The magic number at the beginning of a snapshot file ("ORPS"). */
+	public static final int MAGIC = 0x4F525053;
+
+	/** The current format version. */
+	public static final int VERSION = 1;
+
+	/** The file extension of preset snapshot files. */
+	public static final String EXTENSION = "orps";
+
+	private static final byte TAG_STRING = 'S';
+	private static final byte TAG_DOUBLE = 'D';
+	private static final byte TAG_INTEGER = 'I';
+	private static final byte TAG_BOOLEAN = 'B';
+	private static final byte TAG_MANUFACTURER = 'M';
+	private static final byte TAG_TYPE = 'T';
+	private static final byte TAG_SHAPE = 'H';
+	private static final byte TAG_FINISH = 'F';
+	private static final byte TAG_MATERIAL = 'L';
+	private static final byte TAG_BYTES = 'G';
+
+	private static final Map<String, TypedKey<?>> KEYS = new HashMap<String, TypedKey<?>>();
+	static {
+		for (TypedKey<?> key : ComponentPreset.ORDERED_KEY_LIST) {
+			KEYS.put(key.getName(), key);
+		}
+		KEYS.put(ComponentPreset.TYPE.getName(), ComponentPreset.TYPE);
+		KEYS.put(ComponentPreset.IMAGE.getName(), ComponentPreset.IMAGE);
+	}
+
+
+	private ComponentPresetSnapshot() {
+		// Prevent instantiation
+	}
+
+
+	/**
+	 * Write the presets to a stream in the snapshot format.  The stream is flushed
+	 * but not closed.
+	 *
+	 * @param out		the stream to write to.
+	 * @param presets	the presets to write.
+	 * @throws IOException	if an I/O error occurs.
+	 */
+	public static void write(OutputStream out, Collection<ComponentPreset> presets) throws IOException {
+		DataOutputStream os = new DataOutputStream(new BufferedOutputStream(out));
+		Map<String, Integer> strings = new HashMap<String, Integer>();
+
+		os.writeInt(MAGIC);
+		os.writeInt(VERSION);
+		os.writeInt(presets.size());
+
+		for (ComponentPreset preset : presets) {
+			TypedPropertyMap properties = preset.getProperties();
+			os.writeShort(properties.size());
+			for (Entry<TypedKey<?>, Object> entry : properties.entrySet()) {
+				writeString(os, strings, entry.getKey().getName());
+				writeValue(os, strings, entry.getValue());
+			}
+		}
+
+		os.flush();
+	}
+
+
+	/**
+	 * Read presets from a stream in the snapshot format.
+	 *
+	 * @param in	the stream to read.
+	 * @return		the presets read from the stream.
+	 * @throws IOException	if an I/O error occurs, the stream is not a preset snapshot
+	 * 						or the format version is not supported.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static List<ComponentPreset> read(InputStream in) throws IOException {
+		DataInputStream is = new DataInputStream(new BufferedInputStream(in));
+		List<String> strings = new ArrayList<String>();
+
+		if (is.readInt() != MAGIC) {
+			throw new IOException("Not a component preset snapshot");
+		}
+		int version = is.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported component preset snapshot version " + version);
+		}
+
+		int count = is.readInt();
+		List<ComponentPreset> presets = new ArrayList<ComponentPreset>(count);
+		for (int i = 0; i < count; i++) {
+			ComponentPreset preset = new ComponentPreset();
+			int properties = is.readUnsignedShort();
+			for (int j = 0; j < properties; j++) {
+				String name = readString(is, strings);
+				Object value = readValue(is, strings);
+				TypedKey key = KEYS.get(name);
+				if (key != null) {
+					preset.put(key, value);
+				}
+			}
+			preset.computeDigest();
+			presets.add(preset);
+		}
+		return presets;
+	}
+
+
+	private static void writeValue(DataOutputStream os, Map<String, Integer> strings, Object value) throws IOException {
+		if (value instanceof String) {
+			os.writeByte(TAG_STRING);
+			writeString(os, strings, (String) value);
+		} else if (value instanceof Double) {
+			os.writeByte(TAG_DOUBLE);
+			os.writeDouble((Double) value);
+		} else if (value instanceof Integer) {
+			os.writeByte(TAG_INTEGER);
+			os.writeInt((Integer) value);
+		} else if (value instanceof Boolean) {
+			os.writeByte(TAG_BOOLEAN);
+			os.writeBoolean((Boolean) value);
+		} else if (value instanceof Manufacturer) {
+			os.writeByte(TAG_MANUFACTURER);
+			writeString(os, strings, ((Manufacturer) value).getSimpleName());
+		} else if (value instanceof ComponentPreset.Type) {
+			os.writeByte(TAG_TYPE);
+			writeString(os, strings, ((ComponentPreset.Type) value).name());
+		} else if (value instanceof Shape) {
+			os.writeByte(TAG_SHAPE);
+			writeString(os, strings, ((Shape) value).name());
+		} else if (value instanceof Finish) {
+			os.writeByte(TAG_FINISH);
+			writeString(os, strings, ((Finish) value).name());
+		} else if (value instanceof Material) {
+			Material material = (Material) value;
+			os.writeByte(TAG_MATERIAL);
+			writeString(os, strings, material.getType().name());
+			writeString(os, strings, material.getName());
+			os.writeDouble(material.getDensity());
+			os.writeBoolean(material.isUserDefined());
+		} else if (value instanceof byte[]) {
+			byte[] bytes = (byte[]) value;
+			os.writeByte(TAG_BYTES);
+			os.writeInt(bytes.length);
+			os.write(bytes);
+		} else {
+			throw new IllegalArgumentException("Unsupported preset value " + value);
+		}
+	}
+
+	private static Object readValue(DataInputStream is, List<String> strings) throws IOException {
+		byte tag = is.readByte();
+		try {
+			switch (tag) {
+			case TAG_STRING:
+				return readString(is, strings);
+			case TAG_DOUBLE:
+				return is.readDouble();
+			case TAG_INTEGER:
+				return is.readInt();
+			case TAG_BOOLEAN:
+				return is.readBoolean();
+			case TAG_MANUFACTURER:
+				return Manufacturer.getManufacturer(readString(is, strings));
+			case TAG_TYPE:
+				return ComponentPreset.Type.valueOf(readString(is, strings));
+			case TAG_SHAPE:
+				return Shape.valueOf(readString(is, strings));
+			case TAG_FINISH:
+				return Finish.valueOf(readString(is, strings));
+			case TAG_MATERIAL:
+				Material.Type type = Material.Type.valueOf(readString(is, strings));
+				String name = readString(is, strings);
+				double density = is.readDouble();
+				boolean userDefined = is.readBoolean();
+				return Material.newMaterial(type, name, density, userDefined);
+			case TAG_BYTES:
+				byte[] bytes = new byte[is.readInt()];
+				is.readFully(bytes);
+				return bytes;
+			default:
+				throw new IOException("Invalid value tag " + tag + " in component preset snapshot");
+			}
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid enum value in component preset snapshot", e);
+		}
+	}
+
+
+	/*
+	 * Strings are written as an index to the previously written strings, or -1 followed
+	 * by the string itself if it has not been written before.
+	 */
+
+	private static void writeString(DataOutputStream os, Map<String, Integer> strings, String s) throws IOException {
+		Integer index = strings.get(s);
+		if (index != null) {
+			os.writeInt(index);
+		} else {
+			strings.put(s, strings.size());
+			os.writeInt(-1);
+			os.writeUTF(s);
+		}
+	}
+
+	private static String readString(DataInputStream is, List<String> strings) throws IOException {
+		int index = is.readInt();
+		if (index < 0) {
+			String s = is.readUTF();
+			strings.add(s);
+			return s;
+		}
+		if (index >= strings.size()) {
+			throw new IOException("Invalid string reference " + index + " in component preset snapshot");
+		}
+		return strings.get(index);
+	}
+
+}
@@ -2,6 +2,7 @@ package net.sf.openrocket.preset.loader;
 
 import net.sf.openrocket.preset.TypedKey;
 import net.sf.openrocket.preset.TypedPropertyMap;
+import net.sf.openrocket.util.NumberCodec;
 
 public class DoubleColumnParser extends BaseColumnParser {
 
@@ -14,7 +15,7 @@ public class DoubleColumnParser extends BaseColumnParser {
 
 	@Override
 	protected void doParse(String columnData, String[] data, TypedPropertyMap props) {
-		double value = Double.valueOf(columnData);
+		double value = NumberCodec.parseDouble(columnData);
 		props.put(propKey, value);
 	}
 
@@ -4,6 +4,7 @@ import net.sf.openrocket.preset.TypedKey;
 import net.sf.openrocket.preset.TypedPropertyMap;
 import net.sf.openrocket.unit.Unit;
 import net.sf.openrocket.unit.UnitGroup;
+import net.sf.openrocket.util.NumberCodec;
 import net.sf.openrocket.util.StringUtil;
 
 public class DoubleUnitColumnParser extends BaseUnitColumnParser {
@@ -22,7 +23,7 @@ public class DoubleUnitColumnParser extends BaseUnitColumnParser {
 			if (StringUtil.isEmpty(columnData)) {
 				return;
 			}
-			double value = Double.valueOf(columnData);
+			double value = NumberCodec.parseDouble(columnData);
 
 			if ( unitConfigured ) {
 				String unitName = data[unitIndex];
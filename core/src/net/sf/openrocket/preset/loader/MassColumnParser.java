@@ -2,6 +2,7 @@ package net.sf.openrocket.preset.loader;
 
 import net.sf.openrocket.preset.ComponentPreset;
 import net.sf.openrocket.preset.TypedPropertyMap;
+import net.sf.openrocket.util.NumberCodec;
 import net.sf.openrocket.util.StringUtil;
 
 /**
@@ -21,7 +22,7 @@ public class MassColumnParser extends DoubleUnitColumnParser {
 		if ( StringUtil.isEmpty(columnData) || "?".equals(columnData.trim())) {
 			return;
 		}
-		double d = Double.valueOf(columnData);
+		double d = NumberCodec.parseDouble(columnData);
 		if ( d == 0.0 ) {
 			return;
 		}
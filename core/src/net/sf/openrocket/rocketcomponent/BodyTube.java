@@ -257,6 +257,11 @@ public class BodyTube extends SymmetricComponent implements MotorMount, Coaxial
 			return Math.max(getOuterRadius() - thickness, 0);
 	}
 	
+	@Override
+	protected Object getProfileKey() {
+		return getOuterRadius();
+	}
+	
 	
 	/**
 	 * Returns the body tube's center of gravity.
@@ -430,8 +435,8 @@ public class BodyTube extends SymmetricComponent implements MotorMount, Coaxial
 	
 	
 	@Override
-	protected RocketComponent copyWithOriginalID() {
-		BodyTube copy = (BodyTube) super.copyWithOriginalID();
+	protected RocketComponent copyComponentWithOriginalID() {
+		BodyTube copy = (BodyTube) super.copyComponentWithOriginalID();
 		copy.motorConfigurations = new FlightConfigurationImpl<MotorConfiguration>(motorConfigurations, copy, ComponentChangeEvent.MOTOR_CHANGE);
 		copy.ignitionConfigurations = new FlightConfigurationImpl<IgnitionConfiguration>(ignitionConfigurations, copy, ComponentChangeEvent.EVENT_CHANGE);
 		return copy;
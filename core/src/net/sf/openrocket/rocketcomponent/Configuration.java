@@ -31,6 +31,12 @@ public class Configuration implements Cloneable, ChangeSource, ComponentChangeLi
 	private Rocket rocket;
 	private BitSet stages = new BitSet();
 	
+	/** Whether the stages BitSet is shared with a clone and must be copied before modification. */
+	private boolean stagesShared = false;
+	
+	/** Whether this configuration is registered as a listener of the rocket. */
+	private boolean listeningRocket = false;
+	
 	private String flightConfigurationId = null;
 	
 	private List<EventListener> listenerList = new ArrayList<EventListener>();
@@ -57,7 +63,7 @@ public class Configuration implements Cloneable, ChangeSource, ComponentChangeLi
 	public Configuration(Rocket rocket) {
 		this.rocket = rocket;
 		setAllStages();
-		rocket.addComponentChangeListener(this);
+		listenRocket();
 	}
 	
 	
@@ -68,6 +74,7 @@ public class Configuration implements Cloneable, ChangeSource, ComponentChangeLi
 	
 	
 	public void setAllStages() {
+		BitSet stages = writableStages();
 		stages.clear();
 		stages.set(0, rocket.getStageCount());
 		fireChangeEvent();
@@ -81,6 +88,7 @@ public class Configuration implements Cloneable, ChangeSource, ComponentChangeLi
 	 * @param stage		the stage number.
 	 */
 	public void setToStage(int stage) {
+		BitSet stages = writableStages();
 		stages.clear();
 		stages.set(0, stage + 1, true);
 		//		stages.set(stage+1, rocket.getStageCount(), false);
@@ -88,11 +96,25 @@ public class Configuration implements Cloneable, ChangeSource, ComponentChangeLi
 	}
 	
 	public void setOnlyStage(int stage) {
+		BitSet stages = writableStages();
 		stages.clear();
 		stages.set(stage, stage + 1, true);
 		fireChangeEvent();
 	}
 	
+	/**
+	 * Return the stages BitSet for modification, copying it first if it is
+	 * shared with a clone of this configuration.
+	 */
+	private BitSet writableStages() {
+		if (stagesShared) {
+			stages = (BitSet) stages.clone();
+			stagesShared = false;
+		}
+		return stages;
+	}
+	
+	
 	/**
 	 * Check whether the up-most stage of the rocket is in this configuration.
 	 * 
@@ -189,6 +211,7 @@ public class Configuration implements Cloneable, ChangeSource, ComponentChangeLi
 	 */
 	public void release() {
 		rocket.removeComponentChangeListener(this);
+		listeningRocket = false;
 		listenerList = new ArrayList<EventListener>();
 		rocket = null;
 	}
@@ -197,6 +220,7 @@ public class Configuration implements Cloneable, ChangeSource, ComponentChangeLi
 	
 	@Override
 	public void addChangeListener(StateChangeListener listener) {
+		listenRocket();
 		listenerList.add(listener);
 	}
 	
@@ -222,6 +246,20 @@ public class Configuration implements Cloneable, ChangeSource, ComponentChangeLi
 	}
 	
 	
+	/**
+	 * Register this configuration as a listener of the rocket, unless already registered.
+	 * Clones register only once they have listeners of their own, since the cached
+	 * values are validated against the rocket modification ID in any case.  For the
+	 * same reason the configuration may be notified of coalesced rocket events.
+	 */
+	private void listenRocket() {
+		if (!listeningRocket) {
+			rocket.addComponentChangeListener(this, ComponentChangeEvent.ALL_CHANGE, true);
+			listeningRocket = true;
+		}
+	}
+	
+	
 	@Override
 	public void componentChanged(ComponentChangeEvent e) {
 		fireChangeEvent();
@@ -267,7 +305,8 @@ public class Configuration implements Cloneable, ChangeSource, ComponentChangeLi
 	public Collection<Coordinate> getBounds() {
 		if (rocket.getModID() != boundsModID) {
 			boundsModID = rocket.getModID();
-			cachedBounds.clear();
+			// A new list is created since the previous one may be shared with clones
+			cachedBounds = new ArrayList<Coordinate>();
 			
 			double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
 			for (RocketComponent component : this) {
@@ -333,17 +372,20 @@ public class Configuration implements Cloneable, ChangeSource, ComponentChangeLi
 	/**
 	 * Perform a deep-clone.  The object references are also cloned and no
 	 * listeners are listening on the cloned object.  The rocket instance remains the same.
+	 * <p>
+	 * The clone is copy-on-write:  the active stages and cached values are shared with
+	 * this configuration until either of them is modified, making cloning a constant-time
+	 * operation.  The clone is registered as a listener of the rocket only once a listener
+	 * is added to it.
 	 */
 	@Override
 	public Configuration clone() {
 		try {
 			Configuration config = (Configuration) super.clone();
 			config.listenerList = new ArrayList<EventListener>();
-			config.stages = (BitSet) this.stages.clone();
-			config.cachedBounds = new ArrayList<Coordinate>();
-			config.boundsModID = -1;
-			config.refLengthModID = -1;
-			rocket.addComponentChangeListener(config);
+			config.listeningRocket = false;
+			this.stagesShared = true;
+			config.stagesShared = true;
 			return config;
 		} catch (CloneNotSupportedException e) {
 			throw new BugException("clone not supported!", e);
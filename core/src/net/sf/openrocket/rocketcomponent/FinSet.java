@@ -666,6 +666,11 @@ public abstract class FinSet extends ExternalComponent {
 		}
 	}
 	
+	@Override
+	protected int getComponentChangeTypes() {
+		return ComponentChangeEvent.AERODYNAMIC_CHANGE;
+	}
+	
 	
 	/**
 	 * Return the radius of the BodyComponent the fin set is situated on.  Currently
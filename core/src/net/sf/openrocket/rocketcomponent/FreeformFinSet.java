@@ -316,8 +316,8 @@ public class FreeformFinSet extends FinSet {
 	
 	
 	@Override
-	protected RocketComponent copyWithOriginalID() {
-		RocketComponent c = super.copyWithOriginalID();
+	protected RocketComponent copyComponentWithOriginalID() {
+		RocketComponent c = super.copyComponentWithOriginalID();
 		((FreeformFinSet) c).points = this.points.clone();
 		return c;
 	}
@@ -1,5 +1,6 @@
 package net.sf.openrocket.rocketcomponent;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EventListener;
@@ -8,6 +9,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 import net.sf.openrocket.l10n.Translator;
 import net.sf.openrocket.startup.Application;
@@ -40,9 +42,16 @@ public class Rocket extends RocketComponent {
 	
 	
 	/**
-	 * List of component change listeners.
+	 * Array of component change listeners.  The array is replaced whenever a listener is
+	 * added or removed, so events can be dispatched without copying it.
 	 */
-	private List<EventListener> listenerList = new ArrayList<EventListener>();
+	private ListenerEntry[] listeners = new ListenerEntry[0];
+	
+	/**
+	 * Components that are notified of change events, or null if the tree has changed
+	 * since the array was built.
+	 */
+	private RocketComponent[] notifiedComponents = null;
 	
 	/**
 	 * When freezeList != null, events are not dispatched but stored in the list.
@@ -50,6 +59,16 @@ public class Rocket extends RocketComponent {
 	 */
 	private List<ComponentChangeEvent> freezeList = null;
 	
+	/**
+	 * Executor delivering the combined events to coalesced listeners, or null
+	 * to notify them immediately.  The pending event type and source are guarded by
+	 * the coalescing lock.
+	 */
+	private Executor coalescingExecutor = null;
+	private Object coalescingLock = new Object();
+	private int coalescedType = 0;
+	private RocketComponent coalescedSource = null;
+	
 	
 	private int modID;
 	private int massModID;
@@ -263,14 +282,25 @@ public class Rocket extends RocketComponent {
 	 * Make a deep copy of the Rocket structure.  This method is exposed as public to allow
 	 * for undo/redo system functionality.
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	public Rocket copyWithOriginalID() {
-		Rocket copy = (Rocket) super.copyWithOriginalID();
+		return (Rocket) super.copyWithOriginalID();
+	}
+	
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	protected RocketComponent copyComponentWithOriginalID() {
+		Rocket copy = (Rocket) super.copyComponentWithOriginalID();
 		copy.flightConfigurationIDs = this.flightConfigurationIDs.clone();
 		copy.flightConfigurationNames =
 				(HashMap<String, String>) this.flightConfigurationNames.clone();
 		copy.resetListeners();
+		copy.notifiedComponents = null;
+		copy.coalescingExecutor = null;
+		copy.coalescingLock = new Object();
+		copy.coalescedType = 0;
+		copy.coalescedSource = null;
 		
 		return copy;
 	}
@@ -337,39 +367,80 @@ public class Rocket extends RocketComponent {
 	 */
 	public void resetListeners() {
 		//		System.out.println("RESETTING LISTENER LIST of Rocket "+this);
-		listenerList = new ArrayList<EventListener>();
+		listeners = new ListenerEntry[0];
 	}
 	
 	
 	public void printListeners() {
-		System.out.println("" + this + " has " + listenerList.size() + " listeners:");
-		int i = 0;
-		for (EventListener l : listenerList) {
-			System.out.println("  " + (i) + ": " + l);
-			i++;
+		ListenerEntry[] list = listeners;
+		System.out.println("" + this + " has " + list.length + " listeners:");
+		for (int i = 0; i < list.length; i++) {
+			System.out.println("  " + (i) + ": " + list[i].listener +
+					(list[i].coalesced ? " (coalesced)" : ""));
 		}
 	}
 	
 	@Override
 	public void addComponentChangeListener(ComponentChangeListener l) {
+		addComponentChangeListener(l, ComponentChangeEvent.ALL_CHANGE, false);
+	}
+	
+	@Override
+	public void addComponentChangeListener(ComponentChangeListener l, int types, boolean coalesced) {
 		checkState();
-		listenerList.add(l);
+		ListenerEntry[] list = Arrays.copyOf(listeners, listeners.length + 1);
+		list[list.length - 1] = new ListenerEntry(l, types, coalesced);
+		listeners = list;
 		log.trace("Added ComponentChangeListener " + l + ", current number of listeners is " +
-				listenerList.size());
+				list.length);
 	}
 	
 	@Override
 	public void removeComponentChangeListener(ComponentChangeListener l) {
-		listenerList.remove(l);
+		ListenerEntry[] list = listeners;
+		for (int i = 0; i < list.length; i++) {
+			if (list[i].listener.equals(l)) {
+				ListenerEntry[] copy = new ListenerEntry[list.length - 1];
+				System.arraycopy(list, 0, copy, 0, i);
+				System.arraycopy(list, i + 1, copy, i, list.length - i - 1);
+				listeners = copy;
+				break;
+			}
+		}
 		log.trace("Removed ComponentChangeListener " + l + ", current number of listeners is " +
-				listenerList.size());
+				listeners.length);
+	}
+	
+	
+	/**
+	 * Set the executor used to notify coalesced listeners.  While an executor is set,
+	 * the events fired are combined like the events fired while the rocket is frozen,
+	 * and the combined event is delivered to the coalesced listeners when the executor
+	 * runs the delivery task.  For example an executor using
+	 * <code>SwingUtilities.invokeLater</code> notifies the coalesced listeners at most
+	 * once per cycle of the event dispatch thread, while the components and the other
+	 * listeners are still notified of each event immediately.
+	 * <p>
+	 * By default no executor is set, and all listeners are notified immediately.
+	 *
+	 * @param executor	the executor, or <code>null</code> to notify all listeners immediately.
+	 * @see #addComponentChangeListener(ComponentChangeListener, int, boolean)
+	 */
+	public void setCoalescingExecutor(Executor executor) {
+		this.coalescingExecutor = executor;
 	}
 	
+	public Executor getCoalescingExecutor() {
+		return coalescingExecutor;
+	}
+	
+	
 	@Override
 	protected void fireComponentChangeEvent(ComponentChangeEvent e) {
 		mutex.lock("fireComponentChangeEvent");
 		try {
 			checkState();
+			markChanged(e);
 			
 			// Update modification ID's only for normal (not undo/redo) events
 			if (!e.isUndoChange()) {
@@ -383,6 +454,9 @@ public class Rocket extends RocketComponent {
 				if (e.getType() != ComponentChangeEvent.NONFUNCTIONAL_CHANGE)
 					functionalModID = modID;
 			}
+			if (e.isTreeChange()) {
+				notifiedComponents = null;
+			}
 			
 			// Check whether frozen
 			if (freezeList != null) {
@@ -391,22 +465,37 @@ public class Rocket extends RocketComponent {
 				return;
 			}
 			
-			log.debug("Firing rocket change event " + e);
+			if (log.isDebugEnabled()) {
+				log.debug("Firing rocket change event " + e);
+			}
 			
 			// Notify all components first
-			Iterator<RocketComponent> iterator = this.iterator(true);
-			while (iterator.hasNext()) {
-				iterator.next().componentChanged(e);
+			int type = e.getType();
+			for (RocketComponent c : getNotifiedComponents()) {
+				if ((type & c.getComponentChangeTypes()) != 0) {
+					c.componentChanged(e);
+				}
 			}
 			
-			// Notify all listeners
-			// Copy the list before iterating to prevent concurrent modification exceptions.
-			EventListener[] list = listenerList.toArray(new EventListener[0]);
-			for (EventListener l : list) {
-				if (l instanceof ComponentChangeListener) {
-					((ComponentChangeListener) l).componentChanged(e);
-				} else if (l instanceof StateChangeListener) {
-					((StateChangeListener) l).stateChanged(e);
+			// Notify listeners, queueing the event for coalesced listeners if necessary
+			Executor executor = coalescingExecutor;
+			if (executor == null) {
+				notifyListeners(e, true);
+			} else {
+				notifyListeners(e, false);
+				boolean schedule;
+				synchronized (coalescingLock) {
+					schedule = (coalescedType == 0);
+					coalescedType |= type;
+					coalescedSource = e.getSource();
+				}
+				if (schedule) {
+					executor.execute(new Runnable() {
+						@Override
+						public void run() {
+							fireCoalescedEvent();
+						}
+					});
 				}
 			}
 		} finally {
@@ -415,6 +504,72 @@ public class Rocket extends RocketComponent {
 	}
 	
 	
+	/**
+	 * Notify the coalesced listeners of the events queued since the previous call.
+	 */
+	private void fireCoalescedEvent() {
+		ComponentChangeEvent e;
+		synchronized (coalescingLock) {
+			if (coalescedType == 0) {
+				return;
+			}
+			e = new ComponentChangeEvent(coalescedSource, coalescedType);
+			coalescedType = 0;
+			coalescedSource = null;
+		}
+		
+		mutex.lock("fireCoalescedEvent");
+		try {
+			if (log.isDebugEnabled()) {
+				log.debug("Firing coalesced rocket change event " + e);
+			}
+			ListenerEntry[] list = listeners;
+			for (ListenerEntry entry : list) {
+				if (entry.coalesced) {
+					entry.fire(e);
+				}
+			}
+		} finally {
+			mutex.unlock("fireCoalescedEvent");
+		}
+	}
+	
+	
+	/**
+	 * Notify the listeners in the order they were added.
+	 *
+	 * @param e				the event.
+	 * @param coalesced		whether to notify also the coalesced listeners.
+	 */
+	private void notifyListeners(ComponentChangeEvent e, boolean coalesced) {
+		ListenerEntry[] list = listeners;
+		for (ListenerEntry entry : list) {
+			if (coalesced || !entry.coalesced) {
+				entry.fire(e);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Return the components notified of change events, including this rocket.  The array
+	 * is cached until the component tree changes.
+	 */
+	private RocketComponent[] getNotifiedComponents() {
+		RocketComponent[] components = notifiedComponents;
+		if (components == null) {
+			List<RocketComponent> list = new ArrayList<RocketComponent>();
+			Iterator<RocketComponent> iterator = this.iterator(true);
+			while (iterator.hasNext()) {
+				list.add(iterator.next());
+			}
+			components = list.toArray(new RocketComponent[0]);
+			notifiedComponents = components;
+		}
+		return components;
+	}
+	
+	
 	/**
 	 * Freezes the rocket structure from firing any events.  This may be performed to
 	 * combine several actions on the structure into a single large action.
@@ -692,4 +847,30 @@ public class Rocket extends RocketComponent {
 		return (Stage.class.isAssignableFrom(type));
 	}
 	
+	
+	/**
+	 * A registered listener with the change types it is interested in.
+	 */
+	private static final class ListenerEntry {
+		private final EventListener listener;
+		private final int types;
+		private final boolean coalesced;
+		
+		public ListenerEntry(EventListener listener, int types, boolean coalesced) {
+			this.listener = listener;
+			this.types = types;
+			this.coalesced = coalesced;
+		}
+		
+		public void fire(ComponentChangeEvent e) {
+			if ((e.getType() & types) == 0) {
+				return;
+			}
+			if (listener instanceof ComponentChangeListener) {
+				((ComponentChangeListener) listener).componentChanged(e);
+			} else if (listener instanceof StateChangeListener) {
+				((StateChangeListener) listener).stateChanged(e);
+			}
+		}
+	}
 }
@@ -138,12 +138,21 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	// The realistic appearance of this component
 	private Appearance appearance = null;
 	
+	// Cached absolute positions of the component origin, see getAbsoluteOrigins()
+	private volatile AbsoluteOrigins absoluteOrigins = null;
+	
 	
 	/**
 	 * Used to invalidate the component after calling {@link #copyFrom(RocketComponent)}.
 	 */
 	private Invalidator invalidator = new Invalidator(this);
 	
+	/**
+	 * Unique modification ID of the latest change event whose source was this component.
+	 * Used by {@link RocketSnapshot} to detect components that have not changed.
+	 */
+	private int stateModID = 0;
+	
 	
 	////  NOTE !!!  All fields must be copied in the method copyFrom()!  ////
 	
@@ -290,8 +299,23 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	 * @param e  The event fired
 	 */
 	protected void componentChanged(ComponentChangeEvent e) {
-		// No-op
 		checkState();
+		absoluteOrigins = null;
+	}
+	
+	
+	/**
+	 * Return the change types for which {@link #componentChanged(ComponentChangeEvent)}
+	 * is called.  Events not containing any of these types are not passed to this
+	 * component.  By default all changes except non-functional and texture changes are
+	 * passed.  Subclasses overriding <code>componentChanged</code> may extend or limit
+	 * the types, but must include the types the superclass requires.
+	 *
+	 * @return  a bit-field of the {@link ComponentChangeEvent} types.
+	 */
+	protected int getComponentChangeTypes() {
+		return ComponentChangeEvent.ALL_CHANGE &
+				~(ComponentChangeEvent.NONFUNCTIONAL_CHANGE | ComponentChangeEvent.TEXTURE_CHANGE);
 	}
 	
 	
@@ -378,19 +402,7 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 		mutex.lock("copyWithOriginalID");
 		try {
 			checkState();
-			RocketComponent clone;
-			try {
-				clone = (RocketComponent) this.clone();
-			} catch (CloneNotSupportedException e) {
-				throw new BugException("CloneNotSupportedException encountered, report a bug!", e);
-			}
-			
-			// Reset the mutex
-			clone.mutex = SafetyMutex.newInstance();
-			
-			// Reset all parent/child information
-			clone.parent = null;
-			clone.children = new ArrayList<RocketComponent>();
+			RocketComponent clone = copyComponentWithOriginalID();
 			
 			// Add copied children to the structure without firing events.
 			for (RocketComponent child : this.children) {
@@ -410,6 +422,92 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	}
 	
 	
+	/**
+	 * Make a copy of this component alone, without its children, while maintaining the
+	 * component ID.  The copy has no parent and no children.  This method does not fire
+	 * any events and is called with the mutex of this component locked.
+	 * <p>
+	 * This method must be overridden by any component that refers to mutable objects,
+	 * or if some fields should not be copied.  This should be performed by
+	 * <code>RocketComponent c = super.copyComponentWithOriginalID();</code> and then
+	 * cloning/modifying the appropriate fields.
+	 * 
+	 * @return	a copy of this component without parent or children.
+	 */
+	protected RocketComponent copyComponentWithOriginalID() {
+		RocketComponent clone;
+		try {
+			clone = (RocketComponent) this.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new BugException("CloneNotSupportedException encountered, report a bug!", e);
+		}
+		
+		// Reset the mutex and invalidator
+		clone.mutex = SafetyMutex.newInstance();
+		clone.invalidator = new Invalidator(clone);
+		clone.absoluteOrigins = null;
+		
+		// Reset all parent/child information
+		clone.parent = null;
+		clone.children = new ArrayList<RocketComponent>();
+		
+		return clone;
+	}
+	
+	
+	/**
+	 * Make a copy of this component alone, see {@link #copyComponentWithOriginalID()}.
+	 */
+	final RocketComponent copyComponent() {
+		mutex.lock("copyComponent");
+		try {
+			checkState();
+			return copyComponentWithOriginalID();
+		} finally {
+			mutex.unlock("copyComponent");
+		}
+	}
+	
+	
+	/**
+	 * Append a child to this component without firing any events.  Used when
+	 * building component trees from snapshots.
+	 */
+	final void appendChildSilently(RocketComponent child) {
+		children.add(child);
+		child.parent = this;
+	}
+	
+	
+	/**
+	 * Return the child list of this component without copying.  The list must not be modified.
+	 */
+	final List<RocketComponent> getChildrenDirect() {
+		return children;
+	}
+	
+	
+	/**
+	 * Return the modification ID of the latest change of this component's own state.
+	 * Unlike {@link Rocket#getModID()}, this does not change when other components of
+	 * the rocket are modified.  Undoing a change restores the previous value.
+	 */
+	public final int getStateModID() {
+		return stateModID;
+	}
+	
+	
+	/**
+	 * Record that the source component of the event has changed.  Undo events only
+	 * restore previous states, so they do not count as modifications.
+	 */
+	static void markChanged(ComponentChangeEvent e) {
+		if (!e.isUndoChange() && e.getSource() instanceof RocketComponent) {
+			e.getSource().stateModID = UniqueID.next();
+		}
+	}
+	
+	
 	//////////////  Methods that may not be overridden  ////////////
 	
 	
@@ -964,6 +1062,9 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 			return;
 		checkState();
 		this.position = value;
+		
+		// Subclasses may not fire an event for the change
+		invalidateAbsoluteOrigins();
 	}
 	
 	
@@ -997,6 +1098,64 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	 */
 	public final Coordinate[] toRelative(Coordinate c, RocketComponent dest) {
 		checkState();
+		if (dest == null) {
+			Coordinate[] origins = getAbsoluteOrigins();
+			if (origins != null) {
+				Coordinate[] array = new Coordinate[origins.length];
+				for (int i = 0; i < origins.length; i++) {
+					array[i] = origins[i].add(c);
+				}
+				return array;
+			}
+		}
+		return computeRelative(c, dest);
+	}
+	
+	
+	/**
+	 * Return the absolute positions of the origin of this component, or <code>null</code>
+	 * if the component is not part of a rocket.  The positions are cached until the next
+	 * functional change of the rocket, so that repeated calls do not walk the component
+	 * tree.  The returned array must not be modified.
+	 * <p>
+	 * The cache is published through a volatile field holding an immutable value, so
+	 * concurrent readers of an unchanging rocket may call this method safely.  At worst
+	 * the positions are computed more than once.
+	 */
+	private Coordinate[] getAbsoluteOrigins() {
+		RocketComponent root = getRoot();
+		if (!(root instanceof Rocket)) {
+			return null;
+		}
+		int modID = ((Rocket) root).getFunctionalModID();
+		
+		AbsoluteOrigins cached = absoluteOrigins;
+		if (cached != null && cached.root == root && cached.modID == modID) {
+			return cached.origins;
+		}
+		
+		Coordinate[] origins = computeRelative(Coordinate.NUL, null);
+		absoluteOrigins = new AbsoluteOrigins(root, modID, origins);
+		return origins;
+	}
+	
+	
+	/**
+	 * Clear the cached absolute positions of this component and its subcomponents.
+	 */
+	private void invalidateAbsoluteOrigins() {
+		absoluteOrigins = null;
+		for (RocketComponent child : children) {
+			child.invalidateAbsoluteOrigins();
+		}
+	}
+	
+	
+	/**
+	 * Compute the coordinate transformation of {@link #toRelative(Coordinate, RocketComponent)}
+	 * by walking the component tree.
+	 */
+	private Coordinate[] computeRelative(Coordinate c, RocketComponent dest) {
 		mutex.lock("toRelative");
 		try {
 			double absoluteX = Double.NaN;
@@ -1527,6 +1686,22 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 		getRocket().addComponentChangeListener(l);
 	}
 	
+	/**
+	 * Adds a ComponentChangeListener to the rocket tree for specific types of changes.
+	 * The listener is notified only of events containing at least one of the given types.
+	 * A coalesced listener is notified of the events combined into a single event, as
+	 * described in {@link Rocket#setCoalescingExecutor(java.util.concurrent.Executor)}.
+	 *
+	 * @param l				the listener to add.
+	 * @param types			a bit-field of the {@link ComponentChangeEvent} types to notify of.
+	 * @param coalesced		whether the events may be combined and delivered later.
+	 * @throws IllegalStateException - if the root component is not a Rocket
+	 */
+	public void addComponentChangeListener(ComponentChangeListener l, int types, boolean coalesced) {
+		checkState();
+		getRocket().addComponentChangeListener(l, types, coalesced);
+	}
+	
 	/**
 	 * Removes a ComponentChangeListener from the rocket tree.  The listener is removed from
 	 * the root component, which must be of type Rocket (which overrides this method).
@@ -1583,6 +1758,7 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	 */
 	protected void fireComponentChangeEvent(ComponentChangeEvent e) {
 		checkState();
+		markChanged(e);
 		if (parent == null) {
 			/* Ignore if root invalid. */
 			return;
@@ -1827,6 +2003,7 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 		this.name = src.name;
 		this.comment = src.comment;
 		this.id = src.id;
+		this.stateModID = src.stateModID;
 		
 		// Add source components to invalidation tree
 		for (RocketComponent c : src) {
@@ -1841,6 +2018,23 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	}
 	
 	
+	/**
+	 * Cached absolute positions of a component origin, valid for a specific
+	 * modification state of the root rocket.
+	 */
+	private static final class AbsoluteOrigins {
+		private final RocketComponent root;
+		private final int modID;
+		private final Coordinate[] origins;
+		
+		public AbsoluteOrigins(RocketComponent root, int modID, Coordinate[] origins) {
+			this.root = root;
+			this.modID = modID;
+			this.origins = origins;
+		}
+	}
+	
+	
 	//////////  Iterator implementation  ///////////
 	
 	/**
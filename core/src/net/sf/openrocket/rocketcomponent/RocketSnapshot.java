@@ -0,0 +1,174 @@
+package net.sf.openrocket.rocketcomponent;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the state of a rocket, used by the undo/redo system.
+ * <p>
+ * A snapshot stores a detached copy of each component's own state and the tree
+ * structure separately.  When a snapshot is created based on a previous snapshot,
+ * the stored states of components that have not been modified since are reused,
+ * and entire subtrees that are unchanged are shared.  Thus successive snapshots of
+ * a large rocket only cost memory in proportion to the modified components.
+ * <p>
+ * The stored components are never modified or returned to the caller; restoring a
+ * snapshot always creates a new copy of the rocket.
+ */
+public final class RocketSnapshot {
+
+	/** Rough estimate of the memory used by a single component state, in bytes. */
+	private static final int COMPONENT_SIZE = 600;
+
+	/** Rough estimate of the memory used by a tree node, in bytes. */
+	private static final int NODE_SIZE = 32;
+
+	/** Estimate of the memory used by a fin point, in bytes. */
+	private static final int FIN_POINT_SIZE = 48;
+
+
+	private final Node root;
+	private final int modID;
+
+
+	private RocketSnapshot(Node root, int modID) {
+		this.root = root;
+		this.modID = modID;
+	}
+
+
+	/**
+	 * Create a snapshot of the current state of a rocket.
+	 *
+	 * @param rocket	the rocket to store.
+	 * @param previous	a previous snapshot of the same rocket whose unchanged parts
+	 * 					are shared, or <code>null</code> to copy everything.
+	 * @return			a snapshot of the rocket.
+	 */
+	public static RocketSnapshot create(Rocket rocket, RocketSnapshot previous) {
+		Map<String, Node> previousNodes = new HashMap<String, Node>();
+		if (previous != null) {
+			previous.root.index(previousNodes);
+		}
+
+		// The rocket state contains the modification ID's, so it is always copied
+		RocketComponent rocketState = rocket.copyComponent();
+		List<RocketComponent> children = rocket.getChildrenDirect();
+		Node[] childNodes = new Node[children.size()];
+		for (int i = 0; i < childNodes.length; i++) {
+			childNodes[i] = createNode(children.get(i), previousNodes);
+		}
+
+		return new RocketSnapshot(new Node(rocketState, rocket.getStateModID(), childNodes), rocket.getModID());
+	}
+
+
+	private static Node createNode(RocketComponent component, Map<String, Node> previousNodes) {
+		Node old = previousNodes.get(component.getID());
+
+		List<RocketComponent> children = component.getChildrenDirect();
+		Node[] childNodes = new Node[children.size()];
+		boolean sameChildren = (old != null && old.children.length == childNodes.length);
+		for (int i = 0; i < childNodes.length; i++) {
+			childNodes[i] = createNode(children.get(i), previousNodes);
+			if (sameChildren && childNodes[i] != old.children[i]) {
+				sameChildren = false;
+			}
+		}
+
+		boolean sameState = (old != null && old.stateModID == component.getStateModID() &&
+				old.state.getClass() == component.getClass());
+		if (sameState && sameChildren) {
+			return old;
+		}
+
+		RocketComponent state = sameState ? old.state : component.copyComponent();
+		return new Node(state, component.getStateModID(), childNodes);
+	}
+
+
+	/**
+	 * Return a new rocket with the state stored in this snapshot.  The returned rocket
+	 * may be freely modified, it does not share any components with this snapshot.
+	 *
+	 * @return	a copy of the stored rocket.
+	 */
+	public Rocket restore() {
+		Rocket rocket = (Rocket) root.restore();
+		rocket.checkComponentStructure();
+		return rocket;
+	}
+
+
+	/**
+	 * Return the modification ID of the rocket at the time the snapshot was taken.
+	 */
+	public int getModID() {
+		return modID;
+	}
+
+
+	/**
+	 * Return an estimate of the memory used by the given snapshots, in bytes.  Component
+	 * states and subtrees shared between the snapshots are counted only once.
+	 *
+	 * @param snapshots		the snapshots to estimate.
+	 * @return				the estimated retained size in bytes.
+	 */
+	public static long estimateSize(Iterable<RocketSnapshot> snapshots) {
+		Map<Object, Boolean> seen = new IdentityHashMap<Object, Boolean>();
+		long size = 0;
+		for (RocketSnapshot s : snapshots) {
+			size += s.root.estimateSize(seen);
+		}
+		return size;
+	}
+
+
+
+	private static final class Node {
+		private final RocketComponent state;
+		private final int stateModID;
+		private final Node[] children;
+
+		public Node(RocketComponent state, int stateModID, Node[] children) {
+			this.state = state;
+			this.stateModID = stateModID;
+			this.children = children;
+		}
+
+		private void index(Map<String, Node> map) {
+			map.put(state.getID(), this);
+			for (Node child : children) {
+				child.index(map);
+			}
+		}
+
+		private RocketComponent restore() {
+			RocketComponent component = state.copyComponent();
+			for (Node child : children) {
+				component.appendChildSilently(child.restore());
+			}
+			return component;
+		}
+
+		private long estimateSize(Map<Object, Boolean> seen) {
+			if (seen.put(this, Boolean.TRUE) != null) {
+				return 0;
+			}
+			long size = NODE_SIZE + 8 * children.length;
+			if (seen.put(state, Boolean.TRUE) == null) {
+				size += COMPONENT_SIZE;
+				if (state instanceof FreeformFinSet) {
+					size += FIN_POINT_SIZE * ((FreeformFinSet) state).getPointCount();
+				}
+			}
+			for (Node child : children) {
+				size += child.estimateSize(seen);
+			}
+			return size;
+		}
+	}
+}
@@ -54,8 +54,8 @@ public class Stage extends ComponentAssembly implements FlightConfigurableCompon
 	}
 	
 	@Override
-	protected RocketComponent copyWithOriginalID() {
-		Stage copy = (Stage) super.copyWithOriginalID();
+	protected RocketComponent copyComponentWithOriginalID() {
+		Stage copy = (Stage) super.copyComponentWithOriginalID();
 		copy.separationConfigurations = new FlightConfigurationImpl<StageSeparationConfiguration>(separationConfigurations,
 				copy, ComponentChangeEvent.EVENT_CHANGE);
 		return copy;
@@ -3,8 +3,11 @@ package net.sf.openrocket.rocketcomponent;
 import static net.sf.openrocket.util.MathUtil.pow2;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import net.sf.openrocket.preset.ComponentPreset;
 import net.sf.openrocket.util.Coordinate;
@@ -22,18 +25,31 @@ public abstract class SymmetricComponent extends BodyComponent implements Radial
 	public static final double DEFAULT_RADIUS = 0.025;
 	public static final double DEFAULT_THICKNESS = 0.002;
 	
-	private static final int DIVISIONS = 100; // No. of divisions when integrating
+	/*
+	 * The profile is integrated as conical segments by sampling the radius on an
+	 * initial grid, which is refined adaptively where the estimated error of the
+	 * volume or wetted area exceeds the relative tolerance.
+	 */
+	private static final int INITIAL_DIVISIONS = 16; // No. of divisions on the initial grid
+	private static final int MAX_REFINEMENT = 10; // Max. no. of times an initial division is halved
+	private static final double TOLERANCE = 5e-4; // Relative integration tolerance
+	
+	/** Integration results shared between components with equal profiles. */
+	private static final int INTEGRALS_CACHE_SIZE = 500;
+	private static final Map<Object, Integrals> integralsCache =
+			new LinkedHashMap<Object, Integrals>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Object, Integrals> eldest) {
+					return size() > INTEGRALS_CACHE_SIZE;
+				}
+			};
 	
 	protected boolean filled = false;
 	protected double thickness = DEFAULT_THICKNESS;
 	
 
 	// Cached data, default values signify not calculated
-	private double wetArea = -1;
-	private double planArea = -1;
-	private double planCenter = -1;
-	private double volume = -1;
-	private double fullVolume = -1;
+	private Integrals integrals = null;
 	private double longitudinalInertia = -1;
 	private double rotationalInertia = -1;
 	private Coordinate cg = null;
@@ -171,9 +187,7 @@ public abstract class SymmetricComponent extends BodyComponent implements Radial
 	 */
 	@Override
 	public double getComponentVolume() {
-		if (volume < 0)
-			integrate();
-		return volume;
+		return getIntegrals().volume;
 	}
 	
 	
@@ -186,9 +200,7 @@ public abstract class SymmetricComponent extends BodyComponent implements Radial
 	 * @return  The filled volume of the component.
 	 */
 	public double getFullVolume() {
-		if (fullVolume < 0)
-			integrate();
-		return fullVolume;
+		return getIntegrals().fullVolume;
 	}
 	
 	
@@ -201,9 +213,7 @@ public abstract class SymmetricComponent extends BodyComponent implements Radial
 	 * @return  The wetted area of the component.
 	 */
 	public double getComponentWetArea() {
-		if (wetArea < 0)
-			integrate();
-		return wetArea;
+		return getIntegrals().wetArea;
 	}
 	
 	
@@ -216,9 +226,7 @@ public abstract class SymmetricComponent extends BodyComponent implements Radial
 	 * @return  The planform area of the component.
 	 */
 	public double getComponentPlanformArea() {
-		if (planArea < 0)
-			integrate();
-		return planArea;
+		return getIntegrals().planArea;
 	}
 	
 	
@@ -232,9 +240,7 @@ public abstract class SymmetricComponent extends BodyComponent implements Radial
 	 * @return  The planform center of the component.
 	 */
 	public double getComponentPlanformCenter() {
-		if (planCenter < 0)
-			integrate();
-		return planCenter;
+		return getIntegrals().planCenter;
 	}
 	
 	
@@ -247,268 +253,336 @@ public abstract class SymmetricComponent extends BodyComponent implements Radial
 	 */
 	@Override
 	public Coordinate getComponentCG() {
-		if (cg == null)
-			integrate();
+		if (cg == null) {
+			Integrals in = getIntegrals();
+			if (in.volume <= 0) {
+				cg = new Coordinate(length / 2, 0, 0, 0);
+			} else {
+				// the mass of this shape is the material density * volume.
+				// it cannot come from super.getComponentMass() since that 
+				// includes the shoulders
+				cg = new Coordinate(in.cgx, 0, 0, getMaterial().getDensity() * in.volume);
+			}
+		}
 		return cg;
 	}
 	
 	
 	@Override
 	public double getLongitudinalUnitInertia() {
-		if (longitudinalInertia < 0) {
-			if (getComponentVolume() > 0.0000001) // == 0.1cm^3
-				integrateInertiaVolume();
-			else
-				integrateInertiaSurface();
-		}
+		if (longitudinalInertia < 0)
+			calculateInertia();
 		return longitudinalInertia;
 	}
 	
 	
 	@Override
 	public double getRotationalUnitInertia() {
-		if (rotationalInertia < 0) {
-			if (getComponentVolume() > 0.0000001)
-				integrateInertiaVolume();
-			else
-				integrateInertiaSurface();
-		}
+		if (rotationalInertia < 0)
+			calculateInertia();
 		return rotationalInertia;
 	}
 	
 	
 
 	/**
-	 * Performs integration over the length of the component and updates the cached variables.
+	 * Return a key identifying the profile of the component, in other words the values
+	 * that {@link #getRadius(double)} depends on in addition to the component length.
+	 * Components of the same class with equal keys, length, thickness and filling share
+	 * the integrated volume, area and inertia values.  The default implementation
+	 * returns <code>null</code>, in which case the values are not shared.
+	 * 
+	 * @return	the profile key, or <code>null</code>.
+	 */
+	protected Object getProfileKey() {
+		return null;
+	}
+	
+	
+	/**
+	 * Return the integrated values of this component, integrating them or fetching
+	 * them from the shared cache as necessary.
+	 */
+	Integrals getIntegrals() {
+		if (integrals != null)
+			return integrals;
+		
+		Object profile = getProfileKey();
+		if (profile == null) {
+			integrals = integrate();
+			return integrals;
+		}
+		
+		Object key = Arrays.asList(getClass(), profile, length, thickness, filled);
+		Integrals in;
+		synchronized (integralsCache) {
+			in = integralsCache.get(key);
+		}
+		if (in == null) {
+			in = integrate();
+			synchronized (integralsCache) {
+				integralsCache.put(key, in);
+			}
+		}
+		integrals = in;
+		return in;
+	}
+	
+	
+	/**
+	 * Calculate the longitudinal and rotational unit inertia from the integrated values.
+	 * The inertia is based on the component volume, or on the surface area if the
+	 * volume is zero.
 	 */
-	private void integrate() {
-		double x, r1, r2;
-		double cgx;
+	private void calculateInertia() {
+		Integrals in = getIntegrals();
+		
+		if (getComponentVolume() > 0.0000001 && !MathUtil.equals(in.inertiaVolume, 0)) { // == 0.1cm^3
+			longitudinalInertia = in.volumeLongitudinalInertia;
+			rotationalInertia = in.volumeRotationalInertia;
+		} else if (!MathUtil.equals(in.inertiaSurface, 0)) {
+			longitudinalInertia = in.surfaceLongitudinalInertia;
+			rotationalInertia = in.surfaceRotationalInertia;
+		} else {
+			longitudinalInertia = 0;
+			rotationalInertia = 0;
+			return;
+		}
 		
+		// Shift longitudinal inertia to CG
+		longitudinalInertia = Math.max(longitudinalInertia - pow2(getComponentCG().x), 0);
+	}
+	
+	
+	/**
+	 * Sample the profile of the component and integrate over it.
+	 */
+	private Integrals integrate() {
 		// Check length > 0
 		if (length <= 0) {
-			wetArea = 0;
-			planArea = 0;
-			planCenter = 0;
-			volume = 0;
-			cg = Coordinate.NUL;
-			return;
+			return new Integrals(new Sums(thickness, filled));
 		}
 		
-
-		// Integrate for volume, CG, wetted area and planform area
+		// Initial grid, clamping the last position to the length to prevent round off error
+		final int n = INITIAL_DIVISIONS;
+		double[] x = new double[n + 1];
+		double[] r = new double[n + 1];
+		double[] full = new double[n];
+		double[] wet = new double[n];
+		for (int i = 0; i <= n; i++) {
+			x[i] = (i == n) ? length : length * i / n;
+			r[i] = getRadius(x[i]);
+		}
 		
-		final double step = length / DIVISIONS;
-		final double pi3 = Math.PI / 3.0;
-		r1 = getRadius(0);
-		x = 0;
-		wetArea = 0;
-		planArea = 0;
-		planCenter = 0;
-		fullVolume = 0;
-		volume = 0;
-		cgx = 0;
+		// The integrals over the initial grid set the scale of the error tolerances
+		double fullTolerance = 0;
+		double wetTolerance = 0;
+		for (int i = 0; i < n; i++) {
+			full[i] = fullVolume(x[i + 1] - x[i], r[i], r[i + 1]);
+			wet[i] = wetArea(r[i], r[i + 1], MathUtil.hypot(r[i + 1] - r[i], x[i + 1] - x[i]));
+			fullTolerance += full[i];
+			wetTolerance += wet[i];
+		}
+		fullTolerance *= TOLERANCE / length;
+		wetTolerance *= TOLERANCE / length;
 		
-		for (int n = 1; n <= DIVISIONS; n++) {
-			/*
-			 * r1 and r2 are the two radii
-			 * x is the position of r1
-			 * hyp is the length of the hypotenuse from r1 to r2
-			 * height if the y-axis height of the component if not filled
-			 */
-			/*
-			 * l is the step size for the current loop.  Could also be called delta-x.
-			 * 
-			 * to account for accumulated errors in the x position during the loop
-			 * during the last iteration (n== DIVISIONS) we recompute l to be
-			 * whatever is left.
-			 */
-			double l = (n==DIVISIONS) ? length -x : step;
-
-			// Further to prevent round off error from the previous statement,
-			// we clamp r2 to length at the last iteration.
-			r2 = getRadius((n==DIVISIONS) ? length : x + l);
-			
-			final double hyp = MathUtil.hypot(r2 - r1, l);
-			
-			// Volume differential elements
-			final double dV;
-			final double dFullV;
-			
-			dFullV = pi3 * l * (r1 * r1 + r1 * r2 + r2 * r2);
-			
-			if ( filled ) {
-				dV = dFullV;
-			} else {
-				// hollow
-				// Thickness is normal to the surface of the component
-				// here we use simple trig to project the Thickness
-				// on to the y dimension (radius).
-				double height = thickness * hyp / l;
-				if (r1 < height || r2 < height) {
-					// Filled portion of piece
-					dV = dFullV;
-				} else {
-					// Hollow portion of piece
-					dV = MathUtil.max(Math.PI* l * height * (r1 + r2 - height), 0);
-				}
-			}
-
-			// Add to the volume-related components
-			volume += dV;
-			fullVolume += dFullV;
-			cgx += (x + l / 2) * dV;
-			
-			// Wetted area ( * PI at the end)
-			wetArea += hyp * (r1 + r2);
-			
-			// Planform area & center
-			final double p = l * (r1 + r2);
-			planArea += p;
-			planCenter += (x + l / 2) * p;
-
-			// Update for next iteration
-			r1 = r2;
-			x += l;
+		Sums sums = new Sums(thickness, filled);
+		for (int i = 0; i < n; i++) {
+			refine(sums, x[i], r[i], x[i + 1], r[i + 1], full[i], wet[i], fullTolerance, wetTolerance, 0);
 		}
 		
-		wetArea *= Math.PI;
+		return new Integrals(sums);
+	}
+	
+	/**
+	 * Add the segment of the profile between a and b to the sums, halving it
+	 * recursively as long as the estimated error of the halves exceeds the
+	 * tolerance.  Since the conical segments are second order accurate, the error of
+	 * the halves is estimated as a third of their difference to the whole segment.
+	 * The material volume is not checked separately, since it equals the full volume
+	 * of filled parts and follows the wetted area of hollow walls.
+	 * 
+	 * @param full			the full volume of the whole segment.
+	 * @param wet			the wetted area of the whole segment.
+	 * @param fullTolerance	the tolerance of the full volume per unit length.
+	 * @param wetTolerance	the tolerance of the wetted area per unit length.
+	 * @param depth			the number of times the segment has been halved.
+	 */
+	private void refine(Sums sums, double a, double ra, double b, double rb,
+			double full, double wet, double fullTolerance, double wetTolerance, int depth) {
+		final double m = (a + b) / 2;
+		final double rm = getRadius(m);
 		
-		if (planArea > 0)
-			planCenter /= planArea;
+		final double l1 = m - a;
+		final double l2 = b - m;
+		final double hyp1 = MathUtil.hypot(rm - ra, l1);
+		final double hyp2 = MathUtil.hypot(rb - rm, l2);
+		final double full1 = fullVolume(l1, ra, rm);
+		final double full2 = fullVolume(l2, rm, rb);
+		final double wet1 = wetArea(ra, rm, hyp1);
+		final double wet2 = wetArea(rm, rb, hyp2);
 		
-		if (volume < 0.0000000001) { // 0.1 mm^3
-			volume = 0;
-			cg = new Coordinate(length / 2, 0, 0, 0);
-		} else {
-			// the mass of this shape is the material density * volume.
-			// it cannot come from super.getComponentMass() since that 
-			// includes the shoulders
-			cg = new Coordinate(cgx / volume, 0, 0, getMaterial().getDensity() * volume );
+		final double l = 3 * (b - a);
+		if (depth < MAX_REFINEMENT &&
+				(Math.abs(full - full1 - full2) > fullTolerance * l ||
+						Math.abs(wet - wet1 - wet2) > wetTolerance * l)) {
+			refine(sums, a, ra, m, rm, full1, wet1, fullTolerance, wetTolerance, depth + 1);
+			refine(sums, m, rm, b, rb, full2, wet2, fullTolerance, wetTolerance, depth + 1);
+			return;
 		}
+		
+		// Accept the halves, reusing the values computed for them
+		sums.add(a, l1, ra, rm, hyp1, full1, wet1);
+		sums.add(m, l2, rm, rb, hyp2, full2, wet2);
+	}
+	
+	
+	/**
+	 * Volume of a conical frustum of length l and end radii r1 and r2.
+	 */
+	private static double fullVolume(double l, double r1, double r2) {
+		return Math.PI / 3.0 * l * (r1 * r1 + r1 * r2 + r2 * r2);
+	}
+	
+	/**
+	 * Outer surface area of a conical frustum.
+	 */
+	private static double wetArea(double r1, double r2, double hyp) {
+		return Math.PI * hyp * (r1 + r2);
 	}
 	
 	
 	/**
-	 * Integrate the longitudinal and rotational inertia based on component volume.
-	 * This method may be used only if the total volume is zero.
+	 * Running sums of the values integrated over the conical segments of a profile.
 	 */
-	private void integrateInertiaVolume() {
-		double x, r1, r2;
+	private static final class Sums {
+		private final double thickness;
+		private final boolean filled;
 		
-		final double l = length / DIVISIONS;
-		final double pil = Math.PI * l; // PI * l
-		final double pil3 = Math.PI * l / 3; // PI * l/3
+		private double volume = 0;
+		private double fullVolume = 0;
+		private double cgx = 0;
+		private double wetArea = 0;
+		private double planArea = 0;
+		private double planCenter = 0;
 		
-		r1 = getRadius(0);
-		x = 0;
-		longitudinalInertia = 0;
-		rotationalInertia = 0;
+		private double inertiaVolume = 0;
+		private double volumeLongitudinal = 0;
+		private double volumeRotational = 0;
+		private double inertiaSurface = 0;
+		private double surfaceLongitudinal = 0;
+		private double surfaceRotational = 0;
 		
-		double vol = 0;
+		Sums(double thickness, boolean filled) {
+			this.thickness = thickness;
+			this.filled = filled;
+		}
 		
-		for (int n = 1; n <= DIVISIONS; n++) {
-			/*
-			 * r1 and r2 are the two radii, outer is their average
-			 * x is the position of r1
-			 * hyp is the length of the hypotenuse from r1 to r2
-			 * height if the y-axis height of the component if not filled
-			 */
-			r2 = getRadius(x + l);
+		/**
+		 * Add a conical segment.
+		 * 
+		 * @param x			the position of r1.
+		 * @param l			the length of the segment.
+		 * @param r1		the radius at the start of the segment.
+		 * @param r2		the radius at the end of the segment.
+		 * @param hyp		the length of the hypotenuse from r1 to r2.
+		 * @param dFullV	the full volume of the segment.
+		 * @param dS		the wetted area of the segment.
+		 */
+		void add(double x, double l, double r1, double r2, double hyp, double dFullV, double dS) {
+			final double mid = x + l / 2;
 			final double outer = (r1 + r2) / 2;
 			
-
-			// Volume differential elements
-			final double inner;
+			// Thickness is normal to the surface of the component
+			// here we use simple trig to project the Thickness
+			// on to the y dimension (radius).
+			final double height = thickness * hyp / l;
 			final double dV;
+			if (filled || r1 < height || r2 < height) {
+				// Filled portion of piece
+				dV = dFullV;
+			} else {
+				// Hollow portion of piece
+				dV = MathUtil.max(Math.PI * l * height * (r1 + r2 - height), 0);
+			}
+			
+			// Volume, CG and wetted area
+			volume += dV;
+			fullVolume += dFullV;
+			cgx += mid * dV;
+			wetArea += dS;
 			
+			// Planform area & center
+			final double p = l * (r1 + r2);
+			planArea += p;
+			planCenter += mid * p;
+			
+			// Inertia based on volume
+			final double inner;
+			final double dIV;
 			if (filled || r1 < thickness || r2 < thickness) {
 				inner = 0;
-				dV = pil3 * (r1 * r1 + r1 * r2 + r2 * r2);
+				dIV = dFullV;
 			} else {
-				final double hyp = MathUtil.hypot(r2 - r1, l);
-				final double height = thickness * hyp / l;
-				dV = pil * height * (r1 + r2 - height);
+				dIV = Math.PI * l * height * (r1 + r2 - height);
 				inner = Math.max(outer - height, 0);
 			}
+			final double radii = pow2(outer) + pow2(inner);
+			final double distance = pow2(l) / 12 + pow2(mid);
+			volumeRotational += dIV * radii / 2;
+			volumeLongitudinal += dIV * (radii / 4 + distance);
+			inertiaVolume += dIV;
 			
-			rotationalInertia += dV * (pow2(outer) + pow2(inner)) / 2;
-			longitudinalInertia += dV * ((3 * (pow2(outer) + pow2(inner)) + pow2(l)) / 12
-					+ pow2(x + l / 2));
-			
-			vol += dV;
-			
-			// Update for next iteration
-			r1 = r2;
-			x += l;
+			// Inertia based on surface
+			surfaceRotational += dS * pow2(outer);
+			surfaceLongitudinal += dS * (pow2(outer) / 2 + distance);
+			inertiaSurface += dS;
 		}
-		
-		if (MathUtil.equals(vol, 0)) {
-			integrateInertiaSurface();
-			return;
-		}
-		
-		rotationalInertia /= vol;
-		longitudinalInertia /= vol;
-		
-		// Shift longitudinal inertia to CG
-		longitudinalInertia = Math.max(longitudinalInertia - pow2(getComponentCG().x), 0);
 	}
 	
 	
-
 	/**
-	 * Integrate the longitudinal and rotational inertia based on component surface area.
-	 * This method may be used only if the total volume is zero.
+	 * The values integrated over the profile of a component.  Instances are immutable
+	 * and may be shared between components with equal profiles.
 	 */
-	private void integrateInertiaSurface() {
-		double x, r1, r2;
+	static final class Integrals {
+		final double volume;
+		final double fullVolume;
+		final double cgx;
+		final double wetArea;
+		final double planArea;
+		final double planCenter;
 		
-		final double l = length / DIVISIONS;
+		// Unit inertia based on the volume, not shifted to the CG
+		final double inertiaVolume;
+		final double volumeLongitudinalInertia;
+		final double volumeRotationalInertia;
 		
-		r1 = getRadius(0);
-		//System.out.println(r1);
-		x = 0;
+		// Unit inertia based on the surface, not shifted to the CG
+		final double inertiaSurface;
+		final double surfaceLongitudinalInertia;
+		final double surfaceRotationalInertia;
 		
-		longitudinalInertia = 0;
-		rotationalInertia = 0;
-		
-		double surface = 0;
-		
-		for (int n = 1; n <= DIVISIONS; n++) {
-			/*
-			 * r1 and r2 are the two radii, outer is their average
-			 * x is the position of r1
-			 * hyp is the length of the hypotenuse from r1 to r2
-			 * height if the y-axis height of the component if not filled
-			 */
-			r2 = getRadius(x + l);
-			final double hyp = MathUtil.hypot(r2 - r1, l);
-			final double outer = (r1 + r2) / 2;
-			
-			final double dS = hyp * (r1 + r2) * Math.PI;
-			
-			rotationalInertia += dS * pow2(outer);
-			longitudinalInertia += dS * ((6 * pow2(outer) + pow2(l)) / 12 + pow2(x + l / 2));
-			
-			surface += dS;
+		Integrals(Sums sums) {
+			if (sums.volume < 0.0000000001) { // 0.1 mm^3
+				this.volume = 0;
+				this.cgx = 0;
+			} else {
+				this.volume = sums.volume;
+				this.cgx = sums.cgx / sums.volume;
+			}
+			this.fullVolume = sums.fullVolume;
+			this.wetArea = sums.wetArea;
+			this.planArea = sums.planArea;
+			this.planCenter = (sums.planArea > 0) ? sums.planCenter / sums.planArea : sums.planCenter;
 			
-			// Update for next iteration
-			r1 = r2;
-			x += l;
-		}
-		
-		if (MathUtil.equals(surface, 0)) {
-			longitudinalInertia = 0;
-			rotationalInertia = 0;
-			return;
+			this.inertiaVolume = sums.inertiaVolume;
+			this.volumeLongitudinalInertia = MathUtil.equals(inertiaVolume, 0) ? 0 : sums.volumeLongitudinal / inertiaVolume;
+			this.volumeRotationalInertia = MathUtil.equals(inertiaVolume, 0) ? 0 : sums.volumeRotational / inertiaVolume;
+			this.inertiaSurface = sums.inertiaSurface;
+			this.surfaceLongitudinalInertia = MathUtil.equals(inertiaSurface, 0) ? 0 : sums.surfaceLongitudinal / inertiaSurface;
+			this.surfaceRotationalInertia = MathUtil.equals(inertiaSurface, 0) ? 0 : sums.surfaceRotational / inertiaSurface;
 		}
-		
-		longitudinalInertia /= surface;
-		rotationalInertia /= surface;
-		
-		// Shift longitudinal inertia to CG
-		longitudinalInertia = Math.max(longitudinalInertia - pow2(getComponentCG().x), 0);
 	}
 	
 	
@@ -521,11 +595,7 @@ public abstract class SymmetricComponent extends BodyComponent implements Radial
 	protected void componentChanged(ComponentChangeEvent e) {
 		super.componentChanged(e);
 		if (!e.isOtherChange()) {
-			wetArea = -1;
-			planArea = -1;
-			planCenter = -1;
-			volume = -1;
-			fullVolume = -1;
+			integrals = null;
 			longitudinalInertia = -1;
 			rotationalInertia = -1;
 			cg = null;
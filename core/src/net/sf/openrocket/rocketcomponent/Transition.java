@@ -7,6 +7,7 @@ import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.util.Coordinate;
 import net.sf.openrocket.util.MathUtil;
 
+import java.util.Arrays;
 import java.util.Collection;
 
 import static java.lang.Math.sin;
@@ -431,6 +432,15 @@ public class Transition extends SymmetricComponent {
 		return Math.max(getRadius(x) - thickness, 0);
 	}
 
+	/**
+	 * Transitions with equal shapes and radii share the integrated values.
+	 */
+	@Override
+	protected Object getProfileKey() {
+		return Arrays.asList(type, isClipped(), type.usesParameter() ? shapeParameter : 0.0,
+				getForeRadius(), getAftRadius());
+	}
+
 
 
 	@Override
@@ -50,6 +50,20 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 	// TODO: this is an arbitrary value
 	private final static double THRUST_TUMBLE_CONDITION = 0.01;
 	
+	// The data types stored when only summary data is requested.  These include the
+	// types needed by FlightData for the summary values and those read during the simulation.
+	private final static FlightDataType[] SUMMARY_TYPES = {
+			FlightDataType.TYPE_TIME,
+			FlightDataType.TYPE_ALTITUDE,
+			FlightDataType.TYPE_VELOCITY_TOTAL,
+			FlightDataType.TYPE_ACCELERATION_TOTAL,
+			FlightDataType.TYPE_MACH_NUMBER,
+			FlightDataType.TYPE_THRUST_FORCE,
+			FlightDataType.TYPE_CP_LOCATION,
+			FlightDataType.TYPE_CG_LOCATION,
+			FlightDataType.TYPE_AOA
+	};
+	
 	private SimulationStepper currentStepper;
 	
 	private SimulationStatus status;
@@ -78,7 +92,7 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 		{
 			// main sustainer stage
 			RocketComponent sustainer = configuration.getRocket().getChild(0);
-			status.setFlightData(new FlightDataBranch(sustainer.getName(), FlightDataType.TYPE_TIME));
+			status.setFlightData(createFlightDataBranch(sustainer.getName(), simulationConditions));
 		}
 		stages.add(status);
 		
@@ -245,6 +259,23 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 		return status.getFlightData();
 	}
 	
+	/**
+	 * Create a new flight data branch for a stage.
+	 *
+	 * @param name			the name of the branch.
+	 * @param conditions	the simulation conditions.
+	 * @return				a new flight data branch.
+	 */
+	private FlightDataBranch createFlightDataBranch(String name, SimulationConditions conditions) {
+		if (!conditions.isSummaryDataOnly()) {
+			return new FlightDataBranch(name, FlightDataType.TYPE_TIME);
+		}
+		FlightDataBranch branch = new FlightDataBranch(name, SUMMARY_TYPES);
+		branch.fixTypes();
+		return branch;
+	}
+	
+	
 	/**
 	 * Create a rocket configuration from the launch conditions.
 	 *
@@ -445,7 +476,7 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 				
 				// Prepare the booster status for simulation.
 				SimulationStatus boosterStatus = new SimulationStatus(status);
-				boosterStatus.setFlightData(new FlightDataBranch(stage.getName(), FlightDataType.TYPE_TIME));
+				boosterStatus.setFlightData(createFlightDataBranch(stage.getName(), status.getSimulationConditions()));
 				
 				stages.add(boosterStatus);
 				
@@ -49,6 +49,9 @@ public class FlightDataBranch implements Monitorable {
 	
 	private Mutable mutable = new Mutable();
 	
+	/** Whether values of types not yet in the branch are ignored instead of added. */
+	private boolean typesFixed = false;
+	
 	private int modID = 0;
 	
 	/**
@@ -116,6 +119,9 @@ public class FlightDataBranch implements Monitorable {
 		ArrayList<Double> list = values.get(type);
 		
 		if (list == null) {
+			if (typesFixed) {
+				return;
+			}
 			list = new ArrayList<Double>();
 			int n = getLength();
 			for (int i = 0; i < n; i++) {
@@ -143,6 +149,65 @@ public class FlightDataBranch implements Monitorable {
 	}
 	
 	
+	/**
+	 * Add a number of data points at once.  This is equivalent to calling {@link #addPoint()}
+	 * and setting the value of each given type for every point, but avoids the per-value
+	 * lookups when loading large amounts of data.  Types of the branch that are not given
+	 * are set to NaN.
+	 * 
+	 * @param types		the variable types of the columns, which must be included in this branch.
+	 * @param columns	the values of each type, at least <code>count</code> values per column.
+	 * @param count		the number of points to add.
+	 * @throws IllegalArgumentException	if a type is not included in this branch.
+	 * @throws IllegalStateException	if this object has been made immutable.
+	 */
+	public void addPoints(FlightDataType[] types, double[][] columns, int count) {
+		mutable.check();
+		
+		for (FlightDataType type : types) {
+			if (!values.containsKey(type)) {
+				throw new IllegalArgumentException("Value type " + type + " not included in branch.");
+			}
+		}
+		
+		for (Map.Entry<FlightDataType, ArrayList<Double>> entry : values.entrySet()) {
+			FlightDataType type = entry.getKey();
+			ArrayList<Double> list = entry.getValue();
+			list.ensureCapacity(list.size() + count);
+			
+			int index = -1;
+			for (int i = 0; i < types.length; i++) {
+				if (types[i].equals(type)) {
+					index = i;
+				}
+			}
+			if (index < 0) {
+				for (int i = 0; i < count; i++) {
+					list.add(Double.NaN);
+				}
+				continue;
+			}
+			
+			double[] column = columns[index];
+			double min = minValues.get(type);
+			double max = maxValues.get(type);
+			for (int i = 0; i < count; i++) {
+				double value = column[i];
+				list.add(value);
+				if (Double.isNaN(min) || (value < min)) {
+					min = value;
+				}
+				if (Double.isNaN(max) || (value > max)) {
+					max = value;
+				}
+			}
+			minValues.put(type, min);
+			maxValues.put(type, max);
+		}
+		modID++;
+	}
+	
+	
 	/**
 	 * Return the branch name.
 	 */
@@ -184,6 +249,92 @@ public class FlightDataBranch implements Monitorable {
 		return list.clone();
 	}
 	
+	/**
+	 * Return a single value of the specified variable type without copying the data.
+	 * 
+	 * @param type	the variable type.
+	 * @param index	the index of the data point.
+	 * @return		the value, or NaN if the variable type hasn't been added to this branch.
+	 * @throws IndexOutOfBoundsException	if the index is out of range.
+	 */
+	public double getValue(FlightDataType type, int index) {
+		ArrayList<Double> list = values.get(type);
+		if (list == null)
+			return Double.NaN;
+		return list.get(index);
+	}
+	
+	/**
+	 * Return the last values of the specified variable type.  Only the requested values
+	 * are copied, making this suitable for use at every simulation step.
+	 * 
+	 * @param type	the variable type.
+	 * @param k		the number of values to return.
+	 * @return		the last <code>min(k, getLength())</code> values in chronological order,
+	 * 				NaN if the variable type hasn't been added to this branch.
+	 */
+	public double[] last(FlightDataType type, int k) {
+		int length = getLength();
+		int n = Math.max(Math.min(k, length), 0);
+		double[] result = new double[n];
+		for (int i = 0; i < n; i++) {
+			result[i] = getValue(type, length - n + i);
+		}
+		return result;
+	}
+	
+	/**
+	 * Return a read-only view of the last data points of this branch.  The view does not
+	 * copy any data and follows the branch as new points are added.
+	 * 
+	 * @param k		the maximum number of data points in the window.
+	 * @return		a sliding window over the last <code>k</code> data points.
+	 */
+	public FlightDataWindow window(int k) {
+		return new FlightDataWindow(this, k);
+	}
+	
+	/**
+	 * Return the value of the specified variable type at a given time, linearly
+	 * interpolated between the data points.  Times outside the range of the branch
+	 * return the first or last value.  The data is searched without copying it.
+	 * 
+	 * @param type	the variable type.
+	 * @param time	the time.
+	 * @return		the interpolated value, or NaN if the type or time is unavailable.
+	 */
+	public double interpolate(FlightDataType type, double time) {
+		ArrayList<Double> times = values.get(FlightDataType.TYPE_TIME);
+		int length = getLength();
+		if (times == null || length == 0 || Double.isNaN(time)) {
+			return Double.NaN;
+		}
+		
+		// Find the first point at or after the time
+		int low = 0;
+		int high = length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (times.get(mid) < time) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		
+		if (low == length) {
+			return getValue(type, length - 1);
+		}
+		double t2 = times.get(low);
+		if (low == 0 || t2 == time) {
+			return getValue(type, low);
+		}
+		double t1 = times.get(low - 1);
+		double y1 = getValue(type, low - 1);
+		double y2 = getValue(type, low);
+		return (time - t1) / (t2 - t1) * (y2 - y1) + y1;
+	}
+	
 	/**
 	 * Return the last value of the specified type in the branch, or NaN if the type is
 	 * unavailable.
@@ -322,6 +473,19 @@ public class FlightDataBranch implements Monitorable {
 		return retval;
 	}
 	
+	/**
+	 * Fix the variable types of this branch to the ones currently defined.  Values set
+	 * for other types are afterwards ignored.  This is used to avoid storing data that
+	 * is not needed, for example when only summary values of a simulation are used.
+	 * 
+	 * @throws IllegalStateException	if this object has been made immutable.
+	 */
+	public void fixTypes() {
+		mutable.check();
+		typesFixed = true;
+	}
+	
+	
 	/**
 	 * Make this FlightDataBranch immutable.  Any calls to the set methods that would
 	 * modify this object will after this call throw an <code>IllegalStateException</code>.
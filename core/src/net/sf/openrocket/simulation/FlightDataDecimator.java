@@ -0,0 +1,246 @@
+package net.sf.openrocket.simulation;
+
+import java.util.List;
+
+/**
+ * Methods for selecting a subset of the data points of a {@link FlightDataBranch}
+ * for storage and export.
+ * <p>
+ * All methods return the indices of the selected points in increasing order.  The first
+ * and last points of the branch and the points surrounding each flight event are always
+ * selected, as are the points at which a value changes between NaN and a number, so that
+ * events and gaps in the data remain exactly in place.
+ */
+public final class FlightDataDecimator {
+
+	private FlightDataDecimator() {
+		// Prevent instantiation
+	}
+
+
+	/**
+	 * Select points so that consecutive points are approximately <code>timeSkip</code>
+	 * seconds apart.  This is the selection used when storing simulation data with a
+	 * specific time interval.  If the branch does not contain time data, all points
+	 * are selected.
+	 *
+	 * @param branch	the flight data branch.
+	 * @param timeSkip	the desired time between points, zero to select all points.
+	 * @return			the indices of the selected points.
+	 */
+	public static int[] timeSkip(FlightDataBranch branch, double timeSkip) {
+		int length = branch.getLength();
+		double[] time = toArray(branch.get(FlightDataType.TYPE_TIME));
+		if (time == null || timeSkip <= 0) {
+			return all(length);
+		}
+
+		boolean[] keep = new boolean[length];
+		markForced(branch, time, new double[0][], keep);
+
+		double previousTime = (length > 0) ? time[0] : 0;
+		for (int i = 1; i < length - 1; i++) {
+			if (keep[i] || Math.abs(time[i] - previousTime - timeSkip) < Math.abs(time[i + 1] - previousTime - timeSkip)) {
+				keep[i] = true;
+				previousTime = time[i];
+			}
+		}
+
+		return toIndices(keep);
+	}
+
+
+	/**
+	 * Select points so that the linear interpolation between the selected points
+	 * differs from each discarded point by at most <code>tolerance</code> times the
+	 * range of the values of each type.  The interpolation is performed with respect
+	 * to time, or to the point index if the branch does not contain time data.
+	 * <p>
+	 * The selection is made using the Douglas-Peucker algorithm considering all the
+	 * specified types simultaneously, so the error bound holds for each type separately.
+	 *
+	 * @param branch	the flight data branch.
+	 * @param types		the data types that must be represented within the tolerance.
+	 * @param tolerance	the maximum allowed error relative to the value range of each type,
+	 * 					zero to select all points.
+	 * @return			the indices of the selected points.
+	 */
+	public static int[] simplify(FlightDataBranch branch, FlightDataType[] types, double tolerance) {
+		int length = branch.getLength();
+		if (tolerance <= 0 || length <= 2) {
+			return all(length);
+		}
+
+		double[] time = toArray(branch.get(FlightDataType.TYPE_TIME));
+		double[][] values = new double[types.length][];
+		double[] limit = new double[types.length];
+		for (int i = 0; i < types.length; i++) {
+			values[i] = toArray(branch.get(types[i]));
+			limit[i] = tolerance * (branch.getMaximum(types[i]) - branch.getMinimum(types[i]));
+			if (values[i] == null || !(limit[i] > 0)) {
+				// Missing or constant values need no additional points
+				values[i] = null;
+			}
+		}
+
+		boolean[] keep = new boolean[length];
+		markForced(branch, time, values, keep);
+
+		// Process each segment between forced points separately
+		int[] stack = new int[64];
+		int start = 0;
+		for (int end = 1; end < length; end++) {
+			if (!keep[end]) {
+				continue;
+			}
+
+			int sp = 0;
+			stack[sp++] = start;
+			stack[sp++] = end;
+			while (sp > 0) {
+				int b = stack[--sp];
+				int a = stack[--sp];
+				if (b - a < 2) {
+					continue;
+				}
+
+				double maxError = 0;
+				int split = -1;
+				for (int p = a + 1; p < b; p++) {
+					double f = fraction(time, a, b, p);
+					for (int t = 0; t < values.length; t++) {
+						double[] v = values[t];
+						if (v == null || Double.isNaN(v[a]) || Double.isNaN(v[b])) {
+							continue;
+						}
+						double error = Math.abs(v[p] - (v[a] + (v[b] - v[a]) * f)) / limit[t];
+						if (error > maxError) {
+							maxError = error;
+							split = p;
+						}
+					}
+				}
+
+				if (maxError > 1) {
+					keep[split] = true;
+					if (sp + 4 > stack.length) {
+						int[] copy = new int[stack.length * 2];
+						System.arraycopy(stack, 0, copy, 0, sp);
+						stack = copy;
+					}
+					stack[sp++] = a;
+					stack[sp++] = split;
+					stack[sp++] = split;
+					stack[sp++] = b;
+				}
+			}
+
+			start = end;
+		}
+
+		return toIndices(keep);
+	}
+
+
+	/**
+	 * Mark the points that must always be selected:  the first and last points, the
+	 * points surrounding each flight event and the points at which any of the values
+	 * changes between NaN and a number.
+	 */
+	private static void markForced(FlightDataBranch branch, double[] time, double[][] values, boolean[] keep) {
+		int length = keep.length;
+		if (length == 0) {
+			return;
+		}
+		keep[0] = true;
+		keep[length - 1] = true;
+
+		if (time != null) {
+			for (FlightEvent event : branch.getEvents()) {
+				int n = firstIndexAtOrAfter(time, event.getTime());
+				if (n < length) {
+					keep[n] = true;
+				}
+				if (n > 0) {
+					keep[n - 1] = true;
+				}
+			}
+		}
+
+		for (double[] v : values) {
+			if (v == null) {
+				continue;
+			}
+			for (int i = 1; i < length; i++) {
+				if (Double.isNaN(v[i]) != Double.isNaN(v[i - 1])) {
+					keep[i - 1] = true;
+					keep[i] = true;
+				}
+			}
+		}
+	}
+
+
+	private static int firstIndexAtOrAfter(double[] time, double t) {
+		int low = 0;
+		int high = time.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (time[mid] < t) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+
+	private static double fraction(double[] time, int a, int b, int p) {
+		if (time != null) {
+			double dt = time[b] - time[a];
+			if (dt > 0) {
+				return (time[p] - time[a]) / dt;
+			}
+		}
+		return (double) (p - a) / (b - a);
+	}
+
+
+	private static double[] toArray(List<Double> list) {
+		if (list == null) {
+			return null;
+		}
+		double[] array = new double[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+	private static int[] toIndices(boolean[] keep) {
+		int count = 0;
+		for (boolean k : keep) {
+			if (k) {
+				count++;
+			}
+		}
+		int[] indices = new int[count];
+		int n = 0;
+		for (int i = 0; i < keep.length; i++) {
+			if (keep[i]) {
+				indices[n++] = i;
+			}
+		}
+		return indices;
+	}
+
+	private static int[] all(int length) {
+		int[] indices = new int[length];
+		for (int i = 0; i < length; i++) {
+			indices[i] = i;
+		}
+		return indices;
+	}
+
+}
@@ -0,0 +1,110 @@
+package net.sf.openrocket.simulation;
+
+/**
+ * A read-only sliding window over the last data points of a flight data branch.
+ * The window reads the values directly from the branch without copying them, and
+ * always covers the most recent points as new points are added to the branch.
+ * <p>
+ * The derivative and integral helpers use the time values of the branch, so the
+ * branch must contain {@link FlightDataType#TYPE_TIME}.
+ *
+ * @see FlightDataBranch#window(int)
+ */
+public class FlightDataWindow {
+
+	private final FlightDataBranch branch;
+	private final int size;
+
+
+	FlightDataWindow(FlightDataBranch branch, int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Window size must be positive, was " + size);
+		}
+		this.branch = branch;
+		this.size = size;
+	}
+
+
+	/**
+	 * Return the number of data points currently in the window.  This is less than
+	 * the window size until the branch contains enough points.
+	 */
+	public int getLength() {
+		return Math.min(size, branch.getLength());
+	}
+
+	/**
+	 * Return a value in the window.
+	 *
+	 * @param type		the variable type.
+	 * @param index		the index within the window, zero being the oldest point.
+	 * @return			the value, or NaN if the type is not available.
+	 * @throws IndexOutOfBoundsException	if the index is outside the window.
+	 */
+	public double get(FlightDataType type, int index) {
+		int length = getLength();
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("index=" + index + " length=" + length);
+		}
+		return branch.getValue(type, branch.getLength() - length + index);
+	}
+
+
+	/**
+	 * Return the time derivative of a variable over the window.  The derivative is the
+	 * slope of the least-squares line fitted through the points of the window, which
+	 * is the plain difference quotient for two points and less sensitive to noise for
+	 * more points.
+	 *
+	 * @param type	the variable type.
+	 * @return		the derivative, or NaN if fewer than two points are available or
+	 * 				the time does not change within the window.
+	 */
+	public double derivative(FlightDataType type) {
+		int length = getLength();
+		if (length < 2) {
+			return Double.NaN;
+		}
+
+		int start = branch.getLength() - length;
+
+		// Center the values to avoid cancellation for large time values
+		double meanT = 0;
+		double meanY = 0;
+		for (int i = start; i < start + length; i++) {
+			meanT += branch.getValue(FlightDataType.TYPE_TIME, i);
+			meanY += branch.getValue(type, i);
+		}
+		meanT /= length;
+		meanY /= length;
+
+		double stt = 0;
+		double sty = 0;
+		for (int i = start; i < start + length; i++) {
+			double dt = branch.getValue(FlightDataType.TYPE_TIME, i) - meanT;
+			stt += dt * dt;
+			sty += dt * (branch.getValue(type, i) - meanY);
+		}
+		if (stt == 0) {
+			return Double.NaN;
+		}
+		return sty / stt;
+	}
+
+	/**
+	 * Return the time integral of a variable over the window using the trapezoidal rule.
+	 *
+	 * @param type	the variable type.
+	 * @return		the integral, zero if fewer than two points are available.
+	 */
+	public double integral(FlightDataType type) {
+		int length = getLength();
+		int start = branch.getLength() - length;
+		double sum = 0;
+		for (int i = start + 1; i < start + length; i++) {
+			double dt = branch.getValue(FlightDataType.TYPE_TIME, i) - branch.getValue(FlightDataType.TYPE_TIME, i - 1);
+			sum += dt * (branch.getValue(type, i) + branch.getValue(type, i - 1)) / 2;
+		}
+		return sum;
+	}
+}
@@ -64,6 +64,9 @@ public class SimulationConditions implements Monitorable, Cloneable {
 	/* Whether to calculate additional data or only primary simulation figures */
 	private boolean calculateExtras = true;
 	
+	/* Whether to store only the data needed for the summary values of the flight */
+	private boolean summaryDataOnly = false;
+	
 	
 	private List<SimulationListener> simulationListeners = new ArrayList<SimulationListener>();
 	
@@ -280,6 +283,17 @@ public class SimulationConditions implements Monitorable, Cloneable {
 	}
 	
 	
+	public boolean isSummaryDataOnly() {
+		return summaryDataOnly;
+	}
+	
+	
+	public void setSummaryDataOnly(boolean summaryDataOnly) {
+		this.summaryDataOnly = summaryDataOnly;
+		this.modID++;
+	}
+	
+	
 	
 	public int getRandomSeed() {
 		return randomSeed;
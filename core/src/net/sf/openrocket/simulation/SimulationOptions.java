@@ -13,6 +13,7 @@ import net.sf.openrocket.models.atmosphere.AtmosphericModel;
 import net.sf.openrocket.models.atmosphere.ExtendedISAModel;
 import net.sf.openrocket.models.gravity.GravityModel;
 import net.sf.openrocket.models.gravity.WGSGravityModel;
+import net.sf.openrocket.models.wind.MeasuredWindModel;
 import net.sf.openrocket.models.wind.PinkNoiseWindModel;
 import net.sf.openrocket.rocketcomponent.Rocket;
 import net.sf.openrocket.startup.Application;
@@ -67,6 +68,12 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 	private double windAverage = preferences.getDouble(Preferences.WIND_AVERAGE, 2.0);
 	private double windTurbulence = preferences.getDouble(Preferences.WIND_TURBULANCE, 0.1);
 	
+	/*
+	 * A measured wind profile overrides the average wind speed and direction.  The
+	 * turbulence intensity and random seed are applied on top of the profile.
+	 */
+	private MeasuredWindModel windProfile = null;
+	
 	/*
 	 * SimulationOptions maintains the launch site parameters as separate double values,
 	 * and converts them into a WorldCoordinate when converting to SimulationConditions.
@@ -88,6 +95,8 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 	
 	private boolean calculateExtras = true;
 	
+	private boolean summaryDataOnly = false;
+	
 	
 	private List<EventListener> listeners = new ArrayList<EventListener>();
 	
@@ -240,6 +249,31 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 		
 	}
 	
+	/**
+	 * Return the measured wind profile used in the simulation.
+	 * 
+	 * @return	the measured wind profile, or <code>null</code> if the average wind
+	 * 			speed and direction are used.
+	 */
+	public MeasuredWindModel getWindProfile() {
+		return windProfile;
+	}
+	
+	/**
+	 * Set the measured wind profile used in the simulation.  The turbulence settings
+	 * of the profile are ignored, the turbulence intensity of these options is used instead.
+	 * 
+	 * @param windProfile	the measured wind profile, or <code>null</code> to use the
+	 * 						average wind speed and direction.
+	 */
+	public void setWindProfile(MeasuredWindModel windProfile) {
+		if (Utils.equals(this.windProfile, windProfile))
+			return;
+		this.windProfile = windProfile;
+		fireChangeEvent();
+	}
+	
+	
 	public double getLaunchAltitude() {
 		return launchAltitude;
 	}
@@ -387,6 +421,25 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 	
 	
 	
+	/**
+	 * Return whether the simulation stores only the flight data needed for the
+	 * summary values of {@link FlightData}, such as maximum altitude and velocity.
+	 */
+	public boolean getSummaryDataOnly() {
+		return summaryDataOnly;
+	}
+	
+	
+	
+	public void setSummaryDataOnly(boolean summaryDataOnly) {
+		if (this.summaryDataOnly == summaryDataOnly)
+			return;
+		this.summaryDataOnly = summaryDataOnly;
+		fireChangeEvent();
+	}
+	
+	
+	
 	public int getRandomSeed() {
 		return randomSeed;
 	}
@@ -473,7 +526,9 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 		this.windAverage = src.windAverage;
 		this.windTurbulence = src.windTurbulence;
 		this.windDirection = src.windDirection;
+		this.windProfile = src.windProfile;
 		this.calculateExtras = src.calculateExtras;
+		this.summaryDataOnly = src.summaryDataOnly;
 		this.randomSeed = src.randomSeed;
 		
 		fireChangeEvent();
@@ -536,10 +591,18 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 			isChanged = true;
 			this.windTurbulence = src.windTurbulence;
 		}
+		if (!Utils.equals(this.windProfile, src.windProfile)) {
+			isChanged = true;
+			this.windProfile = src.windProfile;
+		}
 		if (this.calculateExtras != src.calculateExtras) {
 			isChanged = true;
 			this.calculateExtras = src.calculateExtras;
 		}
+		if (this.summaryDataOnly != src.summaryDataOnly) {
+			isChanged = true;
+			this.summaryDataOnly = src.summaryDataOnly;
+		}
 		
 		if (isChanged) {
 			// Only copy the randomSeed if something else has changed.
@@ -574,7 +637,9 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 				MathUtil.equals(this.windAverage, o.windAverage) &&
 				MathUtil.equals(this.windTurbulence, o.windTurbulence) &&
 				MathUtil.equals(this.windDirection, o.windDirection) &&
-				this.calculateExtras == o.calculateExtras && this.randomSeed == o.randomSeed);
+				Utils.equals(this.windProfile, o.windProfile) &&
+				this.calculateExtras == o.calculateExtras && this.summaryDataOnly == o.summaryDataOnly &&
+				this.randomSeed == o.randomSeed);
 	}
 	
 	/**
@@ -624,12 +689,17 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 		conditions.setGeodeticComputation(getGeodeticComputation());
 		conditions.setRandomSeed(randomSeed);
 		
-		PinkNoiseWindModel windModel = new PinkNoiseWindModel(randomSeed);
-		windModel.setAverage(getWindSpeedAverage());
-		windModel.setStandardDeviation(getWindSpeedDeviation());
-		windModel.setDirection(windDirection);
-		
-		conditions.setWindModel(windModel);
+		if (windProfile != null) {
+			MeasuredWindModel windModel = windProfile.clone();
+			windModel.setTurbulence(getWindTurbulenceIntensity(), randomSeed);
+			conditions.setWindModel(windModel);
+		} else {
+			PinkNoiseWindModel windModel = new PinkNoiseWindModel(randomSeed);
+			windModel.setAverage(getWindSpeedAverage());
+			windModel.setStandardDeviation(getWindSpeedDeviation());
+			windModel.setDirection(windDirection);
+			conditions.setWindModel(windModel);
+		}
 		
 		conditions.setAtmosphericModel(getAtmosphericModel());
 		
@@ -644,6 +714,7 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 		conditions.setMaximumAngleStep(getMaximumStepAngle());
 		
 		conditions.setCalculateExtras(getCalculateExtras());
+		conditions.setSummaryDataOnly(getSummaryDataOnly());
 		
 		return conditions;
 	}
@@ -0,0 +1,384 @@
+package net.sf.openrocket.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.simulation.exception.SimulationCancelledException;
+import net.sf.openrocket.simulation.exception.SimulationException;
+import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.simulation.listeners.SimulationListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A scheduler that runs flight simulations in a shared pool of background threads.
+ * Queued tasks are ordered by their estimated cost, so short simulations are run
+ * before long ones, and tasks of equal cost in submission order.  The cost of a
+ * simulation is estimated from the number of data points of its previous run.
+ * <p>
+ * Simulations run by the scheduler can be cancelled by interrupting the thread
+ * running them, for example using {@link Future#cancel(boolean)}.
+ * <p>
+ * The scheduler keeps statistics of the simulations run, available through
+ * {@link #getQueueDepth()}, {@link #getSimulationRate()}, {@link #getStepRate()}
+ * and related methods.  The rates are measured over the current busy period,
+ * which starts when a task is submitted to an idle scheduler.
+ * <p>
+ * This class is thread-safe.
+ */
+public class SimulationScheduler {
+	private static final Logger log = LoggerFactory.getLogger(SimulationScheduler.class);
+
+	/** Cost of simulations that have not been run before. */
+	public static final long UNKNOWN_COST = Long.MAX_VALUE;
+
+	private static SimulationScheduler defaultScheduler = null;
+
+	private final ThreadPoolExecutor executor;
+	private final AtomicLong sequence = new AtomicLong();
+
+	private final AtomicInteger pending = new AtomicInteger();
+	private final AtomicLong steps = new AtomicLong();
+	private final AtomicLong completed = new AtomicLong();
+
+	// Statistics of the current busy period, guarded by this
+	private long busyStart = 0;
+	private long busyEnd = 0;
+	private long busySteps = 0;
+	private long busyCompleted = 0;
+
+
+	/**
+	 * Return the scheduler shared by the whole application.  It uses as many threads
+	 * as there are processors available, unless changed by {@link #setThreadCount(int)}.
+	 */
+	public static synchronized SimulationScheduler getDefault() {
+		if (defaultScheduler == null) {
+			defaultScheduler = new SimulationScheduler(Runtime.getRuntime().availableProcessors());
+		}
+		return defaultScheduler;
+	}
+
+
+	/**
+	 * Construct a scheduler using the specified number of threads.  The threads are
+	 * marked as daemon threads.
+	 *
+	 * @param threadCount	the number of simulations to run concurrently.
+	 */
+	public SimulationScheduler(int threadCount) {
+		threadCount = Math.max(threadCount, 1);
+		executor = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+				new PriorityBlockingQueue<Runnable>(),
+				new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, "SimulationScheduler-" + count.incrementAndGet());
+						t.setDaemon(true);
+						return t;
+					}
+				});
+	}
+
+
+	/**
+	 * Set the number of simulations run concurrently.
+	 */
+	public void setThreadCount(int threadCount) {
+		threadCount = Math.max(threadCount, 1);
+		synchronized (executor) {
+			if (threadCount > executor.getMaximumPoolSize()) {
+				executor.setMaximumPoolSize(threadCount);
+				executor.setCorePoolSize(threadCount);
+			} else {
+				executor.setCorePoolSize(threadCount);
+				executor.setMaximumPoolSize(threadCount);
+			}
+		}
+	}
+
+	public int getThreadCount() {
+		return executor.getMaximumPoolSize();
+	}
+
+
+	/**
+	 * Estimate the cost of running a simulation.  The estimate is the total number of
+	 * data points of the previous run, or {@link #UNKNOWN_COST} if the simulation has
+	 * no flight data.
+	 */
+	public static long estimateCost(Simulation simulation) {
+		FlightData data = simulation.getSimulatedData();
+		if (data == null || data.getBranchCount() == 0) {
+			return UNKNOWN_COST;
+		}
+		long cost = 0;
+		for (int i = 0; i < data.getBranchCount(); i++) {
+			cost += data.getBranch(i).getLength();
+		}
+		return cost;
+	}
+
+
+	/**
+	 * Queue a simulation to be run in the background.  The returned future produces
+	 * the simulated flight data, or throws the exception that ended the simulation.
+	 * Cancelling the future with interruption cancels the simulation.
+	 *
+	 * @param simulation	the simulation to run.
+	 * @param listeners		additional listeners for the simulation.
+	 * @return				a future for the result of the simulation.
+	 */
+	public Future<FlightData> submit(final Simulation simulation, final SimulationListener... listeners) {
+		FutureTask<FlightData> task = new FutureTask<FlightData>(new Callable<FlightData>() {
+			@Override
+			public FlightData call() throws SimulationException {
+				simulate(simulation, listeners);
+				return simulation.getSimulatedData();
+			}
+		});
+		execute(task, estimateCost(simulation));
+		return task;
+	}
+
+
+	/**
+	 * Queue simulations to be run in the background and wait for all of them to finish.
+	 *
+	 * @param simulations	the simulations to run.
+	 * @throws SimulationException	the exception of the first simulation that failed, after all
+	 * 								simulations have finished.
+	 * @throws InterruptedException	if the calling thread is interrupted while waiting,
+	 * 								in which case the remaining simulations are cancelled.
+	 */
+	public void simulateAll(Collection<Simulation> simulations) throws SimulationException, InterruptedException {
+		List<Future<FlightData>> futures = new ArrayList<Future<FlightData>>();
+		for (Simulation s : simulations) {
+			futures.add(submit(s));
+		}
+
+		SimulationException exception = null;
+		try {
+			for (Future<FlightData> f : futures) {
+				try {
+					f.get();
+				} catch (ExecutionException e) {
+					if (exception == null) {
+						if (e.getCause() instanceof SimulationException) {
+							exception = (SimulationException) e.getCause();
+						} else {
+							exception = new SimulationException(e.getCause());
+						}
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			for (Future<FlightData> f : futures) {
+				f.cancel(true);
+			}
+			purge();
+			throw e;
+		}
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+
+	/**
+	 * Queue a task to be run in the background.  The task is expected to run a
+	 * simulation using {@link #simulate(Simulation, SimulationListener...)}.
+	 *
+	 * @param task	the task to run.
+	 * @param cost	the estimated cost of the task, see {@link #estimateCost(Simulation)}.
+	 */
+	public void execute(Runnable task, long cost) {
+		synchronized (this) {
+			if (pending.getAndIncrement() == 0) {
+				busyStart = System.nanoTime();
+				busyEnd = 0;
+				busySteps = steps.get();
+				busyCompleted = completed.get();
+			}
+		}
+		executor.execute(new ScheduledTask(task, cost, sequence.getAndIncrement()));
+	}
+
+
+	/**
+	 * Run a simulation in the calling thread and include it in the statistics of this
+	 * scheduler.  The simulation is cancelled with a {@link SimulationCancelledException}
+	 * if the thread is interrupted.
+	 *
+	 * @param simulation	the simulation to run.
+	 * @param listeners		additional listeners for the simulation.
+	 * @throws SimulationException	if a problem occurs during simulation.
+	 */
+	public void simulate(Simulation simulation, SimulationListener... listeners) throws SimulationException {
+		if (Thread.currentThread().isInterrupted()) {
+			throw new SimulationCancelledException("The simulation was interrupted.");
+		}
+
+		listeners = Arrays.copyOf(listeners, listeners.length + 1);
+		listeners[listeners.length - 1] = new SchedulerListener();
+
+		simulation.simulate(listeners);
+
+		// The simulation engine ends an interrupted simulation normally with an exception event
+		if (Thread.currentThread().isInterrupted()) {
+			throw new SimulationCancelledException("The simulation was interrupted.");
+		}
+		completed.incrementAndGet();
+	}
+
+
+	/**
+	 * Remove cancelled tasks from the queue.
+	 */
+	public void purge() {
+		Iterator<Runnable> iterator = executor.getQueue().iterator();
+		while (iterator.hasNext()) {
+			ScheduledTask task = (ScheduledTask) iterator.next();
+			if (task.task instanceof Future && ((Future<?>) task.task).isCancelled() &&
+					executor.getQueue().remove(task)) {
+				taskFinished();
+			}
+		}
+	}
+
+
+	/**
+	 * Return the number of tasks waiting to be run.
+	 */
+	public int getQueueDepth() {
+		return executor.getQueue().size();
+	}
+
+	/**
+	 * Return the number of tasks currently running.
+	 */
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	/**
+	 * Return the total number of simulations completed successfully.
+	 */
+	public long getCompletedCount() {
+		return completed.get();
+	}
+
+	/**
+	 * Return the total number of simulation steps taken.
+	 */
+	public long getStepCount() {
+		return steps.get();
+	}
+
+	/**
+	 * Return the number of simulations completed per second during the current or
+	 * previous busy period.
+	 */
+	public synchronized double getSimulationRate() {
+		return rate(completed.get() - busyCompleted);
+	}
+
+	/**
+	 * Return the number of simulation steps taken per second during the current or
+	 * previous busy period.
+	 */
+	public synchronized double getStepRate() {
+		return rate(steps.get() - busySteps);
+	}
+
+	private double rate(long count) {
+		if (busyStart == 0) {
+			return 0;
+		}
+		long end = (busyEnd != 0) ? busyEnd : System.nanoTime();
+		double seconds = (end - busyStart) / 1.0e9;
+		if (seconds <= 0) {
+			return 0;
+		}
+		return count / seconds;
+	}
+
+
+	private void taskFinished() {
+		synchronized (this) {
+			if (pending.decrementAndGet() == 0) {
+				busyEnd = System.nanoTime();
+				log.debug("Scheduler idle, " + (completed.get() - busyCompleted) + " simulations and " +
+						(steps.get() - busySteps) + " steps in " + (busyEnd - busyStart) / 1000000 + " ms");
+			}
+		}
+	}
+
+
+	/**
+	 * A queued task, ordered by cost and submission order.
+	 */
+	private class ScheduledTask implements Runnable, Comparable<ScheduledTask> {
+		private final Runnable task;
+		private final long cost;
+		private final long order;
+
+		public ScheduledTask(Runnable task, long cost, long order) {
+			this.task = task;
+			this.cost = cost;
+			this.order = order;
+		}
+
+		@Override
+		public void run() {
+			try {
+				task.run();
+			} finally {
+				taskFinished();
+			}
+		}
+
+		@Override
+		public int compareTo(ScheduledTask other) {
+			if (cost != other.cost) {
+				return (cost < other.cost) ? -1 : 1;
+			}
+			if (order != other.order) {
+				return (order < other.order) ? -1 : 1;
+			}
+			return 0;
+		}
+	}
+
+
+	/**
+	 * A listener that counts the steps taken and cancels the simulation if the
+	 * thread is interrupted.
+	 */
+	private class SchedulerListener extends AbstractSimulationListener {
+		@Override
+		public void postStep(SimulationStatus status) throws SimulationException {
+			steps.incrementAndGet();
+			if (Thread.currentThread().isInterrupted()) {
+				throw new SimulationCancelledException("The simulation was interrupted.");
+			}
+		}
+	}
+}
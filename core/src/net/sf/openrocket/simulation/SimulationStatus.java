@@ -154,6 +154,8 @@ public class SimulationStatus implements Monitorable {
 	 * Performs a deep copy of the on SimulationStatus object.
 	 * Most included object are deep-cloned, except for the flight data object (which is shallow copied)
 	 * and the WarningSet (which is initialized to a new WarningSet).
+	 * The rocket configuration and motor configuration are copy-on-write clones, so
+	 * their data is duplicated only when either of the statuses modifies it.
 	 * The intention of this constructor is to be used for conversion from one type
 	 * of SimulationStatus to another, or when simulating multiple stages.
 	 * When used for simulating multiple stages, a new FlightDataBranch object
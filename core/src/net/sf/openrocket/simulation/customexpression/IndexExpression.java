@@ -1,7 +1,5 @@
 package net.sf.openrocket.simulation.customexpression;
 
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,9 +9,9 @@ import de.congrace.exp4j.Variable;
 import net.sf.openrocket.document.OpenRocketDocument;
 import net.sf.openrocket.logging.Markers;
 import net.sf.openrocket.simulation.customexpression.CustomExpression;
+import net.sf.openrocket.simulation.FlightDataBranch;
 import net.sf.openrocket.simulation.FlightDataType;
 import net.sf.openrocket.simulation.SimulationStatus;
-import net.sf.openrocket.util.LinearInterpolator;
 
 public class IndexExpression extends CustomExpression {
 
@@ -35,14 +33,12 @@ public class IndexExpression extends CustomExpression {
 			return new Variable("Unknown");
 		}
 		
-		// From the given datatype, get the time and function values and make an interpolator
+		// From the given datatype, interpolate the function values in time
 
 		//Note: must get in a way that flight data system will figure out units. Otherwise there will be a type conflict when we get the new data.
 		FlightDataType myType = FlightDataType.getType(null, getSymbol(), null);  
 				
-		List<Double> data = status.getFlightData().get(myType);
-		List<Double> time = status.getFlightData().get(FlightDataType.TYPE_TIME);
-		LinearInterpolator interp = new LinearInterpolator(time, data); 
+		FlightDataBranch data = status.getFlightData();
 		
 		// Set the variables in the expression to evaluate
 		for (FlightDataType etype : status.getFlightData().getTypes()){
@@ -55,7 +51,7 @@ public class IndexExpression extends CustomExpression {
 		try{
 			double tvalue = calc.calculate().getDoubleValue();
 			//System.out.println("t = "+tvalue);
-			return new Variable(hash(), interp.getValue( tvalue ) );
+			return new Variable(hash(), data.interpolate(myType, tvalue) );
 		}
 		catch (java.util.EmptyStackException e){
 			log.info(Markers.USER_MARKER, "Unable to calculate time index for indexed expression "+getExpressionString()+" due to empty stack exception");
@@ -4,8 +4,6 @@
 
 package net.sf.openrocket.simulation.customexpression;
 
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,10 +13,10 @@ import de.congrace.exp4j.Variable;
 import net.sf.openrocket.document.OpenRocketDocument;
 import net.sf.openrocket.logging.Markers;
 import net.sf.openrocket.simulation.customexpression.CustomExpression;
+import net.sf.openrocket.simulation.FlightDataBranch;
 import net.sf.openrocket.simulation.FlightDataType;
 import net.sf.openrocket.simulation.SimulationStatus;
 import net.sf.openrocket.util.ArrayUtils;
-import net.sf.openrocket.util.LinearInterpolator;
 import net.sf.openrocket.util.MathUtil;
 import net.sf.openrocket.util.StringUtil;
 
@@ -74,14 +72,12 @@ public class RangeExpression extends CustomExpression {
 			endCalc.setVariable( new Variable(type.getSymbol(), value ) );
 		}		
 		
-		// From the given datatype, get the time and function values and make an interpolator
+		// From the given datatype, interpolate the function values in time
 
 		//Note: must get in a way that flight data system will figure out units. Otherwise there will be a type conflict when we get the new data.
 		FlightDataType type = FlightDataType.getType(null, getSymbol(), null);
 		
-		List<Double> data = status.getFlightData().get(type);
-		List<Double> time = status.getFlightData().get(FlightDataType.TYPE_TIME);
-		LinearInterpolator interp = new LinearInterpolator(time, data); 
+		FlightDataBranch data = status.getFlightData();
 		
 		// Evaluate the expression to get the start and end of the range
 		double startTime, endTime;
@@ -90,7 +86,7 @@ public class RangeExpression extends CustomExpression {
 			startTime = MathUtil.clamp(startTime, 0, Double.MAX_VALUE);
 			
 			endTime = endCalc.calculate().getDoubleValue();
-			endTime = MathUtil.clamp(endTime, 0, time.get(time.size()-1));
+			endTime = MathUtil.clamp(endTime, 0, data.getLast(FlightDataType.TYPE_TIME));
 		}
 		catch (java.util.EmptyStackException e){
 			log.info(Markers.USER_MARKER, "Unable to calculate time index for range expression "+getSymbol()+" due to empty stack exception");
@@ -103,7 +99,7 @@ public class RangeExpression extends CustomExpression {
 		double[] y = new double[t.length]; 
 		int i = 0;
 		for (double tval : t){
-			y[i] = interp.getValue( tval );
+			y[i] = data.interpolate(type, tval);
 			i++;
 		}
 				
@@ -1,6 +1,5 @@
 package net.sf.openrocket.simulation.listeners.example;
 
-import java.util.List;
 import java.util.Map;
 
 import net.sf.openrocket.aerodynamics.AerodynamicCalculator;
@@ -40,26 +39,18 @@ public class DampingMoment extends AbstractSimulationListener {
 		// dm/dt = (thrust - ma)/v
 		FlightDataBranch data = status.getFlightData();
 		
-		List<Double> mpAll = data.get(FlightDataType.TYPE_PROPELLANT_MASS);
-		List<Double> time = data.get(FlightDataType.TYPE_TIME);
-		if (mpAll == null || time == null) {
+		if (Double.isNaN(data.getLast(FlightDataType.TYPE_PROPELLANT_MASS)) ||
+				Double.isNaN(data.getLast(FlightDataType.TYPE_TIME))) {
 			return Double.NaN;
 		}
 		
-		int len = mpAll.size();
-		
 		// This isn't as accurate as I would like
 		double mdot = Double.NaN;
-		if (len > 2) {
-			// Using polynomial interpolator for derivative. Doesn't help much
-			//double[] x = { time.get(len-5), time.get(len-4), time.get(len-3), time.get(len-2), time.get(len-1) };
-			//double[] y = { mpAll.get(len-5), mpAll.get(len-4), mpAll.get(len-3), mpAll.get(len-2), mpAll.get(len-1) };
-			//PolyInterpolator interp = new PolyInterpolator(x);
-			//double[] coeff = interp.interpolator(y);
-			//double dt = .01;
-			//mdot = (interp.eval(x[4], coeff) - interp.eval(x[4]-dt, coeff))/dt; 
+		if (data.getLength() > 2) {
+			// Using a least-squares fit over more points for derivative. Doesn't help much
+			//mdot = data.window(5).derivative(FlightDataType.TYPE_PROPELLANT_MASS);
 			
-			mdot = (mpAll.get(len - 1) - mpAll.get(len - 2)) / (time.get(len - 1) - time.get(len - 2));
+			mdot = data.window(2).derivative(FlightDataType.TYPE_PROPELLANT_MASS);
 		}
 		
 		double cg = data.getLast(FlightDataType.TYPE_CG_LOCATION);
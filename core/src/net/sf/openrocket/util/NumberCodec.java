@@ -0,0 +1,502 @@
+package net.sf.openrocket.util;
+
+/**
+ * Locale-independent parsing and formatting of double values, shared by the file
+ * loaders and savers.
+ * <p>
+ * The parsing methods accept the same syntax as {@link Double#parseDouble(String)} and
+ * return identical values.  Decimal numbers with at most 15 significant digits and a
+ * moderate exponent are converted directly from the characters, without creating any
+ * objects.  Other input is passed to <code>Double.parseDouble</code>.
+ * <p>
+ * The formatting methods write into a caller-supplied character buffer.
+ * {@link #formatDouble(double, char[], int)} writes the shortest decimal that parses
+ * back to the same value, and {@link #formatCompact(double, char[], int)} writes the
+ * limited precision representation used for simulation data.
+ */
+public final class NumberCodec {
+
+	/**
+	 * The minimum number of characters required in the buffer passed to the
+	 * formatting methods.
+	 */
+	public static final int MAX_CHARS = 48;
+
+	/** Exactly representable powers of ten. */
+	private static final double[] POW10 = new double[23];
+	static {
+		POW10[0] = 1;
+		for (int i = 1; i < POW10.length; i++) {
+			POW10[i] = POW10[i - 1] * 10;
+		}
+	}
+
+	/** Largest integer below which all integers are exactly representable as doubles. */
+	private static final long EXACT_LIMIT = 1L << 53;
+
+	private static final ThreadLocal<char[]> SCRATCH = new ThreadLocal<char[]>() {
+		@Override
+		protected char[] initialValue() {
+			return new char[64];
+		}
+	};
+
+
+	private NumberCodec() {
+		// Prevent instantiation
+	}
+
+
+	////////  Parsing  ////////
+
+	/**
+	 * Parse a double value from a character sequence.
+	 *
+	 * @param str	the characters to parse.
+	 * @return		the parsed value.
+	 * @throws NumberFormatException	if the characters are not a valid number.
+	 * @see Double#parseDouble(String)
+	 */
+	public static double parseDouble(CharSequence str) {
+		return parseDouble(str, 0, str.length());
+	}
+
+	/**
+	 * Parse a double value from a range of a character sequence.
+	 *
+	 * @param str	the characters to parse.
+	 * @param start	the start of the range, inclusive.
+	 * @param end	the end of the range, exclusive.
+	 * @return		the parsed value.
+	 * @throws NumberFormatException	if the characters are not a valid number.
+	 * @see Double#parseDouble(String)
+	 */
+	public static double parseDouble(CharSequence str, int start, int end) {
+		if (start < 0 || end > str.length() || start > end) {
+			throw new IndexOutOfBoundsException("start=" + start + " end=" + end + " length=" + str.length());
+		}
+		char[] chars = SCRATCH.get();
+		int length = end - start;
+		if (length > chars.length) {
+			chars = new char[Math.max(length, 2 * chars.length)];
+			SCRATCH.set(chars);
+		}
+		if (str instanceof String) {
+			((String) str).getChars(start, end, chars, 0);
+		} else {
+			for (int i = 0; i < length; i++) {
+				chars[i] = str.charAt(start + i);
+			}
+		}
+		return parseDouble(chars, 0, length);
+	}
+
+	/**
+	 * Parse a double value from a range of a character array.
+	 *
+	 * @param chars	the characters to parse.
+	 * @param start	the start of the range, inclusive.
+	 * @param end	the end of the range, exclusive.
+	 * @return		the parsed value.
+	 * @throws NumberFormatException	if the characters are not a valid number.
+	 * @see Double#parseDouble(String)
+	 */
+	public static double parseDouble(char[] chars, int start, int end) {
+		final int from = start;
+		final int to = end;
+
+		// Whitespace is trimmed as by Double.parseDouble
+		while (start < end && chars[start] <= ' ') {
+			start++;
+		}
+		while (end > start && chars[end - 1] <= ' ') {
+			end--;
+		}
+
+		int pos = start;
+		boolean negative = false;
+		if (pos < end && (chars[pos] == '-' || chars[pos] == '+')) {
+			negative = (chars[pos] == '-');
+			pos++;
+		}
+
+		// Significant digits, ignoring leading zeros
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean anyDigits = false;
+		boolean truncated = false;
+
+		while (pos < end && chars[pos] >= '0' && chars[pos] <= '9') {
+			int d = chars[pos++] - '0';
+			anyDigits = true;
+			if (digits < 18) {
+				if (mantissa != 0 || d != 0) {
+					mantissa = mantissa * 10 + d;
+					digits++;
+				}
+			} else {
+				exponent++;
+				truncated |= (d != 0);
+			}
+		}
+		if (pos < end && chars[pos] == '.') {
+			pos++;
+			while (pos < end && chars[pos] >= '0' && chars[pos] <= '9') {
+				int d = chars[pos++] - '0';
+				anyDigits = true;
+				if (digits < 18) {
+					if (mantissa != 0 || d != 0) {
+						mantissa = mantissa * 10 + d;
+						digits++;
+					}
+					exponent--;
+				} else {
+					truncated |= (d != 0);
+				}
+			}
+		}
+		if (!anyDigits) {
+			return fallback(chars, from, to);
+		}
+
+		if (pos < end && (chars[pos] == 'e' || chars[pos] == 'E')) {
+			pos++;
+			boolean negativeExponent = false;
+			if (pos < end && (chars[pos] == '-' || chars[pos] == '+')) {
+				negativeExponent = (chars[pos] == '-');
+				pos++;
+			}
+			if (pos == end) {
+				return fallback(chars, from, to);
+			}
+			int exp = 0;
+			while (pos < end && chars[pos] >= '0' && chars[pos] <= '9') {
+				if (exp < 100000) {
+					exp = exp * 10 + (chars[pos] - '0');
+				}
+				pos++;
+			}
+			exponent += negativeExponent ? -exp : exp;
+		}
+
+		// Anything else, such as type suffixes, is handled by Double.parseDouble
+		if (pos != end) {
+			return fallback(chars, from, to);
+		}
+
+		if (mantissa == 0) {
+			return negative ? -0.0 : 0.0;
+		}
+		if (truncated || mantissa >= EXACT_LIMIT) {
+			return fallback(chars, from, to);
+		}
+
+		// Both the mantissa and the power of ten are exact, so a single operation rounds correctly
+		double value;
+		if (exponent == 0) {
+			value = mantissa;
+		} else if (exponent > 0 && exponent < POW10.length) {
+			value = mantissa * POW10[exponent];
+		} else if (exponent < 0 && -exponent < POW10.length) {
+			value = mantissa / POW10[-exponent];
+		} else if (exponent > 0 && exponent < POW10.length + 15 &&
+				mantissa * POW10[exponent - POW10.length + 1] < EXACT_LIMIT) {
+			value = (mantissa * POW10[exponent - POW10.length + 1]) * POW10[POW10.length - 1];
+		} else {
+			return fallback(chars, from, to);
+		}
+		return negative ? -value : value;
+	}
+
+	private static double fallback(char[] chars, int start, int end) {
+		return Double.parseDouble(new String(chars, start, end - start));
+	}
+
+
+	////////  Shortest round-trip formatting  ////////
+
+	/**
+	 * Write the shortest decimal representation of a double value that parses back to
+	 * the same value.  The notation is that of {@link Double#toString(double)}, for
+	 * example "1.0", "0.025" and "1.0E-5".  The digits are equal to those of
+	 * <code>Double.toString</code> except where it does not produce the shortest
+	 * representation.  Values requiring more than 15 significant digits and values of very
+	 * large or small magnitude are formatted using <code>Double.toString</code>.
+	 *
+	 * @param d			the value to format.
+	 * @param buffer	the buffer to write to, having at least {@link #MAX_CHARS}
+	 * 					characters available from the offset.
+	 * @param offset	the position to start writing at.
+	 * @return			the position following the last character written.
+	 */
+	public static int formatDouble(double d, char[] buffer, int offset) {
+		if (Double.isNaN(d) || Double.isInfinite(d)) {
+			return append(Double.toString(d), buffer, offset);
+		}
+		if (d == 0) {
+			return append((1 / d < 0) ? "-0.0" : "0.0", buffer, offset);
+		}
+
+		double abs = Math.abs(d);
+
+		// Round to 15 significant digits.  If a shorter representation exists, it is
+		// the nearest 15-digit value with trailing zeros, since the value is within
+		// half an ulp of it.  The power of ten and the rounded digits are exact.
+		// The decimal exponent estimated from the binary exponent is low by at most one.
+		int scale = 14 - ((Math.getExponent(abs) * 78913) >> 18);
+		double scaled = scale(abs, scale);
+		if (scaled >= 1e15) {
+			scaled = scale(abs, --scale);
+		} else if (scaled < 1e14) {
+			scaled = scale(abs, ++scale);
+		}
+		if (!(scaled < EXACT_LIMIT)) {
+			return append(Double.toString(d), buffer, offset);
+		}
+		long found = Math.round(scaled);
+		double back = (scale >= 0) ? found / POW10[scale] : found * POW10[-scale];
+		if (back != abs) {
+			// Requires 16 or 17 digits
+			return append(Double.toString(d), buffer, offset);
+		}
+		int foundScale = scale;
+
+		// Remove trailing zeros from the digits
+		while (found % 10 == 0) {
+			found /= 10;
+			foundScale--;
+		}
+
+		if (d < 0) {
+			buffer[offset++] = '-';
+		}
+
+		// Write the digits to the end of the buffer temporarily
+		int digitsEnd = offset + MAX_CHARS - 1;
+		int digitsStart = digitsEnd;
+		for (long m = found; m != 0; m /= 10) {
+			buffer[--digitsStart] = (char) ('0' + (m % 10));
+		}
+		int count = digitsEnd - digitsStart;
+		int pointExponent = count - 1 - foundScale;
+
+		if (abs >= 1e-3 && abs < 1e7) {
+			if (pointExponent >= 0) {
+				// Integer part, padded with zeros, and fraction
+				for (int i = 0; i <= pointExponent; i++) {
+					buffer[offset++] = (i < count) ? buffer[digitsStart + i] : '0';
+				}
+				buffer[offset++] = '.';
+				if (count > pointExponent + 1) {
+					for (int i = pointExponent + 1; i < count; i++) {
+						buffer[offset++] = buffer[digitsStart + i];
+					}
+				} else {
+					buffer[offset++] = '0';
+				}
+			} else {
+				buffer[offset++] = '0';
+				buffer[offset++] = '.';
+				for (int i = -1; i > pointExponent; i--) {
+					buffer[offset++] = '0';
+				}
+				for (int i = 0; i < count; i++) {
+					buffer[offset++] = buffer[digitsStart + i];
+				}
+			}
+		} else {
+			buffer[offset++] = buffer[digitsStart];
+			buffer[offset++] = '.';
+			if (count > 1) {
+				for (int i = 1; i < count; i++) {
+					buffer[offset++] = buffer[digitsStart + i];
+				}
+			} else {
+				buffer[offset++] = '0';
+			}
+			buffer[offset++] = 'E';
+			offset = appendInt(pointExponent, buffer, offset);
+		}
+		return offset;
+	}
+
+	/**
+	 * Return the value multiplied by 10^scale, or NaN if the power of ten is not exact.
+	 */
+	private static double scale(double abs, int scale) {
+		if (scale >= POW10.length || -scale >= POW10.length) {
+			return Double.NaN;
+		}
+		return (scale >= 0) ? abs * POW10[scale] : abs / POW10[-scale];
+	}
+
+
+	////////  Compact formatting  ////////
+
+	/**
+	 * Write a compact representation of a double value with suitable precision for
+	 * storage.  This is the shortest representation of the value including at least
+	 * 5 digits of precision.  NaN and infinities are written as "NaN", "Inf" and "-Inf".
+	 *
+	 * @param d			the value to format.
+	 * @param buffer	the buffer to write to, having at least {@link #MAX_CHARS}
+	 * 					characters available from the offset.
+	 * @param offset	the position to start writing at.
+	 * @return			the position following the last character written.
+	 */
+	public static int formatCompact(double d, char[] buffer, int offset) {
+
+		// Check for special cases
+		if (MathUtil.equals(d, 0)) {
+			buffer[offset++] = '0';
+			return offset;
+		}
+
+		if (Double.isNaN(d))
+			return append("NaN", buffer, offset);
+
+		if (Double.isInfinite(d)) {
+			if (d < 0)
+				return append("-Inf", buffer, offset);
+			else
+				return append("Inf", buffer, offset);
+		}
+
+
+		if (d < 0) {
+			buffer[offset++] = '-';
+		}
+		double abs = Math.abs(d);
+
+		// Small and large values always in exponential notation
+		if (abs < 0.001 || abs >= 100000000) {
+			return exponentialFormat(abs, buffer, offset);
+		}
+
+		// Check whether decimal or exponential notation is shorter
+
+		int decEnd = decimalFormat(abs, buffer, offset);
+		int expEnd = exponentialFormat(abs, buffer, decEnd);
+
+		if (decEnd - offset <= expEnd - decEnd)
+			return decEnd;
+
+		System.arraycopy(buffer, decEnd, buffer, offset, expEnd - decEnd);
+		return offset + expEnd - decEnd;
+	}
+
+
+	/*
+	 * value must be positive and not zero!
+	 */
+	private static int exponentialFormat(double value, char[] buffer, int offset) {
+		int exp;
+
+		exp = 0;
+		while (value < 1.0) {
+			value *= 10;
+			exp--;
+		}
+		while (value >= 10.0) {
+			value /= 10;
+			exp++;
+		}
+
+		offset = shortDecimal(value, 4, buffer, offset);
+		buffer[offset++] = 'e';
+		return appendInt(exp, buffer, offset);
+	}
+
+
+	/*
+	 * value must be positive and not zero!
+	 */
+	private static int decimalFormat(double value, char[] buffer, int offset) {
+		if (value >= 10000)
+			return appendInt((int) (value + 0.5), buffer, offset);
+
+		int decimals = 1;
+		double v = value;
+		while (v < 1000) {
+			v *= 10;
+			decimals++;
+		}
+
+		return shortDecimal(value, decimals, buffer, offset);
+	}
+
+
+	/*
+	 * value must be positive!
+	 */
+	private static int shortDecimal(double value, int decimals, char[] buffer, int offset) {
+
+		// Calculate rounding and limit values (rounding slightly smaller)
+		int rounding = 1;
+		double limit = 0.5;
+		for (int i = 0; i < decimals; i++) {
+			rounding *= 10;
+			limit /= 10;
+		}
+
+		// Round value
+		value = (Math.rint(value * rounding) + 0.1) / rounding;
+
+
+		int whole = (int) value;
+		value -= whole;
+
+
+		offset = appendInt(whole, buffer, offset);
+		if (value < limit)
+			return offset;
+		limit *= 10;
+
+		buffer[offset++] = '.';
+
+
+		for (int i = 0; i < decimals; i++) {
+
+			value *= 10;
+			whole = (int) value;
+			value -= whole;
+			buffer[offset++] = (char) ('0' + whole);
+
+			if (value < limit)
+				return offset;
+			limit *= 10;
+
+		}
+
+		return offset;
+	}
+
+
+	private static int appendInt(int value, char[] buffer, int offset) {
+		if (value < 0) {
+			buffer[offset++] = '-';
+			value = -value;
+		}
+		int end = offset;
+		int v = value;
+		do {
+			end++;
+			v /= 10;
+		} while (v != 0);
+
+		int pos = end;
+		do {
+			buffer[--pos] = (char) ('0' + value % 10);
+			value /= 10;
+		} while (value != 0);
+		return end;
+	}
+
+
+	private static int append(String s, char[] buffer, int offset) {
+		s.getChars(0, s.length(), buffer, offset);
+		return offset + s.length();
+	}
+
+}
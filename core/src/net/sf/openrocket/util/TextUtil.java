@@ -41,6 +41,12 @@ public class TextUtil {
 		return sb.toString();
 	}
 	
+	/**
+	 * The minimum number of characters required in the buffer passed to
+	 * {@link #doubleToChars(double, char[], int)}.
+	 */
+	public static final int DOUBLE_CHARS = NumberCodec.MAX_CHARS;
+	
 	/**
 	 * Return a string of the double value with suitable precision for storage.
 	 * The string is the shortest representation of the value including at least
@@ -50,128 +56,28 @@ public class TextUtil {
 	 * @return		a representation with suitable precision.
 	 */
 	public static final String doubleToString(double d) {
-		
-		// Check for special cases
-		if (MathUtil.equals(d, 0))
-			return "0";
-		
-		if (Double.isNaN(d))
-			return "NaN";
-		
-		if (Double.isInfinite(d)) {
-			if (d < 0)
-				return "-Inf";
-			else
-				return "Inf";
-		}
-		
-		
-		final String sign = (d < 0) ? "-" : "";
-		double abs = Math.abs(d);
-		
-		// Small and large values always in exponential notation
-		if (abs < 0.001 || abs >= 100000000) {
-			return sign + exponentialFormat(abs);
-		}
-		
-		// Check whether decimal or exponential notation is shorter
-		
-		String exp = exponentialFormat(abs);
-		String dec = decimalFormat(abs);
-		
-		if (dec.length() <= exp.length())
-			return sign + dec;
-		else
-			return sign + exp;
+		char[] buffer = new char[DOUBLE_CHARS];
+		int length = doubleToChars(d, buffer, 0);
+		return new String(buffer, 0, length);
 	}
 	
-	
-	/*
-	 * value must be positive and not zero!
+	/**
+	 * Write the representation of a double value returned by {@link #doubleToString(double)}
+	 * into a character buffer.  This method does not allocate any objects, which makes it
+	 * suitable for writing large amounts of data.
+	 * 
+	 * @param d			the value to present.
+	 * @param buffer	the buffer to write to.
+	 * @param offset	the position to start writing at.  The buffer must have at least
+	 * 					{@link #DOUBLE_CHARS} characters available from this position.
+	 * @return			the position following the last character written.
+	 * @see NumberCodec#formatCompact(double, char[], int)
 	 */
-	private static String exponentialFormat(double value) {
-		int exp;
-		
-		exp = 0;
-		while (value < 1.0) {
-			value *= 10;
-			exp--;
-		}
-		while (value >= 10.0) {
-			value /= 10;
-			exp++;
-		}
-		
-		return shortDecimal(value, 4) + "e" + exp;
+	public static int doubleToChars(double d, char[] buffer, int offset) {
+		return NumberCodec.formatCompact(d, buffer, offset);
 	}
 	
 	
-	/*
-	 * value must be positive and not zero!
-	 */
-	private static String decimalFormat(double value) {
-		if (value >= 10000)
-			return "" + (int) (value + 0.5);
-		
-		int decimals = 1;
-		double v = value;
-		while (v < 1000) {
-			v *= 10;
-			decimals++;
-		}
-		
-		return shortDecimal(value, decimals);
-	}
-	
-	
-	
-	
-	/*
-	 * value must be positive!
-	 */
-	private static String shortDecimal(double value, int decimals) {
-		
-		// Calculate rounding and limit values (rounding slightly smaller)
-		int rounding = 1;
-		double limit = 0.5;
-		for (int i = 0; i < decimals; i++) {
-			rounding *= 10;
-			limit /= 10;
-		}
-		
-		// Round value
-		value = (Math.rint(value * rounding) + 0.1) / rounding;
-		
-		
-		int whole = (int) value;
-		value -= whole;
-		
-		
-		if (value < limit)
-			return "" + whole;
-		limit *= 10;
-		
-		StringBuilder sb = new StringBuilder();
-		sb.append("" + whole);
-		sb.append('.');
-		
-		
-		for (int i = 0; i < decimals; i++) {
-			
-			value *= 10;
-			whole = (int) value;
-			value -= whole;
-			sb.append((char) ('0' + whole));
-			
-			if (value < limit)
-				return sb.toString();
-			limit *= 10;
-			
-		}
-		
-		return sb.toString();
-	}
-	
 	/**
 	 * Escape a string as XML or HTML.  Encodes the following characters:
 	 * <ul>
@@ -6,6 +6,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
+import net.sf.openrocket.database.motor.ThrustCurveIndex;
 import net.sf.openrocket.file.motor.GeneralMotorLoader;
 import net.sf.openrocket.file.motor.MotorLoader;
 import net.sf.openrocket.models.atmosphere.AtmosphericConditions;
@@ -66,6 +67,9 @@ public class MotorCorrelation {
 		
 		AtmosphericConditions cond = new AtmosphericConditions();
 		
+		// The thrust is zero after the end of both thrust curves
+		double end = Math.max(getEndTime(motor1), getEndTime(motor2));
+		
 		double t;
 		double auto1 = 0;
 		double auto2 = 0;
@@ -84,6 +88,10 @@ public class MotorCorrelation {
 			auto1 += t1 * t1;
 			auto2 += t2 * t2;
 			cross += t1 * t2;
+			
+			if (t > end) {
+				break;
+			}
 		}
 		
 		double auto = Math.max(auto1, auto2);
@@ -98,6 +106,15 @@ public class MotorCorrelation {
 	
 	
 	
+	private static double getEndTime(Motor motor) {
+		if (motor instanceof ThrustCurveMotor) {
+			double[] time = ((ThrustCurveMotor) motor).getTimePoints();
+			return time[time.length - 1];
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+	
+	
 	public static void main(String[] args) {
 		
 		MotorLoader loader = new GeneralMotorLoader();
@@ -128,12 +145,26 @@ public class MotorCorrelation {
 			System.out.println(files.get(i) + ": " + ((ThrustCurveMotor) motors.get(i)).getDigest());
 		}
 		
-		// Cross-correlate every pair
+		// Find the most similar motors of each motor using the thrust curve index
+		List<ThrustCurveMotor> list = new ArrayList<ThrustCurveMotor>();
+		for (Motor m : motors) {
+			list.add((ThrustCurveMotor) m);
+		}
+		ThrustCurveIndex index = new ThrustCurveIndex(list);
 		for (int i = 0; i < count; i++) {
-			for (int j = i + 1; j < count; j++) {
-				System.out.println(files.get(i) + " " + files.get(j) + " : " +
-						crossCorrelation(motors.get(i), motors.get(j)));
+			for (ThrustCurveMotor m : index.findSimilar(list.get(i), 5, 0)) {
+				System.out.println(files.get(i) + " " + files.get(list.indexOf(m)) + " : " +
+						crossCorrelation(list.get(i), m));
+			}
+		}
+		
+		// Output groups of nearly identical thrust curves
+		for (List<ThrustCurveMotor> group : index.findDuplicates(0.95, Runtime.getRuntime().availableProcessors())) {
+			StringBuilder sb = new StringBuilder("Duplicates:");
+			for (ThrustCurveMotor m : group) {
+				sb.append(' ').append(files.get(list.indexOf(m)));
 			}
+			System.out.println(sb);
 		}
 		
 	}
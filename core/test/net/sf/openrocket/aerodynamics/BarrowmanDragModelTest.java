@@ -0,0 +1,112 @@
+package net.sf.openrocket.aerodynamics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.sf.openrocket.aerodynamics.barrowman.RocketComponentCalc;
+import net.sf.openrocket.rocketcomponent.Configuration;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.Reflection;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class BarrowmanDragModelTest extends BaseTestCase {
+
+	private static final double[] MACH = { 0.05, 0.5, 0.95, 1.05, 2.5 };
+
+	@Test
+	public void testComponentSums() {
+		for (Rocket rocket : new Rocket[] { TestRockets.makeBigBlue(), TestRockets.makeIsoHaisu(),
+				new TestRockets("drag").makeTestRocket() }) {
+			for (boolean perfect : new boolean[] { false, true }) {
+				rocket.setPerfectFinish(perfect);
+				Configuration config = rocket.getDefaultConfiguration();
+				BarrowmanDragModel model = new BarrowmanDragModel(config, buildCalcMap(rocket));
+				FlightConditions conditions = new FlightConditions(config);
+
+				for (double mach : MACH) {
+					conditions.setMach(mach);
+					Map<RocketComponent, AerodynamicForces> map = createMap(config);
+					double friction = model.calculateFrictionCD(conditions, map);
+					double stagnation = model.calculateStagnationCD(conditions, 0.9, map);
+					double base = model.calculateBaseCD(conditions, 0.2, map);
+
+					double frictionSum = 0, stagnationSum = 0, baseSum = 0;
+					for (AerodynamicForces f : map.values()) {
+						frictionSum += f.getFrictionCD();
+						stagnationSum += f.getPressureCD();
+						baseSum += f.getBaseCD();
+					}
+					assertEquals(friction, frictionSum, 1e-12 * friction);
+					assertEquals(stagnation, stagnationSum, 1e-12 * Math.max(stagnation, 1e-6));
+					assertEquals(base, baseSum, 1e-12 * base);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBaseAndStagnationAreas() {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		Configuration config = rocket.getDefaultConfiguration();
+		BarrowmanDragModel model = new BarrowmanDragModel(config, buildCalcMap(rocket));
+		FlightConditions conditions = new FlightConditions(config);
+
+		// Nose cone and body tube of equal radii, the whole reference area is base area
+		assertEquals(0, model.calculateStagnationCD(conditions, 1, null), 0);
+		assertEquals(0.5, model.calculateBaseCD(conditions, 0.5, null), 1e-12);
+	}
+
+	@Test
+	public void testConfigurationChange() {
+		Rocket rocket = new TestRockets("stages").makeTestRocket();
+		Configuration config = rocket.getDefaultConfiguration();
+		BarrowmanCalculator calculator = new BarrowmanCalculator();
+		FlightConditions conditions = new FlightConditions(config);
+		conditions.setMach(0.4);
+
+		for (int stage = rocket.getStageCount() - 1; stage >= 0; stage--) {
+			config.setToStage(stage);
+			double cd = calculator.getAerodynamicForces(config, conditions, null).getCD();
+			assertEquals(new BarrowmanCalculator().getAerodynamicForces(config, conditions, null).getCD(), cd, 0);
+		}
+
+		rocket.setPerfectFinish(!rocket.isPerfectFinish());
+		double cd = calculator.getAerodynamicForces(config, conditions, null).getCD();
+		assertEquals(new BarrowmanCalculator().getAerodynamicForces(config, conditions, null).getCD(), cd, 0);
+	}
+
+
+	private static Map<RocketComponent, RocketComponentCalc> buildCalcMap(Rocket rocket) {
+		Map<RocketComponent, RocketComponentCalc> calcMap = new HashMap<RocketComponent, RocketComponentCalc>();
+		Iterator<RocketComponent> iterator = rocket.iterator();
+		while (iterator.hasNext()) {
+			RocketComponent c = iterator.next();
+			if (c.isAerodynamic()) {
+				calcMap.put(c, (RocketComponentCalc) Reflection.construct("net.sf.openrocket.aerodynamics.barrowman",
+						c, "Calc", c));
+			}
+		}
+		return calcMap;
+	}
+
+	private static Map<RocketComponent, AerodynamicForces> createMap(Configuration config) {
+		Map<RocketComponent, AerodynamicForces> map = new LinkedHashMap<RocketComponent, AerodynamicForces>();
+		for (RocketComponent c : config) {
+			AerodynamicForces f = new AerodynamicForces();
+			f.setComponent(c);
+			f.setFrictionCD(0);
+			f.setPressureCD(0);
+			f.setBaseCD(0);
+			map.put(c, f);
+		}
+		return map;
+	}
+}
@@ -0,0 +1,81 @@
+package net.sf.openrocket.aerodynamics.barrowman;
+
+import java.util.List;
+
+import net.sf.openrocket.aerodynamics.FlightConditions;
+import net.sf.openrocket.rocketcomponent.FinSet;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+
+/**
+ * Compares the roll damping computation using the precomputed strip tables with
+ * the strip loops of the original implementation.  Both are evaluated on the same
+ * grid of flight conditions, and the benchmark fails if the results differ.
+ * <p>
+ * Run as a Java application from the core test class path.
+ */
+public class FinSetCalcBenchmark {
+
+	private static final int ROUNDS = 5;
+	private static final int REPEATS = 200;
+
+	public static void main(String[] args) throws Exception {
+		BaseTestCase.setUp();
+
+		List<FinSet> finSets = FinSetCalcTest.createFinSets();
+		FinSetCalc[] calcs = new FinSetCalc[finSets.size()];
+		for (int i = 0; i < calcs.length; i++) {
+			calcs[i] = new FinSetCalc(finSets.get(i));
+		}
+
+		FlightConditions[] conditions = new FlightConditions[200];
+		for (int i = 0; i < conditions.length; i++) {
+			conditions[i] = new FlightConditions(null);
+			conditions[i].setMach(0.02 + 3.0 * i / conditions.length);
+			conditions[i].setRollRate(((i * 37) % 41 - 20) * 3.0);
+		}
+
+		// Check the outputs before timing
+		int evaluations = 0;
+		double maxError = 0;
+		for (int i = 0; i < calcs.length; i++) {
+			for (FlightConditions cond : conditions) {
+				double expected = FinSetCalcTest.referenceDampingMoment(calcs[i], finSets.get(i), cond);
+				double actual = calcs[i].calculateDampingMoment(cond);
+				double error = Math.abs(actual - expected) / Math.max(Math.abs(expected), 1e-6);
+				maxError = Math.max(maxError, error);
+				evaluations++;
+			}
+		}
+		System.out.printf("%d fin sets, %d evaluations per pass, max relative difference %.3g%n",
+				calcs.length, evaluations, maxError);
+		if (maxError > 1e-12) {
+			throw new IllegalStateException("Outputs differ, max relative difference " + maxError);
+		}
+
+		for (int round = 0; round < ROUNDS; round++) {
+			long t0 = System.nanoTime();
+			double reference = 0;
+			for (int n = 0; n < REPEATS; n++) {
+				for (int i = 0; i < calcs.length; i++) {
+					for (FlightConditions cond : conditions) {
+						reference += FinSetCalcTest.referenceDampingMoment(calcs[i], finSets.get(i), cond);
+					}
+				}
+			}
+			long t1 = System.nanoTime();
+			double tables = 0;
+			for (int n = 0; n < REPEATS; n++) {
+				for (int i = 0; i < calcs.length; i++) {
+					for (FlightConditions cond : conditions) {
+						tables += calcs[i].calculateDampingMoment(cond);
+					}
+				}
+			}
+			long t2 = System.nanoTime();
+
+			double count = REPEATS * evaluations;
+			System.out.printf("Round %d:  strip loops %.1f ns/call, strip tables %.1f ns/call  (checksums %.6g / %.6g)%n",
+					round + 1, (t1 - t0) / count, (t2 - t1) / count, reference, tables);
+		}
+	}
+}
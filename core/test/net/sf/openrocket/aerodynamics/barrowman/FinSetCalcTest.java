@@ -0,0 +1,162 @@
+package net.sf.openrocket.aerodynamics.barrowman;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import net.sf.openrocket.aerodynamics.AerodynamicForces;
+import net.sf.openrocket.aerodynamics.FlightConditions;
+import net.sf.openrocket.aerodynamics.WarningSet;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.FinSet;
+import net.sf.openrocket.rocketcomponent.FreeformFinSet;
+import net.sf.openrocket.rocketcomponent.IllegalFinPointException;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.MathUtil;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class FinSetCalcTest extends BaseTestCase {
+
+	private static final double[] MACH = { 0.05, 0.3, 0.85, 0.9, 0.95, 1.2, 1.49, 1.5, 2.0, 3.5 };
+	private static final double[] ROLL_RATE = { 0, 0.05, -0.5, 2, -10, 40, 150, -600 };
+
+	@Test
+	public void testDampingMomentMatchesStripSums() throws Exception {
+		for (FinSet fins : createFinSets()) {
+			FinSetCalc calc = new FinSetCalc(fins);
+			FlightConditions conditions = new FlightConditions(null);
+
+			for (double mach : MACH) {
+				for (double rate : ROLL_RATE) {
+					conditions.setMach(mach);
+					conditions.setRollRate(rate);
+					double expected = referenceDampingMoment(calc, fins, conditions);
+					double actual = calc.calculateDampingMoment(conditions);
+					assertEquals(fins.getName() + " mach=" + mach + " rate=" + rate,
+							expected, actual, 1e-12 * Math.max(Math.abs(expected), 1e-6));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRollForces() throws Exception {
+		for (FinSet fins : createFinSets()) {
+			fins.setCantAngle(0.05);
+			FinSetCalc calc = new FinSetCalc(fins);
+			FlightConditions conditions = new FlightConditions(null);
+			conditions.setMach(0.5);
+			conditions.setRollRate(20);
+
+			AerodynamicForces forces = new AerodynamicForces();
+			calc.calculateNonaxialForces(conditions, forces, new WarningSet());
+			assertEquals(referenceDampingMoment(calc, fins, conditions), forces.getCrollDamp(),
+					1e-12 * Math.abs(forces.getCrollDamp()));
+			assertEquals(forces.getCrollForce() - forces.getCrollDamp(), forces.getCroll(), 0);
+		}
+	}
+
+
+	static List<FinSet> createFinSets() throws IllegalFinPointException {
+		List<FinSet> list = new ArrayList<FinSet>();
+		for (Rocket rocket : new Rocket[] { TestRockets.makeBigBlue(), TestRockets.makeIsoHaisu() }) {
+			Iterator<RocketComponent> iterator = rocket.iterator();
+			while (iterator.hasNext()) {
+				RocketComponent c = iterator.next();
+				if (c instanceof FinSet) {
+					list.add((FinSet) c);
+				}
+			}
+		}
+
+		// Swept freeform fin with a notch
+		FreeformFinSet fins = new FreeformFinSet();
+		fins.setName("Notched");
+		fins.setFinCount(3);
+		fins.setPoints(new Coordinate[] {
+				new Coordinate(0, 0),
+				new Coordinate(0.06, 0.04),
+				new Coordinate(0.09, 0.04),
+				new Coordinate(0.07, 0.02),
+				new Coordinate(0.1, 0.01),
+				new Coordinate(0.12, 0)
+		});
+		BodyTube tube = new BodyTube(0.3, 0.02, 0.001);
+		tube.addChild(fins);
+		list.add(fins);
+		return list;
+	}
+
+
+	/**
+	 * The roll damping moment computed by summing over the chord strips at every call,
+	 * as done before the strip tables were introduced.
+	 */
+	static double referenceDampingMoment(FinSetCalc calc, FinSet fins, FlightConditions conditions) {
+		final double subsonicLimit = 0.9;
+		final double supersonicLimit = 1.5;
+		final int divisions = FinSetCalc.DIVISIONS;
+		double bodyRadius = fins.getBodyRadius();
+		double span = fins.getSpan();
+		int finCount = fins.getFinCount();
+		double[] chordLength = calc.chordLength;
+
+		double rollRate = conditions.getRollRate();
+
+		if (Math.abs(rollRate) < 0.1)
+			return 0;
+
+		double mach = conditions.getMach();
+		double absRate = Math.abs(rollRate);
+
+		if (absRate * (bodyRadius + span) / conditions.getVelocity() > 15 * Math.PI / 180) {
+			double sum = 0;
+			for (int i = 0; i < divisions; i++) {
+				double dist = bodyRadius + span * i / divisions;
+				double aoa = Math.min(absRate * dist / conditions.getVelocity(), 15 * Math.PI / 180);
+				sum += chordLength[i] * dist * aoa;
+			}
+			sum = sum * (span / divisions) * 2 * Math.PI / conditions.getBeta() /
+					(conditions.getRefArea() * conditions.getRefLength());
+			return MathUtil.sign(rollRate) * finCount * sum;
+		}
+
+		if (mach <= subsonicLimit) {
+			return finCount * 2 * Math.PI * rollRate * calc.rollSum /
+					(conditions.getRefArea() * conditions.getRefLength() *
+							conditions.getVelocity() * conditions.getBeta());
+		}
+		if (mach >= supersonicLimit) {
+			double vel = conditions.getVelocity();
+			double k1 = FinSetCalc.K1.getValue(mach);
+			double k2 = FinSetCalc.K2.getValue(mach);
+			double k3 = FinSetCalc.K3.getValue(mach);
+
+			double sum = 0;
+			for (int i = 0; i < divisions; i++) {
+				double y = i * span / (divisions - 1);
+				double angle = rollRate * (bodyRadius + y) / vel;
+				sum += (k1 * angle + k2 * angle * angle + k3 * angle * angle * angle)
+						* chordLength[i] * (bodyRadius + y);
+			}
+			return finCount * sum * span / (divisions - 1) /
+					(conditions.getRefArea() * conditions.getRefLength());
+		}
+
+		FlightConditions cond = conditions.clone();
+		cond.setMach(subsonicLimit - 0.01);
+		double subsonic = referenceDampingMoment(calc, fins, cond);
+		cond.setMach(supersonicLimit + 0.01);
+		double supersonic = referenceDampingMoment(calc, fins, cond);
+
+		return subsonic * (supersonicLimit - mach) / (supersonicLimit - subsonicLimit) +
+				supersonic * (mach - subsonicLimit) / (supersonicLimit - subsonicLimit);
+	}
+}
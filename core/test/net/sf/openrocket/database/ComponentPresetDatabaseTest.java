@@ -0,0 +1,100 @@
+package net.sf.openrocket.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import net.sf.openrocket.motor.Manufacturer;
+import net.sf.openrocket.preset.ComponentPreset;
+import net.sf.openrocket.preset.ComponentPresetFactory;
+import net.sf.openrocket.preset.TypedPropertyMap;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ComponentPresetDatabaseTest extends BaseTestCase {
+	
+	private ComponentPresetDatabase db;
+	
+	@Before
+	public void setup() throws Exception {
+		db = new ComponentPresetDatabase();
+		for (int i = 0; i < 20; i++) {
+			db.add(create(ComponentPreset.Type.BODY_TUBE, "Estes", "BT-" + i, 0.01 + i * 0.001, 0.1 + (i % 5) * 0.1));
+			db.add(create(ComponentPreset.Type.TUBE_COUPLER, "Estes", "JT-" + i, 0.01 + i * 0.001, 0.05));
+			db.add(create(ComponentPreset.Type.BODY_TUBE, "LOC", "LT-" + i, 0.03 + i * 0.002, 0.5));
+		}
+	}
+	
+	private ComponentPreset create(ComponentPreset.Type type, String manufacturer, String partNo,
+			double outerDiameter, double length) throws Exception {
+		TypedPropertyMap props = new TypedPropertyMap();
+		props.put(ComponentPreset.TYPE, type);
+		props.put(ComponentPreset.MANUFACTURER, Manufacturer.getManufacturer(manufacturer));
+		props.put(ComponentPreset.PARTNO, partNo);
+		props.put(ComponentPreset.OUTER_DIAMETER, outerDiameter);
+		props.put(ComponentPreset.INNER_DIAMETER, outerDiameter - 0.001);
+		props.put(ComponentPreset.LENGTH, length);
+		return ComponentPresetFactory.create(props);
+	}
+	
+	@Test
+	public void testListForType() {
+		List<ComponentPreset> tubes = db.listForType(ComponentPreset.Type.BODY_TUBE);
+		assertEquals(40, tubes.size());
+		assertEquals(20, db.listForType(ComponentPreset.Type.TUBE_COUPLER).size());
+		assertEquals(0, db.listForType(ComponentPreset.Type.NOSE_CONE).size());
+		
+		// Same order as the database
+		int previous = -1;
+		for (ComponentPreset p : tubes) {
+			assertEquals(ComponentPreset.Type.BODY_TUBE, p.getType());
+			int index = db.indexOf(p);
+			assertTrue(index > previous);
+			previous = index;
+		}
+	}
+	
+	@Test
+	public void testListForTypes() {
+		List<ComponentPreset> presets = db.listForTypes(Arrays.asList(ComponentPreset.Type.BODY_TUBE,
+				ComponentPreset.Type.TUBE_COUPLER));
+		assertEquals(db.listAll(), presets);
+	}
+	
+	@Test
+	public void testFind() {
+		List<ComponentPreset> found = db.find("Estes", "BT-5");
+		assertEquals(1, found.size());
+		assertEquals("BT-5", found.get(0).getPartNo());
+		assertEquals(0, db.find("Estes", "BT-50").size());
+	}
+	
+	@Test
+	public void testRange() {
+		List<ComponentPreset> found = db.listForType(ComponentPreset.Type.BODY_TUBE,
+				ComponentPreset.OUTER_DIAMETER, 0.0145, 0.0305);
+		// BT-5 ... BT-19 and LT-0
+		assertEquals(16, found.size());
+		double previous = 0;
+		for (ComponentPreset p : found) {
+			double d = p.get(ComponentPreset.OUTER_DIAMETER);
+			assertTrue(d >= 0.0145 && d <= 0.0305 && d >= previous);
+			previous = d;
+		}
+		
+		assertEquals(4, db.listForType(ComponentPreset.Type.BODY_TUBE, ComponentPreset.LENGTH, 0.29, 0.31).size());
+	}
+	
+	@Test
+	public void testIndexUpdatedOnAdd() throws Exception {
+		assertEquals(0, db.find("Quest", "Q-1").size());
+		db.add(create(ComponentPreset.Type.BODY_TUBE, "Quest", "Q-1", 0.02, 0.2));
+		assertEquals(1, db.find("Quest", "Q-1").size());
+		assertEquals(41, db.listForType(ComponentPreset.Type.BODY_TUBE).size());
+	}
+	
+}
@@ -0,0 +1,198 @@
+package net.sf.openrocket.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import net.sf.openrocket.database.motor.ThrustCurveIndex;
+import net.sf.openrocket.database.motor.ThrustCurveMotorSet;
+import net.sf.openrocket.database.motor.ThrustCurveMotorSetDatabase;
+import net.sf.openrocket.motor.Manufacturer;
+import net.sf.openrocket.motor.Motor;
+import net.sf.openrocket.motor.ThrustCurveMotor;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.utils.MotorCorrelation;
+
+import org.junit.Test;
+
+public class ThrustCurveIndexTest {
+
+	private static ThrustCurveMotor motor(String designation, double scale, double burnTime, double peak) {
+		double[] time = new double[21];
+		double[] thrust = new double[21];
+		Coordinate[] cg = new Coordinate[21];
+		for (int i = 0; i <= 20; i++) {
+			double x = i / 20.0;
+			time[i] = x * burnTime;
+			thrust[i] = (i == 0 || i == 20) ? 0 : scale * (1 + peak * Math.exp(-20 * (x - 0.1) * (x - 0.1)));
+			cg[i] = new Coordinate(0.05, 0, 0, 0.1 - 0.05 * x);
+		}
+		return new ThrustCurveMotor(Manufacturer.getManufacturer("A"), designation, "", Motor.Type.SINGLE,
+				new double[] { 5 }, 0.024, 0.1, time, thrust, cg, designation + "-" + scale + "-" + burnTime + "-" + peak);
+	}
+
+	private static List<ThrustCurveMotor> createMotors() {
+		List<ThrustCurveMotor> motors = new ArrayList<ThrustCurveMotor>();
+		for (int i = 0; i < 40; i++) {
+			motors.add(motor("M" + i, 5 + i, 0.5 + 0.1 * (i % 7), 0.5 * (i % 5)));
+		}
+		// Near duplicates of motors 3 and 17
+		motors.add(motor("D3", 8.04, 0.8, 1.5));
+		motors.add(motor("D17", 22, 0.8, 1.0));
+		motors.add(motor("E17", 22.1, 0.8, 1.0));
+		return motors;
+	}
+
+
+	@Test
+	public void testFingerprint() {
+		double[] fp1 = ThrustCurveIndex.fingerprint(motor("A", 10, 1, 2));
+		double[] fp2 = ThrustCurveIndex.fingerprint(motor("B", 20, 1, 2));
+		assertEquals(ThrustCurveIndex.LENGTH, fp1.length);
+
+		double norm = 0;
+		for (int i = 0; i < ThrustCurveIndex.SAMPLES; i++) {
+			norm += fp1[i] * fp1[i];
+			// The shape is independent of the thrust level
+			assertEquals(fp1[i], fp2[i], 1e-12);
+		}
+		assertEquals(1, norm, 1e-12);
+		assertEquals(Math.log(2), fp2[ThrustCurveIndex.SAMPLES + 1] - fp1[ThrustCurveIndex.SAMPLES + 1], 1e-9);
+	}
+
+	@Test
+	public void testFindNearest() {
+		List<ThrustCurveMotor> motors = createMotors();
+		ThrustCurveIndex index = new ThrustCurveIndex(motors, 3);
+		assertEquals(motors.size(), index.size());
+
+		for (ThrustCurveMotor query : motors) {
+			List<ThrustCurveMotor> nearest = index.findNearest(query, 5);
+			assertEquals(5, nearest.size());
+			assertTrue(!nearest.contains(query));
+
+			// Compare with brute force
+			final double[] fp = ThrustCurveIndex.fingerprint(query);
+			double last = 0;
+			for (ThrustCurveMotor m : nearest) {
+				double d = distance(fp, ThrustCurveIndex.fingerprint(m));
+				assertTrue(d >= last);
+				last = d;
+			}
+			int closer = 0;
+			for (ThrustCurveMotor m : motors) {
+				if (m != query && distance(fp, ThrustCurveIndex.fingerprint(m)) < last) {
+					closer++;
+				}
+			}
+			assertTrue(closer <= 4);
+		}
+
+		assertSame(motors.get(3), index.findNearest(motors.get(40), 1).get(0));
+		assertEquals(0, index.findNearest(motors.get(0), 0).size());
+	}
+
+	@Test
+	public void testFindSimilar() {
+		List<ThrustCurveMotor> motors = createMotors();
+		ThrustCurveIndex index = new ThrustCurveIndex(motors);
+		ThrustCurveMotor query = motors.get(17);
+
+		List<ThrustCurveMotor> similar = index.findSimilar(query, 3, 0.5);
+		assertTrue(similar.size() > 0 && similar.size() <= 3);
+		assertTrue(similar.get(0) == motors.get(41) || similar.get(0) == motors.get(42));
+		double last = 1;
+		for (ThrustCurveMotor m : similar) {
+			double s = MotorCorrelation.similarity(query, m);
+			assertTrue(s >= 0.5 && s <= last);
+			last = s;
+		}
+
+		// Brute force: no motor outside the result is more similar than the last one
+		for (ThrustCurveMotor m : motors) {
+			if (m != query && !similar.contains(m) && similar.size() == 3) {
+				assertTrue(MotorCorrelation.similarity(query, m) <= last);
+			}
+		}
+	}
+
+	@Test
+	public void testFindDuplicates() {
+		List<ThrustCurveMotor> motors = createMotors();
+		ThrustCurveIndex index = new ThrustCurveIndex(motors, 2);
+
+		List<List<ThrustCurveMotor>> duplicates = index.findDuplicates(0.98, 2);
+		assertEquals(2, duplicates.size());
+		assertEquals(Arrays.asList(motors.get(3), motors.get(40)), duplicates.get(0));
+		assertEquals(Arrays.asList(motors.get(17), motors.get(41), motors.get(42)), duplicates.get(1));
+	}
+
+	@Test
+	public void testSimilarity() {
+		List<ThrustCurveMotor> motors = createMotors();
+		for (ThrustCurveMotor m : motors) {
+			double exact = MotorCorrelation.similarity(motors.get(17), m);
+			double s = ThrustCurveIndex.similarity(motors.get(17), m, 0.9);
+			if (exact >= 0.9) {
+				assertEquals(exact, s, 0);
+			} else {
+				assertTrue(s < 0.9);
+			}
+		}
+	}
+
+	@Test
+	public void testDatabaseIndex() {
+		ThrustCurveMotorSetDatabase database = new ThrustCurveMotorSetDatabase();
+		List<ThrustCurveMotor> motors = createMotors();
+		for (ThrustCurveMotor m : motors.subList(0, 10)) {
+			database.addMotor(m);
+		}
+		ThrustCurveIndex index = database.getThrustCurveIndex();
+		assertEquals(10, index.size());
+		assertSame(index, database.getThrustCurveIndex());
+
+		database.addMotor(motors.get(10));
+		assertNotSame(index, database.getThrustCurveIndex());
+		assertEquals(11, database.getThrustCurveIndex().size());
+	}
+
+	@Test
+	public void testDuplicateMotorSets() {
+		ThrustCurveMotorSetDatabase database = new ThrustCurveMotorSetDatabase();
+		List<ThrustCurveMotor> motors = createMotors();
+		for (ThrustCurveMotor m : motors) {
+			database.addMotor(m);
+		}
+		List<ThrustCurveMotorSet> sets = database.getMotorSets();
+		Set<ThrustCurveMotorSet> duplicates = database.getDuplicateMotorSets();
+		assertSame(duplicates, database.getDuplicateMotorSets());
+
+		// The first set of each thrust curve is kept visible
+		assertFalse(duplicates.contains(sets.get(3)));
+		assertFalse(duplicates.contains(sets.get(17)));
+		assertTrue(duplicates.contains(sets.get(40)));
+		assertTrue(duplicates.contains(sets.get(41)));
+		assertTrue(duplicates.contains(sets.get(42)));
+
+		database.addMotor(motor("F17", 22.05, 0.8, 1.0));
+		assertNotSame(duplicates, database.getDuplicateMotorSets());
+		assertEquals(duplicates.size() + 1, database.getDuplicateMotorSets().size());
+	}
+
+
+	private static double distance(double[] a, double[] b) {
+		double d = 0;
+		for (int i = 0; i < a.length; i++) {
+			d += (a[i] - b[i]) * (a[i] - b[i]);
+		}
+		return d;
+	}
+}
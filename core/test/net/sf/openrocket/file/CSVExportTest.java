@@ -0,0 +1,159 @@
+package net.sf.openrocket.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.simulation.FlightEvent;
+import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.unit.Unit;
+import net.sf.openrocket.unit.UnitGroup;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+import net.sf.openrocket.util.TextUtil;
+
+import org.junit.Test;
+
+public class CSVExportTest extends BaseTestCase {
+
+	private static final FlightDataType[] FIELDS = { FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE,
+			FlightDataType.TYPE_VELOCITY_TOTAL };
+	private static final Unit[] UNITS = { UnitGroup.UNITS_FLIGHT_TIME.getDefaultUnit(),
+			UnitGroup.UNITS_DISTANCE.getUnit("ft"), UnitGroup.UNITS_VELOCITY.getDefaultUnit() };
+
+	private Simulation simulate(Rocket rocket, String name, double timeStep) throws Exception {
+		Simulation sim = new Simulation(rocket);
+		sim.setName(name);
+		SimulationOptions options = sim.getOptions();
+		options.setMotorConfigurationID(rocket.getDefaultConfiguration().getFlightConfigurationID());
+		options.setRandomSeed(1234);
+		options.setLaunchRodLength(1);
+		options.setLaunchAltitude(0);
+		options.setLaunchLatitude(28.61);
+		options.setLaunchLongitude(-80.6);
+		options.setISAAtmosphere(true);
+		options.setWindSpeedAverage(3);
+		options.setWindSpeedDeviation(1);
+		options.setTimeStep(timeStep);
+		sim.simulate();
+		return sim;
+	}
+
+	private String export(Simulation sim, FlightDataBranch branch) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CSVExport.exportCSV(out, sim, branch, FIELDS, UNITS, ",", "#", true, true, true);
+		return out.toString();
+	}
+
+	@Test
+	public void testExportCSV() throws Exception {
+		Simulation sim = simulate(TestRockets.makeSmallFlyable(), "Test", 0.01);
+		FlightDataBranch branch = sim.getSimulatedData().getBranch(0);
+		String[] lines = export(sim, branch).split(System.getProperty("line.separator"));
+
+		List<String> data = new ArrayList<String>();
+		int events = 0;
+		for (String line : lines) {
+			if (line.startsWith("# Event ")) {
+				events++;
+			} else if (!line.startsWith("#")) {
+				data.add(line);
+			}
+		}
+		assertEquals(branch.getEvents().size(), events);
+		assertEquals(branch.getLength(), data.size());
+		for (int i = 0; i < data.size(); i += 37) {
+			String[] values = data.get(i).split(",");
+			assertEquals(3, values.length);
+			for (int j = 0; j < FIELDS.length; j++) {
+				assertEquals(TextUtil.doubleToString(UNITS[j].toUnit(branch.getValue(FIELDS[j], i))), values[j]);
+			}
+		}
+	}
+
+	@Test
+	public void testExportZipAndFiles() throws Exception {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		List<Simulation> simulations = new ArrayList<Simulation>();
+		for (int i = 0; i < 5; i++) {
+			simulations.add(simulate(rocket, "Sim " + (i % 3), 0.01 + 0.005 * i));
+		}
+		simulations.add(new Simulation(rocket));
+
+		ByteArrayOutputStream zip = new ByteArrayOutputStream();
+		CSVExport.exportZip(zip, simulations, FIELDS, UNITS, ",", "#", true, true, true, 0, 3);
+
+		String[] expectedNames = { "Sim_0.csv", "Sim_1.csv", "Sim_2.csv", "Sim_0-2.csv", "Sim_1-2.csv" };
+		List<String> names = new ArrayList<String>();
+		ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()));
+		ZipEntry entry;
+		while ((entry = in.getNextEntry()) != null) {
+			Simulation sim = simulations.get(names.size());
+			names.add(entry.getName());
+			assertEquals(export(sim, sim.getSimulatedData().getBranch(0)), new String(readAll(in)));
+		}
+		assertEquals(Arrays.asList(expectedNames), names);
+
+		File dir = File.createTempFile("csvexport", "");
+		assertTrue(dir.delete() && dir.mkdir());
+		try {
+			List<File> files = CSVExport.exportFiles(dir, simulations, FIELDS, UNITS, ",", "#", true, true, true, 0, 3);
+			assertEquals(5, files.size());
+			for (int i = 0; i < files.size(); i++) {
+				assertEquals(expectedNames[i], files.get(i).getName());
+				FileInputStream fis = new FileInputStream(files.get(i));
+				try {
+					Simulation sim = simulations.get(i);
+					assertArrayEquals(export(sim, sim.getSimulatedData().getBranch(0)).getBytes(), readAll(fis));
+				} finally {
+					fis.close();
+				}
+			}
+		} finally {
+			for (File f : dir.listFiles()) {
+				f.delete();
+			}
+			dir.delete();
+		}
+	}
+
+	@Test
+	public void testEventsWithoutTime() throws Exception {
+		Simulation sim = new Simulation(TestRockets.makeSmallFlyable());
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_ALTITUDE);
+		branch.addPoint();
+		branch.setValue(FlightDataType.TYPE_ALTITUDE, 12.5);
+		branch.addEvent(new FlightEvent(FlightEvent.Type.APOGEE, 1.0));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CSVExport.exportCSV(out, sim, branch, new FlightDataType[] { FlightDataType.TYPE_ALTITUDE },
+				new Unit[] { UnitGroup.UNITS_DISTANCE.getDefaultUnit() }, ";", "//", false, false, true);
+		String nl = System.getProperty("line.separator");
+		assertEquals("// Event APOGEE occurred at t=1 seconds" + nl + "12.5" + nl, out.toString());
+	}
+
+	private static byte[] readAll(InputStream in) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int n;
+		while ((n = in.read(buffer)) > 0) {
+			out.write(buffer, 0, n);
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,165 @@
+package net.sf.openrocket.file.motor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import net.sf.openrocket.database.motor.ThrustCurveMotorSet;
+import net.sf.openrocket.database.motor.ThrustCurveMotorSetDatabase;
+import net.sf.openrocket.file.iterator.DirectoryIterator;
+import net.sf.openrocket.gui.util.SimpleFileFilter;
+import net.sf.openrocket.motor.Motor;
+import net.sf.openrocket.motor.ThrustCurveMotor;
+import net.sf.openrocket.util.Pair;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelMotorLoaderTest {
+
+	private final SimpleFileFilter filter = new SimpleFileFilter("", new GeneralMotorLoader().getSupportedExtensions());
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("motors", "");
+		assertTrue(dir.delete() && dir.mkdir());
+
+		copy("test1.eng", new File(dir, "a.eng"));
+		copy("test2.rse", new File(dir, "b.rse"));
+		copy("test1.eng", new File(dir, ".hidden.eng"));
+		copy("test.txt", new File(dir, "notes.txt"));
+		write(new File(dir, "broken.eng"), "F32 24 124 5-10-15-P\n");
+
+		File sub = new File(dir, "sub");
+		assertTrue(sub.mkdir());
+		copy("test3.rse", new File(sub, "c.rse"));
+		copy("test.zip", new File(sub, "d.zip"));
+		for (int i = 0; i < 20; i++) {
+			copy(i % 2 == 0 ? "test1.eng" : "test2.rse", new File(sub, "e" + i + (i % 2 == 0 ? ".eng" : ".rse")));
+		}
+	}
+
+	@After
+	public void tearDown() {
+		delete(dir);
+	}
+
+
+	@Test
+	public void testSameOrderAsSequential() throws IOException {
+		List<Motor> sequential = loadSequential();
+		assertEquals(25, sequential.size());
+
+		for (int threads = 1; threads <= 4; threads++) {
+			List<Motor> parallel = new ParallelMotorLoader(filter, threads).load(Collections.singletonList(dir));
+			assertEquals(digests(sequential), digests(parallel));
+		}
+	}
+
+	@Test
+	public void testFilesAndDirectories() {
+		List<File> targets = Arrays.asList(new File(dir, "a.eng"), new File(dir, "missing.eng"),
+				new File(dir, "broken.eng"), new File(dir, "sub"));
+		List<Motor> motors = new ParallelMotorLoader(filter, 2).load(targets);
+		assertEquals(1 + 2 + 20 + 1, motors.size());
+
+		assertEquals(0, new ParallelMotorLoader(filter).load(Collections.<File> emptyList()).size());
+	}
+
+	@Test
+	public void testDatabaseMerge() throws IOException {
+		ThrustCurveMotorSetDatabase sequential = new ThrustCurveMotorSetDatabase();
+		for (Motor m : loadSequential()) {
+			sequential.addMotor((ThrustCurveMotor) m);
+		}
+		ThrustCurveMotorSetDatabase parallel = new ThrustCurveMotorSetDatabase();
+		for (Motor m : new ParallelMotorLoader(filter, 3).load(Collections.singletonList(dir))) {
+			parallel.addMotor((ThrustCurveMotor) m);
+		}
+
+		List<ThrustCurveMotorSet> expected = sequential.getMotorSets();
+		List<ThrustCurveMotorSet> actual = parallel.getMotorSets();
+		assertEquals(3, expected.size());
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getDesignation(), actual.get(i).getDesignation());
+			assertEquals(digests(expected.get(i).getMotors()), digests(actual.get(i).getMotors()));
+		}
+	}
+
+
+	/**
+	 * Load the directory the way the motor database was loaded before.
+	 */
+	private List<Motor> loadSequential() throws IOException {
+		GeneralMotorLoader loader = new GeneralMotorLoader();
+		List<Motor> motors = new ArrayList<Motor>();
+		DirectoryIterator iterator = new DirectoryIterator(dir, filter, true);
+		while (iterator.hasNext()) {
+			Pair<String, InputStream> f = iterator.next();
+			try {
+				motors.addAll(loader.load(f.getV(), f.getU()));
+			} catch (IOException e) {
+				// Ignored as by the database loader
+			} finally {
+				f.getV().close();
+			}
+		}
+		return motors;
+	}
+
+	private static List<String> digests(List<? extends Motor> motors) {
+		List<String> list = new ArrayList<String>();
+		for (Motor m : motors) {
+			list.add(((ThrustCurveMotor) m).getDigest());
+		}
+		return list;
+	}
+
+	private void copy(String resource, File file) throws IOException {
+		InputStream is = ParallelMotorLoaderTest.class.getResourceAsStream(resource);
+		assertNotNull("File " + resource + " not found", is);
+		OutputStream os = new FileOutputStream(file);
+		try {
+			byte[] buffer = new byte[4096];
+			int n;
+			while ((n = is.read(buffer)) > 0) {
+				os.write(buffer, 0, n);
+			}
+		} finally {
+			os.close();
+			is.close();
+		}
+	}
+
+	private static void write(File file, String content) throws IOException {
+		OutputStream os = new FileOutputStream(file);
+		try {
+			os.write(content.getBytes("UTF-8"));
+		} finally {
+			os.close();
+		}
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+}
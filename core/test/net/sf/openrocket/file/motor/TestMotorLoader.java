@@ -3,9 +3,11 @@ package net.sf.openrocket.file.motor;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.util.Arrays;
 import java.util.List;
 
@@ -52,6 +54,80 @@ public class TestMotorLoader {
 	}
 	
 	
+	@Test
+	public void testRASPFormatDetails() throws IOException {
+		String file = "; First line\n" +
+				";\tSecond line  \n" +
+				"\tF32-P\t24   124 3-5,P-100 .0377 .0695 AT \n" +
+				"0.5 20\n" +
+				"\n" +
+				"  0.1\t10  \n" +
+				"1.0 0\n" +
+				";\n" +
+				"G40 29 124 None 0.06 0.1 AT\n" +
+				"0 0\n" +
+				"1 40\n" +
+				"2 0\n";
+		List<Motor> motors = new RASPMotorLoader().load(new StringReader(file), "test.eng");
+		assertEquals(2, motors.size());
+		
+		ThrustCurveMotor motor = (ThrustCurveMotor) motors.get(0);
+		assertEquals("F32", motor.getDesignation());
+		assertEquals("First line\nSecond line", motor.getDescription());
+		assertTrue(Arrays.equals(new double[] { 3, 5, Motor.PLUGGED }, motor.getStandardDelays()));
+		assertEquals(0.024, motor.getDiameter(), 0);
+		assertTrue(Arrays.equals(new double[] { 0, 0.1, 0.5, 1.0 }, motor.getTimePoints()));
+		
+		motor = (ThrustCurveMotor) motors.get(1);
+		assertEquals("G40", motor.getDesignation());
+		assertEquals("", motor.getDescription());
+		assertTrue(Arrays.equals(new double[] { 0, 1, 2 }, motor.getTimePoints()));
+		assertEquals(0, motor.getStandardDelays().length);
+		
+		try {
+			new RASPMotorLoader().load(new StringReader("F32 24 124 5 .0377 .0695\n0 1\n1 0\n"), "test.eng");
+			fail("Illegal header accepted");
+		} catch (IOException e) {
+			// Expected
+		}
+		try {
+			new RASPMotorLoader().load(new StringReader("F32 24 124 5 .0377 .0695 AT\n0 1 2\n1 0\n"), "test.eng");
+			fail("Illegal data accepted");
+		} catch (IOException e) {
+			// Expected
+		}
+	}
+	
+	@Test
+	public void testRocksimFormatDetails() throws IOException {
+		String file = "<engine-database xmlns:x=\"urn:x\"><version/><engine-list>" +
+				"<engine mfg=\"AT\" code=\"F32-5\" dia=\"24\" len=\"124\" initWt=\"69.5\" propWt=\"37.7\" delays=\"5,10,100\">" +
+				"<comments> First comment </comments>" +
+				"<x:data><eng-data t=\"9\" f=\"9\"/></x:data>" +
+				"<unknown><data/></unknown><x:data/>" +
+				"<data><eng-data t=\"1\" f=\"0\" m=\"30\" cg=\"62\"/>" +
+				"<eng-data t=\"0.5\" f=\"20\" m=\"40\" cg=\"62\"/></data>" +
+				"<comments>Second</comments>" +
+				"</engine></engine-list></engine-database>";
+		List<Motor> motors = new RockSimMotorLoader().load(new StringReader(file), "test.rse");
+		assertEquals(1, motors.size());
+		
+		ThrustCurveMotor motor = (ThrustCurveMotor) motors.get(0);
+		assertEquals("F32", motor.getDesignation());
+		assertEquals("First comment\n\nSecond", motor.getDescription());
+		assertTrue(Arrays.equals(new double[] { 5, 10, Motor.PLUGGED }, motor.getStandardDelays()));
+		assertTrue(Arrays.equals(new double[] { 0, 0.5, 1 }, motor.getTimePoints()));
+		
+		try {
+			new RockSimMotorLoader().load(new StringReader(file.replace("<comments>Second</comments>",
+					"<data><eng-data t=\"1\" f=\"0\"/></data>")), "test.rse");
+			fail("Multiple data elements accepted");
+		} catch (IOException e) {
+			// Expected
+		}
+	}
+	
+	
 	private void test(MotorLoader loader, String file, String... digests) throws IOException {
 		List<Motor> motors;
 		
@@ -1,9 +1,15 @@
 package net.sf.openrocket.file.openrocket;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileNotFoundException;
@@ -12,6 +18,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 
 import net.sf.openrocket.ServicesForTesting;
 import net.sf.openrocket.database.ComponentPresetDao;
@@ -19,15 +26,26 @@ import net.sf.openrocket.database.ComponentPresetDatabase;
 import net.sf.openrocket.database.motor.MotorDatabase;
 import net.sf.openrocket.database.motor.ThrustCurveMotorSetDatabase;
 import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.OpenRocketDocumentFactory;
+import net.sf.openrocket.document.Simulation;
 import net.sf.openrocket.document.StorageOptions;
 import net.sf.openrocket.file.GeneralRocketLoader;
 import net.sf.openrocket.file.RocketLoadException;
 import net.sf.openrocket.file.motor.GeneralMotorLoader;
 import net.sf.openrocket.l10n.DebugTranslator;
 import net.sf.openrocket.l10n.Translator;
+import net.sf.openrocket.models.wind.MeasuredWindModel;
 import net.sf.openrocket.motor.Motor;
 import net.sf.openrocket.motor.ThrustCurveMotor;
 import net.sf.openrocket.plugin.PluginModule;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataDecimator;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.simulation.FlightEvent;
+import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.simulation.extension.SimulationExtension;
 import net.sf.openrocket.simulation.extension.impl.ScriptingExtension;
 import net.sf.openrocket.simulation.extension.impl.ScriptingUtil;
 import net.sf.openrocket.startup.Application;
@@ -190,6 +208,153 @@ public class OpenRocketSaverTest {
 	}
 	
 	
+	@Test
+	public void testConcurrentFlightData() throws IOException {
+		Rocket rocket = TestRockets.makeBigBlue();
+		OpenRocketDocument rocketDoc = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		for (int i = 0; i < 5; i++) {
+			FlightData data = new FlightData(createBranch("Sustainer \u00e4 <" + i + ">", 200 + 100 * i),
+					createBranch("Booster", 50));
+			rocketDoc.addSimulation(new Simulation(rocket, Simulation.Status.LOADED,
+					"Simulation " + i, new SimulationOptions(rocket), Collections.<SimulationExtension> emptyList(), data));
+		}
+		rocketDoc.addSimulation(new Simulation(rocket));
+		
+		for (double timeSkip : new double[] { 0, 0.05, StorageOptions.SIMULATION_DATA_NONE }) {
+			StorageOptions options = new StorageOptions();
+			options.setSimulationTimeSkip(timeSkip);
+			
+			ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+			new OpenRocketSaver(1).save(sequential, rocketDoc, options);
+			ByteArrayOutputStream concurrent = new ByteArrayOutputStream();
+			new OpenRocketSaver(4).save(concurrent, rocketDoc, options);
+			assertArrayEquals(sequential.toByteArray(), concurrent.toByteArray());
+			
+			String xml = new String(sequential.toByteArray(), "UTF-8");
+			if (timeSkip == StorageOptions.SIMULATION_DATA_NONE) {
+				assertEquals(0, count(xml, "<databranch "));
+			} else {
+				assertEquals(10, count(xml, "<databranch "));
+				assertTrue(xml.contains("\n          <datapoint>0,0,0</datapoint>\n"));
+				assertEquals(timeSkip == 0, xml.contains("\n          <datapoint>0.01,3,-0.14286</datapoint>\n"));
+			}
+			assertEquals(6, count(xml, "<simulation "));
+		}
+	}
+	
+	
+	@Test
+	public void testSimulationTolerance() throws Exception {
+		Rocket rocket = TestRockets.makeBigBlue();
+		OpenRocketDocument rocketDoc = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		FlightDataBranch branch = new FlightDataBranch("Sustainer", FlightDataType.TYPE_TIME,
+				FlightDataType.TYPE_ALTITUDE);
+		for (int i = 0; i < 200; i++) {
+			branch.addPoint();
+			branch.setValue(FlightDataType.TYPE_TIME, i * 0.01);
+			branch.setValue(FlightDataType.TYPE_ALTITUDE, 3 * i - 0.015 * i * i);
+		}
+		rocketDoc.addSimulation(new Simulation(rocket, Simulation.Status.LOADED, "Simulation",
+				new SimulationOptions(rocket), Collections.<SimulationExtension> emptyList(), new FlightData(branch)));
+		
+		StorageOptions options = new StorageOptions();
+		options.setSimulationTimeSkip(StorageOptions.SIMULATION_DATA_ALL);
+		options.setSimulationTolerance(0.001);
+		int[] expected = FlightDataDecimator.simplify(branch, branch.getTypes(), 0.001);
+		assertTrue(expected.length > 3 && expected.length < 50);
+		
+		ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+		new OpenRocketSaver(1).save(sequential, rocketDoc, options);
+		ByteArrayOutputStream concurrent = new ByteArrayOutputStream();
+		new OpenRocketSaver(4).save(concurrent, rocketDoc, options);
+		assertArrayEquals(sequential.toByteArray(), concurrent.toByteArray());
+		
+		String xml = new String(sequential.toByteArray(), "UTF-8");
+		assertEquals(expected.length, count(xml, "<datapoint>"));
+		
+		GeneralRocketLoader loader = new GeneralRocketLoader(new File("test.ork"));
+		OpenRocketDocument loaded = loader.load(new ByteArrayInputStream(sequential.toByteArray()));
+		FlightDataBranch loadedBranch = loaded.getSimulation(0).getSimulatedData().getBranch(0);
+		assertEquals(expected.length, loadedBranch.getLength());
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(branch.getValue(FlightDataType.TYPE_ALTITUDE, expected[i]),
+					loadedBranch.getValue(FlightDataType.TYPE_ALTITUDE, i), 0.01);
+		}
+	}
+	
+	
+	@Test
+	public void testLoadFlightData() throws Exception {
+		Rocket rocket = TestRockets.makeBigBlue();
+		OpenRocketDocument rocketDoc = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		FlightData data = new FlightData(createBranch("Sustainer", 200), createBranch("Booster", 50));
+		rocketDoc.addSimulation(new Simulation(rocket, Simulation.Status.LOADED, "Simulation",
+				new SimulationOptions(rocket), Collections.<SimulationExtension> emptyList(), data));
+		
+		StorageOptions options = new StorageOptions();
+		options.setSimulationTimeSkip(0);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new OpenRocketSaver(1).save(out, rocketDoc, options);
+		
+		// One invalid point, one point with ignored trailing separators and one point split by a comment
+		String xml = new String(out.toByteArray(), "UTF-8");
+		xml = xml.replaceFirst("<datapoint>0.01,3,", "<datapoint>0.01,x,");
+		xml = xml.replaceFirst("<datapoint>0.02,6,-0.28571<", "<datapoint>0.02,6,-0.28571,,<");
+		xml = xml.replaceFirst("<datapoint>0.03,9,", "<datapoint>0.03,<!-- c -->9,");
+		
+		GeneralRocketLoader loader = new GeneralRocketLoader(new File("test.ork"));
+		OpenRocketDocument loaded = loader.load(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+		assertTrue(loader.getWarnings().toString().contains("Data point format error"));
+		
+		FlightData loadedData = loaded.getSimulation(0).getSimulatedData();
+		assertEquals(2, loadedData.getBranchCount());
+		FlightDataBranch sustainer = loadedData.getBranch(0);
+		assertEquals(199, sustainer.getLength());
+		assertEquals(1, sustainer.getEvents().size());
+		assertEquals(0.02, sustainer.getValue(FlightDataType.TYPE_TIME, 1), 0);
+		assertEquals(9, sustainer.getValue(FlightDataType.TYPE_ALTITUDE, 2), 0);
+		assertEquals(3 * 199, sustainer.getMaximum(FlightDataType.TYPE_ALTITUDE), 0);
+		assertEquals(-199 / 7.0, sustainer.getMinimum(FlightDataType.TYPE_VELOCITY_Z), 1e-3);
+		assertEquals(50, loadedData.getBranch(1).getLength());
+	}
+	
+	
+	@Test
+	public void testWindProfile() throws Exception {
+		Rocket rocket = TestRockets.makeBigBlue();
+		OpenRocketDocument rocketDoc = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		SimulationOptions simulationOptions = new SimulationOptions(rocket);
+		MeasuredWindModel profile = new MeasuredWindModel(new double[] { 0, 500, 2000 },
+				new double[] { 3, 5.5, 9 }, new double[] { Math.PI / 2, Math.PI, 0 });
+		simulationOptions.setWindProfile(profile);
+		simulationOptions.setWindTurbulenceIntensity(0.2);
+		rocketDoc.addSimulation(new Simulation(rocket, Simulation.Status.NOT_SIMULATED, "Simulation",
+				simulationOptions, Collections.<SimulationExtension> emptyList(), null));
+		rocketDoc.addSimulation(new Simulation(rocket));
+		assertEquals(107, getCalculatedFileVersion(rocketDoc));
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		saver.save(out, rocketDoc, new StorageOptions());
+		GeneralRocketLoader loader = new GeneralRocketLoader(new File("test.ork"));
+		OpenRocketDocument loaded = loader.load(new ByteArrayInputStream(out.toByteArray()));
+		assertFalse(loader.getWarnings().toString().contains("wind profile"));
+		
+		MeasuredWindModel loadedProfile = loaded.getSimulation(0).getOptions().getWindProfile();
+		assertEquals(profile.getPointCount(), loadedProfile.getPointCount());
+		for (int i = 0; i < profile.getPointCount(); i++) {
+			assertEquals(profile.getAltitude(i), loadedProfile.getAltitude(i), 1e-9);
+			assertEquals(profile.getSpeed(i), loadedProfile.getSpeed(i), 1e-9);
+			assertEquals(profile.getDirection(i), loadedProfile.getDirection(i), 1e-9);
+		}
+		assertNull(loaded.getSimulation(1).getOptions().getWindProfile());
+		
+		SimulationOptions loadedOptions = loaded.getSimulation(0).getOptions();
+		MeasuredWindModel windModel = (MeasuredWindModel) loadedOptions.toSimulationConditions().getWindModel();
+		assertEquals(0.2, windModel.getTurbulenceIntensity(), 1e-9);
+		assertEquals(loadedOptions.getRandomSeed(), windModel.getTurbulenceSeed());
+	}
+	
+	
 	////////////////////////////////
 	// Tests for File Version 1.0 // 
 	////////////////////////////////
@@ -352,6 +517,27 @@ public class OpenRocketSaverTest {
 	}
 	
 	
+	private static FlightDataBranch createBranch(String name, int points) {
+		FlightDataBranch branch = new FlightDataBranch(name, FlightDataType.TYPE_TIME,
+				FlightDataType.TYPE_ALTITUDE, FlightDataType.TYPE_VELOCITY_Z);
+		for (int i = 0; i < points; i++) {
+			branch.addPoint();
+			branch.setValue(FlightDataType.TYPE_TIME, i * 0.01);
+			branch.setValue(FlightDataType.TYPE_ALTITUDE, 3 * i);
+			branch.setValue(FlightDataType.TYPE_VELOCITY_Z, -i / 7.0);
+		}
+		branch.addEvent(new FlightEvent(FlightEvent.Type.APOGEE, points * 0.005));
+		return branch;
+	}
+	
+	private static int count(String str, String substring) {
+		int count = 0;
+		for (int i = str.indexOf(substring); i >= 0; i = str.indexOf(substring, i + 1)) {
+			count++;
+		}
+		return count;
+	}
+	
 	private static ThrustCurveMotor readMotor() {
 		GeneralMotorLoader loader = new GeneralMotorLoader();
 		InputStream is = OpenRocketSaverTest.class.getResourceAsStream("/net/sf/openrocket/Estes_A8.rse");
@@ -0,0 +1,56 @@
+package net.sf.openrocket.file.openrocket;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import net.sf.openrocket.util.TextUtil;
+
+import org.junit.Test;
+
+public class XMLBufferTest {
+
+	@Test
+	public void testEncoding() throws IOException {
+		String[] strings = { "", "plain <ascii> & \"text\"", "\u00e4\u00f6\u00fc \u00df", "\u20ac \u65e5\u672c",
+				"rocket \ud83d\ude80 emoji", "lone \ud83d high", "lone \ude80 low", "end \ud83d" };
+
+		XMLBuffer buffer = new XMLBuffer(1);
+		StringBuilder expected = new StringBuilder();
+		for (String str : strings) {
+			buffer.indent(2).append(str).append('\n');
+			expected.append("    ").append(str).append('\n');
+		}
+		assertArrayEquals(expected.toString().getBytes("UTF-8"), toBytes(buffer));
+	}
+
+	@Test
+	public void testNumbers() throws IOException {
+		double[] values = { 0, 1, -1.5, 0.001234, 123456789, 1e-10, -3.75e15, Double.NaN,
+				Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Math.PI };
+
+		XMLBuffer buffer = new XMLBuffer(4);
+		StringBuilder expected = new StringBuilder();
+		for (double d : values) {
+			buffer.append(d).append(',');
+			expected.append(TextUtil.doubleToString(d)).append(',');
+		}
+		assertEquals(expected.toString(), new String(toBytes(buffer), "UTF-8"));
+
+		// Clearing retains the buffer for reuse
+		buffer.clear();
+		assertEquals(0, buffer.length());
+		XMLBuffer other = new XMLBuffer(16).append("x=").append(2.5);
+		buffer.append(other).append(other);
+		assertEquals("x=2.5x=2.5", new String(toBytes(buffer), "UTF-8"));
+	}
+
+
+	private static byte[] toBytes(XMLBuffer buffer) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		buffer.writeTo(out);
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,219 @@
+package net.sf.openrocket.mesh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+
+import net.sf.openrocket.mesh.ComponentMeshGenerator.Surface;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.FreeformFinSet;
+import net.sf.openrocket.rocketcomponent.MassComponent;
+import net.sf.openrocket.rocketcomponent.NoseCone;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.rocketcomponent.Transition;
+import net.sf.openrocket.rocketcomponent.TrapezoidFinSet;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class ComponentMeshGeneratorTest extends BaseTestCase {
+
+	private static final int LOD = 40;
+
+	@Test
+	public void testBodyTube() {
+		BodyTube tube = new BodyTube(0.3, 0.02, 0.002);
+
+		assertTrue(ComponentMeshGenerator.generate(tube, Surface.OUTSIDE, LOD).getTriangleCount() > 0);
+		assertNormalsConsistent(ComponentMeshGenerator.generate(tube, Surface.OUTSIDE, LOD));
+		assertNormalsConsistent(ComponentMeshGenerator.generate(tube, Surface.INSIDE, LOD));
+		assertNormalsConsistent(ComponentMeshGenerator.generate(tube, Surface.EDGES, LOD));
+
+		double polygon = LOD / 2.0 * Math.sin(2 * Math.PI / LOD);
+		double expected = polygon * (0.02 * 0.02 - 0.018 * 0.018) * 0.3;
+		assertEquals(expected, volume(tube), expected * 1e-5);
+	}
+
+	@Test
+	public void testTransition() {
+		NoseCone nose = new NoseCone(Transition.Shape.OGIVE, 0.15, 0.025);
+		nose.setThickness(0.002);
+		assertNormalsConsistent(ComponentMeshGenerator.generate(nose, Surface.OUTSIDE, LOD));
+		assertNormalsConsistent(ComponentMeshGenerator.generate(nose, Surface.INSIDE, LOD));
+		assertNormalsConsistent(ComponentMeshGenerator.generate(nose, Surface.EDGES_BACK, LOD));
+		double v = volume(nose);
+		assertTrue(v > 0 && v < nose.getComponentVolume());
+
+		// The wall thickness is measured radially
+		Transition transition = new Transition();
+		transition.setForeRadius(0.02);
+		transition.setAftRadius(0.03);
+		transition.setLength(0.05);
+		transition.setThickness(0.002);
+		transition.setType(Transition.Shape.CONICAL);
+		double polygon = LOD / 2.0 * Math.sin(2 * Math.PI / LOD);
+		double expected = polygon * 0.05 / 3 * (0.02 * 0.02 + 0.02 * 0.03 + 0.03 * 0.03 -
+				0.018 * 0.018 - 0.018 * 0.028 - 0.028 * 0.028);
+		assertEquals(expected, volume(transition), expected * 1e-5);
+	}
+
+	@Test
+	public void testFinSet() throws Exception {
+		TrapezoidFinSet fins = new TrapezoidFinSet(3, 0.05, 0.03, 0.02, 0.04);
+		fins.setThickness(0.003);
+		Mesh mesh = ComponentMeshGenerator.generate(fins, Surface.OUTSIDE, LOD);
+		assertNormalsConsistent(mesh);
+		assertTrue(ComponentMeshGenerator.generate(fins, Surface.INSIDE, LOD).isEmpty());
+
+		double area = (0.05 + 0.03) / 2 * 0.04;
+		assertEquals(3 * area * 0.003, volume(fins), 3 * area * 0.003 * 1e-5);
+
+		// Concave fin shape
+		FreeformFinSet freeform = new FreeformFinSet(new Coordinate[] {
+				new Coordinate(0, 0), new Coordinate(0.02, 0.05), new Coordinate(0.03, 0.02),
+				new Coordinate(0.05, 0.05), new Coordinate(0.06, 0) });
+		freeform.setFinCount(4);
+		freeform.setThickness(0.002);
+		assertNormalsConsistent(ComponentMeshGenerator.generate(freeform, Surface.OUTSIDE, LOD));
+		assertEquals(4 * freeform.getFinArea() * 0.002, volume(freeform), 4 * freeform.getFinArea() * 0.002 * 1e-5);
+	}
+
+	@Test
+	public void testTriangulator() {
+		double[] xs = { 0, 1, 1, 0.5, 0.5, 0 };
+		double[] ys = { 0, 0, 1, 1, 0.5, 0.5 };
+		int[] triangles = Triangulator.triangulate(xs, ys);
+		assertEquals(12, triangles.length);
+
+		double area = 0;
+		for (int i = 0; i < triangles.length; i += 3) {
+			double a = Triangulator.signedArea(new double[] { xs[triangles[i]], xs[triangles[i + 1]], xs[triangles[i + 2]] },
+					new double[] { ys[triangles[i]], ys[triangles[i + 1]], ys[triangles[i + 2]] });
+			assertTrue(a > 0);
+			area += a;
+		}
+		assertEquals(0.75, area, 1e-12);
+	}
+
+	@Test
+	public void testMassObject() {
+		MassComponent mass = new MassComponent(0.05, 0.01, 0.1);
+		Mesh mesh = ComponentMeshGenerator.generate(mass, Surface.OUTSIDE, LOD);
+		assertNormalsConsistent(mesh);
+		double v = volume(mass);
+		assertTrue(v > 0 && v < Math.PI * 0.01 * 0.01 * 0.05);
+	}
+
+	@Test
+	public void testCache() {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		BodyTube tube = (BodyTube) rocket.getChild(0).getChild(1);
+		TrapezoidFinSet fins = (TrapezoidFinSet) tube.getChild(0);
+		MeshCache cache = new MeshCache();
+
+		Mesh tubeMesh = cache.getMesh(tube, Surface.OUTSIDE, LOD);
+		Mesh finMesh = cache.getMesh(fins, Surface.OUTSIDE, LOD);
+		assertSame(tubeMesh, cache.getMesh(tube, Surface.OUTSIDE, LOD));
+		assertSame(finMesh, cache.getMesh(fins, Surface.OUTSIDE, LOD));
+		assertNotSame(tubeMesh, cache.getMesh(tube, Surface.OUTSIDE, LOD + 1));
+		assertEquals(2, cache.getHitCount());
+		assertEquals(3, cache.getMissCount());
+
+		// Changing the body tube radius changes the fins without modifying them
+		tube.setOuterRadius(0.02);
+		assertNotSame(tubeMesh, cache.getMesh(tube, Surface.OUTSIDE, LOD));
+		assertNotSame(finMesh, cache.getMesh(fins, Surface.OUTSIDE, LOD));
+	}
+
+	@Test
+	public void testExport() throws Exception {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		MeshExporter exporter = new MeshExporter(new MeshCache(), LOD, 1000);
+
+		int triangles = 0;
+		int vertices = 0;
+		for (RocketComponent c : rocket.getDefaultConfiguration()) {
+			for (Surface s : new Surface[] { Surface.OUTSIDE, Surface.INSIDE, Surface.EDGES }) {
+				Mesh mesh = ComponentMeshGenerator.generate(c, s, LOD);
+				triangles += mesh.getTriangleCount() * c.toAbsolute(Coordinate.NUL).length;
+				vertices += mesh.getVertexCount() * c.toAbsolute(Coordinate.NUL).length;
+			}
+		}
+		assertTrue(triangles > 0);
+
+		ByteArrayOutputStream stl = new ByteArrayOutputStream();
+		exporter.exportSTL(rocket.getDefaultConfiguration(), stl);
+		assertEquals(84 + 50 * triangles, stl.size());
+		byte[] bytes = stl.toByteArray();
+		assertEquals(triangles, (bytes[80] & 0xff) | (bytes[81] & 0xff) << 8 | (bytes[82] & 0xff) << 16 | (bytes[83] & 0xff) << 24);
+
+		ByteArrayOutputStream obj = new ByteArrayOutputStream();
+		exporter.exportOBJ(rocket.getDefaultConfiguration(), obj);
+		int v = 0, f = 0, o = 0;
+		for (String line : obj.toString("UTF-8").split("\n")) {
+			if (line.startsWith("v ")) {
+				v++;
+			} else if (line.startsWith("f ")) {
+				f++;
+			} else if (line.startsWith("o ")) {
+				o++;
+			}
+		}
+		assertEquals(vertices, v);
+		assertEquals(triangles, f);
+		assertEquals(3, o);
+	}
+
+
+	/**
+	 * Return the volume enclosed by all surfaces of a component, computed from
+	 * the signed volumes of the triangles.  Only correct for closed surfaces
+	 * with outward facing triangles.
+	 */
+	private static double volume(RocketComponent c) {
+		double volume = 0;
+		for (Surface s : new Surface[] { Surface.OUTSIDE, Surface.INSIDE, Surface.EDGES }) {
+			Mesh mesh = ComponentMeshGenerator.generate(c, s, LOD);
+			float[] p = mesh.getPositions();
+			int[] idx = mesh.getIndices();
+			for (int i = 0; i < idx.length; i += 3) {
+				int a = 3 * idx[i], b = 3 * idx[i + 1], d = 3 * idx[i + 2];
+				volume += (p[a] * (p[b + 1] * p[d + 2] - p[b + 2] * p[d + 1]) -
+						p[a + 1] * (p[b] * p[d + 2] - p[b + 2] * p[d]) +
+						p[a + 2] * (p[b] * p[d + 1] - p[b + 1] * p[d])) / 6.0;
+			}
+		}
+		return volume;
+	}
+
+	/**
+	 * Check that the vertex normals have unit length and are on the front side of
+	 * the triangles they belong to.
+	 */
+	private static void assertNormalsConsistent(Mesh mesh) {
+		float[] p = mesh.getPositions();
+		float[] n = mesh.getNormals();
+		for (int i = 0; i < mesh.getVertexCount(); i++) {
+			double len = Math.sqrt(n[3 * i] * n[3 * i] + n[3 * i + 1] * n[3 * i + 1] + n[3 * i + 2] * n[3 * i + 2]);
+			assertEquals(1, len, 1e-5);
+		}
+
+		int[] idx = mesh.getIndices();
+		for (int i = 0; i < idx.length; i += 3) {
+			int a = 3 * idx[i], b = 3 * idx[i + 1], c = 3 * idx[i + 2];
+			double ux = p[b] - p[a], uy = p[b + 1] - p[a + 1], uz = p[b + 2] - p[a + 2];
+			double vx = p[c] - p[a], vy = p[c + 1] - p[a + 1], vz = p[c + 2] - p[a + 2];
+			double fx = uy * vz - uz * vy;
+			double fy = uz * vx - ux * vz;
+			double fz = ux * vy - uy * vx;
+			double dot = fx * (n[a] + n[b] + n[c]) + fy * (n[a + 1] + n[b + 1] + n[c + 1]) + fz * (n[a + 2] + n[b + 2] + n[c + 2]);
+			assertTrue("Triangle " + i / 3 + " faces away from its normals", dot > 0);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package net.sf.openrocket.models.wind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
+import net.sf.openrocket.file.wind.WindProfileLoader;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.PinkNoise;
+
+import org.junit.Test;
+
+public class WindFieldTest {
+	
+	@Test
+	public void testSharedInstance() {
+		assertSame(WindField.getInstance(42), WindField.getInstance(42));
+		assertSame(WindField.getInstance(42, new double[] { 0, 1000 }), WindField.getInstance(42, new double[] { 0, 1000 }));
+		assertNotSame(WindField.getInstance(42), WindField.getInstance(43));
+	}
+	
+	@Test
+	public void testCacheBounded() {
+		WindField field = WindField.getInstance(4242);
+		for (int seed = 0; seed < 100; seed++) {
+			WindField.getInstance(seed);
+		}
+		assertNotSame(field, WindField.getInstance(4242));
+	}
+	
+	@Test
+	public void testMatchesSequentialNoise() {
+		WindField field = WindField.getInstance(1234);
+		PinkNoise noise = new PinkNoise(5.0 / 3.0, 2, new Random(1234));
+		for (int i = 0; i < 1000; i++) {
+			double expected = noise.nextValue() / 2.252;
+			assertEquals(expected, field.getValue(i * WindField.DELTA_T, 0), 1e-6);
+			assertEquals(expected, field.getValue(i * WindField.DELTA_T, 5000), 1e-6);
+		}
+	}
+	
+	@Test
+	public void testRandomAccess() {
+		WindField field = WindField.getInstance(77);
+		double late = field.getValue(120.025, 0);
+		double early = field.getValue(3.0, 0);
+		assertEquals(late, field.getValue(120.025, 0), 0);
+		assertEquals(early, field.getValue(3.0, 0), 0);
+		
+		double v1 = field.getValue(10 * WindField.DELTA_T, 0);
+		double v2 = field.getValue(11 * WindField.DELTA_T, 0);
+		assertEquals((v1 + v2) / 2, field.getValue(10.5 * WindField.DELTA_T, 0), 1e-6);
+	}
+	
+	@Test
+	public void testNoRepetition() {
+		WindField field = new WindField(99, new double[] { 0 });
+		PinkNoise noise = new PinkNoise(5.0 / 3.0, 2, new Random(99));
+		
+		// Values well beyond the first segment, requested in reverse order
+		int count = (int) Math.round(3.5 * WindField.SEGMENT_DURATION / WindField.DELTA_T);
+		double[] expected = new double[count];
+		for (int i = 0; i < count; i++) {
+			expected[i] = noise.nextValue() / 2.252;
+		}
+		for (int i = count - 1; i >= 0; i -= 7) {
+			assertEquals(expected[i], field.getValue(i * WindField.DELTA_T, 0), 1e-6);
+		}
+		assertEquals((expected[count - 2] + expected[count - 1]) / 2,
+				field.getValue((count - 1.5) * WindField.DELTA_T, 0), 1e-6);
+	}
+	
+	@Test
+	public void testLayerInterpolation() {
+		WindField layered = WindField.getInstance(5, new double[] { 0, 1000 });
+		double low = layered.getValue(2.0, 0);
+		double high = layered.getValue(2.0, 1000);
+		assertEquals((low + high) / 2, layered.getValue(2.0, 500), 1e-9);
+		assertEquals(low, layered.getValue(2.0, -100), 0);
+		assertEquals(high, layered.getValue(2.0, 3000), 0);
+	}
+	
+	@Test
+	public void testPinkNoiseWindModel() {
+		PinkNoiseWindModel model = new PinkNoiseWindModel(10);
+		model.setAverage(5);
+		model.setStandardDeviation(1);
+		model.setDirection(Math.PI / 2);
+		
+		Coordinate late = model.getWindVelocity(50, 0);
+		Coordinate early = model.getWindVelocity(1, 0);
+		assertEquals(early, model.getWindVelocity(1, 0));
+		assertEquals(late, model.getWindVelocity(50, 0));
+		assertEquals(0, early.y, 1e-9);
+		
+		PinkNoiseWindModel other = new PinkNoiseWindModel(10);
+		assertSame(model.getWindField(), other.getWindField());
+	}
+	
+	@Test
+	public void testWindProfile() throws IOException {
+		String profile = "# altitude speed direction\n" +
+				"1000, 10, 90\n" +
+				"\n" +
+				"0 2 90\n" +
+				"; comment\n" +
+				"2000 4 0\n";
+		MeasuredWindModel model = new WindProfileLoader().load(new StringReader(profile), "test");
+		assertEquals(3, model.getPointCount());
+		assertEquals(0, model.getAltitude(0), 0);
+		assertEquals(2000, model.getAltitude(2), 0);
+		
+		assertEquals(2, model.getWindVelocity(0, -10).x, 1e-9);
+		assertEquals(6, model.getWindVelocity(0, 500).x, 1e-9);
+		assertEquals(0, model.getWindVelocity(0, 500).y, 1e-9);
+		assertEquals(5, model.getWindVelocity(0, 1500).x, 1e-9);
+		assertEquals(2, model.getWindVelocity(0, 1500).y, 1e-9);
+		assertEquals(4, model.getWindVelocity(0, 5000).y, 1e-9);
+	}
+	
+	@Test
+	public void testWindProfileTurbulence() throws IOException {
+		MeasuredWindModel model = new WindProfileLoader().load(new StringReader("0 2 90\n1000 10 90\n"), "test");
+		MeasuredWindModel copy = model.clone();
+		copy.setTurbulence(0.1, 1);
+		assertEquals(0, model.getTurbulenceIntensity(), 0);
+		assertEquals(2, model.getWindVelocity(5, 0).x, 1e-9);
+		
+		MeasuredWindModel other = model.clone();
+		other.setTurbulence(0.1, 2);
+		assertFalse(copy.getModID() == other.getModID());
+		assertFalse(copy.equals(other));
+		other.setTurbulence(0.1, 1);
+		assertEquals(copy.getModID(), other.getModID());
+		assertEquals(copy, other);
+	}
+	
+	@Test(expected = IOException.class)
+	public void testIllegalWindProfile() throws IOException {
+		new WindProfileLoader().load(new StringReader("0 1\n"), "test");
+	}
+	
+}
@@ -0,0 +1,153 @@
+package net.sf.openrocket.motor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import net.sf.openrocket.rocketcomponent.IgnitionConfiguration.IgnitionEvent;
+import net.sf.openrocket.util.Coordinate;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MotorInstanceConfigurationTest {
+
+	private final double EPS = 0.000001;
+
+	private final ThrustCurveMotor motor =
+			new ThrustCurveMotor(Manufacturer.getManufacturer("foo"),
+					"X6", "Description of X6", Motor.Type.RELOAD,
+					new double[] { 0, 2, Motor.PLUGGED }, 0.05, 0.10,
+					new double[] { 0, 1, 3, 4 }, // time
+					new double[] { 0, 2, 3, 0 }, // thrust
+					new Coordinate[] {
+							new Coordinate(0.02, 0, 0, 0.05),
+							new Coordinate(0.02, 0, 0, 0.05),
+							new Coordinate(0.02, 0, 0, 0.05),
+							new Coordinate(0.03, 0, 0, 0.03)
+					}, "digestA");
+
+	private final MotorId id1 = new MotorId("component1", 1);
+	private final MotorId id2 = new MotorId("component2", 1);
+	private final MotorId id3 = new MotorId("component3", 1);
+
+	private MotorInstanceConfiguration original;
+
+	@Before
+	public void setup() {
+		original = new MotorInstanceConfiguration();
+		add(original, id1);
+		add(original, id2);
+		original.setMotorIgnitionTime(id1, 0);
+		original.setMotorIgnitionTime(id2, 1);
+	}
+
+	private void add(MotorInstanceConfiguration config, MotorId id) {
+		config.addMotor(id, motor.getInstance(), 5, null, IgnitionEvent.LAUNCH, 0, Coordinate.NUL);
+	}
+
+
+	@Test
+	public void testStepClone() {
+		MotorInstanceConfiguration clone = original.clone();
+		int modID = original.getModID();
+
+		clone.step(2, 0, null);
+		assertEquals(2, clone.getMotorInstance(id1).getTime(), EPS);
+		assertEquals(1, clone.getMotorInstance(id2).getTime(), EPS);
+		assertEquals(0, original.getMotorInstance(id1).getTime(), EPS);
+		assertEquals(0, original.getMotorInstance(id2).getTime(), EPS);
+		assertEquals(modID, original.getModID());
+		assertNotSame(original.getMotorInstance(id1), clone.getMotorInstance(id1));
+	}
+
+	@Test
+	public void testStepOriginal() {
+		MotorInstanceConfiguration clone = original.clone();
+		int modID = clone.getModID();
+
+		original.step(2, 0, null);
+		assertEquals(2, original.getMotorInstance(id1).getTime(), EPS);
+		assertEquals(0, clone.getMotorInstance(id1).getTime(), EPS);
+		assertEquals(0, clone.getMotorInstance(id2).getTime(), EPS);
+		assertEquals(modID, clone.getModID());
+	}
+
+	@Test
+	public void testStepUnignitedMotorShared() {
+		original.setMotorIgnitionTime(id2, Double.POSITIVE_INFINITY);
+		MotorInstanceConfiguration clone = original.clone();
+
+		clone.step(2, 0, null);
+		assertNotSame(original.getMotorInstance(id1), clone.getMotorInstance(id1));
+		assertSame(original.getMotorInstance(id2), clone.getMotorInstance(id2));
+	}
+
+	@Test
+	public void testIgnitionTime() {
+		MotorInstanceConfiguration clone = original.clone();
+
+		clone.setMotorIgnitionTime(id1, 3);
+		assertEquals(3, clone.getMotorIgnitionTime(id1), EPS);
+		assertEquals(0, original.getMotorIgnitionTime(id1), EPS);
+
+		original.setMotorIgnitionTime(id2, 4);
+		assertEquals(4, original.getMotorIgnitionTime(id2), EPS);
+		assertEquals(1, clone.getMotorIgnitionTime(id2), EPS);
+	}
+
+	@Test
+	public void testMotorPosition() {
+		MotorInstanceConfiguration clone = original.clone();
+		Coordinate position = new Coordinate(1, 0, 0);
+
+		clone.setMotorPosition(id1, position);
+		assertEquals(position, clone.getMotorPosition(id1));
+		assertEquals(Coordinate.NUL, original.getMotorPosition(id1));
+	}
+
+	@Test
+	public void testCloneOfClone() {
+		MotorInstanceConfiguration clone = original.clone();
+		clone.step(1.5, 0, null);
+		MotorInstanceConfiguration clone2 = clone.clone();
+
+		clone2.step(3, 0, null);
+		assertEquals(3, clone2.getMotorInstance(id1).getTime(), EPS);
+		assertEquals(2, clone2.getMotorInstance(id2).getTime(), EPS);
+		assertEquals(1.5, clone.getMotorInstance(id1).getTime(), EPS);
+		assertEquals(0.5, clone.getMotorInstance(id2).getTime(), EPS);
+		assertEquals(0, original.getMotorInstance(id1).getTime(), EPS);
+		assertEquals(0, original.getMotorInstance(id2).getTime(), EPS);
+
+		clone.step(2, 0, null);
+		assertEquals(2, clone.getMotorInstance(id1).getTime(), EPS);
+		assertEquals(3, clone2.getMotorInstance(id1).getTime(), EPS);
+		assertEquals(0, original.getMotorInstance(id1).getTime(), EPS);
+	}
+
+	@Test
+	public void testAddMotorAfterClone() {
+		MotorInstanceConfiguration clone = original.clone();
+
+		add(clone, id3);
+		assertEquals(3, clone.getMotorIDs().size());
+		assertEquals(2, original.getMotorIDs().size());
+		assertTrue(clone.getMotorIDs().contains(id3));
+		assertFalse(original.getMotorIDs().contains(id3));
+		assertEquals(Double.POSITIVE_INFINITY, clone.getMotorIgnitionTime(id3), 0);
+
+		clone.step(2, 0, null);
+		assertEquals(2, clone.getMotorInstance(id1).getTime(), EPS);
+		assertEquals(0, clone.getMotorInstance(id3).getTime(), EPS);
+		assertEquals(0, original.getMotorInstance(id1).getTime(), EPS);
+
+		// The original must still be able to add the same motor ID independently
+		add(original, id3);
+		assertEquals(3, original.getMotorIDs().size());
+		assertEquals(0, original.getMotorInstance(id3).getTime(), EPS);
+	}
+
+}
@@ -1,6 +1,12 @@
 package net.sf.openrocket.motor;
 
 import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import net.sf.openrocket.util.Coordinate;
 import net.sf.openrocket.util.Inertia;
 
@@ -62,6 +68,60 @@ public class ThrustCurveMotorTest {
 		verify(instance, 0, 0.03, 0.03);
 	}
 	
+	@Test
+	public void testAverageThrust() {
+		assertEquals(1.0, motor.getAverageThrust(0, 1), EPS);
+		assertEquals(2.5, motor.getAverageThrust(1, 3), EPS);
+		assertEquals(7.5 / 4, motor.getAverageThrust(0, 4), EPS);
+		assertEquals(7.5 / 5, motor.getAverageThrust(0, 5), EPS);
+		assertEquals((2.125 + 2.875) / 2, motor.getAverageThrust(1.5, 2.5), EPS);
+	}
+	
+	@Test
+	public void testStepOverSeveralPoints() {
+		MotorInstance instance = motor.getInstance();
+		instance.step(0.5, 0, null);
+		instance.step(3.5, 0, null);
+		// Impulse 0.25 -> 7.5 - 0.375 over 3 seconds
+		verify(instance, (7.125 - 0.25) / 3, 0.045, 0.0225);
+	}
+	
+	@Test
+	public void testZeroThrustAfterRounding() {
+		// The impulse at the end of the thrust rounds slightly above the total impulse
+		ThrustCurveMotor m = new ThrustCurveMotor(Manufacturer.getManufacturer("foo"),
+				"X7", "Description of X7", Motor.Type.SINGLE,
+				new double[] {0}, radius*2, length,
+				new double[] {0, 0.71, 0.97, 1.97},  // time
+				new double[] {0, 21.5, 0, 0},  // thrust
+				new Coordinate[] {
+					new Coordinate(0.02,0,0,0.05),
+					new Coordinate(0.02,0,0,0.05),
+					new Coordinate(0.02,0,0,0.05),
+					new Coordinate(0.02,0,0,0.05)
+		}, "digestB");
+		
+		assertEquals(0, m.getAverageThrust(0.9699999999999219, 1.09), 0);
+		MotorInstance instance = m.getInstance();
+		instance.step(0.9699999999999219, 0, null);
+		instance.step(1.09, 0, null);
+		assertEquals(0, instance.getThrust(), 0);
+	}
+	
+	@Test
+	public void testSerialization() throws Exception {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(bos);
+		oos.writeObject(motor);
+		oos.close();
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+		ThrustCurveMotor copy = (ThrustCurveMotor) ois.readObject();
+		
+		MotorInstance instance = copy.getInstance();
+		instance.step(2.5, 0, null);
+		assertEquals(4.5625 / 2.5, instance.getThrust(), EPS);
+	}
+	
 	private void verify(MotorInstance instance, double thrust, double mass, double cgx) {
 		assertEquals("Testing thrust", thrust, instance.getThrust(), EPS);
 		assertEquals("Testing mass", mass, instance.getCG().weight, EPS);
@@ -0,0 +1,115 @@
+package net.sf.openrocket.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import net.sf.openrocket.util.JarUtil;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AnnotationFinderImplTest {
+
+	private File dir;
+	private File jar;
+	private File index;
+
+	@Before
+	public void setup() throws IOException {
+		dir = File.createTempFile("annotation-index", "");
+		dir.delete();
+		dir.mkdir();
+		jar = new File(dir, "test-plugin.jar");
+		// The test plugin JAR is located through the class path of the tests
+		copy(JarUtil.urlToFile(JarPluginImpl.class.getProtectionDomain().getCodeSource().getLocation()), jar);
+		index = new File(dir, "index.txt");
+	}
+
+	@After
+	public void teardown() {
+		for (File f : dir.listFiles()) {
+			f.delete();
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void testIndexReused() throws Exception {
+		List<File> classPath = Arrays.asList(jar);
+
+		AnnotationFinderImpl finder = new AnnotationFinderImpl(index);
+		List<Class<?>> first = finder.findAnnotatedTypes(Plugin.class, classPath);
+		assertEquals(1, finder.scannedEntries);
+		assertTrue(index.isFile());
+		assertEquals(1, first.size());
+		assertEquals("JarPluginImpl", first.get(0).getSimpleName());
+
+		finder = new AnnotationFinderImpl(index);
+		List<Class<?>> second = finder.findAnnotatedTypes(Plugin.class, classPath);
+		assertEquals(0, finder.scannedEntries);
+		assertEquals(first, second);
+	}
+
+	@Test
+	public void testChangedJarRescanned() throws Exception {
+		List<File> classPath = Arrays.asList(jar);
+		AnnotationFinderImpl finder = new AnnotationFinderImpl(index);
+		finder.findAnnotatedTypes(Plugin.class, classPath);
+
+		jar.setLastModified(jar.lastModified() - 10000);
+		List<Class<?>> classes = finder.findAnnotatedTypes(Plugin.class, classPath);
+		assertEquals(1, finder.scannedEntries);
+		assertEquals(1, classes.size());
+
+		classes = finder.findAnnotatedTypes(Plugin.class, classPath);
+		assertEquals(0, finder.scannedEntries);
+		assertEquals(1, classes.size());
+	}
+
+	@Test
+	public void testCorruptIndex() throws Exception {
+		FileWriter writer = new FileWriter(index);
+		writer.write("garbage\nmore garbage\n");
+		writer.close();
+
+		AnnotationFinderImpl finder = new AnnotationFinderImpl(index);
+		List<Class<?>> classes = finder.findAnnotatedTypes(Plugin.class, Arrays.asList(jar));
+		assertEquals(1, finder.scannedEntries);
+		assertEquals(1, classes.size());
+
+		finder.findAnnotatedTypes(Plugin.class, Arrays.asList(jar));
+		assertEquals(0, finder.scannedEntries);
+	}
+
+	@Test
+	public void testNoIndex() throws Exception {
+		AnnotationFinderImpl finder = new AnnotationFinderImpl(null);
+		finder.findAnnotatedTypes(Plugin.class, Arrays.asList(jar));
+		finder.findAnnotatedTypes(Plugin.class, Arrays.asList(jar));
+		assertEquals(1, finder.scannedEntries);
+	}
+
+	private static void copy(File from, File to) throws IOException {
+		InputStream in = new FileInputStream(from);
+		OutputStream out = new FileOutputStream(to);
+		byte[] buffer = new byte[8192];
+		int n;
+		while ((n = in.read(buffer)) > 0) {
+			out.write(buffer, 0, n);
+		}
+		in.close();
+		out.close();
+	}
+
+}
@@ -0,0 +1,75 @@
+package net.sf.openrocket.preset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import net.sf.openrocket.material.Material;
+import net.sf.openrocket.motor.Manufacturer;
+import net.sf.openrocket.rocketcomponent.ExternalComponent.Finish;
+import net.sf.openrocket.rocketcomponent.Transition.Shape;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+
+import org.junit.Test;
+
+public class ComponentPresetSnapshotTest extends BaseTestCase {
+	
+	@Test
+	public void testRoundTrip() throws Exception {
+		TypedPropertyMap props = new TypedPropertyMap();
+		props.put(ComponentPreset.TYPE, ComponentPreset.Type.NOSE_CONE);
+		props.put(ComponentPreset.MANUFACTURER, Manufacturer.getManufacturer("Estes"));
+		props.put(ComponentPreset.PARTNO, "PNC-50");
+		props.put(ComponentPreset.DESCRIPTION, "Nose cone");
+		props.put(ComponentPreset.SHAPE, Shape.OGIVE);
+		props.put(ComponentPreset.AFT_OUTER_DIAMETER, 0.025);
+		props.put(ComponentPreset.AFT_SHOULDER_DIAMETER, 0.024);
+		props.put(ComponentPreset.AFT_SHOULDER_LENGTH, 0.02);
+		props.put(ComponentPreset.LENGTH, 0.1);
+		props.put(ComponentPreset.FINISH, Finish.POLISHED);
+		props.put(ComponentPreset.FILLED, true);
+		props.put(ComponentPreset.MATERIAL, Material.newMaterial(Material.Type.BULK, "Balsa", 170, false));
+		ComponentPreset nose = ComponentPresetFactory.create(props);
+		
+		props = new TypedPropertyMap();
+		props.put(ComponentPreset.TYPE, ComponentPreset.Type.PARACHUTE);
+		props.put(ComponentPreset.MANUFACTURER, Manufacturer.getManufacturer("Estes"));
+		props.put(ComponentPreset.PARTNO, "CH-12");
+		props.put(ComponentPreset.DIAMETER, 0.3);
+		props.put(ComponentPreset.SIDES, 6);
+		props.put(ComponentPreset.LINE_COUNT, 6);
+		props.put(ComponentPreset.LINE_LENGTH, 0.3);
+		ComponentPreset chute = ComponentPresetFactory.create(props);
+		
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		ComponentPresetSnapshot.write(bos, Arrays.asList(nose, chute));
+		List<ComponentPreset> read = ComponentPresetSnapshot.read(new ByteArrayInputStream(bos.toByteArray()));
+		
+		assertEquals(2, read.size());
+		assertEquals(nose, read.get(0));
+		assertEquals(chute, read.get(1));
+		assertEquals(Shape.OGIVE, read.get(0).get(ComponentPreset.SHAPE));
+		assertEquals("Balsa", read.get(0).get(ComponentPreset.MATERIAL).getName());
+		assertEquals(Integer.valueOf(6), read.get(1).get(ComponentPreset.SIDES));
+	}
+	
+	@Test
+	public void testInvalidHeader() throws Exception {
+		try {
+			ComponentPresetSnapshot.read(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 0, 0, 0, 1 }));
+			fail();
+		} catch (IOException expected) {
+		}
+		try {
+			ComponentPresetSnapshot.read(new ByteArrayInputStream(new byte[] { 'O', 'R', 'P', 'S', 0, 0, 0, 99 }));
+			fail();
+		} catch (IOException expected) {
+		}
+	}
+	
+}
@@ -21,7 +21,7 @@ public class ComponentCompare {
 			"getStageNumber", "getComponentName",
 			"getStageSeparationConfiguration",
 			"getMotorConfiguration",
-			"getIgnitionConfiguration",
+			"getIgnitionConfiguration", "getStateModID",
 			// Rocket specific methods:
 			"getModID", "getMassModID", "getAerodynamicModID", "getTreeModID", "getFunctionalModID",
 			"getFlightConfigurationIDs", "getDefaultConfiguration", "getMotorMounts"
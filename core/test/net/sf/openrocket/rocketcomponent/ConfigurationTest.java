@@ -291,6 +291,48 @@ public class ConfigurationTest extends BaseTestCase {
 		
 	}
 	
+	/**
+	 * Test that changing the stages of a clone does not affect the original and vice versa
+	 */
+	@Test
+	public void testCloneStages() {
+		
+		/* Setup */
+		Rocket r1 = makeTwoStageTestRocket();
+		Configuration config = r1.getDefaultConfiguration();
+		config.setAllStages();
+		
+		BitSet allStages = new BitSet();
+		allStages.set(0, 2, true);
+		BitSet firstStage = new BitSet();
+		firstStage.set(0, true);
+		
+		/* Test */
+		
+		// setToStage on the clone leaves the original unchanged
+		Configuration configClone = config.clone();
+		configClone.setToStage(0);
+		validateStages(configClone, 2, firstStage);
+		validateStages(config, 2, allStages);
+		
+		// setAllStages on the clone leaves the original unchanged
+		config.setOnlyStage(0);
+		configClone = config.clone();
+		configClone.setAllStages();
+		validateStages(configClone, 2, allStages);
+		validateStages(config, 2, firstStage);
+		
+		// changing the original leaves the clone unchanged
+		Configuration configClone2 = configClone.clone();
+		configClone.setToStage(0);
+		validateStages(configClone2, 2, allStages);
+		validateStages(configClone, 2, firstStage);
+		
+		// Cleanup
+		config.release();
+		
+	}
+	
 	///////////////////// Helper Methods ////////////////////////////
 	
 	public void validateStages(Configuration config, int expectedStageCount, BitSet activeStageFlags) {
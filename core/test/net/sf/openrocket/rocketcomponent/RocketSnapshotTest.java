@@ -0,0 +1,107 @@
+package net.sf.openrocket.rocketcomponent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.OpenRocketDocumentFactory;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class RocketSnapshotTest extends BaseTestCase {
+	
+	@Test
+	public void testRestore() {
+		Rocket rocket = TestRockets.makeIsoHaisu();
+		Rocket copy = rocket.copyWithOriginalID();
+		
+		RocketSnapshot snapshot = RocketSnapshot.create(rocket, null);
+		Rocket restored = snapshot.restore();
+		ComponentCompare.assertDeepEquality(copy, restored);
+		assertEquals(rocket.getModID(), snapshot.getModID());
+		
+		// Modifying the restored rocket does not affect the snapshot
+		restored.getChild(0).getChild(0).setName("Modified");
+		ComponentCompare.assertDeepEquality(copy, snapshot.restore());
+	}
+	
+	@Test
+	public void testSharing() {
+		Rocket rocket = TestRockets.makeIsoHaisu();
+		RocketSnapshot first = RocketSnapshot.create(rocket, null);
+		long fullSize = RocketSnapshot.estimateSize(Arrays.asList(first));
+		
+		RocketSnapshot unchanged = RocketSnapshot.create(rocket, first);
+		long size = RocketSnapshot.estimateSize(Arrays.asList(first, unchanged));
+		assertTrue("Unchanged snapshot should be shared, size=" + size + " full=" + fullSize,
+				size < fullSize * 1.1);
+		
+		Rocket before = rocket.copyWithOriginalID();
+		rocket.getChild(0).getChild(1).setName("Changed");
+		RocketSnapshot changed = RocketSnapshot.create(rocket, unchanged);
+		size = RocketSnapshot.estimateSize(Arrays.asList(first, unchanged, changed));
+		assertTrue("Changed snapshot should share unchanged components, size=" + size + " full=" + fullSize,
+				size < fullSize * 1.5);
+		
+		ComponentCompare.assertDeepEquality(before, unchanged.restore());
+		ComponentCompare.assertDeepEquality(rocket, changed.restore());
+	}
+	
+	@Test
+	public void testUndoRedo() {
+		Rocket rocket = TestRockets.makeBigBlue();
+		OpenRocketDocument document = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		RocketComponent component = rocket.getChild(0).getChild(1);
+		String name = component.getName();
+		
+		document.addUndoPosition("Rename");
+		component.setName("First");
+		document.addUndoPosition("Rename");
+		rocket.getChild(0).getChild(1).setName("Second");
+		document.addUndoPosition("Remove");
+		rocket.getChild(0).removeChild(0);
+		
+		assertTrue(document.isUndoAvailable());
+		document.undo();
+		assertEquals("Second", rocket.getChild(0).getChild(1).getName());
+		document.undo();
+		assertEquals("First", rocket.getChild(0).getChild(1).getName());
+		document.undo();
+		assertEquals(name, rocket.getChild(0).getChild(1).getName());
+		assertFalse(document.isUndoAvailable());
+		
+		document.redo();
+		document.redo();
+		assertEquals("Second", rocket.getChild(0).getChild(1).getName());
+		int children = rocket.getChild(0).getChildCount();
+		document.redo();
+		assertEquals(children - 1, rocket.getChild(0).getChildCount());
+		assertFalse(document.isRedoAvailable());
+	}
+	
+	@Test
+	public void testMemoryLimit() {
+		Rocket rocket = TestRockets.makeBigBlue();
+		OpenRocketDocument document = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		document.setUndoMemoryLimit(1);
+		
+		for (int i = 0; i < 50; i++) {
+			document.addUndoPosition("Rename");
+			rocket.getChild(0).getChild(0).setName("Name " + i);
+		}
+		document.addUndoPosition("Final");
+		
+		assertEquals(OpenRocketDocument.UNDO_MIN_LEVELS + 1, document.getUndoHistorySize());
+		for (int i = 0; i < OpenRocketDocument.UNDO_MIN_LEVELS; i++) {
+			document.undo();
+		}
+		assertEquals("Name 44", rocket.getChild(0).getChild(0).getName());
+		assertFalse(document.isUndoAvailable());
+	}
+	
+}
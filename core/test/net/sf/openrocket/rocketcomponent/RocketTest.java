@@ -1,6 +1,17 @@
 package net.sf.openrocket.rocketcomponent;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
 import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.TestRockets;
 
 import org.junit.Test;
 
@@ -20,4 +31,161 @@ public class RocketTest extends BaseTestCase {
 		ComponentCompare.assertDeepEquality(r1, r2);
 	}
 	
+	@Test
+	public void testAbsolutePositionCache() {
+		Rocket rocket = TestRockets.makeIsoHaisu();
+		Stage stage = (Stage) rocket.getChild(0);
+		RocketComponent nose = stage.getChild(0);
+		BodyTube tube3 = (BodyTube) stage.getChild(3);
+		
+		InnerTube mount = new InnerTube();
+		mount.setClusterConfiguration(ClusterConfiguration.CONFIGURATIONS[5]);
+		mount.setRelativePosition(RocketComponent.Position.BOTTOM);
+		tube3.addChild(mount);
+		MassComponent mass = new MassComponent(0.02, 0.005, 0.01);
+		mount.addChild(mass);
+		assertEquals(4, mass.toAbsolute(Coordinate.NUL).length);
+		assertPositions(rocket);
+		
+		// Returned arrays may be modified by the caller
+		Coordinate[] array = mass.toAbsolute(Coordinate.NUL);
+		array[0] = Coordinate.NaN;
+		assertNotSame(array, mass.toAbsolute(Coordinate.NUL));
+		assertPositions(rocket);
+		
+		// Moving a previous component moves all following ones
+		double before = mass.toAbsolute(Coordinate.NUL)[0].x;
+		((NoseCone) nose).setLength(nose.getLength() + 0.1);
+		assertEquals(before + 0.1, mass.toAbsolute(Coordinate.NUL)[0].x, 1e-10);
+		assertPositions(rocket);
+		
+		mount.setPositionValue(-0.05);
+		mount.setRelativePosition(RocketComponent.Position.ABSOLUTE);
+		assertPositions(rocket);
+		
+		mount.setClusterConfiguration(ClusterConfiguration.CONFIGURATIONS[6]);
+		assertEquals(5, mass.toAbsolute(Coordinate.NUL).length);
+		assertPositions(rocket);
+		
+		rocket.freeze();
+		try {
+			stage.removeChild(nose);
+			assertPositions(rocket);
+		} finally {
+			rocket.thaw();
+		}
+		assertPositions(rocket);
+		
+		stage.addChild(nose, 0);
+		assertPositions(rocket);
+	}
+	
+	private static void assertPositions(Rocket rocket) {
+		Coordinate c = new Coordinate(0.1, 0.02, -0.03, 1.5);
+		for (RocketComponent component : rocket) {
+			// Relative to the root the positions are computed without the cache
+			assertArrayEquals(component.toRelative(Coordinate.NUL, rocket), component.toAbsolute(Coordinate.NUL));
+			Coordinate[] expected = component.toRelative(c, rocket);
+			Coordinate[] actual = component.toAbsolute(c);
+			assertEquals(expected.length, actual.length);
+			for (int i = 0; i < expected.length; i++) {
+				assertEquals(0, expected[i].sub(actual[i]).length(), 1e-12);
+				assertEquals(expected[i].weight, actual[i].weight, 0);
+			}
+		}
+	}
+	
+	@Test
+	public void testTargetedListeners() {
+		Rocket rocket = TestRockets.makeIsoHaisu();
+		RocketComponent nose = rocket.getChild(0).getChild(0);
+		EventRecorder all = new EventRecorder();
+		EventRecorder tree = new EventRecorder();
+		rocket.addComponentChangeListener(all);
+		rocket.addComponentChangeListener(tree, ComponentChangeEvent.TREE_CHANGE, false);
+		
+		nose.setName("Nose");
+		((NoseCone) nose).setLength(0.6);
+		assertEquals(2, all.events.size());
+		assertEquals(0, tree.events.size());
+		
+		// Listeners removed during dispatch are still notified of the current event
+		final EventRecorder removed = new EventRecorder();
+		rocket.addComponentChangeListener(new ComponentChangeListener() {
+			@Override
+			public void componentChanged(ComponentChangeEvent e) {
+				((Rocket) e.getSource().getRoot()).removeComponentChangeListener(removed);
+			}
+		});
+		rocket.addComponentChangeListener(removed);
+		rocket.getChild(0).removeChild(nose);
+		assertEquals(1, tree.events.size());
+		assertEquals(1, removed.events.size());
+		rocket.getChild(0).addChild(nose, 0);
+		assertEquals(2, tree.events.size());
+		assertEquals(1, removed.events.size());
+		
+		rocket.removeComponentChangeListener(all);
+		nose.setName("Cone");
+		assertEquals(4, all.events.size());
+	}
+	
+	@Test
+	public void testCoalescedListeners() {
+		Rocket rocket = TestRockets.makeIsoHaisu();
+		NoseCone nose = (NoseCone) rocket.getChild(0).getChild(0);
+		final List<Runnable> tasks = new ArrayList<Runnable>();
+		rocket.setCoalescingExecutor(new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				tasks.add(command);
+			}
+		});
+		EventRecorder immediate = new EventRecorder();
+		EventRecorder coalesced = new EventRecorder();
+		EventRecorder coalescedMass = new EventRecorder();
+		rocket.addComponentChangeListener(immediate);
+		rocket.addComponentChangeListener(coalesced, ComponentChangeEvent.ALL_CHANGE, true);
+		rocket.addComponentChangeListener(coalescedMass, ComponentChangeEvent.MASS_CHANGE, true);
+		
+		nose.setName("Nose");
+		nose.setLength(0.6);
+		nose.setLength(0.7);
+		assertEquals(3, immediate.events.size());
+		assertEquals(0, coalesced.events.size());
+		assertEquals(1, tasks.size());
+		
+		// Components are notified immediately
+		assertEquals(0.7, rocket.getChild(0).getChild(1).toAbsolute(Coordinate.NUL)[0].x, 1e-10);
+		
+		tasks.remove(0).run();
+		assertEquals(1, coalesced.events.size());
+		ComponentChangeEvent e = coalesced.events.get(0);
+		assertSame(nose, e.getSource());
+		assertEquals(ComponentChangeEvent.NONFUNCTIONAL_CHANGE | ComponentChangeEvent.BOTH_CHANGE, e.getType());
+		assertEquals(1, coalescedMass.events.size());
+		
+		// A new window is opened by the next event
+		nose.setName("Cone");
+		assertEquals(1, tasks.size());
+		tasks.remove(0).run();
+		assertEquals(2, coalesced.events.size());
+		assertEquals(1, coalescedMass.events.size());
+		
+		// Without an executor coalesced listeners are notified immediately
+		rocket.setCoalescingExecutor(null);
+		nose.setLength(0.5);
+		assertEquals(3, coalesced.events.size());
+		assertEquals(0, tasks.size());
+	}
+	
+	private static class EventRecorder implements ComponentChangeListener {
+		private final List<ComponentChangeEvent> events = new ArrayList<ComponentChangeEvent>();
+		
+		@Override
+		public void componentChanged(ComponentChangeEvent e) {
+			events.add(e);
+		}
+	}
+	
 }
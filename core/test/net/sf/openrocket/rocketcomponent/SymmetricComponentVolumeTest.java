@@ -1,6 +1,9 @@
 package net.sf.openrocket.rocketcomponent;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import net.sf.openrocket.material.Material;
 import net.sf.openrocket.util.Coordinate;
 import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
@@ -447,4 +450,79 @@ public class SymmetricComponentVolumeTest extends BaseTestCase {
 		assertEquals(mass, cg.weight, epsilonPercent * mass);
 	}
 	
+	@Test
+	public void curvedNoseConesFilled() {
+		final double epsilon = 0.001;
+		final double length = 0.3;
+		final double radius = 0.05;
+		
+		// Power series k=0.5 (paraboloid), volume = PI*R^2*L/(2k+1)
+		NoseCone nc = new NoseCone(Transition.Shape.POWER, length, radius);
+		nc.setAftRadius(radius);
+		nc.setShapeParameter(0.5);
+		nc.setFilled(true);
+		double volume = Math.PI * radius * radius * length / 2;
+		assertEquals(volume, nc.getComponentVolume(), epsilon * volume);
+		assertEquals(2.0 / 3.0 * length, nc.getComponentCG().x, epsilon * length);
+		
+		// Von Karman (LD-Haack), volume = PI*R^2*L/2
+		nc = new NoseCone(Transition.Shape.HAACK, length, radius);
+		nc.setAftRadius(radius);
+		nc.setShapeParameter(0);
+		nc.setFilled(true);
+		assertEquals(volume, nc.getComponentVolume(), epsilon * volume);
+	}
+	
+	@Test
+	public void simpleConeFilledInertia() {
+		final double epsilon = 0.001;
+		final double length = 1.0;
+		final double radius = 0.5;
+		
+		NoseCone nc = new NoseCone(Transition.Shape.CONICAL, length, radius);
+		nc.setAftRadius(radius);
+		nc.setFilled(true);
+		
+		// Solid cone about its CG
+		double longitudinal = 3.0 / 20.0 * radius * radius + 3.0 / 80.0 * length * length;
+		double rotational = 3.0 / 10.0 * radius * radius;
+		assertEquals(longitudinal, nc.getLongitudinalUnitInertia(), epsilon * longitudinal);
+		assertEquals(rotational, nc.getRotationalUnitInertia(), epsilon * rotational);
+	}
+	
+	@Test
+	public void sharedIntegrals() {
+		NoseCone nc1 = noseCone(Transition.Shape.HAACK, 0.333, 0.002);
+		NoseCone nc2 = noseCone(Transition.Shape.HAACK, 0.333, 0.002);
+		assertSame(nc1.getIntegrals(), nc2.getIntegrals());
+		assertEquals(nc1.getComponentVolume(), nc2.getComponentVolume(), 0);
+		
+		NoseCone nc3 = noseCone(Transition.Shape.HAACK, 0, 0.002);
+		assertNotSame(nc1.getIntegrals(), nc3.getIntegrals());
+		assertTrue(nc3.getComponentVolume() < nc1.getComponentVolume());
+		NoseCone nc4 = noseCone(Transition.Shape.HAACK, 0.333, 0.001);
+		assertNotSame(nc1.getIntegrals(), nc4.getIntegrals());
+		
+		// The parameter is not used by all shapes
+		assertSame(noseCone(Transition.Shape.ELLIPSOID, 0.2, 0.002).getIntegrals(),
+				noseCone(Transition.Shape.ELLIPSOID, 0.8, 0.002).getIntegrals());
+		
+		// Changing a component within a rocket updates its values
+		Rocket rocket = new Rocket();
+		Stage stage = new Stage();
+		rocket.addChild(stage);
+		stage.addChild(nc2);
+		nc2.setShapeParameter(0);
+		assertSame(nc3.getIntegrals(), nc2.getIntegrals());
+		assertEquals(nc3.getComponentVolume(), nc2.getComponentVolume(), 0);
+	}
+	
+	private static NoseCone noseCone(Transition.Shape shape, double parameter, double thickness) {
+		NoseCone nc = new NoseCone(shape, 0.25, 0.03);
+		nc.setAftRadius(0.03);
+		nc.setShapeParameter(parameter);
+		nc.setThickness(thickness);
+		return nc;
+	}
+	
 }
@@ -0,0 +1,68 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class BasicEventSimulationEngineTest extends BaseTestCase {
+
+	private FlightData simulate(boolean summaryOnly) throws Exception {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		Simulation sim = new Simulation(rocket);
+		SimulationOptions options = sim.getOptions();
+		options.setMotorConfigurationID(rocket.getDefaultConfiguration().getFlightConfigurationID());
+		options.setRandomSeed(1234);
+		options.setLaunchRodLength(1);
+		options.setLaunchAltitude(0);
+		options.setLaunchLatitude(28.61);
+		options.setLaunchLongitude(-80.6);
+		options.setISAAtmosphere(true);
+		options.setTimeStep(0.01);
+		options.setWindSpeedAverage(3);
+		options.setWindSpeedDeviation(1);
+		options.setSummaryDataOnly(summaryOnly);
+		sim.simulate();
+		return sim.getSimulatedData();
+	}
+
+	@Test
+	public void testSummaryDataOnly() throws Exception {
+		FlightData full = simulate(false);
+		FlightData summary = simulate(true);
+
+		assertEquals(full.getMaxAltitude(), summary.getMaxAltitude(), 0);
+		assertEquals(full.getMaxVelocity(), summary.getMaxVelocity(), 0);
+		assertEquals(full.getMaxAcceleration(), summary.getMaxAcceleration(), 0);
+		assertEquals(full.getMaxMachNumber(), summary.getMaxMachNumber(), 0);
+		assertEquals(full.getTimeToApogee(), summary.getTimeToApogee(), 0);
+		assertEquals(full.getFlightTime(), summary.getFlightTime(), 0);
+		assertEquals(full.getLaunchRodVelocity(), summary.getLaunchRodVelocity(), 0);
+
+		FlightDataBranch branch = summary.getBranch(0);
+		assertEquals(full.getBranch(0).getLength(), branch.getLength());
+		assertTrue(branch.getTypes().length < full.getBranch(0).getTypes().length);
+		assertTrue(!Arrays.asList(branch.getTypes()).contains(FlightDataType.TYPE_LATITUDE));
+	}
+
+	@Test
+	public void testFixTypes() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME);
+		branch.fixTypes();
+		branch.addPoint();
+		branch.setValue(FlightDataType.TYPE_TIME, 1.0);
+		branch.setValue(FlightDataType.TYPE_ALTITUDE, 2.0);
+
+		assertEquals(1, branch.getTypes().length);
+		assertEquals(1.0, branch.getLast(FlightDataType.TYPE_TIME), 0);
+		assertTrue(Double.isNaN(branch.getLast(FlightDataType.TYPE_ALTITUDE)));
+	}
+
+}
@@ -0,0 +1,119 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+
+import org.junit.Test;
+
+public class FlightDataDecimatorTest extends BaseTestCase {
+
+	private static final int LENGTH = 100000;
+	private static final double DT = 0.001;
+
+	/**
+	 * Create a branch with a smooth altitude curve, a noisy acceleration and an
+	 * event in the middle of the flight.
+	 */
+	private FlightDataBranch createBranch() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME,
+				FlightDataType.TYPE_ALTITUDE, FlightDataType.TYPE_ACCELERATION_TOTAL);
+		for (int i = 0; i < LENGTH; i++) {
+			double t = i * DT;
+			branch.addPoint();
+			branch.setValue(FlightDataType.TYPE_TIME, t);
+			branch.setValue(FlightDataType.TYPE_ALTITUDE, 100 * t * (LENGTH * DT - t));
+			branch.setValue(FlightDataType.TYPE_ACCELERATION_TOTAL, Math.sin(t * 7) + ((i % 1000 == 0) ? 5 : 0));
+		}
+		branch.addEvent(new FlightEvent(FlightEvent.Type.APOGEE, 50.0005));
+		return branch;
+	}
+
+	@Test
+	public void testTimeSkipPreservesEvents() {
+		FlightDataBranch branch = createBranch();
+		int[] indices = FlightDataDecimator.timeSkip(branch, 1.0);
+
+		assertEquals(0, indices[0]);
+		assertEquals(LENGTH - 1, indices[indices.length - 1]);
+		assertTrue(Arrays.binarySearch(indices, 50000) >= 0);
+		assertTrue(Arrays.binarySearch(indices, 50001) >= 0);
+		assertTrue(indices.length < 110);
+	}
+
+	@Test
+	public void testTimeSkipAll() {
+		FlightDataBranch branch = createBranch();
+		assertEquals(LENGTH, FlightDataDecimator.timeSkip(branch, 0).length);
+	}
+
+	@Test
+	public void testSimplifyErrorBound() {
+		FlightDataBranch branch = createBranch();
+		FlightDataType[] types = { FlightDataType.TYPE_ALTITUDE, FlightDataType.TYPE_ACCELERATION_TOTAL };
+		double tolerance = 0.001;
+		int[] indices = FlightDataDecimator.simplify(branch, types, tolerance);
+
+		assertTrue("Too many points: " + indices.length, indices.length < LENGTH / 10);
+		assertTrue(Arrays.binarySearch(indices, 50000) >= 0);
+		assertTrue(Arrays.binarySearch(indices, 50001) >= 0);
+
+		// Check the error of the interpolated values at every point
+		double[] time = toArray(branch, FlightDataType.TYPE_TIME);
+		for (FlightDataType type : types) {
+			double[] values = toArray(branch, type);
+			double limit = tolerance * (branch.getMaximum(type) - branch.getMinimum(type));
+			for (int k = 0; k < indices.length - 1; k++) {
+				int a = indices[k];
+				int b = indices[k + 1];
+				for (int p = a + 1; p < b; p++) {
+					double f = (time[p] - time[a]) / (time[b] - time[a]);
+					double interpolated = values[a] + (values[b] - values[a]) * f;
+					assertEquals(values[p], interpolated, limit * 1.000001);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testShortBranch() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		for (int i = 0; i < 5; i++) {
+			branch.addPoint();
+			branch.setValue(FlightDataType.TYPE_TIME, i);
+			branch.setValue(FlightDataType.TYPE_ALTITUDE, i * i);
+		}
+		int[] all = { 0, 1, 2, 3, 4 };
+		assertArrayEquals(all, FlightDataDecimator.timeSkip(branch, 0.5));
+		assertArrayEquals(all, FlightDataDecimator.simplify(branch,
+				new FlightDataType[] { FlightDataType.TYPE_ALTITUDE }, 0));
+	}
+
+	@Test
+	public void testNaNGapsRetained() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		for (int i = 0; i < 1000; i++) {
+			branch.addPoint();
+			branch.setValue(FlightDataType.TYPE_TIME, i);
+			branch.setValue(FlightDataType.TYPE_ALTITUDE, (i >= 400 && i < 600) ? Double.NaN : i);
+		}
+		int[] indices = FlightDataDecimator.simplify(branch,
+				new FlightDataType[] { FlightDataType.TYPE_ALTITUDE }, 0.01);
+		assertArrayEquals(new int[] { 0, 399, 400, 599, 600, 999 }, indices);
+	}
+
+	private static double[] toArray(FlightDataBranch branch, FlightDataType type) {
+		List<Double> list = branch.get(type);
+		double[] array = new double[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+}
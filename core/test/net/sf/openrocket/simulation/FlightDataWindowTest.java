@@ -0,0 +1,104 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class FlightDataWindowTest {
+
+	private static final double EPS = 1e-9;
+
+	private static void addPoint(FlightDataBranch branch, double time, double altitude) {
+		branch.addPoint();
+		branch.setValue(FlightDataType.TYPE_TIME, time);
+		branch.setValue(FlightDataType.TYPE_ALTITUDE, altitude);
+	}
+
+	@Test
+	public void testLast() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		assertEquals(0, branch.last(FlightDataType.TYPE_ALTITUDE, 3).length);
+
+		addPoint(branch, 0, 10);
+		addPoint(branch, 1, 20);
+		assertArrayEquals(new double[] { 10, 20 }, branch.last(FlightDataType.TYPE_ALTITUDE, 3), 0);
+
+		addPoint(branch, 2, 30);
+		addPoint(branch, 3, 40);
+		assertArrayEquals(new double[] { 20, 30, 40 }, branch.last(FlightDataType.TYPE_ALTITUDE, 3), 0);
+		assertTrue(Double.isNaN(branch.last(FlightDataType.TYPE_MACH_NUMBER, 2)[1]));
+	}
+
+	@Test
+	public void testWindowSlides() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		FlightDataWindow window = branch.window(3);
+		assertEquals(0, window.getLength());
+		assertTrue(Double.isNaN(window.derivative(FlightDataType.TYPE_ALTITUDE)));
+
+		addPoint(branch, 0, 5);
+		addPoint(branch, 1, 7);
+		assertEquals(2, window.getLength());
+		assertEquals(5, window.get(FlightDataType.TYPE_ALTITUDE, 0), 0);
+
+		addPoint(branch, 2, 9);
+		addPoint(branch, 3, 11);
+		assertEquals(3, window.getLength());
+		assertEquals(7, window.get(FlightDataType.TYPE_ALTITUDE, 0), 0);
+		assertEquals(11, window.get(FlightDataType.TYPE_ALTITUDE, 2), 0);
+	}
+
+	@Test
+	public void testDerivative() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		for (int i = 0; i < 100; i++) {
+			double t = 1000 + 0.01 * i;
+			addPoint(branch, t, 3 * t - 2);
+		}
+		assertEquals(3, branch.window(2).derivative(FlightDataType.TYPE_ALTITUDE), 1e-6);
+		assertEquals(3, branch.window(10).derivative(FlightDataType.TYPE_ALTITUDE), 1e-6);
+
+		// Two points give the plain difference quotient
+		addPoint(branch, 1001, 5000);
+		double expected = (5000 - branch.getValue(FlightDataType.TYPE_ALTITUDE, 99)) /
+				(1001 - branch.getValue(FlightDataType.TYPE_TIME, 99));
+		assertEquals(expected, branch.window(2).derivative(FlightDataType.TYPE_ALTITUDE), EPS * Math.abs(expected));
+
+		// No change in time
+		addPoint(branch, 1001, 5000);
+		assertTrue(Double.isNaN(branch.window(2).derivative(FlightDataType.TYPE_ALTITUDE)));
+		assertTrue(Double.isNaN(branch.window(1).derivative(FlightDataType.TYPE_ALTITUDE)));
+	}
+
+	@Test
+	public void testIntegral() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		assertEquals(0, branch.window(5).integral(FlightDataType.TYPE_ALTITUDE), 0);
+		for (int i = 0; i <= 10; i++) {
+			addPoint(branch, i * 0.5, 2 * i * 0.5);
+		}
+		// Integral of 2t from 2.5 to 5
+		assertEquals(25 - 6.25, branch.window(6).integral(FlightDataType.TYPE_ALTITUDE), EPS);
+		assertEquals(25, branch.window(100).integral(FlightDataType.TYPE_ALTITUDE), EPS);
+	}
+
+	@Test
+	public void testInterpolate() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		assertTrue(Double.isNaN(branch.interpolate(FlightDataType.TYPE_ALTITUDE, 1)));
+
+		addPoint(branch, 0, 10);
+		addPoint(branch, 1, 20);
+		addPoint(branch, 3, 0);
+		assertEquals(10, branch.interpolate(FlightDataType.TYPE_ALTITUDE, -1), 0);
+		assertEquals(10, branch.interpolate(FlightDataType.TYPE_ALTITUDE, 0), 0);
+		assertEquals(15, branch.interpolate(FlightDataType.TYPE_ALTITUDE, 0.5), EPS);
+		assertEquals(20, branch.interpolate(FlightDataType.TYPE_ALTITUDE, 1), 0);
+		assertEquals(5, branch.interpolate(FlightDataType.TYPE_ALTITUDE, 2.5), EPS);
+		assertEquals(0, branch.interpolate(FlightDataType.TYPE_ALTITUDE, 4), 0);
+		assertTrue(Double.isNaN(branch.interpolate(FlightDataType.TYPE_ALTITUDE, Double.NaN)));
+		assertTrue(Double.isNaN(branch.interpolate(FlightDataType.TYPE_MACH_NUMBER, 1)));
+	}
+}
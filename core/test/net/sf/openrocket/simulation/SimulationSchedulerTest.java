@@ -0,0 +1,169 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.exception.SimulationCancelledException;
+import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class SimulationSchedulerTest extends BaseTestCase {
+
+	private Simulation createSimulation(Rocket rocket, double timeStep) {
+		Simulation sim = new Simulation(rocket);
+		SimulationOptions options = sim.getOptions();
+		options.setMotorConfigurationID(rocket.getDefaultConfiguration().getFlightConfigurationID());
+		options.setRandomSeed(1234);
+		options.setLaunchRodLength(1);
+		options.setLaunchAltitude(0);
+		options.setLaunchLatitude(28.61);
+		options.setLaunchLongitude(-80.6);
+		options.setISAAtmosphere(true);
+		options.setWindSpeedAverage(3);
+		options.setWindSpeedDeviation(1);
+		options.setTimeStep(timeStep);
+		return sim;
+	}
+
+	@Test
+	public void testShortestFirst() throws Exception {
+		SimulationScheduler scheduler = new SimulationScheduler(1);
+		final CountDownLatch blocker = new CountDownLatch(1);
+		final List<Long> order = Collections.synchronizedList(new ArrayList<Long>());
+
+		// Occupy the only thread while the other tasks are queued
+		scheduler.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					blocker.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, 0);
+
+		final CountDownLatch done = new CountDownLatch(4);
+		long[] costs = { 300, SimulationScheduler.UNKNOWN_COST, 100, 200 };
+		for (final long cost : costs) {
+			scheduler.execute(new Runnable() {
+				@Override
+				public void run() {
+					order.add(cost);
+					done.countDown();
+				}
+			}, cost);
+		}
+		assertEquals(4, scheduler.getQueueDepth());
+
+		blocker.countDown();
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertEquals(100L, (long) order.get(0));
+		assertEquals(200L, (long) order.get(1));
+		assertEquals(300L, (long) order.get(2));
+		assertEquals(SimulationScheduler.UNKNOWN_COST, (long) order.get(3));
+	}
+
+	@Test
+	public void testSimulateAll() throws Exception {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		List<Simulation> simulations = new ArrayList<Simulation>();
+		for (int i = 0; i < 4; i++) {
+			simulations.add(createSimulation(rocket, 0.01 + 0.01 * i));
+		}
+		assertEquals(SimulationScheduler.UNKNOWN_COST, SimulationScheduler.estimateCost(simulations.get(0)));
+
+		SimulationScheduler scheduler = new SimulationScheduler(2);
+		scheduler.simulateAll(simulations);
+
+		long steps = 0;
+		for (Simulation sim : simulations) {
+			assertNotNull(sim.getSimulatedData());
+			assertTrue(sim.getSimulatedData().getMaxAltitude() > 0);
+			long cost = SimulationScheduler.estimateCost(sim);
+			assertTrue(cost > 0 && cost < SimulationScheduler.UNKNOWN_COST);
+			steps += cost;
+		}
+		assertEquals(4, scheduler.getCompletedCount());
+		assertTrue(scheduler.getStepCount() >= steps / 2);
+		assertTrue(scheduler.getSimulationRate() > 0);
+		assertTrue(scheduler.getStepRate() > 0);
+		assertEquals(0, scheduler.getQueueDepth());
+
+		// Shorter previous runs are now scheduled first
+		assertTrue(SimulationScheduler.estimateCost(simulations.get(3)) < SimulationScheduler.estimateCost(simulations.get(0)));
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		Simulation sim = createSimulation(rocket, 0.01);
+		SimulationScheduler scheduler = new SimulationScheduler(1);
+
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch cancelled = new CountDownLatch(1);
+		Future<FlightData> future = scheduler.submit(sim, new AbstractSimulationListener() {
+			@Override
+			public void postStep(SimulationStatus status) {
+				started.countDown();
+				try {
+					cancelled.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		future.cancel(true);
+		cancelled.countDown();
+		try {
+			future.get();
+			fail("Simulation was not cancelled");
+		} catch (Exception e) {
+			// Expected
+		}
+		assertEquals(0, scheduler.getCompletedCount());
+
+		// The simulation thread ends the simulation with a cancellation
+		SimulationScheduler direct = new SimulationScheduler(1);
+		Thread.currentThread().interrupt();
+		try {
+			direct.simulate(sim);
+			fail("Simulation was not cancelled");
+		} catch (SimulationCancelledException e) {
+			// Expected
+		} finally {
+			Thread.interrupted();
+		}
+	}
+
+	@Test
+	public void testFailure() throws Exception {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		Simulation sim = createSimulation(rocket, 0.01);
+		sim.getOptions().setMotorConfigurationID(null);
+		Future<FlightData> future = new SimulationScheduler(1).submit(sim);
+		try {
+			future.get();
+			fail("Simulation without motors succeeded");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof Exception);
+		}
+	}
+}
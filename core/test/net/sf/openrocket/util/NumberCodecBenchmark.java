@@ -0,0 +1,129 @@
+package net.sf.openrocket.util;
+
+import java.util.Random;
+
+/**
+ * Compares the parsing and formatting of {@link NumberCodec} with the corresponding
+ * methods of the Java library on typical file contents:  flight data values in the
+ * compact format, motor data and values written by <code>Double.toString</code>.
+ * The benchmark fails if the results differ.
+ * <p>
+ * Run as a Java application from the core test class path.
+ */
+public class NumberCodecBenchmark {
+
+	private static final int ROUNDS = 5;
+	private static final int REPEATS = 20;
+	private static final int COUNT = 100000;
+
+	public static void main(String[] args) throws Exception {
+		Random rnd = new Random(0);
+		double[] values = new double[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			switch (i % 3) {
+			case 0:
+				values[i] = rnd.nextGaussian() * 300;
+				break;
+			case 1:
+				values[i] = Math.round(rnd.nextDouble() * 1000000) / 1000.0;
+				break;
+			default:
+				values[i] = rnd.nextGaussian() * Math.pow(10, rnd.nextInt(12) - 6);
+				break;
+			}
+		}
+
+		// Settings and other values with few significant digits
+		double[] rounded = new double[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			rounded[i] = Math.round(values[i] * 1000) / 1000.0;
+		}
+
+		// Check the outputs before timing
+		String[] compact = new String[COUNT];
+		String[] full = new String[COUNT];
+		char[] buffer = new char[NumberCodec.MAX_CHARS];
+		for (int i = 0; i < COUNT; i++) {
+			compact[i] = TextUtil.doubleToString(values[i]);
+			full[i] = Double.toString(values[i]);
+			check(Double.parseDouble(compact[i]), NumberCodec.parseDouble(compact[i]), compact[i]);
+			check(values[i], NumberCodec.parseDouble(full[i]), full[i]);
+			int end = NumberCodec.formatDouble(values[i], buffer, 0);
+			check(values[i], Double.parseDouble(new String(buffer, 0, end)), full[i]);
+			end = NumberCodec.formatDouble(rounded[i], buffer, 0);
+			check(rounded[i], Double.parseDouble(new String(buffer, 0, end)), Double.toString(rounded[i]));
+		}
+		System.out.printf("%d values checked%n", COUNT);
+
+		for (int round = 0; round < ROUNDS; round++) {
+			double count = (double) REPEATS * COUNT;
+
+			long t0 = System.nanoTime();
+			double sum1 = 0;
+			for (int n = 0; n < REPEATS; n++) {
+				for (int i = 0; i < COUNT; i++) {
+					sum1 += Double.parseDouble(compact[i]);
+				}
+			}
+			long t1 = System.nanoTime();
+			double sum2 = 0;
+			for (int n = 0; n < REPEATS; n++) {
+				for (int i = 0; i < COUNT; i++) {
+					sum2 += NumberCodec.parseDouble(compact[i]);
+				}
+			}
+			long t2 = System.nanoTime();
+			System.out.printf("Round %d:  parse compact  Double.parseDouble %.1f ns, NumberCodec %.1f ns  (checksums %.6g / %.6g)%n",
+					round + 1, (t1 - t0) / count, (t2 - t1) / count, sum1, sum2);
+
+			t0 = System.nanoTime();
+			sum1 = 0;
+			for (int n = 0; n < REPEATS; n++) {
+				for (int i = 0; i < COUNT; i++) {
+					sum1 += Double.parseDouble(full[i]);
+				}
+			}
+			t1 = System.nanoTime();
+			sum2 = 0;
+			for (int n = 0; n < REPEATS; n++) {
+				for (int i = 0; i < COUNT; i++) {
+					sum2 += NumberCodec.parseDouble(full[i]);
+				}
+			}
+			t2 = System.nanoTime();
+			System.out.printf("Round %d:  parse full     Double.parseDouble %.1f ns, NumberCodec %.1f ns  (checksums %.6g / %.6g)%n",
+					round + 1, (t1 - t0) / count, (t2 - t1) / count, sum1, sum2);
+
+			format(round, "format full ", values, buffer);
+			format(round, "format short", rounded, buffer);
+		}
+	}
+
+	private static void format(int round, String name, double[] values, char[] buffer) {
+		double count = (double) REPEATS * COUNT;
+
+		long t0 = System.nanoTime();
+		long length1 = 0;
+		for (int n = 0; n < REPEATS; n++) {
+			for (int i = 0; i < COUNT; i++) {
+				length1 += Double.toString(values[i]).length();
+			}
+		}
+		long t1 = System.nanoTime();
+		long length2 = 0;
+		for (int n = 0; n < REPEATS; n++) {
+			for (int i = 0; i < COUNT; i++) {
+				length2 += NumberCodec.formatDouble(values[i], buffer, 0);
+			}
+		}
+		long t2 = System.nanoTime();
+		System.out.printf("Round %d:  %s   Double.toString %.1f ns, NumberCodec %.1f ns  (lengths %d / %d)%n",
+				round + 1, name, (t1 - t0) / count, (t2 - t1) / count, length1, length2);
+	}
+
+	private static void check(double expected, double actual, String str) {
+		if (Double.doubleToRawLongBits(expected) != Double.doubleToRawLongBits(actual)) {
+			throw new IllegalStateException("Outputs differ for " + str + ": " + expected + " / " + actual);
+		}
+	}
+}
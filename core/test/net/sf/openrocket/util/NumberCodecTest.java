@@ -0,0 +1,156 @@
+package net.sf.openrocket.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class NumberCodecTest {
+
+	private static final String[] VALID = {
+			"0", "-0", "+0", "0.0", "-0.0", ".5", "5.", "-.5", "1", "-1", "+1",
+			"0.1", "0.2", "0.3", "1.1", "2.5e-3", "2.5E+3", "1e22", "1e23", "9e37",
+			"123456789012345678", "1234567890123456789", "12345678901234567890",
+			"9007199254740993", "0.000000000000000000000000000001", "1.7976931348623157E308",
+			"4.9E-324", "2.2250738585072014E-308", "1e400", "1e-400", "00000123.4500000",
+			"  42  ", "\t-3.25\n", "NaN", "-Infinity", "Infinity", "0x1.8p1", "1d", "2.5f",
+			"0.0253", "-28.337", "1000000000000000000000000", "3.141592653589793",
+	};
+
+	private static final String[] INVALID = {
+			"", " ", "-", "+", ".", "e5", "1e", "1e+", "1.2.3", "1,5", "--1", "abc", "Inf", "1 2",
+	};
+
+	@Test
+	public void testParseValid() {
+		for (String s : VALID) {
+			assertParse(s);
+		}
+	}
+
+	@Test
+	public void testParseInvalid() {
+		for (String s : INVALID) {
+			try {
+				NumberCodec.parseDouble(s);
+				fail("Parsed invalid number '" + s + "'");
+			} catch (NumberFormatException expected) {
+			}
+		}
+	}
+
+	@Test
+	public void testParseRandom() {
+		Random rnd = new Random(1234);
+		for (int i = 0; i < 100000; i++) {
+			double d;
+			switch (i % 4) {
+			case 0:
+				d = Double.longBitsToDouble(rnd.nextLong());
+				break;
+			case 1:
+				d = rnd.nextGaussian() * Math.pow(10, rnd.nextInt(20) - 10);
+				break;
+			case 2:
+				d = Math.round(rnd.nextGaussian() * 100000) / 1000.0;
+				break;
+			default:
+				d = rnd.nextInt(1000000) * Math.pow(10, rnd.nextInt(60) - 30);
+				break;
+			}
+			assertParse(Double.toString(d));
+			assertParse(TextUtil.doubleToString(d));
+			assertParse(String.format("%.12f", d));
+		}
+	}
+
+	@Test
+	public void testParseRange() {
+		String str = "1.5,-2.25e2,,x7";
+		assertEquals(1.5, NumberCodec.parseDouble(str, 0, 3), 0);
+		assertEquals(-225, NumberCodec.parseDouble(str, 4, 11), 0);
+		assertEquals(-225, NumberCodec.parseDouble(new StringBuilder(str), 4, 11), 0);
+		assertEquals(7, NumberCodec.parseDouble(str.toCharArray(), 14, 15), 0);
+		try {
+			NumberCodec.parseDouble(str, 12, 12);
+			fail();
+		} catch (NumberFormatException expected) {
+		}
+	}
+
+	@Test
+	public void testFormatSpecial() {
+		assertFormat("0.0", 0.0);
+		assertFormat("-0.0", -0.0);
+		assertFormat("NaN", Double.NaN);
+		assertFormat("Infinity", Double.POSITIVE_INFINITY);
+		assertFormat("-Infinity", Double.NEGATIVE_INFINITY);
+		assertFormat("1.0", 1);
+		assertFormat("-12.5", -12.5);
+		assertFormat("0.1", 0.1);
+		assertFormat("0.001", 0.001);
+		assertFormat("1.0E-4", 0.0001);
+		assertFormat("1234567.0", 1234567);
+		assertFormat("1.0E7", 1e7);
+		assertFormat("1.25E22", 1.25e22);
+		assertFormat("4.9E-324", Double.MIN_VALUE);
+	}
+
+	@Test
+	public void testFormatRandom() {
+		Random rnd = new Random(4321);
+		char[] buffer = new char[NumberCodec.MAX_CHARS + 5];
+		for (int i = 0; i < 100000; i++) {
+			double d;
+			if (i % 2 == 0) {
+				d = Double.longBitsToDouble(rnd.nextLong());
+			} else {
+				d = Math.round(rnd.nextGaussian() * 1000000) * Math.pow(10, rnd.nextInt(30) - 20);
+			}
+			int end = NumberCodec.formatDouble(d, buffer, 5);
+			String str = new String(buffer, 5, end - 5);
+			String expected = Double.toString(d);
+			assertTrue(str + " longer than " + expected, str.length() <= expected.length());
+			if (Double.isNaN(d)) {
+				assertEquals(expected, str);
+			} else {
+				assertEquals(str, d, Double.parseDouble(str), 0);
+				assertEquals(str, Double.doubleToRawLongBits(d), Double.doubleToRawLongBits(NumberCodec.parseDouble(str)));
+			}
+		}
+	}
+
+	@Test
+	public void testFormatCompact() {
+		char[] buffer = new char[NumberCodec.MAX_CHARS];
+		double[] values = { 0, 1, -1, 0.1, 1.0 / 3, 12345.678, 0.00012345, 1e20, -7.5e-8, Double.NaN,
+				Double.NEGATIVE_INFINITY };
+		String[] expected = { "0", "1", "-1", "0.1", "0.33333", "12346", "1.2345e-4", "1e20", "-7.5e-8",
+				"NaN", "-Inf" };
+		for (int i = 0; i < values.length; i++) {
+			int end = NumberCodec.formatCompact(values[i], buffer, 0);
+			assertEquals(expected[i], new String(buffer, 0, end));
+			assertEquals(expected[i], TextUtil.doubleToString(values[i]));
+		}
+	}
+
+
+	private static void assertParse(String s) {
+		double expected = Double.parseDouble(s);
+		double actual = NumberCodec.parseDouble(s);
+		assertEquals("Parsing '" + s + "'", Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual));
+
+		String padded = "x," + s + ",y";
+		actual = NumberCodec.parseDouble(padded, 2, padded.length() - 2);
+		assertEquals("Parsing '" + s + "'", Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual));
+	}
+
+	private static void assertFormat(String expected, double d) {
+		char[] buffer = new char[NumberCodec.MAX_CHARS];
+		int end = NumberCodec.formatDouble(d, buffer, 0);
+		assertEquals(expected, new String(buffer, 0, end));
+	}
+}
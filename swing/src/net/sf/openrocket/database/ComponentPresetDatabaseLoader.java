@@ -5,12 +5,14 @@ import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 
 import net.sf.openrocket.file.iterator.DirectoryIterator;
 import net.sf.openrocket.file.iterator.FileIterator;
 import net.sf.openrocket.gui.util.SimpleFileFilter;
 import net.sf.openrocket.gui.util.SwingPreferences;
 import net.sf.openrocket.preset.ComponentPreset;
+import net.sf.openrocket.preset.ComponentPresetSnapshot;
 import net.sf.openrocket.preset.xml.OpenRocketComponentLoader;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.util.BugException;
@@ -50,14 +52,21 @@ public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
 		
 		log.info("Loading component presets from " + SYSTEM_PRESET_DIR);
 		
-		FileIterator iterator = DirectoryIterator.findDirectory(SYSTEM_PRESET_DIR, new SimpleFileFilter("", false, "ser"));
+		FileIterator iterator = DirectoryIterator.findDirectory(SYSTEM_PRESET_DIR,
+				new SimpleFileFilter("", false, ComponentPresetSnapshot.EXTENSION, "ser"));
 		
 		if (iterator != null) {
 			while (iterator.hasNext()) {
 				Pair<String, InputStream> f = iterator.next();
 				try {
-					ObjectInputStream ois = new ObjectInputStream(f.getV());
-					List<ComponentPreset> list = (List<ComponentPreset>) ois.readObject();
+					List<ComponentPreset> list;
+					if (f.getU().toLowerCase(Locale.ENGLISH).endsWith("." + ComponentPresetSnapshot.EXTENSION)) {
+						list = ComponentPresetSnapshot.read(f.getV());
+					} else {
+						// Legacy Java-serialized preset file
+						ObjectInputStream ois = new ObjectInputStream(f.getV());
+						list = (List<ComponentPreset>) ois.readObject();
+					}
 					componentPresetDao.addAll(list);
 					fileCount++;
 					presetCount += list.size();
@@ -1,9 +1,6 @@
 package net.sf.openrocket.database;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.util.List;
@@ -12,11 +9,13 @@ import net.sf.openrocket.database.motor.ThrustCurveMotorSetDatabase;
 import net.sf.openrocket.file.iterator.DirectoryIterator;
 import net.sf.openrocket.file.iterator.FileIterator;
 import net.sf.openrocket.file.motor.GeneralMotorLoader;
+import net.sf.openrocket.file.motor.ParallelMotorLoader;
 import net.sf.openrocket.gui.util.SimpleFileFilter;
 import net.sf.openrocket.gui.util.SwingPreferences;
 import net.sf.openrocket.motor.Motor;
 import net.sf.openrocket.motor.ThrustCurveMotor;
 import net.sf.openrocket.startup.Application;
+import net.sf.openrocket.startup.Preferences;
 import net.sf.openrocket.util.BugException;
 import net.sf.openrocket.util.Pair;
 
@@ -62,17 +61,18 @@ public class MotorDatabaseLoader extends AsynchronousDatabaseLoader {
 		
 		
 		log.info("Starting reading user-defined motors");
-		for (File file : ((SwingPreferences) Application.getPreferences()).getUserThrustCurveFiles()) {
-			if (file.isFile()) {
-				loadFile(loader, file);
-			} else if (file.isDirectory()) {
-				loadDirectory(loader, fileFilter, file);
-			} else {
-				log.warn("User-defined motor file " + file + " is neither file nor directory");
-			}
-		}
+		// Files are parsed concurrently, but merged into the database from this thread in file order
+		List<File> files = ((SwingPreferences) Application.getPreferences()).getUserThrustCurveFiles();
+		addMotors(new ParallelMotorLoader(fileFilter).load(files));
 		log.info("Ending reading user-defined motors, motorCount=" + motorCount);
 		
+		// Compute the thrust curve fingerprints while still in the background
+		database.getThrustCurveIndex();
+		log.info("Built thrust curve index");
+		if (Application.getPreferences().getBoolean(Preferences.MOTOR_HIDE_DUPLICATES, false)) {
+			log.info("Found " + database.getDuplicateMotorSets().size() + " duplicate motor sets");
+		}
+		
 	}
 	
 	
@@ -90,50 +90,6 @@ public class MotorDatabaseLoader extends AsynchronousDatabaseLoader {
 	}
 	
 	
-	private void loadFile(GeneralMotorLoader loader, File file) {
-		BufferedInputStream bis = null;
-		try {
-			log.debug("Loading motors from file " + file);
-			bis = new BufferedInputStream(new FileInputStream(file));
-			List<Motor> motors = loader.load(bis, file.getName());
-			addMotors(motors);
-			bis.close();
-		} catch (IOException e) {
-			log.warn("IOException while reading " + file + ": " + e, e);
-			if (bis != null) {
-				try {
-					bis.close();
-				} catch (IOException e1) {
-					
-				}
-			}
-		}
-	}
-	
-	private void loadDirectory(GeneralMotorLoader loader, SimpleFileFilter fileFilter, File file) {
-		FileIterator iterator;
-		try {
-			iterator = new DirectoryIterator(file, fileFilter, true);
-		} catch (IOException e) {
-			log.warn("Unable to read directory " + file + ": " + e, e);
-			return;
-		}
-		while (iterator.hasNext()) {
-			Pair<String, InputStream> f = iterator.next();
-			try {
-				List<Motor> motors = loader.load(f.getV(), f.getU());
-				addMotors(motors);
-				f.getV().close();
-			} catch (IOException e) {
-				log.warn("IOException while loading file " + f.getU() + ": " + e, e);
-				try {
-					f.getV().close();
-				} catch (IOException e1) {
-				}
-			}
-		}
-	}
-	
 	private synchronized void addMotors(List<Motor> motors) {
 		for (Motor m : motors) {
 			motorCount++;
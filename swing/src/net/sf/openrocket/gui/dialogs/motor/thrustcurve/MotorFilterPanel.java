@@ -23,6 +23,7 @@ import javax.swing.event.ListDataEvent;
 import javax.swing.event.ListDataListener;
 
 import net.miginfocom.swing.MigLayout;
+import net.sf.openrocket.database.motor.ThrustCurveMotorSet;
 import net.sf.openrocket.gui.SpinnerEditor;
 import net.sf.openrocket.gui.adaptors.DoubleModel;
 import net.sf.openrocket.gui.components.UnitSelector;
@@ -35,6 +36,7 @@ import net.sf.openrocket.motor.Manufacturer;
 import net.sf.openrocket.rocketcomponent.MotorMount;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
 import net.sf.openrocket.startup.Application;
+import net.sf.openrocket.startup.Preferences;
 import net.sf.openrocket.unit.UnitGroup;
 
 import com.itextpdf.text.Font;
@@ -116,6 +118,24 @@ public abstract class MotorFilterPanel extends JPanel {
 			this.add(hideUsedBox, "gapleft para, spanx, growx, wrap");
 		}
 
+		//// Hide motors duplicating the thrust curves of other motors
+		{
+			final JCheckBox hideDuplicatesBox = new JCheckBox(trans.get("TCMotorSelPan.checkbox.hideDuplicates"));
+			hideDuplicatesBox.setToolTipText(trans.get("TCMotorSelPan.checkbox.hideDuplicates.ttip"));
+			GUIUtil.changeFontSize(hideDuplicatesBox, -1);
+			hideDuplicatesBox.setSelected(Application.getPreferences().getBoolean(Preferences.MOTOR_HIDE_DUPLICATES, false));
+			setHideDuplicates(hideDuplicatesBox.isSelected());
+			hideDuplicatesBox.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent e) {
+					Application.getPreferences().putBoolean(Preferences.MOTOR_HIDE_DUPLICATES, hideDuplicatesBox.isSelected());
+					setHideDuplicates(hideDuplicatesBox.isSelected());
+					onSelectionChanged();
+				}
+			});
+			this.add(hideDuplicatesBox, "gapleft para, spanx, growx, wrap");
+		}
+
 		// Manufacturer selection
 		JPanel sub = new JPanel(new MigLayout("fill"));
 		TitledBorder border = BorderFactory.createTitledBorder(trans.get("TCurveMotorCol.MANUFACTURER"));
@@ -366,6 +386,14 @@ public abstract class MotorFilterPanel extends JPanel {
 		}
 	}
 
+	private void setHideDuplicates(boolean hideDuplicates) {
+		if (hideDuplicates) {
+			filter.setHiddenMotorSets(Application.getThrustCurveMotorSetDatabase().getDuplicateMotorSets());
+		} else {
+			filter.setHiddenMotorSets(Collections.<ThrustCurveMotorSet> emptySet());
+		}
+	}
+
 	public abstract void onSelectionChanged();
 
 }
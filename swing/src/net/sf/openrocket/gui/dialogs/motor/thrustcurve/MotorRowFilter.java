@@ -5,6 +5,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 import javax.swing.RowFilter;
 import javax.swing.table.TableModel;
@@ -48,6 +49,9 @@ public class MotorRowFilter extends RowFilter<TableModel, Integer> implements Ch
 	// Boolean which hides motors in the usedMotors list
 	private boolean hideUsedMotors = false;
 
+	// Motor sets to exclude, e.g. duplicates of other motor sets
+	private Set<ThrustCurveMotorSet> hiddenMotorSets = Collections.<ThrustCurveMotorSet> emptySet();
+
 	// List of manufacturers to exclude.
 	private List<Manufacturer> excludedManufacturers = new ArrayList<Manufacturer>();
 
@@ -121,6 +125,10 @@ public class MotorRowFilter extends RowFilter<TableModel, Integer> implements Ch
 		this.hideUsedMotors = hideUsedMotors;
 	}
 
+	void setHiddenMotorSets(Set<ThrustCurveMotorSet> hiddenMotorSets) {
+		this.hiddenMotorSets = hiddenMotorSets;
+	}
+
 	List<Manufacturer> getExcludedManufacturers() {
 		return excludedManufacturers;
 	}
@@ -150,7 +158,7 @@ public class MotorRowFilter extends RowFilter<TableModel, Integer> implements Ch
 	public boolean include(RowFilter.Entry<? extends TableModel, ? extends Integer> entry) {
 		int index = entry.getIdentifier();
 		ThrustCurveMotorSet m = model.getMotorSet(index);
-		return filterManufacturers(m) && filterUsed(m) && filterBySize(m) && filterByString(m) && filterByImpulseClass(m);
+		return !hiddenMotorSets.contains(m) && filterManufacturers(m) && filterUsed(m) && filterBySize(m) && filterByString(m) && filterByImpulseClass(m);
 	}
 
 	private boolean filterManufacturers(ThrustCurveMotorSet m) {
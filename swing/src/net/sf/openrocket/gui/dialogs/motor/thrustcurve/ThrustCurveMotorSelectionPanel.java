@@ -17,12 +17,15 @@ import java.util.Set;
 import java.util.prefs.Preferences;
 
 import javax.swing.DefaultComboBoxModel;
+import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JList;
+import javax.swing.JMenuItem;
 import javax.swing.JPanel;
+import javax.swing.JPopupMenu;
 import javax.swing.JScrollPane;
 import javax.swing.JSeparator;
 import javax.swing.JTabbedPane;
@@ -40,6 +43,7 @@ import javax.swing.table.TableModel;
 import javax.swing.table.TableRowSorter;
 
 import net.miginfocom.swing.MigLayout;
+import net.sf.openrocket.database.motor.ThrustCurveIndex;
 import net.sf.openrocket.database.motor.ThrustCurveMotorSet;
 import net.sf.openrocket.gui.components.StyledLabel;
 import net.sf.openrocket.gui.dialogs.motor.CloseableDialog;
@@ -55,7 +59,6 @@ import net.sf.openrocket.rocketcomponent.MotorConfiguration;
 import net.sf.openrocket.rocketcomponent.MotorMount;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.util.BugException;
-import net.sf.openrocket.utils.MotorCorrelation;
 
 import org.jfree.chart.ChartColor;
 import org.slf4j.Logger;
@@ -68,6 +71,9 @@ public class ThrustCurveMotorSelectionPanel extends JPanel implements MotorSelec
 
 	private static final double MOTOR_SIMILARITY_THRESHOLD = 0.95;
 
+	private static final int SIMILAR_MOTOR_COUNT = 10;
+	private static final double SIMILAR_MOTOR_THRESHOLD = 0.8;
+
 	private static final Paint[] CURVE_COLORS = ChartColor.createDefaultPaintArray();
 
 	private static final ThrustCurveMotorComparator MOTOR_COMPARATOR = new ThrustCurveMotorComparator();
@@ -84,6 +90,7 @@ public class ThrustCurveMotorSelectionPanel extends JPanel implements MotorSelec
 	private final JCheckBox hideSimilarBox;
 
 	private final JTextField searchField;
+	private final JButton similarButton;
 
 	private final JLabel curveSelectionLabel;
 	private final JComboBox curveSelectionBox;
@@ -290,7 +297,18 @@ public class ThrustCurveMotorSelectionPanel extends JPanel implements MotorSelec
 					scrollSelectionVisible();
 				}
 			});
-			panel.add(searchField, "span, growx");
+			panel.add(searchField, "span, growx, split 2");
+
+			//// Similar motors
+			similarButton = new JButton(trans.get("TCMotorSelPan.btn.similar"));
+			similarButton.setToolTipText(trans.get("TCMotorSelPan.btn.similar.ttip"));
+			similarButton.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent e) {
+					showSimilarMotors();
+				}
+			});
+			panel.add(similarButton);
 		}
 		this.add(panel, "grow");
 
@@ -412,6 +430,8 @@ public class ThrustCurveMotorSelectionPanel extends JPanel implements MotorSelec
 
 	private void updateData() {
 
+		similarButton.setEnabled(selectedMotor != null);
+
 		if (selectedMotorSet == null) {
 			// No motor selected
 			curveSelectionModel.removeAllElements();
@@ -455,7 +475,7 @@ public class ThrustCurveMotorSelectionPanel extends JPanel implements MotorSelec
 					filtered.add(m);
 					continue;
 				}
-				double similarity = MotorCorrelation.similarity(selectedMotor, m);
+				double similarity = ThrustCurveIndex.similarity(selectedMotor, m, MOTOR_SIMILARITY_THRESHOLD);
 				log.debug("Motor similarity: " + similarity);
 				if (similarity < MOTOR_SIMILARITY_THRESHOLD) {
 					filtered.add(m);
@@ -470,6 +490,41 @@ public class ThrustCurveMotorSelectionPanel extends JPanel implements MotorSelec
 	}
 
 
+	/**
+	 * Show a popup menu of the motors whose thrust curves are most similar to the
+	 * selected motor.  Choosing a motor from the menu selects it.
+	 */
+	private void showSimilarMotors() {
+		if (selectedMotor == null) {
+			return;
+		}
+
+		JPopupMenu menu = new JPopupMenu();
+		List<ThrustCurveMotor> similar = Application.getThrustCurveMotorSetDatabase().getThrustCurveIndex()
+				.findSimilar(selectedMotor, SIMILAR_MOTOR_COUNT, SIMILAR_MOTOR_THRESHOLD);
+		for (final ThrustCurveMotor m : similar) {
+			if (findMotorSet(m) == null) {
+				continue;
+			}
+			JMenuItem item = new JMenuItem(m.getManufacturer().getDisplayName() + " " + m.getDesignation());
+			item.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent e) {
+					log.info(Markers.USER_MARKER, "Selected similar motor " + m);
+					select(m);
+				}
+			});
+			menu.add(item);
+		}
+		if (menu.getComponentCount() == 0) {
+			JMenuItem item = new JMenuItem(trans.get("TCMotorSelPan.lbl.nosimilar"));
+			item.setEnabled(false);
+			menu.add(item);
+		}
+		menu.show(similarButton, 0, similarButton.getHeight());
+	}
+
+
 	private void scrollSelectionVisible() {
 		if (selectedMotorSet != null) {
 			int index = table.convertRowIndexToView(model.getIndex(selectedMotorSet));
@@ -1,28 +1,31 @@
 package net.sf.openrocket.gui.figure3d.geometry;
 
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import javax.media.opengl.GL;
 import javax.media.opengl.GL2;
 import javax.media.opengl.GLAutoDrawable;
 import javax.media.opengl.fixedfunc.GLMatrixFunc;
+import javax.media.opengl.fixedfunc.GLPointerFunc;
 import javax.media.opengl.glu.GLU;
 import javax.media.opengl.glu.GLUquadric;
 
 import net.sf.openrocket.gui.figure3d.geometry.Geometry.Surface;
+import net.sf.openrocket.mesh.ComponentMeshGenerator;
+import net.sf.openrocket.mesh.Mesh;
+import net.sf.openrocket.mesh.MeshCache;
 import net.sf.openrocket.motor.Motor;
-import net.sf.openrocket.rocketcomponent.BodyTube;
-import net.sf.openrocket.rocketcomponent.FinSet;
-import net.sf.openrocket.rocketcomponent.LaunchLug;
-import net.sf.openrocket.rocketcomponent.MassObject;
-import net.sf.openrocket.rocketcomponent.RingComponent;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
-import net.sf.openrocket.rocketcomponent.Transition;
-import net.sf.openrocket.rocketcomponent.Transition.Shape;
-import net.sf.openrocket.rocketcomponent.TubeFinSet;
 import net.sf.openrocket.util.Coordinate;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.jogamp.common.nio.Buffers;
+
 /*
  * @author Bill Kuker <bkuker@billkuker.com>
  */
@@ -34,7 +37,9 @@ public class ComponentRenderer {
 
 	GLU glu;
 	GLUquadric q;
-	FinRenderer fr = new FinRenderer();
+
+	private final MeshCache meshCache = new MeshCache();
+	private final Map<Mesh, MeshBuffers> meshBuffers = new WeakHashMap<Mesh, MeshBuffers>();
 
 	public ComponentRenderer() {
 
@@ -79,7 +84,23 @@ public class ComponentRenderer {
 		if (glu == null)
 			throw new IllegalStateException(this + " Not Initialized");
 
-		glu.gluQuadricNormals(q, GLU.GLU_SMOOTH);
+		Mesh[] meshes = null;
+		if (ComponentMeshGenerator.isSupported(c)) {
+			switch (which) {
+			case INSIDE:
+				// Include the back sides of the edges, seen when looking into a hollow component
+				meshes = new Mesh[] {
+						meshCache.getMesh(c, ComponentMeshGenerator.Surface.INSIDE, LOD),
+						meshCache.getMesh(c, ComponentMeshGenerator.Surface.EDGES_BACK, LOD) };
+				break;
+			case EDGES:
+				meshes = new Mesh[] { meshCache.getMesh(c, ComponentMeshGenerator.Surface.EDGES, LOD) };
+				break;
+			default:
+				meshes = new Mesh[] { meshCache.getMesh(c, ComponentMeshGenerator.Surface.OUTSIDE, LOD) };
+				break;
+			}
+		}
 
 		Coordinate[] oo = c.toAbsolute(new Coordinate(0, 0, 0));
 
@@ -88,23 +109,11 @@ public class ComponentRenderer {
 
 			gl.glTranslated(o.x, o.y, o.z);
 
-			if (c instanceof BodyTube) {
-				renderTube(gl, (BodyTube) c, which);
-			} else if (c instanceof LaunchLug) {
-				renderLug(gl, (LaunchLug) c, which);
-			} else if (c instanceof RingComponent) {
-				if (which == Surface.OUTSIDE)
-					renderRing(gl, (RingComponent) c);
-			} else if (c instanceof Transition) {
-				renderTransition(gl, (Transition) c, which);
-			} else if (c instanceof MassObject) {
-				if (which == Surface.OUTSIDE)
-					renderMassObject(gl, (MassObject) c);
-			} else if (c instanceof FinSet) {
-				if (which == Surface.OUTSIDE)
-					fr.renderFinSet(gl, (FinSet) c);
-			} else if (c instanceof TubeFinSet) {
-				renderTubeFins( gl, (TubeFinSet) c, which);
+			if (meshes != null) {
+				for (Mesh mesh : meshes) {
+					if (!mesh.isEmpty())
+						renderMesh(gl, mesh);
+				}
 			} else {
 				renderOther(gl, c);
 			}
@@ -113,6 +122,31 @@ public class ComponentRenderer {
 
 	}
 
+	/**
+	 * Draw a mesh from vertex arrays.  The direct buffers are kept for as long
+	 * as the mesh itself is in use.
+	 */
+	private void renderMesh(GL2 gl, Mesh mesh) {
+		MeshBuffers buffers = meshBuffers.get(mesh);
+		if (buffers == null) {
+			buffers = new MeshBuffers(mesh);
+			meshBuffers.put(mesh, buffers);
+		}
+
+		gl.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+		gl.glEnableClientState(GLPointerFunc.GL_NORMAL_ARRAY);
+		gl.glEnableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+
+		gl.glVertexPointer(3, GL.GL_FLOAT, 0, buffers.positions);
+		gl.glNormalPointer(GL.GL_FLOAT, 0, buffers.normals);
+		gl.glTexCoordPointer(2, GL.GL_FLOAT, 0, buffers.texCoords);
+		gl.glDrawElements(GL.GL_TRIANGLES, mesh.getIndices().length, GL.GL_UNSIGNED_INT, buffers.indices);
+
+		gl.glDisableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+		gl.glDisableClientState(GLPointerFunc.GL_NORMAL_ARRAY);
+		gl.glDisableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+	}
+
 	private void renderOther(GL2 gl, RocketComponent c) {
 		gl.glBegin(GL.GL_LINES);
 		for (Coordinate cc : c.getComponentBounds()) {
@@ -124,172 +158,6 @@ public class ComponentRenderer {
 		gl.glEnd();
 	}
 
-	private void renderTransition(GL2 gl, Transition t, Surface which) {
-
-		if (which == Surface.OUTSIDE || which == Surface.INSIDE) {
-			gl.glPushMatrix();
-			gl.glRotated(90, 0, 1.0, 0);
-			if (which == Surface.INSIDE) {
-				gl.glFrontFace(GL.GL_CCW);
-			}
-			TransitionRenderer.drawTransition(gl, t, LOD, t.getType() == Shape.CONICAL ? 4 : LOD / 2, which == Surface.INSIDE ? -t.getThickness() : 0);
-			if (which == Surface.INSIDE) {
-				gl.glFrontFace(GL.GL_CW);
-			}
-			gl.glPopMatrix();
-		}
-
-		if (which == Surface.EDGES || which == Surface.INSIDE) {
-			//Render aft edge
-			gl.glPushMatrix();
-			gl.glTranslated(t.getLength(), 0, 0);
-			if (which == Surface.EDGES) {
-				gl.glRotated(90, 0, 1.0, 0);
-				glu.gluDisk(q, Math.max(0, t.getAftRadius() - t.getThickness()), t.getAftRadius(), LOD, 2);
-			} else {
-				gl.glRotated(270, 0, 1.0, 0);
-				glu.gluDisk(q, Math.max(0, t.getAftRadius() - t.getThickness()), t.getAftRadius(), LOD, 2);
-			}
-			gl.glPopMatrix();
-
-			// Render AFT shoulder
-			if (t.getAftShoulderLength() > 0) {
-				gl.glPushMatrix();
-				gl.glTranslated(t.getLength(), 0, 0);
-				double iR = (t.isFilled() || t.isAftShoulderCapped()) ? 0 : t.getAftShoulderRadius() - t.getAftShoulderThickness();
-				if (which == Surface.EDGES) {
-					renderTube(gl, Surface.OUTSIDE, t.getAftShoulderRadius(), iR, t.getAftShoulderLength());
-					renderTube(gl, Surface.EDGES, t.getAftShoulderRadius(), iR, t.getAftShoulderLength());
-					gl.glPushMatrix();
-					gl.glRotated(90, 0, 1.0, 0);
-					glu.gluDisk(q, t.getAftShoulderRadius(), t.getAftRadius(), LOD, 2);
-					gl.glPopMatrix();
-
-				} else {
-					renderTube(gl, Surface.INSIDE, t.getAftShoulderRadius(), iR, t.getAftShoulderLength());
-					gl.glPushMatrix();
-					gl.glRotated(270, 0, 1.0, 0);
-					glu.gluDisk(q, t.getAftShoulderRadius(), t.getAftRadius(), LOD, 2);
-					gl.glPopMatrix();
-				}
-				gl.glPopMatrix();
-			}
-
-			//Render Fore edge
-			gl.glPushMatrix();
-			gl.glRotated(180, 0, 1.0, 0);
-			if (which == Surface.EDGES) {
-				gl.glRotated(90, 0, 1.0, 0);
-				glu.gluDisk(q, Math.max(0, t.getForeRadius() - t.getThickness()), t.getForeRadius(), LOD, 2);
-			} else {
-				gl.glRotated(270, 0, 1.0, 0);
-				glu.gluDisk(q, Math.max(0, t.getForeRadius() - t.getThickness()), t.getForeRadius(), LOD, 2);
-			}
-			gl.glPopMatrix();
-
-			// Render Fore shoulder
-			if (t.getForeShoulderLength() > 0) {
-				gl.glPushMatrix();
-				gl.glRotated(180, 0, 1.0, 0);
-				//gl.glTranslated(t.getLength(), 0, 0);
-				double iR = (t.isFilled() || t.isForeShoulderCapped()) ? 0 : t.getForeShoulderRadius() - t.getForeShoulderThickness();
-				if (which == Surface.EDGES) {
-					renderTube(gl, Surface.OUTSIDE, t.getForeShoulderRadius(), iR, t.getForeShoulderLength());
-					renderTube(gl, Surface.EDGES, t.getForeShoulderRadius(), iR, t.getForeShoulderLength());
-					gl.glPushMatrix();
-					gl.glRotated(90, 0, 1.0, 0);
-					glu.gluDisk(q, t.getForeShoulderRadius(), t.getForeRadius(), LOD, 2);
-					gl.glPopMatrix();
-
-				} else {
-					renderTube(gl, Surface.INSIDE, t.getForeShoulderRadius(), iR, t.getForeShoulderLength());
-					gl.glPushMatrix();
-					gl.glRotated(270, 0, 1.0, 0);
-					glu.gluDisk(q, t.getForeShoulderRadius(), t.getForeRadius(), LOD, 2);
-					gl.glPopMatrix();
-				}
-				gl.glPopMatrix();
-			}
-
-		}
-
-	}
-
-	private void renderTube(final GL2 gl, final Surface which, final double oR, final double iR, final double len) {
-		gl.glPushMatrix();
-		//outside
-		gl.glRotated(90, 0, 1.0, 0);
-		if (which == Surface.OUTSIDE)
-			glu.gluCylinder(q, oR, oR, len, LOD, 1);
-
-		//edges
-		gl.glRotated(180, 0, 1.0, 0);
-		if (which == Surface.EDGES)
-			glu.gluDisk(q, iR, oR, LOD, 2);
-
-		gl.glRotated(180, 0, 1.0, 0);
-		gl.glTranslated(0, 0, len);
-		if (which == Surface.EDGES)
-			glu.gluDisk(q, iR, oR, LOD, 2);
-
-		//inside
-		if (which == Surface.INSIDE) {
-			glu.gluQuadricOrientation(q, GLU.GLU_INSIDE);
-			glu.gluCylinder(q, iR, iR, -len, LOD, 1);
-			glu.gluQuadricOrientation(q, GLU.GLU_OUTSIDE);
-		}
-		gl.glPopMatrix();
-	}
-
-	private void renderTube(GL2 gl, BodyTube t, Surface which) {
-		renderTube(gl, which, t.getOuterRadius(), t.getInnerRadius(), t.getLength());
-	}
-
-	private void renderRing(GL2 gl, RingComponent r) {
-
-		gl.glRotated(90, 0, 1.0, 0);
-		glu.gluCylinder(q, r.getOuterRadius(), r.getOuterRadius(),
-				r.getLength(), LOD, 1);
-
-		gl.glRotated(180, 0, 1.0, 0);
-		glu.gluDisk(q, r.getInnerRadius(), r.getOuterRadius(), LOD, 2);
-
-		gl.glRotated(180, 0, 1.0, 0);
-		gl.glTranslated(0, 0, r.getLength());
-		glu.gluDisk(q, r.getInnerRadius(), r.getOuterRadius(), LOD, 2);
-
-		glu.gluQuadricOrientation(q, GLU.GLU_INSIDE);
-		glu.gluCylinder(q, r.getInnerRadius(), r.getInnerRadius(),
-				-r.getLength(), LOD, 1);
-		glu.gluQuadricOrientation(q, GLU.GLU_OUTSIDE);
-
-	}
-
-	private void renderLug(GL2 gl, LaunchLug t, Surface which) {
-		renderTube(gl, which, t.getOuterRadius(), t.getInnerRadius(), t.getLength());
-	}
-
-	private void renderTubeFins(GL2 gl, TubeFinSet fs, Surface which) {
-		gl.glPushMatrix();
-		gl.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
-		System.out.println(fs.getBaseRotation());
-		gl.glRotated(fs.getBaseRotation() * (180.0 / Math.PI), 1, 0, 0);
-		for( int i = 0; i< fs.getFinCount(); i++ ) {
-			gl.glPushMatrix();
-			gl.glTranslated(0, fs.getOuterRadius() + fs.getBodyRadius(), 0);
-			renderTube(gl, which, fs.getOuterRadius(), fs.getInnerRadius(), fs.getLength());
-			gl.glPopMatrix();
-			gl.glRotated(360.0 / fs.getFinCount(), 1, 0, 0);
-		}
-		gl.glPopMatrix();
-	}
-
-	private void renderMassObject(GL2 gl, MassObject o) {
-		gl.glRotated(90, 0, 1.0, 0);
-
-		MassObjectRenderer.drawMassObject(gl, o, LOD / 2, LOD / 2);
-	}
-
 	private void renderMotor(final GL2 gl, Motor motor) {
 		double l = motor.getLength();
 		double r = motor.getDiameter() / 2;
@@ -351,4 +219,18 @@ public class ComponentRenderer {
 		}
 		gl.glPopMatrix();
 	}
+
+	private static class MeshBuffers {
+		private final FloatBuffer positions;
+		private final FloatBuffer normals;
+		private final FloatBuffer texCoords;
+		private final IntBuffer indices;
+
+		public MeshBuffers(Mesh mesh) {
+			positions = Buffers.newDirectFloatBuffer(mesh.getPositions());
+			normals = Buffers.newDirectFloatBuffer(mesh.getNormals());
+			texCoords = Buffers.newDirectFloatBuffer(mesh.getTexCoords());
+			indices = Buffers.newDirectIntBuffer(mesh.getIndices());
+		}
+	}
 }
@@ -14,7 +14,9 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -26,6 +28,7 @@ import java.util.EventObject;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
 import javax.swing.Action;
 import javax.swing.BorderFactory;
@@ -99,6 +102,8 @@ import net.sf.openrocket.gui.util.SaveFileWorker;
 import net.sf.openrocket.gui.util.SwingPreferences;
 import net.sf.openrocket.l10n.Translator;
 import net.sf.openrocket.logging.Markers;
+import net.sf.openrocket.mesh.MeshCache;
+import net.sf.openrocket.mesh.MeshExporter;
 import net.sf.openrocket.rocketcomponent.ComponentChangeEvent;
 import net.sf.openrocket.rocketcomponent.ComponentChangeListener;
 import net.sf.openrocket.rocketcomponent.Rocket;
@@ -123,6 +128,17 @@ public class BasicFrame extends JFrame {
 
 	private static final int SHORTCUT_KEY = Toolkit.getDefaultToolkit().getMenuShortcutKeyMask();
 
+	/**
+	 * Executor delivering coalesced rocket change events once per cycle of the
+	 * event dispatch thread.
+	 */
+	private static final Executor EDT_EXECUTOR = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			SwingUtilities.invokeLater(command);
+		}
+	};
+
 	public static final int COMPONENT_TAB = 0;
 	public static final int CONFIGURATION_TAB = 1;
 	public static final int SIMULATION_TAB = 2;
@@ -169,6 +185,7 @@ public class BasicFrame extends JFrame {
 
 		this.document = document;
 		this.rocket = document.getRocket();
+		this.rocket.setCoalescingExecutor(EDT_EXECUTOR);
 		this.rocket.getDefaultConfiguration().setAllStages();
 
 		// Create the component tree selection model that will be used
@@ -230,7 +247,7 @@ public class BasicFrame extends JFrame {
 			public void componentChanged(ComponentChangeEvent e) {
 				setTitle();
 			}
-		});
+		}, ComponentChangeEvent.ALL_CHANGE, true);
 
 		setTitle();
 		this.pack();
@@ -530,6 +547,18 @@ public class BasicFrame extends JFrame {
 		});
 		menu.add(item);
 
+		//// Export 3D model...
+		item = new JMenuItem(trans.get("main.menu.file.export3d"));
+		item.getAccessibleContext().setAccessibleDescription(trans.get("main.menu.file.export3d.desc"));
+		item.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				log.info(Markers.USER_MARKER, "Export 3D model selected");
+				export3DAction();
+			}
+		});
+		menu.add(item);
+
 
 		//// Print...
 		item = new JMenuItem(trans.get("main.menu.file.print"), KeyEvent.VK_P);
@@ -1548,6 +1577,54 @@ public class BasicFrame extends JFrame {
 	}
 
 
+	/**
+	 * Export the meshes of the current configuration to an STL or OBJ file.
+	 */
+	public void export3DAction() {
+		JFileChooser chooser = new JFileChooser();
+		chooser.addChoosableFileFilter(FileHelper.STL_FILTER);
+		chooser.addChoosableFileFilter(FileHelper.OBJ_FILTER);
+		chooser.setFileFilter(FileHelper.STL_FILTER);
+		chooser.setCurrentDirectory(((SwingPreferences) Application.getPreferences()).getDefaultDirectory());
+
+		int option = chooser.showSaveDialog(this);
+		if (option != JFileChooser.APPROVE_OPTION || chooser.getSelectedFile() == null) {
+			log.info(Markers.USER_MARKER, "User decided not to export, option=" + option);
+			return;
+		}
+		((SwingPreferences) Application.getPreferences()).setDefaultDirectory(chooser.getCurrentDirectory());
+
+		boolean obj = (chooser.getFileFilter() == FileHelper.OBJ_FILTER);
+		File file = FileHelper.forceExtension(chooser.getSelectedFile(), obj ? "obj" : "stl");
+		if (!FileHelper.confirmWrite(file, this)) {
+			return;
+		}
+
+		log.info("Exporting 3D model to " + file);
+		// Exported in millimeters, the customary unit of STL files
+		MeshExporter exporter = new MeshExporter(new MeshCache(), 80, 1000);
+		OutputStream os = null;
+		try {
+			os = new FileOutputStream(file);
+			if (obj) {
+				exporter.exportOBJ(rocketpanel.getConfiguration(), os);
+			} else {
+				exporter.exportSTL(rocketpanel.getConfiguration(), os);
+			}
+		} catch (IOException e) {
+			FileHelper.errorWriting(e, this);
+		} finally {
+			if (os != null) {
+				try {
+					os.close();
+				} catch (IOException e) {
+					log.warn("Error closing file " + file, e);
+				}
+			}
+		}
+	}
+
+
 	public void printAction() {
 		double rotation = rocketpanel.getFigure().getRotation();
 		new PrintDialog(this, document, rotation).setVisible(true);
@@ -30,14 +30,18 @@ import net.sf.openrocket.startup.Application;
 public class StorageOptionChooser extends JPanel {
 	
 	public static final double DEFAULT_SAVE_TIME_SKIP = 0.20;
+	
+	public static final double DEFAULT_SAVE_TOLERANCE = 0.001;
 
 	private final OpenRocketDocument document;
 	
 	private JRadioButton allButton;
 	private JRadioButton someButton;
+	private JRadioButton accurateButton;
 	private JRadioButton noneButton;
 	
 	private JSpinner timeSpinner;
+	private JSpinner toleranceSpinner;
 	
 	private JLabel estimateLabel;
 	
@@ -110,6 +114,35 @@ public class StorageOptionChooser extends JPanel {
 		label.setToolTipText(tip);
 		this.add(label, "wrap rel");
 		
+		//// Within
+		accurateButton = new JRadioButton(trans.get("StorageOptChooser.rdbut.Within"));
+		//// <html>Store the values needed to reproduce the plots within this accuracy.<br>
+		//// The accuracy is relative to the range of each value.
+		tip = trans.get("StorageOptChooser.lbl.longE1") +
+		trans.get("StorageOptChooser.lbl.longE2");
+		accurateButton.setToolTipText(tip);
+		buttonGroup.add(accurateButton);
+		accurateButton.addActionListener(actionUpdater);
+		this.add(accurateButton, "");
+		
+		toleranceSpinner = new JSpinner(new SpinnerNumberModel(0.1, 0.01, 10.0, 0.1));
+		toleranceSpinner.setToolTipText(tip);
+		toleranceSpinner.addChangeListener(new ChangeListener() {
+			@Override
+			public void stateChanged(ChangeEvent e) {
+				if (artificialEvent)
+					return;
+				accurateButton.setSelected(true);
+			}
+		});
+		this.add(toleranceSpinner, "wmin 55lp");
+		toleranceSpinner.addChangeListener(changeUpdater);
+		
+		//// % of the value range
+		label = new JLabel(trans.get("StorageOptChooser.lbl.percentofrange"));
+		label.setToolTipText(tip);
+		this.add(label, "wrap rel");
+		
 		//// Only primary figures
 		noneButton = new JRadioButton(trans.get("StorageOptChooser.rdbut.Onlyprimfig"));
 		//// <html>Store only the values shown in the summary table.<br>
@@ -139,22 +172,30 @@ public class StorageOptionChooser extends JPanel {
 	
 	public void loadOptions(StorageOptions opts) {
 		double t;
+		double tolerance = opts.getSimulationTolerance();
 		
 		// Data storage radio button
 		t = opts.getSimulationTimeSkip();
-		if (t == StorageOptions.SIMULATION_DATA_ALL) {
-			allButton.setSelected(true);
-			t = DEFAULT_SAVE_TIME_SKIP;
-		} else if (t == StorageOptions.SIMULATION_DATA_NONE) {
+		if (t == StorageOptions.SIMULATION_DATA_NONE) {
 			noneButton.setSelected(true);
 			t = DEFAULT_SAVE_TIME_SKIP;
+		} else if (tolerance > 0) {
+			accurateButton.setSelected(true);
+			t = DEFAULT_SAVE_TIME_SKIP;
+		} else if (t == StorageOptions.SIMULATION_DATA_ALL) {
+			allButton.setSelected(true);
+			t = DEFAULT_SAVE_TIME_SKIP;
 		} else {
 			someButton.setSelected(true);
 		}
+		if (!(tolerance > 0)) {
+			tolerance = DEFAULT_SAVE_TOLERANCE;
+		}
 		
-		// Time skip spinner
+		// Time skip and tolerance spinners, the tolerance is shown in percent
 		artificialEvent = true;
 		timeSpinner.setValue(t);
+		toleranceSpinner.setValue(tolerance * 100);
 		artificialEvent = false;
 		
 		updateEstimate();
@@ -163,16 +204,21 @@ public class StorageOptionChooser extends JPanel {
 	
 	public void storeOptions(StorageOptions opts) {
 		double t;
+		double tolerance = 0;
 		
 		if (allButton.isSelected()) {
 			t = StorageOptions.SIMULATION_DATA_ALL;
 		} else if (noneButton.isSelected()) {
 			t = StorageOptions.SIMULATION_DATA_NONE;
+		} else if (accurateButton.isSelected()) {
+			t = StorageOptions.SIMULATION_DATA_ALL;
+			tolerance = (Double)toleranceSpinner.getValue() / 100;
 		} else {
 			t = (Double)timeSpinner.getValue();
 		}
 		
 		opts.setSimulationTimeSkip(t);
+		opts.setSimulationTolerance(tolerance);
 		
 		opts.setExplicitlySet(true);
 	}
@@ -33,7 +33,9 @@ public class ComponentTreeModel implements TreeModel, ComponentChangeListener {
 	public ComponentTreeModel(RocketComponent root, JTree tree) {
 		this.root = root;
 		this.tree = tree;
-		root.addComponentChangeListener(this);
+		// Pure aerodynamic changes do not affect the tree
+		root.addComponentChangeListener(this, ComponentChangeEvent.ALL_CHANGE & ~ComponentChangeEvent.AERODYNAMIC_CHANGE,
+				false);
 	}
 	
 	
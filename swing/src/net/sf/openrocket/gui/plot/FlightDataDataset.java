@@ -0,0 +1,360 @@
+package net.sf.openrocket.gui.plot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.unit.Unit;
+
+import org.jfree.data.DomainInfo;
+import org.jfree.data.Range;
+import org.jfree.data.xy.AbstractXYDataset;
+
+/**
+ * An XY dataset that reads its values directly from flight data branches.  The values
+ * are converted to the plotted units when they are read, so the flight data is never
+ * copied.
+ * <p>
+ * Series that contain more points than are meaningful at the current zoom level are
+ * decimated.  The visible domain range is divided into columns, and for each run of
+ * consecutive points falling into the same column only the first, last, minimum and
+ * maximum points are kept.  This preserves the visual envelope of the line while
+ * limiting the number of points drawn.  The decimation is recomputed by
+ * {@link #setDomainRange(double, double)} when the plot is zoomed.
+ */
+public class FlightDataDataset extends AbstractXYDataset implements DomainInfo {
+
+	/** Column index for points to the left of the visible range. */
+	private static final int LEFT = -1;
+
+	private final FlightDataType domainType;
+	private final Unit domainUnit;
+	private final int columns;
+
+	private final List<Series> series = new ArrayList<Series>();
+
+	private double rangeLower = Double.NaN;
+	private double rangeUpper = Double.NaN;
+
+
+	/**
+	 * Sole constructor.
+	 *
+	 * @param domainType	the type plotted on the domain axis.
+	 * @param domainUnit	the unit of the domain axis.
+	 * @param columns		the number of columns the visible domain range is divided into.
+	 */
+	public FlightDataDataset(FlightDataType domainType, Unit domainUnit, int columns) {
+		this.domainType = domainType;
+		this.domainUnit = domainUnit;
+		this.columns = columns;
+	}
+
+
+	/**
+	 * Add a series plotting the values of a single branch.
+	 *
+	 * @param description	the description of the series.
+	 * @param branch		the branch.
+	 * @param type			the type plotted on the range axis.
+	 * @param unit			the unit of the range axis.
+	 */
+	public void addSeries(String description, FlightDataBranch branch, FlightDataType type, Unit unit) {
+		addSeries(description, null, branch, type, unit);
+	}
+
+	/**
+	 * Add a series plotting the values of a secondary branch.  The series starts with
+	 * the points of the primary branch preceding the first point of the secondary branch.
+	 *
+	 * @param description	the description of the series.
+	 * @param primary		the primary branch, or <code>null</code>.
+	 * @param branch		the secondary branch.
+	 * @param type			the type plotted on the range axis.
+	 * @param unit			the unit of the range axis.
+	 */
+	public void addSeries(String description, FlightDataBranch primary, FlightDataBranch branch,
+			FlightDataType type, Unit unit) {
+		int primaryCount = 0;
+		if (primary != null && branch.getLength() > 0) {
+			primaryCount = indexOfTime(primary, branch.getValue(FlightDataType.TYPE_TIME, 0));
+		}
+		Series s = new Series(description, primary, primaryCount, branch, type, unit);
+		series.add(s);
+		if (!Double.isNaN(rangeLower)) {
+			decimate(s);
+		}
+		fireDatasetChanged();
+	}
+
+	/**
+	 * Return the description of a series.
+	 */
+	public String getSeriesDescription(int index) {
+		return series.get(index).description;
+	}
+
+
+	/**
+	 * Set the visible domain range, in the units of the domain axis.  The series are
+	 * decimated for the range and a dataset change event is fired if the range changed.
+	 */
+	public void setDomainRange(double lower, double upper) {
+		if (lower == rangeLower && upper == rangeUpper) {
+			return;
+		}
+		rangeLower = lower;
+		rangeUpper = upper;
+		for (Series s : series) {
+			decimate(s);
+		}
+		fireDatasetChanged();
+	}
+
+
+	@Override
+	public int getSeriesCount() {
+		return series.size();
+	}
+
+	@Override
+	public Comparable<?> getSeriesKey(int index) {
+		return index;
+	}
+
+	@Override
+	public int getItemCount(int index) {
+		Series s = series.get(index);
+		if (s.view != null) {
+			return s.view.length;
+		}
+		return s.getLength();
+	}
+
+	@Override
+	public Number getX(int index, int item) {
+		return getXValue(index, item);
+	}
+
+	@Override
+	public double getXValue(int index, int item) {
+		Series s = series.get(index);
+		if (s.view != null) {
+			item = s.view[item];
+		}
+		return domainUnit.toUnit(s.getValue(domainType, item));
+	}
+
+	@Override
+	public Number getY(int index, int item) {
+		return getYValue(index, item);
+	}
+
+	@Override
+	public double getYValue(int index, int item) {
+		Series s = series.get(index);
+		if (s.view != null) {
+			item = s.view[item];
+		}
+		return s.unit.toUnit(s.getValue(s.type, item));
+	}
+
+
+	@Override
+	public double getDomainLowerBound(boolean includeInterval) {
+		return getDomainBounds(includeInterval).getLowerBound();
+	}
+
+	@Override
+	public double getDomainUpperBound(boolean includeInterval) {
+		return getDomainBounds(includeInterval).getUpperBound();
+	}
+
+	/**
+	 * Return the bounds of the domain values of all series.  The primary branch values
+	 * included in the secondary branch series are bounded by the primary branch series.
+	 */
+	@Override
+	public Range getDomainBounds(boolean includeInterval) {
+		double min = Double.NaN;
+		double max = Double.NaN;
+		for (Series s : series) {
+			FlightDataBranch[] branches = { s.primary, s.branch };
+			for (FlightDataBranch b : branches) {
+				if (b == null) {
+					continue;
+				}
+				double v1 = domainUnit.toUnit(b.getMinimum(domainType));
+				double v2 = domainUnit.toUnit(b.getMaximum(domainType));
+				min = min(min, Math.min(v1, v2));
+				max = max(max, Math.max(v1, v2));
+			}
+		}
+		if (Double.isNaN(min)) {
+			return null;
+		}
+		return new Range(min, max);
+	}
+
+
+	/**
+	 * Compute the decimated view of a series for the current domain range.
+	 */
+	private void decimate(Series s) {
+		int length = s.getLength();
+		if (length <= 4 * columns || !(rangeUpper > rangeLower)) {
+			s.view = null;
+			return;
+		}
+
+		double scale = columns / (rangeUpper - rangeLower);
+		int[] view = new int[16];
+		int size = 0;
+
+		int runColumn = Integer.MIN_VALUE;
+		int first = -1, last = -1, min = -1, max = -1;
+		double minY = 0, maxY = 0;
+		for (int i = 0; i < length; i++) {
+			double x = domainUnit.toUnit(s.getValue(domainType, i));
+			double y = s.unit.toUnit(s.getValue(s.type, i));
+
+			int column;
+			if (Double.isNaN(x) || Double.isNaN(y)) {
+				// Keep the points breaking the line in their own run
+				column = Integer.MIN_VALUE;
+			} else if (x < rangeLower) {
+				column = LEFT;
+			} else if (x > rangeUpper) {
+				column = columns;
+			} else {
+				column = Math.min((int) ((x - rangeLower) * scale), columns - 1);
+			}
+
+			if (column != runColumn || column == Integer.MIN_VALUE) {
+				if (size + 4 > view.length) {
+					int[] copy = new int[view.length * 2];
+					System.arraycopy(view, 0, copy, 0, size);
+					view = copy;
+				}
+				size = flush(view, size, first, min, max, last);
+				runColumn = column;
+				first = i;
+				min = i;
+				max = i;
+				minY = y;
+				maxY = y;
+			} else {
+				if (y < minY) {
+					min = i;
+					minY = y;
+				}
+				if (y > maxY) {
+					max = i;
+					maxY = y;
+				}
+			}
+			last = i;
+		}
+		if (size + 4 > view.length) {
+			int[] copy = new int[size + 4];
+			System.arraycopy(view, 0, copy, 0, size);
+			view = copy;
+		}
+		size = flush(view, size, first, min, max, last);
+
+		int[] trimmed = new int[size];
+		System.arraycopy(view, 0, trimmed, 0, size);
+		s.view = trimmed;
+	}
+
+	/**
+	 * Append the distinct indices of a run to the view in increasing order.
+	 */
+	private static int flush(int[] view, int size, int first, int min, int max, int last) {
+		if (first < 0) {
+			return size;
+		}
+		view[size++] = first;
+		int a = Math.min(min, max);
+		int b = Math.max(min, max);
+		if (a != first) {
+			view[size++] = a;
+		}
+		if (b != a && b != first) {
+			view[size++] = b;
+		}
+		if (last != b && last != first) {
+			view[size++] = last;
+		}
+		return size;
+	}
+
+	/**
+	 * Return the index of the first point of a branch at or after the specified time.
+	 * The time values of a branch are increasing.
+	 */
+	private static int indexOfTime(FlightDataBranch branch, double time) {
+		int low = 0;
+		int high = branch.getLength();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (branch.getValue(FlightDataType.TYPE_TIME, mid) < time) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private static double min(double a, double b) {
+		if (Double.isNaN(a))
+			return b;
+		if (Double.isNaN(b))
+			return a;
+		return Math.min(a, b);
+	}
+
+	private static double max(double a, double b) {
+		if (Double.isNaN(a))
+			return b;
+		if (Double.isNaN(b))
+			return a;
+		return Math.max(a, b);
+	}
+
+
+	private static class Series {
+		private final String description;
+		private final FlightDataBranch primary;
+		private final int primaryCount;
+		private final FlightDataBranch branch;
+		private final FlightDataType type;
+		private final Unit unit;
+
+		/** The decimated point indices, or null to plot all points. */
+		private int[] view;
+
+		public Series(String description, FlightDataBranch primary, int primaryCount,
+				FlightDataBranch branch, FlightDataType type, Unit unit) {
+			this.description = description;
+			this.primary = primary;
+			this.primaryCount = primaryCount;
+			this.branch = branch;
+			this.type = type;
+			this.unit = unit;
+		}
+
+		public int getLength() {
+			return primaryCount + branch.getLength();
+		}
+
+		public double getValue(FlightDataType t, int index) {
+			if (index < primaryCount) {
+				return primary.getValue(t, index);
+			}
+			return branch.getValue(t, index - primaryCount);
+		}
+	}
+}
@@ -26,7 +26,6 @@ import net.sf.openrocket.simulation.FlightDataType;
 import net.sf.openrocket.simulation.FlightEvent;
 import net.sf.openrocket.unit.Unit;
 import net.sf.openrocket.unit.UnitGroup;
-import net.sf.openrocket.util.LinearInterpolator;
 
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.JFreeChart;
@@ -37,6 +36,8 @@ import org.jfree.chart.annotations.XYImageAnnotation;
 import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.axis.ValueAxis;
 import org.jfree.chart.block.LineBorder;
+import org.jfree.chart.event.AxisChangeEvent;
+import org.jfree.chart.event.AxisChangeListener;
 import org.jfree.chart.plot.DefaultDrawingSupplier;
 import org.jfree.chart.plot.Marker;
 import org.jfree.chart.plot.PlotOrientation;
@@ -47,8 +48,6 @@ import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
 import org.jfree.chart.title.LegendTitle;
 import org.jfree.chart.title.TextTitle;
 import org.jfree.data.Range;
-import org.jfree.data.xy.XYSeries;
-import org.jfree.data.xy.XYSeriesCollection;
 import org.jfree.text.TextUtilities;
 import org.jfree.ui.LengthAdjustmentType;
 import org.jfree.ui.RectangleAnchor;
@@ -65,6 +64,13 @@ public class SimulationPlot {
 	
 	private static final float PLOT_STROKE_WIDTH = 1.5f;
 	
+	/**
+	 * Number of columns the visible domain range is divided into when decimating long
+	 * data series.  At most four points are plotted per column, which is a few points
+	 * per pixel even on large screens, so the series are reduced without visible change.
+	 */
+	private static final int PLOT_COLUMNS = 1000;
+	
 	private final JFreeChart chart;
 	
 	private final PlotConfiguration config;
@@ -88,7 +94,7 @@ public class SimulationPlot {
 		XYPlot plot = (XYPlot) chart.getPlot();
 		int datasetcount = plot.getDatasetCount();
 		for (int i = 0; i < datasetcount; i++) {
-			int seriescount = ((XYSeriesCollection) plot.getDataset(i)).getSeriesCount();
+			int seriescount = plot.getDataset(i).getSeriesCount();
 			XYItemRenderer r = ((XYPlot) chart.getPlot()).getRenderer(i);
 			for (int j = 0; j < seriescount; j++) {
 				boolean show = (branch < 0) || (j % branchCount == branch);
@@ -130,11 +136,6 @@ public class SimulationPlot {
 		this.filled = config.fillAutoAxes(mainBranch);
 		List<Axis> axes = filled.getAllAxes();
 		
-		// Create the data series for both axes
-		XYSeriesCollection[] data = new XYSeriesCollection[2];
-		data[0] = new XYSeriesCollection();
-		data[1] = new XYSeriesCollection();
-		
 		// Get the domain axis type
 		final FlightDataType domainType = filled.getDomainAxisType();
 		final Unit domainUnit = filled.getDomainAxisUnit();
@@ -142,12 +143,14 @@ public class SimulationPlot {
 			throw new IllegalArgumentException("Domain axis type not specified.");
 		}
 		
-		// Get plot length (ignore trailing NaN's)
-		int typeCount = filled.getTypeCount();
+		// Create the data series for both axes
+		FlightDataDataset[] data = new FlightDataDataset[2];
+		data[0] = new FlightDataDataset(domainType, domainUnit, PLOT_COLUMNS);
+		data[1] = new FlightDataDataset(domainType, domainUnit, PLOT_COLUMNS);
 		
-		int seriesCount = 0;
+		int typeCount = filled.getTypeCount();
 		
-		// Create the XYSeries objects from the flight data and store into the collections
+		// Create the series reading from the flight data and store into the datasets
 		String[] axisLabel = new String[2];
 		for (int i = 0; i < typeCount; i++) {
 			// Get info
@@ -156,57 +159,14 @@ public class SimulationPlot {
 			int axis = filled.getAxis(i);
 			String name = getLabel(type, unit);
 			
-			List<String> seriesNames = Util.generateSeriesLabels(simulation);
-			
-			// Populate data for each branch.
+			// The primary branch (branchIndex = 0) contains all of its own data
+			FlightDataBranch primaryBranch = simulation.getSimulatedData().getBranch(0);
+			data[axis].addSeries(name, primaryBranch, type, unit);
 			
-			// The primary branch (branchIndex = 0) is easy since all the data is copied
-			{
-				int branchIndex = 0;
-				FlightDataBranch thisBranch = simulation.getSimulatedData().getBranch(branchIndex);
-				// Store data in provided units
-				List<Double> plotx = thisBranch.get(domainType);
-				List<Double> ploty = thisBranch.get(type);
-				XYSeries series = new XYSeries(seriesCount++, false, true);
-				series.setDescription(name);
-				int pointCount = plotx.size();
-				for (int j = 0; j < pointCount; j++) {
-					series.add(domainUnit.toUnit(plotx.get(j)), unit.toUnit(ploty.get(j)));
-				}
-				data[axis].addSeries(series);
-			}
 			// For each of the secondary branches, we use data from branch 0 for the earlier times
 			for (int branchIndex = 1; branchIndex < branchCount; branchIndex++) {
-				FlightDataBranch primaryBranch = simulation.getSimulatedData().getBranch(0);
 				FlightDataBranch thisBranch = simulation.getSimulatedData().getBranch(branchIndex);
-				
-				// Get first time index used in secondary branch;
-				double firstSampleTime = thisBranch.get(FlightDataType.TYPE_TIME).get(0);
-				
-				XYSeries series = new XYSeries(seriesCount++, false, true);
-				series.setDescription(thisBranch.getBranchName() + ": " + name);
-				
-				// Copy the first points from the primaryBranch.
-				List<Double> primaryT = primaryBranch.get(FlightDataType.TYPE_TIME);
-				List<Double> primaryx = primaryBranch.get(domainType);
-				List<Double> primaryy = primaryBranch.get(type);
-				
-				for (int j = 0; j < primaryT.size(); j++) {
-					if (primaryT.get(j) >= firstSampleTime) {
-						break;
-					}
-					series.add(domainUnit.toUnit(primaryx.get(j)), unit.toUnit(primaryy.get(j)));
-				}
-				
-				// Now copy all the data from the secondary branch
-				List<Double> plotx = thisBranch.get(domainType);
-				List<Double> ploty = thisBranch.get(type);
-				
-				int pointCount = plotx.size();
-				for (int j = 0; j < pointCount; j++) {
-					series.add(domainUnit.toUnit(plotx.get(j)), unit.toUnit(ploty.get(j)));
-				}
-				data[axis].addSeries(series);
+				data[axis].addSeries(thisBranch.getBranchName() + ": " + name, primaryBranch, thisBranch, type, unit);
 			}
 			
 			// Update axis label
@@ -251,7 +211,7 @@ public class SimulationPlot {
 				}
 				// Now we pull the colors for the legend.
 				for (int j = 0; j < data[i].getSeriesCount(); j += branchCount) {
-					String name = data[i].getSeries(j).getDescription();
+					String name = data[i].getSeriesDescription(j);
 					this.legendItems.lineLabels.add(name);
 					Paint linePaint = r.lookupSeriesPaint(j);
 					this.legendItems.linePaints.add(linePaint);
@@ -266,7 +226,21 @@ public class SimulationPlot {
 			}
 		}
 		
-		plot.getDomainAxis().setLabel(getLabel(domainType, domainUnit));
+		// Decimate the data series for the visible domain range whenever it changes
+		final ValueAxis domainAxis = plot.getDomainAxis();
+		final FlightDataDataset[] datasets = data;
+		AxisChangeListener zoomListener = new AxisChangeListener() {
+			@Override
+			public void axisChanged(AxisChangeEvent event) {
+				for (FlightDataDataset d : datasets) {
+					d.setDomainRange(domainAxis.getLowerBound(), domainAxis.getUpperBound());
+				}
+			}
+		};
+		domainAxis.addChangeListener(zoomListener);
+		zoomListener.axisChanged(null);
+		
+		domainAxis.setLabel(getLabel(domainType, domainUnit));
 		plot.addDomainMarker(new ValueMarker(0));
 		plot.addRangeMarker(new ValueMarker(0));
 		
@@ -373,11 +347,6 @@ public class SimulationPlot {
 		} else {
 			
 			// Other domains are plotted as image annotations
-			List<Double> time = mainBranch.get(FlightDataType.TYPE_TIME);
-			List<Double> domain = mainBranch.get(config.getDomainAxisType());
-			
-			LinearInterpolator domainInterpolator = new LinearInterpolator(time, domain);
-			
 			for (int i = 0; i < eventTimes.size(); i++) {
 				double t = eventTimes.get(i);
 				String event = eventLabels.get(i);
@@ -386,22 +355,18 @@ public class SimulationPlot {
 				if (image == null)
 					continue;
 				
-				double xcoord = domainInterpolator.getValue(t);
+				double xcoord = mainBranch.interpolate(config.getDomainAxisType(), t);
+				xcoord = config.getDomainAxisUnit().toUnit(xcoord);
 				for (int index = 0; index < config.getTypeCount(); index++) {
 					FlightDataType type = config.getType(index);
-					List<Double> range = mainBranch.get(type);
 					
-					LinearInterpolator rangeInterpolator = new LinearInterpolator(time, range);
 					// Image annotations are not supported on the right-side axis
 					// TODO: LOW: Can this be achieved by JFreeChart?
 					if (filled.getAxis(index) != SimulationPlotPanel.LEFT) {
 						continue;
 					}
 					
-					double ycoord = rangeInterpolator.getValue(t);
-					
-					// Convert units
-					xcoord = config.getDomainAxisUnit().toUnit(xcoord);
+					double ycoord = mainBranch.interpolate(type, t);
 					ycoord = config.getUnit(index).toUnit(ycoord);
 					
 					XYImageAnnotation annotation =
@@ -5,7 +5,10 @@ package net.sf.openrocket.gui.print;
 
 import java.awt.Graphics2D;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import net.sf.openrocket.document.OpenRocketDocument;
 import net.sf.openrocket.document.Simulation;
@@ -23,10 +26,12 @@ import net.sf.openrocket.rocketcomponent.Rocket;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
 import net.sf.openrocket.rocketcomponent.Stage;
 import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.SimulationScheduler;
 import net.sf.openrocket.simulation.exception.SimulationException;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.unit.Unit;
 import net.sf.openrocket.unit.UnitGroup;
+import net.sf.openrocket.util.BugException;
 import net.sf.openrocket.util.Chars;
 import net.sf.openrocket.util.Coordinate;
 import net.sf.openrocket.util.Utils;
@@ -226,6 +231,12 @@ public class DesignReport {
 			String[] motorIds = rocket.getFlightConfigurationIDs();
 			List<Simulation> simulations = rocketDocument.getSimulations();
 			
+			// Start all simulations before waiting for the first one
+			List<Future<FlightData>> flights = new ArrayList<Future<FlightData>>();
+			for (String motorId : motorIds) {
+				flights.add(motorId != null ? startSimulation(motorId, simulations) : null);
+			}
+			
 			for (int j = 0; j < motorIds.length; j++) {
 				String motorId = motorIds[j];
 				if (motorId != null) {
@@ -239,7 +250,7 @@ public class DesignReport {
 					if (j > 1) {
 						leading = 25;
 					}
-					FlightData flight = findSimulation(motorId, simulations);
+					FlightData flight = getFlightData(flights.get(j));
 					addFlightData(flight, rocket, motorId, parent, leading);
 					addMotorData(rocket, motorId, parent);
 					document.add(parent);
@@ -497,31 +508,53 @@ public class DesignReport {
 	}
 	
 	/**
-	 * Locate the simulation based on the motor id.  Copy the simulation and execute it, then return the resulting
-	 * flight data.
+	 * Locate the simulation based on the motor id.  Copy the simulation and queue it to be
+	 * executed in the background.
 	 *
 	 * @param motorId     the motor id corresponding to the simulation to find
 	 * @param simulations the list of simulations currently associated with the rocket
 	 *
-	 * @return the flight data from the simulation for the specified motor id, or null if not found
+	 * @return the future flight data of the simulation for the specified motor id, or null if not found
 	 */
-	private FlightData findSimulation(final String motorId, List<Simulation> simulations) {
-		// Perform flight simulation
-		FlightData flight = null;
+	private Future<FlightData> startSimulation(final String motorId, List<Simulation> simulations) {
+		for (int i = 0; i < simulations.size(); i++) {
+			Simulation simulation = simulations.get(i);
+			if (Utils.equals(simulation.getOptions().getMotorConfigurationID(), motorId)) {
+				return SimulationScheduler.getDefault().submit(simulation.copy());
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Wait for a simulation started by {@link #startSimulation(String, List)} to finish.
+	 *
+	 * @param future the future flight data, or null
+	 *
+	 * @return the flight data, or null if the simulation failed with a SimulationException or was not found
+	 */
+	private FlightData getFlightData(Future<FlightData> future) {
+		if (future == null) {
+			return null;
+		}
 		try {
-			for (int i = 0; i < simulations.size(); i++) {
-				Simulation simulation = simulations.get(i);
-				if (Utils.equals(simulation.getOptions().getMotorConfigurationID(), motorId)) {
-					simulation = simulation.copy();
-					simulation.simulate();
-					flight = simulation.getSimulatedData();
-					break;
-				}
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof SimulationException) {
+				// Ignore
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else {
+				throw new BugException("Unexpected exception while simulating", cause);
 			}
-		} catch (SimulationException e1) {
-			// Ignore
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
 		}
-		return flight;
+		return null;
 	}
 	
 	/**
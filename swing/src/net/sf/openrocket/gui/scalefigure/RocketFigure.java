@@ -15,9 +15,13 @@ import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.Map;
 
 import net.sf.openrocket.gui.figureelements.FigureElement;
 import net.sf.openrocket.gui.util.ColorConversion;
@@ -25,7 +29,9 @@ import net.sf.openrocket.gui.util.SwingPreferences;
 import net.sf.openrocket.motor.Motor;
 import net.sf.openrocket.rocketcomponent.Configuration;
 import net.sf.openrocket.rocketcomponent.MotorMount;
+import net.sf.openrocket.rocketcomponent.RingComponent;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.rocketcomponent.SymmetricComponent;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.util.BugException;
 import net.sf.openrocket.util.Coordinate;
@@ -47,6 +53,13 @@ public class RocketFigure extends AbstractScaleFigure {
 	private static final String ROCKET_FIGURE_PACKAGE = "net.sf.openrocket.gui.rocketfigure";
 	private static final String ROCKET_FIGURE_SUFFIX = "Shapes";
 	
+	/*
+	 * The shape generation methods of each component class, resolved by reflection.
+	 * A class without a shape generation method maps to null.
+	 */
+	private static final Map<Class<?>, Reflection.Method> SIDE_METHODS = new HashMap<Class<?>, Reflection.Method>();
+	private static final Map<Class<?>, Reflection.Method> BACK_METHODS = new HashMap<Class<?>, Reflection.Method>();
+	
 	public static final int TYPE_SIDE = 1;
 	public static final int TYPE_BACK = 2;
 	
@@ -74,6 +87,12 @@ public class RocketFigure extends AbstractScaleFigure {
 	private final ArrayList<RocketComponent> figureComponents =
 			new ArrayList<RocketComponent>();
 	
+	/*
+	 * The shapes generated for each component during the previous update, reused
+	 * if the component and the components its geometry depends on are unchanged.
+	 */
+	private Map<RocketComponent, CachedShapes> shapeCache = new IdentityHashMap<RocketComponent, CachedShapes>();
+	
 	private double minX = 0, maxX = 0, maxR = 0;
 	// Figure width and height in SI-units and pixels
 	private double figureWidth = 0, figureHeight = 0;
@@ -186,14 +205,23 @@ public class RocketFigure extends AbstractScaleFigure {
 		
 		calculateSize();
 		
-		// Get shapes for all active components
+		// Get shapes for all active components, keeping only the shapes of those in the cache
+		Map<RocketComponent, CachedShapes> cache = new IdentityHashMap<RocketComponent, CachedShapes>();
 		for (RocketComponent c : configuration) {
-			Shape[] s = getShapes(c);
+			ShapeKey key = new ShapeKey(c, type, rotation);
+			CachedShapes cached = shapeCache.get(c);
+			if (cached == null || !cached.key.equals(key)) {
+				cached = new CachedShapes(key, getShapes(c));
+			}
+			cache.put(c, cached);
+			
+			Shape[] s = cached.shapes;
 			for (int i = 0; i < s.length; i++) {
 				figureShapes.add(s[i]);
 				figureComponents.add(c);
 			}
 		}
+		shapeCache = cache;
 		
 		repaint();
 		fireChangeEvent();
@@ -444,13 +472,11 @@ public class RocketFigure extends AbstractScaleFigure {
 		// Find the appropriate method
 		switch (type) {
 		case TYPE_SIDE:
-			m = Reflection.findMethod(ROCKET_FIGURE_PACKAGE, component, ROCKET_FIGURE_SUFFIX, "getShapesSide",
-					RocketComponent.class, Transformation.class);
+			m = findMethod(SIDE_METHODS, component, "getShapesSide");
 			break;
 		
 		case TYPE_BACK:
-			m = Reflection.findMethod(ROCKET_FIGURE_PACKAGE, component, ROCKET_FIGURE_SUFFIX, "getShapesBack",
-					RocketComponent.class, Transformation.class);
+			m = findMethod(BACK_METHODS, component, "getShapesBack");
 			break;
 		
 		default:
@@ -466,6 +492,96 @@ public class RocketFigure extends AbstractScaleFigure {
 		return (Shape[]) m.invokeStatic(component, transformation);
 	}
 	
+	private static Reflection.Method findMethod(Map<Class<?>, Reflection.Method> methods,
+			RocketComponent component, String method) {
+		synchronized (methods) {
+			Class<?> c = component.getClass();
+			if (methods.containsKey(c)) {
+				return methods.get(c);
+			}
+			Reflection.Method m = Reflection.findMethod(ROCKET_FIGURE_PACKAGE, component, ROCKET_FIGURE_SUFFIX, method,
+					RocketComponent.class, Transformation.class);
+			methods.put(c, m);
+			return m;
+		}
+	}
+	
+	
+	/**
+	 * The values the shapes of a component depend on.  These are the view type and
+	 * rotation, the absolute positions of the component, and the state of the component
+	 * and its ancestors.  Automatic radii of symmetric and ring components depend on
+	 * neighbouring components, so the resolved radii are included as well.
+	 */
+	private static class ShapeKey {
+		private final int type;
+		private final double rotation;
+		private final Coordinate[] positions;
+		private final RocketComponent[] components;
+		private final int[] modIDs;
+		private final double[] radii;
+		
+		public ShapeKey(RocketComponent component, int type, double rotation) {
+			this.type = type;
+			this.rotation = rotation;
+			this.positions = component.toAbsolute(Coordinate.NUL);
+			
+			ArrayList<RocketComponent> list = new ArrayList<RocketComponent>();
+			for (RocketComponent c = component; c != null; c = c.getParent()) {
+				list.add(c);
+			}
+			components = list.toArray(new RocketComponent[0]);
+			modIDs = new int[components.length];
+			radii = new double[2 * components.length];
+			for (int i = 0; i < components.length; i++) {
+				modIDs[i] = components[i].getStateModID();
+				if (components[i] instanceof SymmetricComponent) {
+					SymmetricComponent sym = (SymmetricComponent) components[i];
+					radii[2 * i] = sym.getForeRadius();
+					radii[2 * i + 1] = sym.getAftRadius();
+				} else if (components[i] instanceof RingComponent) {
+					RingComponent ring = (RingComponent) components[i];
+					radii[2 * i] = ring.getInnerRadius();
+					radii[2 * i + 1] = ring.getOuterRadius();
+				}
+			}
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ShapeKey)) {
+				return false;
+			}
+			ShapeKey other = (ShapeKey) obj;
+			if (type != other.type || Double.compare(rotation, other.rotation) != 0 ||
+					components.length != other.components.length) {
+				return false;
+			}
+			for (int i = 0; i < components.length; i++) {
+				if (components[i] != other.components[i]) {
+					return false;
+				}
+			}
+			return Arrays.equals(modIDs, other.modIDs) && Arrays.equals(radii, other.radii) &&
+					Arrays.equals(positions, other.positions);
+		}
+		
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(modIDs);
+		}
+	}
+	
+	private static class CachedShapes {
+		private final ShapeKey key;
+		private final Shape[] shapes;
+		
+		public CachedShapes(ShapeKey key, Shape[] shapes) {
+			this.key = key;
+			this.shapes = shapes;
+		}
+	}
+	
 	
 
 	/**
@@ -12,7 +12,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EventListener;
 import java.util.EventObject;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
@@ -64,8 +66,6 @@ import net.sf.openrocket.rocketcomponent.Rocket;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
 import net.sf.openrocket.rocketcomponent.SymmetricComponent;
 import net.sf.openrocket.simulation.FlightData;
-import net.sf.openrocket.simulation.customexpression.CustomExpression;
-import net.sf.openrocket.simulation.customexpression.CustomExpressionSimulationListener;
 import net.sf.openrocket.simulation.listeners.SimulationListener;
 import net.sf.openrocket.simulation.listeners.system.ApogeeEndListener;
 import net.sf.openrocket.simulation.listeners.system.InterruptListener;
@@ -152,6 +152,21 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 	
 	private SimulationWorker backgroundSimulationWorker = null;
 	
+	/**
+	 * Results of the recent background simulations, keyed by the functional ID of the
+	 * rocket and the motor configuration ID.  This allows reusing the results when
+	 * undoing changes or switching between configurations.
+	 */
+	private final Map<String, FlightData> flightDataCache = new LinkedHashMap<String, FlightData>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, FlightData> eldest) {
+			return size() > FLIGHT_DATA_CACHE_SIZE;
+		}
+	};
+	private static final int FLIGHT_DATA_CACHE_SIZE = 16;
+	
 	private List<EventListener> listeners = new ArrayList<EventListener>();
 	
 	
@@ -228,7 +243,7 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 					}
 				}
 			}
-		});
+		}, ComponentChangeEvent.TEXTURE_CHANGE, false);
 		
 		figure3d.addComponentSelectionListener(new RocketFigure3d.ComponentSelectionListener() {
 			@Override
@@ -699,6 +714,14 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 			return;
 		}
 		
+		// Reuse the result of an earlier simulation of the same rocket
+		FlightData cached = flightDataCache.get(getFlightDataKey(flightDataFunctionalID, flightDataMotorID));
+		if (cached != null) {
+			extraText.setFlightData(cached);
+			extraText.setCalculatingData(false);
+			return;
+		}
+		
 		// Start calculation process
 		if(((SwingPreferences) Application.getPreferences()).computeFlightInBackground()){ 
 			extraText.setCalculatingData(true);
@@ -708,11 +731,16 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 			simulation.getOptions().setMotorConfigurationID(
 					configuration.getFlightConfigurationID());
 		
-			backgroundSimulationWorker = new BackgroundSimulationWorker(document, simulation);
+			backgroundSimulationWorker = new BackgroundSimulationWorker(simulation,
+					getFlightDataKey(flightDataFunctionalID, flightDataMotorID));
 			backgroundSimulationExecutor.execute(backgroundSimulationWorker);
 		}
 	}
 	
+	private static String getFlightDataKey(int functionalID, String motorID) {
+		return functionalID + ":" + motorID;
+	}
+	
 	/**
 	 * Cancels the current background simulation worker, if any.
 	 */
@@ -726,17 +754,19 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 	
 	/**
 	 * A SimulationWorker that simulates the rocket flight in the background and
-	 * sets the results to the extra text when finished.  The worker can be cancelled
-	 * if necessary.
+	 * sets the results to the extra text when finished.  The worker is cancelled
+	 * when a newer simulation supersedes it.
+	 * <p>
+	 * Only the summary values of the flight are shown, so the simulation ends at
+	 * apogee and does not evaluate custom expressions.
 	 */
 	private class BackgroundSimulationWorker extends SimulationWorker {
 		
-		private final CustomExpressionSimulationListener exprListener;
+		private final String key;
 		
-		public BackgroundSimulationWorker(OpenRocketDocument doc, Simulation sim) {
+		public BackgroundSimulationWorker(Simulation sim, String key) {
 			super(sim);
-			List<CustomExpression> exprs = doc.getCustomExpressions();
-			exprListener = new CustomExpressionSimulationListener(exprs);
+			this.key = key;
 		}
 		
 		@Override
@@ -760,6 +790,7 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 				return;
 			
 			backgroundSimulationWorker = null;
+			flightDataCache.put(key, simulation.getSimulatedData());
 			extraText.setFlightData(simulation.getSimulatedData());
 			extraText.setCalculatingData(false);
 			figure.repaint();
@@ -770,8 +801,7 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 		protected SimulationListener[] getExtraListeners() {
 			return new SimulationListener[] {
 					InterruptListener.INSTANCE,
-					ApogeeEndListener.INSTANCE,
-					exprListener };
+					ApogeeEndListener.INSTANCE };
 			
 		}
 		
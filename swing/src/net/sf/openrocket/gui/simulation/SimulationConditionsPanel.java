@@ -2,11 +2,18 @@ package net.sf.openrocket.gui.simulation;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EventObject;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
+import javax.swing.JFileChooser;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JSpinner;
 import javax.swing.event.ChangeEvent;
@@ -14,20 +21,28 @@ import javax.swing.event.ChangeListener;
 
 import net.miginfocom.swing.MigLayout;
 import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.file.wind.WindProfileLoader;
 import net.sf.openrocket.gui.SpinnerEditor;
 import net.sf.openrocket.gui.adaptors.BooleanModel;
 import net.sf.openrocket.gui.adaptors.DoubleModel;
 import net.sf.openrocket.gui.components.BasicSlider;
 import net.sf.openrocket.gui.components.UnitSelector;
+import net.sf.openrocket.gui.util.SwingPreferences;
 import net.sf.openrocket.l10n.Translator;
 import net.sf.openrocket.models.atmosphere.ExtendedISAModel;
+import net.sf.openrocket.models.wind.MeasuredWindModel;
 import net.sf.openrocket.simulation.DefaultSimulationOptionFactory;
 import net.sf.openrocket.simulation.SimulationOptions;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.unit.UnitGroup;
 import net.sf.openrocket.util.Chars;
+import net.sf.openrocket.util.StateChangeListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class SimulationConditionsPanel extends JPanel {
+	private static final Logger log = LoggerFactory.getLogger(SimulationConditionsPanel.class);
 	private static final Translator trans = Application.getTranslator();
 	
 	
@@ -164,6 +179,48 @@ public class SimulationConditionsPanel extends JPanel {
 		sub.add(slider, "w 75lp, wrap");
 		
 		
+		// Measured wind profile:
+		label = new JLabel(trans.get("simedtdlg.lbl.Windprofile"));
+		//// A measured wind profile overrides the average windspeed and direction.
+		tip = trans.get("simedtdlg.lbl.ttip.Windprofile");
+		label.setToolTipText(tip);
+		sub.add(label);
+		
+		final JLabel profileLabel = new JLabel(getWindProfileDescription(conditions.getWindProfile()));
+		profileLabel.setToolTipText(tip);
+		sub.add(profileLabel, "span, wrap rel");
+		
+		//// Load profile...
+		JButton loadProfile = new JButton(trans.get("simedtdlg.but.loadwindprofile"));
+		loadProfile.setToolTipText(tip);
+		loadProfile.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				loadWindProfile(conditions);
+			}
+		});
+		sub.add(loadProfile, "span, split 2, right");
+		
+		//// Clear profile
+		final JButton clearProfile = new JButton(trans.get("simedtdlg.but.clearwindprofile"));
+		clearProfile.setEnabled(conditions.getWindProfile() != null);
+		clearProfile.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				conditions.setWindProfile(null);
+			}
+		});
+		sub.add(clearProfile, "wrap");
+		
+		conditions.addChangeListener(new StateChangeListener() {
+			@Override
+			public void stateChanged(EventObject e) {
+				profileLabel.setText(getWindProfileDescription(conditions.getWindProfile()));
+				clearProfile.setEnabled(conditions.getWindProfile() != null);
+			}
+		});
+		
+		
 		
 		
 		//// Temperature and pressure
@@ -457,6 +514,44 @@ public class SimulationConditionsPanel extends JPanel {
 		
 	}
 	
+	private void loadWindProfile(SimulationOptions conditions) {
+		JFileChooser chooser = new JFileChooser();
+		chooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+		chooser.setCurrentDirectory(((SwingPreferences) Application.getPreferences()).getDefaultDirectory());
+		
+		int option = chooser.showOpenDialog(this);
+		if (option != JFileChooser.APPROVE_OPTION) {
+			return;
+		}
+		((SwingPreferences) Application.getPreferences()).setDefaultDirectory(chooser.getCurrentDirectory());
+		
+		File file = chooser.getSelectedFile();
+		InputStream is = null;
+		try {
+			is = new FileInputStream(file);
+			conditions.setWindProfile(new WindProfileLoader().load(is, file.getName()));
+		} catch (IOException e) {
+			log.warn("Error loading wind profile " + file, e);
+			JOptionPane.showMessageDialog(this, e.getLocalizedMessage(),
+					trans.get("simedtdlg.error.windprofile"), JOptionPane.ERROR_MESSAGE);
+		} finally {
+			if (is != null) {
+				try {
+					is.close();
+				} catch (IOException ignore) {
+				}
+			}
+		}
+	}
+	
+	private String getWindProfileDescription(MeasuredWindModel profile) {
+		if (profile == null)
+			//// None
+			return trans.get("simedtdlg.lbl.Windprofile.none");
+		//// altitude points
+		return profile.getPointCount() + " " + trans.get("simedtdlg.lbl.Windprofile.points");
+	}
+	
 	private String getIntensityDescription(double i) {
 		if (i < 0.001)
 			//// None
@@ -11,6 +11,7 @@ import java.util.Arrays;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JFileChooser;
 import javax.swing.JLabel;
@@ -50,6 +51,10 @@ public class SimulationExportPanel extends JPanel {
 	private static final int OPTION_FIELD_DESCRIPTIONS = 1;
 	private static final int OPTION_FLIGHT_EVENTS = 2;
 	
+	/** Maximum interpolation error of reduced data, relative to the range of each variable. */
+	private static final double REDUCED_DATA_TOLERANCE = 0.001;
+	private static final String REDUCE_DATA_PREFERENCE = "csvOptions.SimulationExportPanel.reduceData";
+	
 	private final JTable table;
 	private final SelectionTableModel tableModel;
 	private final JLabel selectedCountLabel;
@@ -62,6 +67,7 @@ public class SimulationExportPanel extends JPanel {
 	private final Unit[] units;
 	
 	private final CsvOptionPanel csvOptions;
+	private final JCheckBox reduceData;
 	
 	
 	public SimulationExportPanel(Simulation sim) {
@@ -175,6 +181,15 @@ public class SimulationExportPanel extends JPanel {
 		
 		this.add(csvOptions, "spany, split, growx 1");
 		
+		//// Reduce the number of exported data points
+		panel = new JPanel(new MigLayout("fill"));
+		panel.setBorder(BorderFactory.createTitledBorder(trans.get("SimExpPan.border.Datapoints")));
+		reduceData = new JCheckBox(trans.get("SimExpPan.checkbox.Reducedata"));
+		reduceData.setToolTipText(trans.get("SimExpPan.checkbox.ttip.Reducedata"));
+		reduceData.setSelected(Application.getPreferences().getBoolean(REDUCE_DATA_PREFERENCE, false));
+		panel.add(reduceData);
+		this.add(panel, "spany, split, growx 1");
+		
 		//// Add series selection box
 		ArrayList<String> stages = new ArrayList<String>();
 		stages.addAll(Util.generateSeriesLabels(simulation));
@@ -237,7 +252,9 @@ public class SimulationExportPanel extends JPanel {
 		boolean simulationComment = csvOptions.getSelectionOption(OPTION_SIMULATION_COMMENTS);
 		boolean fieldComment = csvOptions.getSelectionOption(OPTION_FIELD_DESCRIPTIONS);
 		boolean eventComment = csvOptions.getSelectionOption(OPTION_FLIGHT_EVENTS);
+		double tolerance = reduceData.isSelected() ? REDUCED_DATA_TOLERANCE : 0;
 		csvOptions.storePreferences();
+		Application.getPreferences().putBoolean(REDUCE_DATA_PREFERENCE, reduceData.isSelected());
 		
 		// Store preferences and export
 		int n = 0;
@@ -268,7 +285,7 @@ public class SimulationExportPanel extends JPanel {
 		
 		
 		SaveCSVWorker.export(file, simulation, branch, fieldTypes, fieldUnits, fieldSep,
-				commentChar, simulationComment, fieldComment, eventComment,
+				commentChar, simulationComment, fieldComment, eventComment, tolerance,
 				SwingUtilities.getWindowAncestor(this));
 		
 		return true;
@@ -10,11 +10,6 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 import javax.swing.JButton;
 import javax.swing.JDialog;
@@ -34,6 +29,7 @@ import net.sf.openrocket.rocketcomponent.Configuration;
 import net.sf.openrocket.rocketcomponent.IgnitionConfiguration;
 import net.sf.openrocket.rocketcomponent.MotorMount;
 import net.sf.openrocket.simulation.FlightEvent;
+import net.sf.openrocket.simulation.SimulationScheduler;
 import net.sf.openrocket.simulation.SimulationStatus;
 import net.sf.openrocket.simulation.customexpression.CustomExpression;
 import net.sf.openrocket.simulation.customexpression.CustomExpressionSimulationListener;
@@ -67,25 +63,11 @@ public class SimulationRunDialog extends JDialog {
 	
 	
 	/**
-	 * A single ThreadPoolExecutor that will be used for all simulations.
-	 * This executor must not be shut down.
+	 * The scheduler used for all simulations.
 	 */
-	private static final ThreadPoolExecutor executor;
+	private static final SimulationScheduler scheduler = SimulationScheduler.getDefault();
 	static {
-		int n = SwingPreferences.getMaxThreadCount();
-		executor = new ThreadPoolExecutor(n, n,
-				0L, TimeUnit.MILLISECONDS,
-				new LinkedBlockingQueue<Runnable>(),
-				new ThreadFactory() {
-					private ThreadFactory factory = Executors.defaultThreadFactory();
-					
-					@Override
-					public Thread newThread(Runnable r) {
-						Thread t = factory.newThread(r);
-						t.setDaemon(true);
-						return t;
-					}
-				});
+		scheduler.setThreadCount(SwingPreferences.getMaxThreadCount());
 	}
 	
 	
@@ -138,7 +120,7 @@ public class SimulationRunDialog extends JDialog {
 		for (int i = 0; i < n; i++) {
 			simulationNames[i] = simulations[i].getName();
 			simulationWorkers[i] = new InteractiveSimulationWorker(document, simulations[i], i);
-			executor.execute(simulationWorkers[i]);
+			scheduler.execute(simulationWorkers[i], SimulationScheduler.estimateCost(simulations[i]));
 		}
 		
 		// Build the dialog
@@ -206,7 +188,7 @@ public class SimulationRunDialog extends JDialog {
 		for (SimulationWorker w : simulationWorkers) {
 			w.cancel(true);
 		}
-		executor.purge();
+		scheduler.purge();
 	}
 	
 	
@@ -6,6 +6,7 @@ import javax.swing.SwingWorker;
 
 import net.sf.openrocket.document.Simulation;
 import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.SimulationScheduler;
 import net.sf.openrocket.simulation.SimulationStatus;
 import net.sf.openrocket.simulation.exception.SimulationCancelledException;
 import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
@@ -52,7 +53,7 @@ public abstract class SimulationWorker extends SwingWorker<FlightData, Simulatio
 		listeners[listeners.length - 1] = new CancelListener();
 		
 		try {
-			simulation.simulate(listeners);
+			SimulationScheduler.getDefault().simulate(simulation, listeners);
 		} catch (Throwable e) {
 			throwable = e;
 			return null;
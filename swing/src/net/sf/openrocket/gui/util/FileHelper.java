@@ -57,6 +57,14 @@ public final class FileHelper {
 	public static final FileFilter CSV_FILE_FILTER =
 			new SimpleFileFilter(trans.get("SimExpPan.desc"), ".csv");
 
+	/** File filter for STL files (*.stl) */
+	public static final FileFilter STL_FILTER =
+			new SimpleFileFilter(trans.get("filetypes.stl"), ".stl");
+
+	/** File filter for Wavefront OBJ files (*.obj) */
+	public static final FileFilter OBJ_FILTER =
+			new SimpleFileFilter(trans.get("filetypes.obj"), ".obj");
+
 
 
 
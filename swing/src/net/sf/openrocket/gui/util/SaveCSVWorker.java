@@ -34,11 +34,13 @@ public class SaveCSVWorker extends SwingWorker<Void, Void> {
 	private final boolean simulationComments;
 	private final boolean fieldComments;
 	private final boolean eventComments;
+	private final double tolerance;
 	
 	
 	public SaveCSVWorker(File file, Simulation simulation, FlightDataBranch branch,
 			FlightDataType[] fields, Unit[] units, String fieldSeparator, String commentStarter,
-			boolean simulationComments, boolean fieldComments, boolean eventComments) {
+			boolean simulationComments, boolean fieldComments, boolean eventComments,
+			double tolerance) {
 		this.file = file;
 		this.simulation = simulation;
 		this.branch = branch;
@@ -49,6 +51,7 @@ public class SaveCSVWorker extends SwingWorker<Void, Void> {
 		this.simulationComments = simulationComments;
 		this.fieldComments = fieldComments;
 		this.eventComments = eventComments;
+		this.tolerance = tolerance;
 	}
 
 
@@ -73,7 +76,7 @@ public class SaveCSVWorker extends SwingWorker<Void, Void> {
 		
 		try {
 			CSVExport.exportCSV(os, simulation, branch, fields, units, fieldSeparator, 
-					commentStarter, simulationComments, fieldComments, eventComments);
+					commentStarter, simulationComments, fieldComments, eventComments, tolerance);
 		} finally {
 			try {
 				os.close();
@@ -95,11 +98,25 @@ public class SaveCSVWorker extends SwingWorker<Void, Void> {
 			FlightDataType[] fields, Unit[] units, String fieldSeparator, String commentStarter,
 			boolean simulationComments, boolean fieldComments, boolean eventComments,
 			Window parent) {
+		return export(file, simulation, branch, fields, units, fieldSeparator, commentStarter,
+				simulationComments, fieldComments, eventComments, 0, parent);
+	}
+	
+	/**
+	 * Exports a CSV file using a progress dialog if necessary, omitting data points
+	 * that can be interpolated within the specified relative tolerance.
+	 *
+	 * @return	<code>true</code> if the save was successful, <code>false</code> otherwise.
+	 */
+	public static boolean export(File file, Simulation simulation, FlightDataBranch branch,
+			FlightDataType[] fields, Unit[] units, String fieldSeparator, String commentStarter,
+			boolean simulationComments, boolean fieldComments, boolean eventComments,
+			double tolerance, Window parent) {
 		
 
 		SaveCSVWorker worker = new SaveCSVWorker(file, simulation, branch, fields, units,
 				fieldSeparator, commentStarter, simulationComments, fieldComments, 
-				eventComments);
+				eventComments, tolerance);
 		
 	    if (!SwingWorkerDialog.runWorker(parent, "Exporting flight data", 
 	    		"Writing " + file.getName() + "...", worker)) {
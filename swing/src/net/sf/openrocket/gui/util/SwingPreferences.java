@@ -428,7 +428,9 @@ public class SwingPreferences extends net.sf.openrocket.startup.Preferences {
 		Simulation s = new Simulation(rocket);
 		SimulationOptions cond = s.getOptions();
 		
-		cond.setTimeStep(RK4SimulationStepper.RECOMMENDED_TIME_STEP * 2);
+		// Preview fidelity:  larger time steps and only the data needed for the summary values
+		cond.setTimeStep(RK4SimulationStepper.RECOMMENDED_TIME_STEP * 4);
+		cond.setSummaryDataOnly(true);
 		cond.setWindSpeedAverage(1.0);
 		cond.setWindSpeedDeviation(0.1);
 		cond.setLaunchRodLength(5);
@@ -0,0 +1,256 @@
+package net.sf.openrocket.startup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import net.sf.openrocket.util.BugException;
+
+/**
+ * A graph of startup tasks.  Each task runs once all the tasks it depends on
+ * have completed, either on a background thread or on the event dispatch thread.
+ * Independent tasks are run concurrently.
+ * <p>
+ * The start and end time of each task, as well as of phases timed by the caller,
+ * are recorded for the startup profile report.
+ */
+public class StartupTasks {
+
+	private final List<Task> tasks = new ArrayList<Task>();
+	private final List<Phase> phases = Collections.synchronizedList(new ArrayList<Phase>());
+
+	private final long baseNanos = System.nanoTime();
+	private final long baseUptime = getUptime();
+
+	private ExecutorService executor;
+
+
+	/**
+	 * Add a task that is run on a background thread.
+	 *
+	 * @param name			the name of the task shown in the profile report.
+	 * @param body			the task.
+	 * @param dependencies	the tasks that must complete before this task is run.
+	 * @return				the task.
+	 */
+	public Task add(String name, Runnable body, Task... dependencies) {
+		return add(name, body, false, dependencies);
+	}
+
+	/**
+	 * Add a task that is run on the event dispatch thread.
+	 *
+	 * @param name			the name of the task shown in the profile report.
+	 * @param body			the task.
+	 * @param dependencies	the tasks that must complete before this task is run.
+	 * @return				the task.
+	 */
+	public Task addEDT(String name, Runnable body, Task... dependencies) {
+		return add(name, body, true, dependencies);
+	}
+
+	private Task add(String name, Runnable body, boolean edt, Task... dependencies) {
+		if (executor != null) {
+			throw new IllegalStateException("Tasks already started");
+		}
+		Task task = new Task(name, body, edt, dependencies);
+		tasks.add(task);
+		return task;
+	}
+
+
+	/**
+	 * Start running the tasks.  Returns immediately.
+	 */
+	public void start() {
+		if (executor != null) {
+			throw new IllegalStateException("Tasks already started");
+		}
+		final AtomicInteger count = new AtomicInteger();
+		executor = Executors.newCachedThreadPool(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "StartupThread-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		for (final Task task : tasks) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					task.execute();
+				}
+			});
+		}
+		executor.shutdown();
+	}
+
+
+	/**
+	 * Block until the specified tasks have completed.  This method must not be called
+	 * from the event dispatch thread.
+	 *
+	 * @param await		the tasks to wait for.
+	 * @throws BugException	if one of the tasks, or a task it depends on, failed.
+	 */
+	public void await(Task... await) {
+		for (Task task : await) {
+			task.await();
+			if (task.failure != null) {
+				throw new BugException("Startup task '" + task.name + "' failed", task.failure);
+			}
+		}
+	}
+
+
+	/**
+	 * Record the timing of a phase that was run outside of the task graph.
+	 *
+	 * @param name			the name of the phase.
+	 * @param startNanos	the start time of the phase, as given by System.nanoTime().
+	 */
+	public void record(String name, long startNanos) {
+		phases.add(new Phase(name, startNanos, System.nanoTime(), Thread.currentThread().getName()));
+	}
+
+
+	/**
+	 * Return a report of the recorded phases, in order of starting time.  Times are
+	 * relative to the start of the JVM.
+	 */
+	public String getReport() {
+		List<Phase> list;
+		synchronized (phases) {
+			list = new ArrayList<Phase>(phases);
+		}
+		Collections.sort(list, new Comparator<Phase>() {
+			@Override
+			public int compare(Phase o1, Phase o2) {
+				return Long.compare(o1.start, o2.start);
+			}
+		});
+
+		StringBuilder sb = new StringBuilder();
+		sb.append("Startup profile (ms from JVM start):\n");
+		sb.append(String.format(Locale.ENGLISH, "  %-28s %8s %8s %8s  %s%n", "Phase", "Start", "End", "Time", "Thread"));
+		for (Phase p : list) {
+			sb.append(String.format(Locale.ENGLISH, "  %-28s %8d %8d %8d  %s%n", p.name, toMillis(p.start),
+					toMillis(p.end), (p.end - p.start) / 1000000, p.thread));
+		}
+		return sb.toString();
+	}
+
+	private long toMillis(long nanos) {
+		return baseUptime + (nanos - baseNanos) / 1000000;
+	}
+
+	private static long getUptime() {
+		try {
+			return ManagementFactory.getRuntimeMXBean().getUptime();
+		} catch (Throwable e) {
+			// Management beans are not available on all platforms
+			return 0;
+		}
+	}
+
+
+
+	/**
+	 * A task of the startup graph.
+	 */
+	public class Task {
+		private final String name;
+		private final Runnable body;
+		private final boolean edt;
+		private final Task[] dependencies;
+		private final CountDownLatch done = new CountDownLatch(1);
+		private volatile Throwable failure;
+
+		private Task(String name, Runnable body, boolean edt, Task[] dependencies) {
+			this.name = name;
+			this.body = body;
+			this.edt = edt;
+			this.dependencies = dependencies.clone();
+		}
+
+		private void execute() {
+			try {
+				for (Task dependency : dependencies) {
+					dependency.await();
+					if (dependency.failure != null) {
+						failure = dependency.failure;
+						return;
+					}
+				}
+
+				if (edt) {
+					SwingUtilities.invokeAndWait(new Runnable() {
+						@Override
+						public void run() {
+							runBody();
+						}
+					});
+				} else {
+					runBody();
+				}
+			} catch (InvocationTargetException e) {
+				failure = e.getCause();
+			} catch (Throwable e) {
+				failure = e;
+			} finally {
+				done.countDown();
+			}
+		}
+
+		private void runBody() {
+			long t0 = System.nanoTime();
+			try {
+				body.run();
+			} finally {
+				record(name, t0);
+			}
+		}
+
+		private void await() {
+			boolean interrupted = false;
+			while (true) {
+				try {
+					done.await();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static class Phase {
+		private final String name;
+		private final long start;
+		private final long end;
+		private final String thread;
+
+		public Phase(String name, long start, long end, String thread) {
+			this.name = name;
+			this.start = start;
+			this.end = end;
+			this.thread = thread;
+		}
+	}
+
+}
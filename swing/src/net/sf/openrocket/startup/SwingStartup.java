@@ -5,8 +5,9 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
 
-import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 import javax.swing.ToolTipManager;
 
@@ -32,7 +33,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.inject.Guice;
-import com.google.inject.Injector;
 import com.google.inject.Module;
 
 /**
@@ -44,10 +44,30 @@ public class SwingStartup {
 	
 	private final static Logger log = LoggerFactory.getLogger(SwingStartup.class);
 	
+	private volatile UpdateInfoRetriever updateInfo;
+	
+	/**
+	 * Command line option that prints the timing of the startup phases.
+	 */
+	public static final String STARTUP_PROFILE_OPTION = "--startup-profile";
+	
 	/**
 	 * OpenRocket startup main method.
 	 */
-	public static void main(final String[] args) throws Exception {
+	public static void main(String[] args) throws Exception {
+		
+		final StartupTasks tasks = new StartupTasks();
+		long t0 = System.nanoTime();
+		
+		boolean profile = false;
+		List<String> files = new ArrayList<String>();
+		for (String arg : args) {
+			if (arg.equals(STARTUP_PROFILE_OPTION)) {
+				profile = true;
+			} else {
+				files.add(arg);
+			}
+		}
 		
 		// Check for "openrocket.debug" property before anything else
 		checkDebugStatus();
@@ -59,8 +79,10 @@ public class SwingStartup {
 		// Initialize logging first so we can use it
 		initializeLogging();
 		log.info("Starting up OpenRocket version {}", BuildProperties.getVersion());
+		tasks.record("logging", t0);
 		
 		// Check that we're not running headless
+		t0 = System.nanoTime();
 		log.info("Checking for graphics head");
 		checkHead();
 		
@@ -68,19 +90,17 @@ public class SwingStartup {
 		if (SystemInfo.getPlatform() == Platform.MAC_OS) {
 			OSXSetup.setupOSX();
 		}
+		tasks.record("platform setup", t0);
 		
 		final SwingStartup runner = new SwingStartup();
-		
-		// Run the actual startup method in the EDT since it can use progress dialogs etc.
-		log.info("Moving startup to EDT");
-		SwingUtilities.invokeAndWait(new Runnable() {
-			@Override
-			public void run() {
-				runner.runInEDT(args);
-			}
-		});
+		runner.runStartup(tasks, files.toArray(new String[0]));
 		
 		log.info("Startup complete");
+		String report = tasks.getReport();
+		log.debug(report);
+		if (profile) {
+			System.out.print(report);
+		}
 		
 	}
 	
@@ -119,57 +139,119 @@ public class SwingStartup {
 	}
 	
 	/**
-	 * Run in the EDT when starting up OpenRocket.
+	 * Run the startup tasks and wait until the main window has been opened.
+	 * <p>
+	 * Swing components are initialized in the EDT while the injector, translations,
+	 * preferences and databases are initialized concurrently in background threads.
 	 *
+	 * @param tasks	the task graph to add the startup tasks to
 	 * @param args	command line arguments
 	 */
-	private void runInEDT(String[] args) {
+	private void runStartup(StartupTasks tasks, final String[] args) {
+		
+		final GuiModule guiModule = new GuiModule();
 		
 		// Initialize the splash screen with version info
-		log.info("Initializing the splash screen");
-		Splash.init();
+		StartupTasks.Task splash = tasks.addEDT("splash screen", new Runnable() {
+			@Override
+			public void run() {
+				log.info("Initializing the splash screen");
+				Splash.init();
+				
+				// Setup the uncaught exception handler
+				log.info("Registering exception handler");
+				SwingExceptionHandler exceptionHandler = new SwingExceptionHandler();
+				Application.setExceptionHandler(exceptionHandler);
+				exceptionHandler.registerExceptionHandler();
+			}
+		});
 		
-		// Setup the uncaught exception handler
-		log.info("Registering exception handler");
-		SwingExceptionHandler exceptionHandler = new SwingExceptionHandler();
-		Application.setExceptionHandler(exceptionHandler);
-		exceptionHandler.registerExceptionHandler();
+		StartupTasks.Task injector = tasks.add("injector", new Runnable() {
+			@Override
+			public void run() {
+				log.info("Creating injector");
+				Module pluginModule = new PluginModule();
+				Application.setInjector(Guice.createInjector(guiModule, pluginModule));
+			}
+		});
 		
 		// Load motors etc.
-		log.info("Loading databases");
+		StartupTasks.Task loaders = tasks.add("database loaders", new Runnable() {
+			@Override
+			public void run() {
+				log.info("Loading databases");
+				guiModule.startLoader();
+			}
+		}, injector);
 		
-		GuiModule guiModule = new GuiModule();
-		Module pluginModule = new PluginModule();
-		Injector injector = Guice.createInjector(guiModule, pluginModule);
-		Application.setInjector(injector);
+		StartupTasks.Task translator = tasks.add("translations", new Runnable() {
+			@Override
+			public void run() {
+				Application.getTranslator();
+			}
+		}, injector);
 		
-		guiModule.startLoader();
+		StartupTasks.Task preferences = tasks.add("preferences", new Runnable() {
+			@Override
+			public void run() {
+				// Start update info fetching
+				if (Application.getPreferences().getCheckUpdates()) {
+					log.info("Starting update check");
+					updateInfo = new UpdateInfoRetriever();
+					updateInfo.start();
+				} else {
+					log.info("Update check disabled");
+					updateInfo = null;
+				}
+				
+				// Load defaults
+				((SwingPreferences) Application.getPreferences()).loadDefaultUnits();
+			}
+		}, injector);
 		
-		// Start update info fetching
-		final UpdateInfoRetriever updateInfo;
-		if (Application.getPreferences().getCheckUpdates()) {
-			log.info("Starting update check");
-			updateInfo = new UpdateInfoRetriever();
-			updateInfo.start();
-		} else {
-			log.info("Update check disabled");
-			updateInfo = null;
-		}
+		StartupTasks.Task materials = tasks.add("materials", new Runnable() {
+			@Override
+			public void run() {
+				Databases.fakeMethod();
+			}
+		}, translator, preferences);
 		
 		// Set the best available look-and-feel
-		log.info("Setting best LAF");
-		GUIUtil.setBestLAF();
-		
-		// Set tooltip delay time.  Tooltips are used in MotorChooserDialog extensively.
-		ToolTipManager.sharedInstance().setDismissDelay(30000);
+		StartupTasks.Task laf = tasks.addEDT("look and feel", new Runnable() {
+			@Override
+			public void run() {
+				log.info("Setting best LAF");
+				GUIUtil.setBestLAF();
+				
+				// Set tooltip delay time.  Tooltips are used in MotorChooserDialog extensively.
+				ToolTipManager.sharedInstance().setDismissDelay(30000);
+			}
+		}, splash);
 		
-		// Load defaults
-		((SwingPreferences) Application.getPreferences()).loadDefaultUnits();
+		// Starting action (load files or open new document)
+		StartupTasks.Task window = tasks.addEDT("main window", new Runnable() {
+			@Override
+			public void run() {
+				log.info("Opening main application window");
+				openWindow(args);
+				
+				// Check whether update info has been fetched or whether it needs more time
+				log.info("Checking update status");
+				checkUpdateStatus(updateInfo);
+			}
+		}, laf, loaders, materials);
 		
-		Databases.fakeMethod();
+		tasks.start();
+		tasks.await(window);
 		
-		// Starting action (load files or open new document)
-		log.info("Opening main application window");
+	}
+	
+	/**
+	 * Open the files given on the command line, the last edited design or a new design.
+	 *
+	 * @param args	command line arguments
+	 */
+	private void openWindow(String[] args) {
 		if (!handleCommandLine(args)) {
 			if (!Application.getPreferences().isAutoOpenLastDesignOnStartupEnabled()) {
 				BasicFrame.newAction();
@@ -189,11 +271,6 @@ public class SwingStartup {
 				}
 			}
 		}
-		
-		// Check whether update info has been fetched or whether it needs more time
-		log.info("Checking update status");
-		checkUpdateStatus(updateInfo);
-		
 	}
 	
 	/**
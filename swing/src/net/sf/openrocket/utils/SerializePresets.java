@@ -3,7 +3,6 @@ package net.sf.openrocket.utils;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
-import java.io.ObjectOutputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
@@ -13,6 +12,7 @@ import net.sf.openrocket.file.iterator.DirectoryIterator;
 import net.sf.openrocket.file.iterator.FileIterator;
 import net.sf.openrocket.gui.util.SimpleFileFilter;
 import net.sf.openrocket.preset.ComponentPreset;
+import net.sf.openrocket.preset.ComponentPresetSnapshot;
 import net.sf.openrocket.preset.xml.OpenRocketComponentLoader;
 import net.sf.openrocket.util.Pair;
 
@@ -51,12 +51,11 @@ public class SerializePresets extends BasicApplication {
 		
 		System.out.println("Total number of presets = " + list.size());
 		
-		File outFile = new File("resources/datafiles/presets", "system.ser");
+		File outFile = new File("resources/datafiles/presets", "system." + ComponentPresetSnapshot.EXTENSION);
 		
 		FileOutputStream ofs = new FileOutputStream(outFile);
-		ObjectOutputStream oos = new ObjectOutputStream(ofs);
 		
-		oos.writeObject(list);
+		ComponentPresetSnapshot.write(ofs, list);
 		
 		ofs.flush();
 		ofs.close();
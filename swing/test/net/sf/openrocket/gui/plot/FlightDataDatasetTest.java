@@ -0,0 +1,98 @@
+package net.sf.openrocket.gui.plot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.unit.Unit;
+import net.sf.openrocket.unit.UnitGroup;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+
+import org.junit.Test;
+
+public class FlightDataDatasetTest extends BaseTestCase {
+
+	private static final int LENGTH = 20000;
+
+	private FlightDataBranch createBranch(String name, double start, int length) {
+		FlightDataBranch branch = new FlightDataBranch(name, FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		for (int i = 0; i < length; i++) {
+			double t = start + i * 0.01;
+			branch.addPoint();
+			branch.setValue(FlightDataType.TYPE_TIME, t);
+			branch.setValue(FlightDataType.TYPE_ALTITUDE, Math.sin(t * 3) + ((i % 997 == 0) ? 10 : 0));
+		}
+		return branch;
+	}
+
+	@Test
+	public void testUnitConversion() {
+		FlightDataBranch branch = createBranch("main", 0, 100);
+		Unit ms = UnitGroup.UNITS_TIME_STEP.getUnit("ms");
+		Unit feet = UnitGroup.UNITS_DISTANCE.getUnit("ft");
+		FlightDataDataset data = new FlightDataDataset(FlightDataType.TYPE_TIME, ms, 1000);
+		data.addSeries("Altitude", branch, FlightDataType.TYPE_ALTITUDE, feet);
+
+		assertEquals(1, data.getSeriesCount());
+		assertEquals(100, data.getItemCount(0));
+		assertEquals(500, data.getXValue(0, 50), 1e-9);
+		assertEquals(feet.toUnit(branch.getValue(FlightDataType.TYPE_ALTITUDE, 50)), data.getYValue(0, 50), 1e-9);
+		assertEquals(0, data.getDomainLowerBound(true), 1e-9);
+		assertEquals(990, data.getDomainUpperBound(true), 1e-9);
+	}
+
+	@Test
+	public void testSecondaryBranch() {
+		FlightDataBranch primary = createBranch("main", 0, 100);
+		FlightDataBranch booster = createBranch("booster", 0.305, 10);
+		Unit unit = UnitGroup.UNITS_NONE.getDefaultUnit();
+		FlightDataDataset data = new FlightDataDataset(FlightDataType.TYPE_TIME, unit, 1000);
+		data.addSeries("Main", primary, FlightDataType.TYPE_ALTITUDE, unit);
+		data.addSeries("Booster", primary, booster, FlightDataType.TYPE_ALTITUDE, unit);
+
+		// Primary points at 0.00 ... 0.30 precede the booster branch
+		assertEquals(31 + 10, data.getItemCount(1));
+		assertEquals(0.30, data.getXValue(1, 30), 1e-9);
+		assertEquals(0.305, data.getXValue(1, 31), 1e-9);
+		assertEquals("Booster", data.getSeriesDescription(1));
+	}
+
+	@Test
+	public void testDecimation() {
+		FlightDataBranch branch = createBranch("main", 0, LENGTH);
+		Unit unit = UnitGroup.UNITS_NONE.getDefaultUnit();
+		FlightDataDataset data = new FlightDataDataset(FlightDataType.TYPE_TIME, unit, 100);
+		data.addSeries("Altitude", branch, FlightDataType.TYPE_ALTITUDE, unit);
+		assertEquals(LENGTH, data.getItemCount(0));
+
+		// Full range keeps the envelope of every column
+		data.setDomainRange(0, (LENGTH - 1) * 0.01);
+		int count = data.getItemCount(0);
+		assertTrue(count <= 400);
+		assertEquals(0, data.getXValue(0, 0), 1e-9);
+		assertEquals((LENGTH - 1) * 0.01, data.getXValue(0, count - 1), 1e-9);
+		int spikes = 0;
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				assertTrue(data.getXValue(0, i) > data.getXValue(0, i - 1));
+			}
+			if (data.getYValue(0, i) > 5) {
+				spikes++;
+			}
+		}
+		assertEquals((LENGTH + 996) / 997, spikes);
+
+		// Zooming in plots all visible points and the envelope outside the range
+		data.setDomainRange(50, 51);
+		count = data.getItemCount(0);
+		int visible = 0;
+		for (int i = 0; i < count; i++) {
+			double x = data.getXValue(0, i);
+			if (x >= 50 && x <= 51) {
+				visible++;
+			}
+		}
+		assertEquals(101, visible, 1);
+		assertTrue(count <= visible + 8);
+	}
+}
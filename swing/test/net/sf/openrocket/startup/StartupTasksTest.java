@@ -0,0 +1,94 @@
+package net.sf.openrocket.startup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Vector;
+
+import javax.swing.SwingUtilities;
+
+import net.sf.openrocket.util.BugException;
+
+import org.junit.Test;
+
+public class StartupTasksTest {
+
+	@Test
+	public void testDependencyOrder() {
+		final List<String> order = new Vector<String>();
+		StartupTasks tasks = new StartupTasks();
+
+		StartupTasks.Task a = tasks.add("a", new Recorder(order, "a", false));
+		StartupTasks.Task b = tasks.add("b", new Recorder(order, "b", false), a);
+		StartupTasks.Task c = tasks.addEDT("c", new Recorder(order, "c", true), a);
+		StartupTasks.Task d = tasks.add("d", new Recorder(order, "d", false), b, c);
+
+		tasks.start();
+		tasks.await(d);
+
+		assertEquals(4, order.size());
+		assertEquals("a", order.get(0));
+		assertEquals("d", order.get(3));
+
+		String report = tasks.getReport();
+		for (String name : new String[] { "a", "b", "c", "d" }) {
+			assertTrue(report.contains("  " + name + " "));
+		}
+	}
+
+	@Test
+	public void testFailurePropagates() {
+		final List<String> order = new Vector<String>();
+		StartupTasks tasks = new StartupTasks();
+
+		StartupTasks.Task a = tasks.add("a", new Runnable() {
+			@Override
+			public void run() {
+				throw new IllegalStateException("failed");
+			}
+		});
+		StartupTasks.Task b = tasks.add("b", new Recorder(order, "b", false), a);
+
+		tasks.start();
+		try {
+			tasks.await(b);
+			fail();
+		} catch (BugException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		assertTrue(order.isEmpty());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testAddAfterStart() {
+		StartupTasks tasks = new StartupTasks();
+		tasks.start();
+		tasks.add("a", new Recorder(new Vector<String>(), "a", false));
+	}
+
+	private static class Recorder implements Runnable {
+		private final List<String> order;
+		private final String name;
+		private final boolean edt;
+
+		public Recorder(List<String> order, String name, boolean edt) {
+			this.order = order;
+			this.name = name;
+			this.edt = edt;
+		}
+
+		@Override
+		public void run() {
+			if (edt) {
+				assertTrue(SwingUtilities.isEventDispatchThread());
+			} else {
+				assertFalse(SwingUtilities.isEventDispatchThread());
+			}
+			order.add(name);
+		}
+	}
+
+}